@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.uima.ducc.agent.metrics.collectors.NodeUsersCollector;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessTableScanner;
 import org.apache.uima.ducc.common.NodeIdentity;
 import org.apache.uima.ducc.common.node.metrics.NodeUsersInfo;
 import org.apache.uima.ducc.common.utils.id.DuccId;
@@ -40,6 +41,7 @@ public interface Agent extends ProcessLifecycleController {
 	public boolean isRogueProcess(String uid, Set<NodeUsersCollector.ProcessInfo> processList, NodeUsersCollector.ProcessInfo cpi ) throws Exception;	
 	public void copyAllUserReservations(TreeMap<String,NodeUsersInfo> map);
 	public RogueProcessReaper getRogueProcessReaper();
+	public ProcessTableScanner getProcessTableScanner();
     public boolean isManagedProcess(Set<NodeUsersCollector.ProcessInfo> processList, NodeUsersCollector.ProcessInfo cpi);
     public int getOSPageSize();
 }
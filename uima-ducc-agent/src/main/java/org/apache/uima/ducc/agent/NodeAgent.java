@@ -69,6 +69,7 @@ import org.apache.uima.ducc.agent.launcher.ManagedProcess.StopPriority;
 import org.apache.uima.ducc.agent.launcher.SigKillCommand;
 import org.apache.uima.ducc.agent.launcher.SigTermCommand;
 import org.apache.uima.ducc.agent.metrics.collectors.NodeUsersCollector;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessTableScanner;
 import org.apache.uima.ducc.common.Node;
 import org.apache.uima.ducc.common.NodeIdentity;
 import org.apache.uima.ducc.common.admin.event.DuccAdminEvent;
@@ -168,7 +169,10 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
 
   private Object stopLock = new Object();
 
-  private RogueProcessReaper rogueProcessReaper = new RogueProcessReaper(logger, 5, 10);
+  // shared by all collectors which need the node's process table
+  private ProcessTableScanner processTableScanner = new ProcessTableScanner();
+
+  private RogueProcessReaper rogueProcessReaper = new RogueProcessReaper(logger, 5, 10, processTableScanner);
 
   public volatile boolean useCgroups = false;
 
@@ -382,6 +386,7 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
     numProcessors = getNodeProcessors();
 
     logger.info("NodeAgent", null, "OS Page Size:" + pageSize);
+    processTableScanner.setPageSize(pageSize);
 
     cpuClockRate = getOSClockRate();
     logger.info("NodeAgent", null, "OS Clock Rate:" + cpuClockRate);
@@ -691,6 +696,34 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
     return (Map<DuccId, IDuccProcess>)deepCopy;
   }
 
+  /**
+   * Returns deep copies of the processes whose state version differs from the
+   * version recorded in publishedVersions, or of all processes if full is true.
+   * publishedVersions is updated to the versions returned and pruned of
+   * processes no longer in the inventory.
+   */
+  public Map<DuccId, IDuccProcess> getInventoryChanges(Map<DuccId, Long> publishedVersions, boolean full) {
+    Map<DuccId, IDuccProcess> changes = new HashMap<DuccId, IDuccProcess>();
+    try {
+      inventorySemaphore.acquire();
+      publishedVersions.keySet().retainAll(inventory.keySet());
+      for (Entry<DuccId, IDuccProcess> entry : inventory.entrySet()) {
+        // read the version before copying. A change made during the copy
+        // is then picked up by the next call.
+        long version = entry.getValue().getStateVersion();
+        Long published = publishedVersions.get(entry.getKey());
+        if (full || published == null || published.longValue() != version) {
+          changes.put(entry.getKey(), (IDuccProcess) SerializationUtils.clone(entry.getValue()));
+          publishedVersions.put(entry.getKey(), version);
+        }
+      }
+    } catch (InterruptedException e) {
+    } finally {
+      inventorySemaphore.release();
+    }
+    return changes;
+  }
+
   /**
    * Returns shallow copy of the Agent's inventory
    */
@@ -1787,7 +1820,7 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
        	  // the process state is changed to Stopped and reason set to 'defunct'.
       	  // Next inventory publication will include this new state and the OR
        	  // can terminate a job.
-       	  defunctDetectorExecutor.execute(new DefunctProcessDetector(deployedProcess, logger));
+       	  defunctDetectorExecutor.execute(new DefunctProcessDetector(deployedProcess, processTableScanner, logger));
       }
       logger.info(methodName,
 			  deployedProcess.getDuccId(), "Inventory size:"+inventory.size()+" deployedProcesses size:"+deployedProcesses.size());
@@ -2274,6 +2307,10 @@ public class NodeAgent extends AbstractDuccComponent implements Agent, ProcessLi
     return rogueProcessReaper;
   }
 
+  public ProcessTableScanner getProcessTableScanner() {
+    return processTableScanner;
+  }
+
   /**
    * Called when an Agent receives self dispatched Ping message.
    */
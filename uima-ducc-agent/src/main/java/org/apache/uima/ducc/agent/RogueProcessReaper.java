@@ -30,6 +30,7 @@ import java.util.TreeMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessTableScanner;
 import org.apache.uima.ducc.common.node.metrics.NodeUsersInfo;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
@@ -59,7 +60,11 @@ public class RogueProcessReaper {
 
   private String reaperScript;
 
-  public RogueProcessReaper(DuccLogger logger, int counterValue, int cleanupCounterValue) {
+  private ProcessTableScanner processTableScanner;
+
+  public RogueProcessReaper(DuccLogger logger, int counterValue, int cleanupCounterValue,
+          ProcessTableScanner processTableScanner) {
+    this.processTableScanner = processTableScanner;
     // this.counterValue = counterValue;
     if (cleanupCounterValue > 0) {
       this.cleanupCounterValue = cleanupCounterValue;
@@ -148,6 +153,17 @@ public class RogueProcessReaper {
 
           }
           entry.resetCounter(counterValue);
+          // the pid may have exited and been reused since the last scan. Dont kill
+          // a process which is no longer the one marked as rogue.
+          ProcessTableScanner.ProcessEntry process = processTableScanner.read(pid);
+          if (process == null || !process.getUser().equals(user)) {
+            if (logger != null) {
+              logger.info(methodName, null, "Rogue Process PID:" + pid + " Owner:" + user
+                      + " No Longer Running - Removing Entry From RogueProcessMap");
+            }
+            userRogueProcessMap.remove(pid);
+            return;
+          }
           kill(user, pid);
           entry.killed();
         } else {
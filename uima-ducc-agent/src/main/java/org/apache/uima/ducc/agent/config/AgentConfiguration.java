@@ -232,13 +232,18 @@ public class AgentConfiguration {
   public synchronized RouteBuilder routeBuilderForIncomingRequests(final NodeAgent agent,
           final AgentEventListener delegate) {
     return new RouteBuilder() {
+      // Drops messages addressed to other nodes, e.g. the PM's per-node state, before
+      // their body is ever unmarshalled. Messages without a target go to every agent.
+      Predicate filter = new DuccNodeFilter(agent, common.agentRequestEndpoint,
+              DuccExchange.TARGET_NODES_HEADER_NAME, true);
+
       public void configure() {
         onException(Throwable.class).maximumRedeliveries(0)
                 .handled(false)
                 .process(new ErrorProcessor());
         from(common.agentRequestEndpoint).routeId("IncomingRequestsRoute")
         // .process(new DebugProcessor())
-                .bean(delegate);
+                .choice().when(filter).bean(delegate).end();
       }
     };
   }
@@ -258,7 +263,8 @@ public class AgentConfiguration {
       // Custom filter to select messages that are targeted for this agent
       // Checks the node list in a message to determine if this agent is
       // the target.
-      Predicate filter = new DuccNodeFilter(agent);
+      Predicate filter = new DuccNodeFilter(agent, common.managedProcessStateUpdateEndpoint,
+              DuccExchange.TARGET_NODES_HEADER_NAME, false);
 
       public void configure() {
         onException(Throwable.class).maximumRedeliveries(0).handled(true)
@@ -588,28 +594,49 @@ public class AgentConfiguration {
 		  
 	  }
   }
+  /**
+   * Selects messages whose header lists this agent among their target nodes.
+   */
   private class DuccNodeFilter implements Predicate {
     private NodeAgent agent = null;
-
-    public DuccNodeFilter(NodeAgent agent) {
+    private String endpoint;
+    private String header;
+    private boolean untargeted;
+
+    /**
+     * @param endpoint
+     *          - the endpoint the messages arrive on
+     * @param header
+     *          - the message header holding the target nodes
+     * @param untargeted
+     *          - whether a message without target nodes is for every agent
+     */
+    public DuccNodeFilter(NodeAgent agent, String endpoint, String header, boolean untargeted) {
       this.agent = agent;
+      this.endpoint = endpoint;
+      this.header = header;
+      this.untargeted = untargeted;
     }
 
     public synchronized boolean matches(Exchange exchange) {
       String methodName = "DuccNodeFilter.matches";
       boolean result = false;
-      if (common.managedProcessStateUpdateEndpoint.startsWith("mina")) {
+      if (endpoint.startsWith("mina")) {
         // mina is a socket component with point-to-point semantics thus
         // the client always sends a message to the correct agent. No reason
         // to determine if this is a target agent.
         result = true;
       } else {
         try {
-          String nodes = (String) exchange.getIn().getHeader(DuccExchange.TARGET_NODES_HEADER_NAME);
+          String nodes = (String) exchange.getIn().getHeader(header);
           logger.trace(methodName, null, ">>>>>>>>> Agent: [" + agent.getIdentity().getIp()
                   + "] Received a Message. Is Agent target for message:" + result
                   + ". Target Agents:" + nodes);
-          result = Utils.isTargetNodeForMessage(nodes, agent.getIdentity().getNodeIdentities());
+          if (untargeted && (nodes == null || nodes.trim().length() == 0)) {
+            result = true;
+          } else {
+            result = Utils.isTargetNodeForMessage(nodes, agent.getIdentity().getNodeIdentities());
+          }
         } catch (Throwable e) {
           e.printStackTrace();
           logger.error(methodName, null, e, new Object[] {});
@@ -64,6 +64,10 @@ public class AgentEventListener implements DuccEventDelegateListener {
 	// This cleanup will happen once right after processing of the first OR publication.
 	private boolean cleanupPhase = true;  
 	private AtomicLong lastSequence = new AtomicLong();
+	// Per-node PM state: the last epoch seen and the sequence of the last event that
+	// carried this node's own state
+	private long lastEpoch = 0;
+	private long lastTargetedSequence = -1;
 	private volatile boolean forceInventoryUpdateDueToSequence = false;
 	
 	private NodeAgent agent;
@@ -262,8 +266,13 @@ public class AgentEventListener implements DuccEventDelegateListener {
 				}
 				
 				// check for out of band messages. Expecting a message with a
-				// sequence number larger than the previous message.
-				if (sequence > lastSequence.get()) {
+				// sequence number larger than the previous message. State that
+				// the PM partitioned by node has its own rules.
+				if ( duccEvent.isPartitioned() ) {
+					if ( !acceptPartitionedState(duccEvent) ) {
+						return;
+					}
+				} else if (sequence > lastSequence.get()) {
 					lastSequence.set(sequence);
 					logger.info("reportIncomingStateForThisNode", null,
 							"Received OR Sequence:" + sequence + " Thread ID:"
@@ -317,6 +326,48 @@ public class AgentEventListener implements DuccEventDelegateListener {
 			logger.error("onDuccJobsStateEvent", null, e);
 		}
 	}
+	/**
+	 * Decide what to do with a PM publication that was partitioned by node. An event
+	 * targeted at this node carries all of its state and is reconciled like a full-list
+	 * event. The untargeted event that closes each epoch is only reconciled when nothing
+	 * arrived for this node in that epoch, in which case its empty lists mean there is no
+	 * work here. Events for other nodes are dropped.
+	 * 
+	 * @return true if the event should be reconciled
+	 */
+	private boolean acceptPartitionedState(DuccJobsStateEvent duccEvent) throws Exception {
+		String location = "acceptPartitionedState";
+		long sequence = duccEvent.getSequence();
+		String target = duccEvent.getTargetNode();
+		if ( target != null && !Utils.isThisNode(target, agent.getIdentity().getIp()) ) {
+			return false;
+		}
+		// the targeted event and the closing event of an epoch share a sequence
+		if ( sequence < lastSequence.get() || (target != null && sequence == lastSequence.get()) ) {
+			logger.warn(location, null, "Received Out of Band Message. Expected Sequence Greater Than "
+					+ lastSequence + " Received " + sequence + " Instead");
+			forceInventoryUpdateDueToSequence = true;
+			return false;
+		}
+		lastSequence.set(sequence);
+		if ( target != null ) {
+			lastTargetedSequence = sequence;
+			logger.info(location, null, "Received OR Sequence:" + sequence + " PM Epoch:" + duccEvent.getEpoch()
+					+ " Thread ID:" + Thread.currentThread().getId());
+			return true;
+		}
+
+		long epoch = duccEvent.getEpoch();
+		if ( lastEpoch > 0 && epoch > lastEpoch + 1 ) {
+			// we missed at least one publication; our state is reconciled below but
+			// make sure the OR gets a fresh inventory too
+			logger.warn(location, null, "Missed PM Epoch(s) " + (lastEpoch + 1) + " to " + (epoch - 1));
+			forceInventoryUpdateDueToSequence = true;
+		}
+		lastEpoch = epoch;
+		return lastTargetedSequence != sequence;
+	}
+	
 	/**
 	 * Wrapper method for Utils.isTargetNodeForMessage()
 	 * 
@@ -23,7 +23,6 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
@@ -38,6 +37,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.uima.ducc.agent.NodeAgent;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessTableScanner;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.transport.event.common.IDuccProcessType.ProcessType;
@@ -82,6 +82,8 @@ public class CGroupsManager {
 	private Set<String> containerIds = new LinkedHashSet<String>();
 	// stores cgroup base location
 	private String cgroupBaseDir = "";
+	// reads the node's process table, replaced by the agent's shared scanner in configure()
+	private ProcessTableScanner processTableScanner = new ProcessTableScanner();
 	// stores cgroup utils location like cgcreate, cgset, etc
 	private String cgroupUtilsDir=null;
 	// stores comma separated list of subsystems like cpu,memory
@@ -361,6 +363,7 @@ public class CGroupsManager {
 	}
 	public void configure(NodeAgent agent ) {
 		if ( agent != null ) {
+			processTableScanner = agent.getProcessTableScanner();
 			if ( agent.configurationFactory.maxRetryCount != null ) {
 				retryMax = Integer.valueOf(agent.configurationFactory.maxRetryCount);
 			}
@@ -795,6 +798,27 @@ public class CGroupsManager {
 		return location+id+"memory.stat";
 	}
 
+	/**
+	 * Returns the path to the cpuacct.usage file of a given container. Used by
+	 * samplers which keep the file open across metrics cycles.
+	 */
+	public String getCpuAccountingFile(String containerId) {
+		return composeCpuAccountingFileName(asContainerDir(containerId));
+	}
+	/**
+	 * Returns the path to the memory.stat file of a given container.
+	 */
+	public String getMemoryStatFile(String containerId) {
+		return composeMemoryStatFileName(asContainerDir(containerId));
+	}
+	private String asContainerDir(String containerId) {
+		containerId = containerId.trim();
+		if (!containerId.endsWith(System.getProperty("file.separator"))) {
+			containerId = containerId + System.getProperty("file.separator");
+		}
+		return containerId;
+	}
+
 	public boolean isCpuReportingEnabled() {
 //		String file = getCGroupLocation("cpuacct")+System.getProperty("file.separator")+"cpuacct.usage";
 	
@@ -1309,34 +1333,10 @@ public class CGroupsManager {
 	public Set<NodeProcessInfo> getProcessesOnNode() throws Exception {
 		String location = "getProcessesOnNode";
 		Set<NodeProcessInfo> processList = new HashSet<NodeProcessInfo>();
-		InputStream stream = null;
-		BufferedReader reader = null;
 		try {
-
-			ProcessBuilder pb = new ProcessBuilder("ps", "-Ao",
-					"user:32,pid,ppid,args,stat", "--no-heading");
-			pb.redirectErrorStream(true);
-			java.lang.Process proc = pb.start();
-			// spawn ps command and scrape the output
-			stream = proc.getInputStream();
-			reader = new BufferedReader(new InputStreamReader(
-					stream));
-			String line;
-			String regex = "\\s+";
-
-			// read the next line from ps output
-			while ((line = reader.readLine()) != null) {
-
-				String tokens[] = line.split(regex);
-				String user = tokens[0];
-				String pid = tokens[1];
-				String ppid = tokens[2];
-                String stat = tokens[4];
-                
-				if (tokens.length > 0) {
-
-					processList.add(new NodeProcessInfo(pid, ppid, user, stat));
-				}
+			for (ProcessTableScanner.ProcessEntry process : processTableScanner.scan()) {
+				processList.add(new NodeProcessInfo(process.getPid(), process.getPpid(),
+						process.getUser(), String.valueOf(process.getState())));
 			}
 		} catch (Exception e) {
 			if (agentLogger == null) {
@@ -1344,10 +1344,6 @@ public class CGroupsManager {
 			} else {
 				agentLogger.error(location, null, e);
 			}
-		} finally {
-			if ( reader != null ) {
-				reader.close();
-			}
 		}
 		return processList;
 
@@ -18,9 +18,7 @@
  */
 package org.apache.uima.ducc.agent.launcher;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessTableScanner;
 import org.apache.uima.ducc.common.NodeIdentity;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
@@ -33,44 +31,18 @@ import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
 public class DefunctProcessDetector implements Runnable {
 	ManagedProcess childProcess;
 	DuccLogger logger;
-	public DefunctProcessDetector(ManagedProcess process, DuccLogger logger) {
+	ProcessTableScanner processTableScanner;
+	public DefunctProcessDetector(ManagedProcess process, ProcessTableScanner processTableScanner, DuccLogger logger) {
 		childProcess = process;
+		this.processTableScanner = processTableScanner;
 		this.logger = logger;
 	}
 	private  boolean isDefunctProcess(String pid) throws Exception {
-		boolean zombie = false;
-		InputStreamReader in = null;
-		String[] command = {
-				"/bin/ps",
-				"-ef",
-				pid};
-		try {
-			ProcessBuilder pb = new ProcessBuilder();
-			pb.command(command);
-
-			pb.redirectErrorStream(true);
-			java.lang.Process childProcess = pb.start();
-			in = new InputStreamReader(childProcess.getInputStream());
-			BufferedReader reader = new BufferedReader(in);
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				// the ps line will have string <defunct> if the 
-				// process is a zombie
-				zombie = (line.indexOf("defunct") > 0);
-				if ( zombie ) {
-   				   logger.info("DefunctProcessDetector.isDefunctProcess", null, "Process with PID:"+pid+" Is Defunct - OS reports:"+line);
-				    break;
-				}
-			}
-		} catch (Exception e) {
-			throw e;
-		} finally {
-			if (in != null) {
-				try {
-					in.close();
-				} catch (Exception e) {
-				}
-			}
+		ProcessTableScanner.ProcessEntry process = processTableScanner.read(pid);
+		// a zombie process is in state Z, ps shows it as <defunct>
+		boolean zombie = ( process != null && process.isZombie() );
+		if ( zombie ) {
+			logger.info("DefunctProcessDetector.isDefunctProcess", null, "Process with PID:"+pid+" Is Defunct - OS reports:"+process);
 		}
 		return zombie;
 	}
@@ -101,7 +73,7 @@ public class DefunctProcessDetector implements Runnable {
 			process.setProcessState(ProcessState.Initializing);
 			process.setPID(args[0]);
 			p.setPid(args[0]);
-			DefunctProcessDetector detector = new DefunctProcessDetector(p, logger);
+			DefunctProcessDetector detector = new DefunctProcessDetector(p, new ProcessTableScanner(), logger);
 			detector.run();
 		} catch( Exception e) {
 			e.printStackTrace();
@@ -19,58 +19,57 @@
 package org.apache.uima.ducc.agent.metrics.collectors;
 
 import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.File;
+import java.io.FileReader;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
 import java.util.concurrent.Callable;
 
+import org.apache.uima.ducc.agent.Agent;
 import org.apache.uima.ducc.common.node.metrics.NodeCpuInfo;
+import org.apache.uima.ducc.common.utils.DuccLogger;
 
 
 
 public class NodeCpuCollector implements Callable<NodeCpuInfo> {
 
+  private static DuccLogger logger = DuccLogger.getLogger(NodeCpuCollector.class, Agent.COMPONENT_NAME);
+
   public NodeCpuInfo call() throws Exception {
     OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
     return new NodeCpuInfo(osBean.getAvailableProcessors(), String.valueOf(getCPULoad()));
   }
+	/**
+	 * Computes (user + system) * 100 / (user + system + idle) from the aggregate
+	 * cpu line of /proc/stat. Returns 0 if /proc/stat is not available.
+	 */
 	private double getCPULoad() throws Exception {
+		String methodName = "getCPULoad";
 		double cpu = 0.0;
-		InputStreamReader in = null;
-		String[] command = {
-				"/bin/sh",
-				"-c",
-				"/bin/grep 'cpu' /proc/stat | /bin/awk '{usage=($2+$4)*100/($2+$4+$5)} END {print usage}'" };
+		File stat = new File("/proc/stat");
+		if (!stat.exists()) {
+			return cpu;
+		}
+		BufferedReader reader = new BufferedReader(new FileReader(stat));
 		try {
-			ProcessBuilder pb = new ProcessBuilder();
-			pb.command(command);
-
-			pb.redirectErrorStream(true);
-			Process swapCollectorProcess = pb.start();
-			in = new InputStreamReader(swapCollectorProcess.getInputStream());
-			BufferedReader reader = new BufferedReader(in);
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				System.out.println(line);
-				try {
-					cpu = Double.parseDouble(line.trim());
-				} catch (NumberFormatException e) {
-					cpu = 0;
-					e.printStackTrace();
+			String line = reader.readLine();
+			// first line: cpu  user nice system idle iowait irq softirq ...
+			if (line != null && line.startsWith("cpu")) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length > 4) {
+					long user = Long.parseLong(fields[1]);
+					long system = Long.parseLong(fields[3]);
+					long idle = Long.parseLong(fields[4]);
+					if (user + system + idle > 0) {
+						cpu = (user + system) * 100.0 / (user + system + idle);
+					}
 				}
 			}
-		} catch (Exception e) {
-			throw e;
+		} catch (NumberFormatException e) {
+			logger.warn(methodName, null, "Unable to parse /proc/stat", e);
 		} finally {
-			if (in != null) {
-				try {
-					in.close();
-				} catch (Exception e) {
-				}
-
-			}
+			reader.close();
 		}
-
 		return cpu;
 	}
 }
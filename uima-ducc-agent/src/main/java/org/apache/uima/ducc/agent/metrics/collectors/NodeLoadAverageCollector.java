@@ -18,9 +18,8 @@
  */
 package org.apache.uima.ducc.agent.metrics.collectors;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
 
 import org.apache.uima.ducc.common.node.metrics.NodeLoadAverage;
@@ -36,33 +35,19 @@ public class NodeLoadAverageCollector implements
 		return collect();
 	}
 
+	/**
+	 * Reads load averages from /proc/loadavg, which holds the same values
+	 * uptime reports: "0.52 0.58 0.59 1/234 5678".
+	 */
 	private NodeLoadAverage collect() throws Exception {
-		InputStream stream = null;
-		BufferedReader reader = null;
 		UptimeNodeLoadAverage uptimeLoadAverage = new UptimeNodeLoadAverage();
-		ProcessBuilder pb = new ProcessBuilder("uptime");
-		;
-		pb.redirectErrorStream(true);
-		Process proc = pb.start();
-		// spawn uptime command and scrape the output
-		stream = proc.getInputStream();
-		reader = new BufferedReader(new InputStreamReader(stream));
-		String line;
-		String regex = "\\s+";
-		String filter = "load average:";
-		// read the next line from ps output
-		while ((line = reader.readLine()) != null) {
-			int pos = 0;
-			if ((pos = line.indexOf(filter)) > -1) {
-				String la = line.substring(pos + filter.length()).replaceAll(
-						regex, "");
-				String[] averages = la.split(",");
-				uptimeLoadAverage.setLoadAvg1(averages[0]);
-				uptimeLoadAverage.setLoadAvg5(averages[1]);
-				uptimeLoadAverage.setLoadAvg15(averages[2]);
-			}
+		byte[] content = Files.readAllBytes(Paths.get("/proc/loadavg"));
+		String[] averages = new String(content).trim().split("\\s+");
+		if (averages.length >= 3) {
+			uptimeLoadAverage.setLoadAvg1(averages[0]);
+			uptimeLoadAverage.setLoadAvg5(averages[1]);
+			uptimeLoadAverage.setLoadAvg15(averages[2]);
 		}
-		proc.waitFor();
 		return uptimeLoadAverage;
 	}
 }
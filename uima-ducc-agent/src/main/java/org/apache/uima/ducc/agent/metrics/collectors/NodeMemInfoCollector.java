@@ -18,10 +18,11 @@
 */
 package org.apache.uima.ducc.agent.metrics.collectors;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -34,9 +35,21 @@ import org.apache.uima.ducc.common.utils.Utils;
 public class NodeMemInfoCollector implements CallableMemoryCollector {
 	private long fakeMemorySize = -1;
 	private String[] targetFields;
+	private byte[][] targetLabels;
+	private FileChannel memInfo;
+	private ProcessTableScanner processTableScanner;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
     private int uidMax = 500;   // default. Used to sum up memory of processes owned by uids < uidMax
 	public NodeMemInfoCollector(String[] targetFields) {
+		this(targetFields, new ProcessTableScanner());
+	}
+	public NodeMemInfoCollector(String[] targetFields, ProcessTableScanner processTableScanner) {
 		this.targetFields = targetFields;
+		this.processTableScanner = processTableScanner;
+		targetLabels = new byte[targetFields.length][];
+		for (int i = 0; i < targetFields.length; i++) {
+			targetLabels[i] = targetFields[i].getBytes();
+		}
 		String tmp;
 		
 		if ((tmp = System
@@ -51,87 +64,79 @@ public class NodeMemInfoCollector implements CallableMemoryCollector {
 		uidMax = Utils.getMaxSystemUserId();
 	}
 
-	public NodeMemory call() throws Exception {
-
-		BufferedReader fileReader = new BufferedReader(new FileReader(
-				"/proc/meminfo"));
+	/**
+	 * Reads /proc/meminfo through a channel which stays open across calls. The
+	 * collector is meant to be created once and called every publishing cycle.
+	 */
+	public synchronized NodeMemory call() throws Exception {
 		// the order of fields corresponds to the field label position
 		long memInfoValues[] = new long[targetFields.length];
 		try {
-			String line;
-			// Read each line from meminfo file
-			while ((line = fileReader.readLine()) != null) {
-				// parse line and remove spaces
-				String[] parts = line.trim().split("\\s+");
-
-				// ignore lines that contain fields we dont need. The
-				// targetFields array
-				// contains labels of fields we are interested in. For each line
-				// read
-				// from file try to find a match.
-				for (int i = 0; i < targetFields.length; i++) {
-					if (parts[0].equals(targetFields[i])) {
-						// got a field we need
-						try {
-							memInfoValues[i] = Long.parseLong(parts[1]);
-						} catch (NumberFormatException e) {
-							throw e;
+			if ( memInfo == null ) {
+				memInfo = FileChannel.open(Paths.get("/proc/meminfo"), StandardOpenOption.READ);
+			}
+			buffer.clear();
+			while (buffer.hasRemaining() && memInfo.read(buffer, buffer.position()) > 0) {
+			}
+			int limit = buffer.position();
+			int pos = 0;
+			// Each line is "<label> <value> kB". Match the label against the
+			// targetFields and parse the value in place.
+			while (pos < limit) {
+				for (int i = 0; i < targetLabels.length; i++) {
+					if (startsWith(pos, limit, targetLabels[i])) {
+						int p = pos + targetLabels[i].length;
+						while (p < limit && buffer.get(p) == ' ') {
+							p++;
 						}
+						long value = 0;
+						byte b;
+						while (p < limit && (b = buffer.get(p)) >= '0' && b <= '9') {
+							value = value * 10 + (b - '0');
+							p++;
+						}
+						memInfoValues[i] = value;
 						break; // get the next field
 					}
 				}
+				while (pos < limit && buffer.get(pos++) != '\n') {
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
+			close();
 			throw e;
-		} finally {
-			fileReader.close();
 		}
 		long memUsed = 0;
 		// if running ducc in simulation mode skip memory adjustment. Report free memory = fakeMemorySize
 		if ( fakeMemorySize == -1 ) {
 			// sum up memory of all processes owned by UIDs < gidMax 
-			memUsed = collectRSSFromPSCommand();
+			memUsed = processTableScanner.getResidentMemoryOfUidsBelow(uidMax);
 			//System.out.println("Total:"+memInfoValues[0] + " Available:"+memInfoValues[1] +" Calculated:"+(memInfoValues[0] - memUsed)+" Priviledged Memory:"+memUsed);
 		}
 		
 		memInfoValues[1] = memInfoValues[0] - memUsed;
 		return new NodeMemoryInfo(memInfoValues, fakeMemorySize);
 	}
-	private long collectRSSFromPSCommand() throws Exception {
-		InputStream stream = null;
-	    BufferedReader reader = null;
-	  
-	      ProcessBuilder pb;
-	      if ( Utils.isMac() ) {
-	        pb = new ProcessBuilder("ps","-Ao","user=,pid=,uid=,rss=");
-	      } else {
-	        pb = new ProcessBuilder("ps","-Ao","user:32,pid,uid,rss", "--no-heading");
-	      }
-	      pb.redirectErrorStream(true);
-	      Process proc = pb.start();
-	      //  spawn ps command and scrape the output
-	      stream = proc.getInputStream();
-	      reader = new BufferedReader(new InputStreamReader(stream));
-	      String line;
-	      String regex = "\\s+";
-	      long memoryUsed = 0;
-	      // read the next line from ps output
-	      while ((line = reader.readLine()) != null) {
-	          String tokens[] = line.split(regex);
-	          if ( tokens.length > 0 ) {
-	        	  try {
-	        		  int uid = Integer.valueOf(tokens[2]);
-	        		  if ( uid < uidMax ) {
-	        			  memoryUsed += Long.valueOf(tokens[3]);
-	        		  }
-	        	  } catch( NumberFormatException nfe) {
-	        		  
-	        	  }
-	          }
-	      }	
-	      stream.close();
-	      return memoryUsed;
+	private boolean startsWith(int pos, int limit, byte[] label) {
+		if (pos + label.length > limit) {
+			return false;
+		}
+		for (int i = 0; i < label.length; i++) {
+			if (buffer.get(pos + i) != label[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	public synchronized void close() {
+		if ( memInfo != null ) {
+			try {
+				memInfo.close();
+			} catch( IOException e) {
+			}
+			memInfo = null;
+		}
 	}
 	public static void main(String[] args) {
 	    String[] meminfoTargetFields = new String[] {"MemTotal:","MemFree:","SwapTotal:","SwapFree:"};
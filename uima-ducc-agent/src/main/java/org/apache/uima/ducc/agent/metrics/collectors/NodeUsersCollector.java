@@ -18,9 +18,6 @@
 */
 package org.apache.uima.ducc.agent.metrics.collectors;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -39,7 +36,7 @@ import org.apache.uima.ducc.common.utils.id.IDuccId;
 import org.apache.uima.ducc.transport.event.common.IDuccProcess;
 
 /**
- * Spawns "ps -ef --no-heading" cmd and scrapes the output to collect user processes. 
+ * Scans the node's process table to collect user processes. 
  * 
  * Detects and filters out Ducc daemon processes and AMQ broker.
  * 
@@ -236,24 +233,11 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
     TreeMap<String,NodeUsersInfo> map = new TreeMap<String,NodeUsersInfo>();
 
     List<String> currentPids = new ArrayList<String>();
-    InputStream stream = null;
-    BufferedReader reader = null;
     try {
 
-      ProcessBuilder pb;
-      if ( Utils.isMac() ) {
-        pb = new ProcessBuilder("ps","-Ao","user=,pid=,ppid=,uid=,args=");
-      } else {
-        pb = new ProcessBuilder("ps","-Ao","user:32,pid,ppid,uid,args", "--no-heading");
-      }
-      pb.redirectErrorStream(true);
-      Process proc = pb.start();
-      //  spawn ps command and scrape the output
-      stream = proc.getInputStream();
-      reader = new BufferedReader(new InputStreamReader(stream));
-      String line;
-      String regex = "\\s+";
+      List<ProcessTableScanner.ProcessEntry> procList = new ArrayList<ProcessTableScanner.ProcessEntry>();
       if ( agent != null ) {
+         procList = agent.getProcessTableScanner().scan();
          // copy all known reservations reported by the OR
          agent.copyAllUserReservations(map);
       }
@@ -286,36 +270,24 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
       //     process parent if its own by ducc.
       // #2 - the actual rogue process detection loop
       
-      List<String> procList = new ArrayList<String>();
-      // read the next line from ps output
-      while ((line = reader.readLine()) != null) {
-    	  // save line for subsequent processing in the for..loop below
-    	  procList.add(line);
-          String tokens[] = line.split(regex);
-          if ( tokens.length > 0 ) {
-          	RunningProcess p = 
-                      new RunningProcess(tokens[1],tokens[2],tokens[0]);
-            // add process to a list which is used to look up each process parent
-          	tempProcessList.add(p);
-          }
+      for( ProcessTableScanner.ProcessEntry process : procList ) {
+          RunningProcess p = 
+                  new RunningProcess(process.getPid(),process.getPpid(),process.getUser());
+          // add process to a list which is used to look up each process parent
+          tempProcessList.add(p);
       }
       // the above loop filled tempProcessList, so now detect rogue processes.
-      for( String procInfo : procList) {
-        String tokens[] = procInfo.split(regex);
-        String user = tokens[0];
-        String pid = tokens[1];
-        String ppid = tokens[2];
-        String uid = tokens[3];
-        String cmd = tokens[4];
+      for( ProcessTableScanner.ProcessEntry process : procList) {
+        String tokens[] = process.getArgs().split("\\s+");
+        String user = process.getUser();
+        String pid = process.getPid();
+        String ppid = process.getPpid();
+        String cmd = process.getCommand();
         
         if ( tokens.length > 0 ) {
-        	try {
-        		// by convention processes owned by uid < gidMax are system processes thus not rogue
-        		if ( Integer.valueOf(uid) < uidMax ) {
-        			continue;    
-        		}
-        	} catch( NumberFormatException nfe) {
-        		
+        	// by convention processes owned by uid < gidMax are system processes thus not rogue
+        	if ( process.getUid() < uidMax ) {
+        		continue;    
         	}
         	//	walk up the tree of ancestor processes to check if any is owned by ducc. If so, this
             //  process is not rogue.
@@ -342,7 +314,7 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
           if ( logger == null ) {
             //System.out.print(line);
           } else {
-            logger.trace(location, null, line);
+            logger.trace(location, null, process);
           }
           //  Check if current process is owned by a user that should be excluded
           //  from rogue process detection. A list of excluded users is in ducc.properties
@@ -427,12 +399,6 @@ public class NodeUsersCollector implements CallableNodeUsersCollector {
       } else {
         logger.error(location, null, e);
       }
-    } finally {
-    	if ( reader != null ) {
-    		try {
-    			reader.close();
-    		} catch( Exception exx){}
-    	}
     }
     StringBuffer sb = new StringBuffer();
     // if no processes found, clear rogue process list and list of processes associated with a reserve
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent.metrics.collectors;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Samples the metrics of a single process from /proc/&lt;pid&gt;/stat, statm and
+ * status and, when the process runs in a cgroup container, from the container's
+ * memory.stat and cpuacct.usage files.
+ * <p>
+ * Each file is opened once and re-read from offset 0 on every cycle into a
+ * direct buffer owned by the sampler. Values are parsed straight from the
+ * bytes into a reusable {@link Sample}, so a steady state cycle does not
+ * allocate. Cgroup values take precedence, /proc files are only read for
+ * values the cgroup could not provide. A sampler belongs to one metrics
+ * processor and is not thread safe.
+ */
+public class ProcessMetricsSampler {
+	private static final int STAT = 0;
+	private static final int STATM = 1;
+	private static final int STATUS = 2;
+	private static final int MEMORY_STAT = 3;
+	private static final int CPUACCT_USAGE = 4;
+
+	private static final byte[] RSS = "rss".getBytes();
+	private static final byte[] SWAP = "swap".getBytes();
+	private static final byte[] PGPGIN = "pgpgin".getBytes();
+	private static final byte[] VMSWAP = "VmSwap:".getBytes();
+
+	// fields following the command name in /proc/<pid>/stat, counted from the state field
+	private static final int STAT_MAJFLT = 9;
+	private static final int STAT_UTIME = 11;
+	private static final int STAT_STIME = 12;
+
+	private final String[] paths = new String[5];
+	private final FileChannel[] channels = new FileChannel[5];
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+	private final Sample sample = new Sample();
+	private final long pageSize;
+	private final long clockRate;
+	// parse position within the buffer
+	private int pos;
+
+	/**
+	 * @param pid - process id
+	 * @param memoryStatFile - cgroup memory.stat path or null when cgroups are not used
+	 * @param cpuAccountingFile - cgroup cpuacct.usage path or null when cgroups are not used
+	 * @param pageSize - OS page size in bytes
+	 * @param clockRate - OS clock ticks per second
+	 */
+	public ProcessMetricsSampler(String pid, String memoryStatFile, String cpuAccountingFile, int pageSize, int clockRate) {
+		paths[STAT] = "/proc/" + pid + "/stat";
+		paths[STATM] = "/proc/" + pid + "/statm";
+		paths[STATUS] = "/proc/" + pid + "/status";
+		paths[MEMORY_STAT] = memoryStatFile;
+		paths[CPUACCT_USAGE] = cpuAccountingFile;
+		this.pageSize = pageSize;
+		this.clockRate = clockRate > 0 ? clockRate : 100;
+	}
+
+	/**
+	 * Takes one sample. The returned instance is reused by the next call.
+	 */
+	public Sample sample() {
+		sample.reset();
+		int limit;
+		if ((limit = read(MEMORY_STAT)) > 0) {
+			parseMemoryStat(limit);
+		}
+		if ((limit = read(CPUACCT_USAGE)) > 0) {
+			pos = 0;
+			long nanos = parseLong(limit);
+			if (nanos >= 0) {
+				sample.cpuTimeMillis = nanos / 1000000;
+			}
+		}
+		if ((sample.majorFaults < 0 || sample.cpuTimeMillis < 0) && (limit = read(STAT)) > 0) {
+			parseStat(limit);
+		}
+		if (sample.rss < 0 && (limit = read(STATM)) > 0) {
+			pos = 0;
+			skipToken(limit);
+			long pages = parseLong(limit);
+			if (pages >= 0) {
+				sample.rss = pages * pageSize;
+			}
+		}
+		if (sample.swap < 0 && (limit = read(STATUS)) > 0) {
+			int start = findLine(VMSWAP, limit);
+			if (start >= 0) {
+				pos = start + VMSWAP.length;
+				long kb = parseLong(limit);
+				if (kb >= 0) {
+					sample.swap = kb * 1024;
+				}
+			}
+		}
+		return sample;
+	}
+
+	public void close() {
+		for (int i = 0; i < channels.length; i++) {
+			closeChannel(i);
+		}
+	}
+
+	private void parseMemoryStat(int limit) {
+		int found = 0;
+		pos = 0;
+		while (pos < limit && found < 3) {
+			if (matchKey(RSS, limit)) {
+				sample.rss = parseLong(limit);
+				found++;
+			} else if (matchKey(SWAP, limit)) {
+				sample.swap = parseLong(limit);
+				found++;
+			} else if (matchKey(PGPGIN, limit)) {
+				sample.majorFaults = parseLong(limit);
+				found++;
+			}
+			skipLine(limit);
+		}
+	}
+
+	private void parseStat(int limit) {
+		// the command name may contain spaces and parentheses, fields start after the last ')'
+		int p = limit - 1;
+		while (p >= 0 && buffer.get(p) != ')') {
+			p--;
+		}
+		if (p < 0) {
+			return;
+		}
+		pos = p + 1;
+		for (int field = 0; field < STAT_MAJFLT; field++) {
+			skipToken(limit);
+		}
+		long majflt = parseLong(limit);
+		skipToken(limit);   // cmajflt
+		long utime = parseLong(limit);
+		long stime = parseLong(limit);
+		if (sample.majorFaults < 0) {
+			sample.majorFaults = majflt;
+		}
+		if (sample.cpuTimeMillis < 0 && utime >= 0 && stime >= 0) {
+			sample.cpuTimeMillis = ((utime + stime) * 1000) / clockRate;
+		}
+	}
+
+	/**
+	 * Returns true if the line at the current position starts with the given key
+	 * followed by a space, leaving the position after the key.
+	 */
+	private boolean matchKey(byte[] key, int limit) {
+		if (pos + key.length >= limit) {
+			return false;
+		}
+		for (int i = 0; i < key.length; i++) {
+			if (buffer.get(pos + i) != key[i]) {
+				return false;
+			}
+		}
+		if (buffer.get(pos + key.length) != ' ') {
+			return false;
+		}
+		pos += key.length;
+		return true;
+	}
+
+	private int findLine(byte[] key, int limit) {
+		pos = 0;
+		while (pos < limit) {
+			int start = pos;
+			int i = 0;
+			while (i < key.length && start + i < limit && buffer.get(start + i) == key[i]) {
+				i++;
+			}
+			if (i == key.length) {
+				return start;
+			}
+			skipLine(limit);
+		}
+		return -1;
+	}
+
+	private void skipLine(int limit) {
+		while (pos < limit && buffer.get(pos++) != '\n') {
+		}
+	}
+
+	private void skipToken(int limit) {
+		while (pos < limit && isBlank(buffer.get(pos))) {
+			pos++;
+		}
+		while (pos < limit && !isBlank(buffer.get(pos))) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Parses a non-negative decimal number at the current position, skipping
+	 * leading blanks. Returns -1 if there is no number there.
+	 */
+	private long parseLong(int limit) {
+		while (pos < limit && isBlank(buffer.get(pos))) {
+			pos++;
+		}
+		long value = 0;
+		int start = pos;
+		while (pos < limit) {
+			byte b = buffer.get(pos);
+			if (b < '0' || b > '9') {
+				break;
+			}
+			value = value * 10 + (b - '0');
+			pos++;
+		}
+		return pos == start ? -1 : value;
+	}
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\n';
+	}
+
+	/**
+	 * Reads the whole file into the buffer and returns the number of bytes read,
+	 * or -1 if the file is not configured or cannot be read. A channel that
+	 * fails is closed and reopened on the next cycle.
+	 */
+	private int read(int which) {
+		if (paths[which] == null) {
+			return -1;
+		}
+		try {
+			if (channels[which] == null) {
+				channels[which] = FileChannel.open(Paths.get(paths[which]), StandardOpenOption.READ);
+			}
+			buffer.clear();
+			while (buffer.hasRemaining() && channels[which].read(buffer, buffer.position()) > 0) {
+			}
+			return buffer.position();
+		} catch (IOException e) {
+			closeChannel(which);
+			return -1;
+		}
+	}
+
+	private void closeChannel(int which) {
+		if (channels[which] != null) {
+			try {
+				channels[which].close();
+			} catch (IOException e) {
+			}
+			channels[which] = null;
+		}
+	}
+
+	/**
+	 * Metrics of one process. A value of -1 means the metric was not available.
+	 */
+	public static class Sample {
+		/** resident memory in bytes */
+		public long rss;
+		/** swap usage in bytes */
+		public long swap;
+		/** major faults, or pages read in (pgpgin) when sampled from a cgroup */
+		public long majorFaults;
+		/** total user and system CPU time in millis */
+		public long cpuTimeMillis;
+
+		void reset() {
+			rss = swap = majorFaults = cpuTimeMillis = -1;
+		}
+	}
+}
@@ -0,0 +1,453 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.agent.metrics.collectors;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.utils.Utils;
+
+/**
+ * Reads the node's process table directly from /proc instead of spawning ps.
+ * <p>
+ * A single scanner is shared by the agent. Each scan reads /proc/&lt;pid&gt;/stat
+ * for every process into a buffer reused across scans. The owner and command
+ * line of a process do not change, so /proc/&lt;pid&gt;/status and cmdline are
+ * only read the first time a PID is seen (or when a PID is reused by a new
+ * process). On systems without /proc the scanner falls back to ps.
+ */
+public class ProcessTableScanner {
+	private static final String PROC = "/proc";
+	private static final byte[] UID = "Uid:".getBytes();
+
+	// fields following the command name in /proc/<pid>/stat, counted from the state field
+	private static final int STAT_PPID = 1;
+	private static final int STAT_STARTTIME = 19;
+	private static final int STAT_RSS = 21;
+
+	private final boolean procAvailable = new File(PROC + "/self/stat").exists();
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+	private ByteBuffer cmdline = ByteBuffer.allocate(4096);
+	private final Map<Integer, String> userNames = new HashMap<Integer, String>();
+	private Map<String, ProcessEntry> table = new HashMap<String, ProcessEntry>();
+	private long pageSizeKB = 4;
+	// values parsed from the last stat file read
+	private char state;
+	private String ppid;
+	private long startTime;
+	private long rssPages;
+	private int commStart;
+	private int commEnd;
+
+	public ProcessTableScanner() {
+	}
+
+	/**
+	 * Sets the OS page size in bytes, used to convert resident pages into KB.
+	 */
+	public synchronized void setPageSize(int pageSize) {
+		if (pageSize >= 1024) {
+			pageSizeKB = pageSize / 1024;
+		}
+	}
+
+	/**
+	 * Returns all processes currently running on the node. Entries are immutable
+	 * snapshots and may be kept by the caller.
+	 */
+	public synchronized List<ProcessEntry> scan() throws Exception {
+		if (!procAvailable) {
+			return scanWithPs();
+		}
+		String[] pids = new File(PROC).list();
+		List<ProcessEntry> processes = new ArrayList<ProcessEntry>(pids == null ? 0 : pids.length);
+		if (pids == null) {
+			return processes;
+		}
+		Map<String, ProcessEntry> current = new HashMap<String, ProcessEntry>(pids.length * 2);
+		for (String pid : pids) {
+			if (pid.isEmpty() || pid.charAt(0) < '0' || pid.charAt(0) > '9') {
+				continue;
+			}
+			ProcessEntry entry = readEntry(pid);
+			if (entry != null) {
+				current.put(pid, entry);
+				processes.add(entry);
+			}
+		}
+		// drops entries of processes which exited since the last scan
+		table = current;
+		return processes;
+	}
+
+	/**
+	 * Reads a single process. Returns null if the process is not running.
+	 */
+	public synchronized ProcessEntry read(String pid) throws Exception {
+		if (!procAvailable) {
+			for (ProcessEntry entry : scanWithPs()) {
+				if (entry.getPid().equals(pid)) {
+					return entry;
+				}
+			}
+			return null;
+		}
+		ProcessEntry entry = readEntry(pid);
+		if (entry == null) {
+			table.remove(pid);
+		} else {
+			table.put(pid, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the sum of resident memory (KB) of processes owned by users with
+	 * uid below the given value.
+	 */
+	public long getResidentMemoryOfUidsBelow(int uidMax) throws Exception {
+		long memoryUsed = 0;
+		for (ProcessEntry entry : scan()) {
+			if (entry.getUid() < uidMax) {
+				memoryUsed += entry.getRss();
+			}
+		}
+		return memoryUsed;
+	}
+
+	private ProcessEntry readEntry(String pid) {
+		String dir = PROC + "/" + pid;
+		int limit = readFile(dir + "/stat", buffer);
+		if (limit <= 0 || !parseStat(limit)) {
+			return null;
+		}
+		ProcessEntry previous = table.get(pid);
+		if (previous != null && previous.startTime == startTime) {
+			return new ProcessEntry(previous, ppid, state, rssPages * pageSizeKB);
+		}
+		// new process, or the PID has been reused. Fetch owner and command line.
+		String name = getCommandName();
+		limit = readFile(dir + "/status", buffer);
+		int uid = limit > 0 ? parseUid(limit) : -1;
+		if (uid < 0) {
+			return null;
+		}
+		String user = getUserName(uid, dir);
+		if (user == null) {
+			return null;   // process exited
+		}
+		String args = readCommandLine(dir + "/cmdline");
+		if (args == null || args.isEmpty()) {
+			// kernel threads have no command line, ps shows their name instead
+			args = "[" + name + "]";
+		}
+		return new ProcessEntry(user, pid, ppid, uid, rssPages * pageSizeKB, state, args, startTime);
+	}
+
+	/**
+	 * Parses state, ppid, starttime and rss from the stat file in the buffer. The
+	 * command name may contain spaces and parentheses, fields start after the last ')'.
+	 */
+	private boolean parseStat(int limit) {
+		int open = 0;
+		while (open < limit && buffer.get(open) != '(') {
+			open++;
+		}
+		int close = limit - 1;
+		while (close > open && buffer.get(close) != ')') {
+			close--;
+		}
+		if (close <= open || close + 2 >= limit) {
+			return false;
+		}
+		int pos = close + 2;
+		commStart = open + 1;
+		commEnd = close;
+		state = (char) buffer.get(pos);
+		long parent = -1;
+		long start = -1;
+		long pages = -1;
+		int field = 0;
+		while (pos < limit && field <= STAT_RSS) {
+			// advance to the next field
+			while (pos < limit && buffer.get(pos) != ' ') {
+				pos++;
+			}
+			pos++;
+			field++;
+			if (field == STAT_PPID || field == STAT_STARTTIME || field == STAT_RSS) {
+				long value = 0;
+				byte b;
+				while (pos < limit && (b = buffer.get(pos)) >= '0' && b <= '9') {
+					value = value * 10 + (b - '0');
+					pos++;
+				}
+				if (field == STAT_PPID) {
+					parent = value;
+				} else if (field == STAT_STARTTIME) {
+					start = value;
+				} else {
+					pages = value;
+				}
+			}
+		}
+		if (parent < 0 || start < 0 || pages < 0) {
+			return false;
+		}
+		ppid = String.valueOf(parent);
+		startTime = start;
+		rssPages = pages;
+		return true;
+	}
+
+	/**
+	 * Returns the command name found by the last {@link #parseStat(int)}.
+	 */
+	private String getCommandName() {
+		byte[] name = new byte[commEnd - commStart];
+		for (int i = 0; i < name.length; i++) {
+			name[i] = buffer.get(commStart + i);
+		}
+		return new String(name);
+	}
+
+	/**
+	 * Resolves a uid to a user name through the owner of the process /proc
+	 * directory, which goes through the system's user database like ps does.
+	 * Names are cached. A process which is not dumpable has its /proc
+	 * directory owned by root, in that case the numeric uid is returned.
+	 */
+	private String getUserName(int uid, String dir) {
+		String user = userNames.get(uid);
+		if (user == null) {
+			try {
+				if (((Integer) Files.getAttribute(Paths.get(dir), "unix:uid")).intValue() != uid) {
+					return String.valueOf(uid);
+				}
+				user = Files.getOwner(Paths.get(dir)).getName();
+			} catch (IOException e) {
+				return null;
+			}
+			userNames.put(uid, user);
+		}
+		return user;
+	}
+
+	/**
+	 * Returns the effective uid from the "Uid:" line of a status file in the buffer.
+	 */
+	private int parseUid(int limit) {
+		int pos = 0;
+		while (pos < limit) {
+			int i = 0;
+			while (i < UID.length && pos + i < limit && buffer.get(pos + i) == UID[i]) {
+				i++;
+			}
+			if (i == UID.length) {
+				pos += UID.length;
+				// Uid: real effective saved filesystem
+				for (int field = 0; field < 2; field++) {
+					while (pos < limit && (buffer.get(pos) == ' ' || buffer.get(pos) == '\t')) {
+						pos++;
+					}
+					int value = 0;
+					byte b;
+					while (pos < limit && (b = buffer.get(pos)) >= '0' && b <= '9') {
+						value = value * 10 + (b - '0');
+						pos++;
+					}
+					if (field == 1) {
+						return value;
+					}
+				}
+			}
+			while (pos < limit && buffer.get(pos++) != '\n') {
+			}
+		}
+		return -1;
+	}
+
+	private String readCommandLine(String file) {
+		int length = readFile(file, cmdline);
+		while (length == cmdline.capacity()) {
+			// command line did not fit, grow the buffer and read again
+			cmdline = ByteBuffer.allocate(cmdline.capacity() * 2);
+			length = readFile(file, cmdline);
+		}
+		if (length <= 0) {
+			return null;
+		}
+		byte[] bytes = cmdline.array();
+		// arguments are separated (and terminated) by NUL
+		while (length > 0 && bytes[length - 1] == 0) {
+			length--;
+		}
+		for (int i = 0; i < length; i++) {
+			if (bytes[i] == 0) {
+				bytes[i] = ' ';
+			}
+		}
+		return new String(bytes, 0, length);
+	}
+
+	/**
+	 * Reads a file into a given buffer. Returns the number of bytes read, or -1
+	 * if the file could not be read, typically because the process exited.
+	 */
+	private int readFile(String file, ByteBuffer target) {
+		target.clear();
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+			while (target.hasRemaining() && channel.read(target) > 0) {
+			}
+			return target.position();
+		} catch (IOException e) {
+			return -1;
+		} finally {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private List<ProcessEntry> scanWithPs() throws Exception {
+		List<ProcessEntry> processes = new ArrayList<ProcessEntry>();
+		ProcessBuilder pb;
+		if (Utils.isMac()) {
+			pb = new ProcessBuilder("ps", "-Ao", "user=,pid=,ppid=,uid=,rss=,state=,args=");
+		} else {
+			pb = new ProcessBuilder("ps", "-Ao", "user:32,pid,ppid,uid,rss,state,args", "--no-heading");
+		}
+		pb.redirectErrorStream(true);
+		Process proc = pb.start();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(proc.getInputStream()));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] tokens = line.trim().split("\\s+", 7);
+				if (tokens.length < 7) {
+					continue;
+				}
+				try {
+					processes.add(new ProcessEntry(tokens[0], tokens[1], tokens[2], Integer.parseInt(tokens[3]),
+							Long.parseLong(tokens[4]), tokens[5].charAt(0), tokens[6], 0));
+				} catch (NumberFormatException e) {
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return processes;
+	}
+
+	/**
+	 * A process as seen by the last scan. Equivalent of a line of
+	 * "ps -Ao user,pid,ppid,uid,rss,state,args".
+	 */
+	public static class ProcessEntry {
+		private final String user;
+		private final String pid;
+		private final String ppid;
+		private final int uid;
+		private final long rss;
+		private final char state;
+		private final String args;
+		private final long startTime;
+
+		ProcessEntry(String user, String pid, String ppid, int uid, long rss, char state, String args, long startTime) {
+			this.user = user;
+			this.pid = pid;
+			this.ppid = ppid;
+			this.uid = uid;
+			this.rss = rss;
+			this.state = state;
+			this.args = args;
+			this.startTime = startTime;
+		}
+
+		ProcessEntry(ProcessEntry previous, String ppid, char state, long rss) {
+			this(previous.user, previous.pid, ppid, previous.uid, rss, state, previous.args, previous.startTime);
+		}
+
+		public String getUser() {
+			return user;
+		}
+
+		public String getPid() {
+			return pid;
+		}
+
+		public String getPpid() {
+			return ppid;
+		}
+
+		public int getUid() {
+			return uid;
+		}
+
+		/**
+		 * @return resident memory in KB
+		 */
+		public long getRss() {
+			return rss;
+		}
+
+		/**
+		 * @return process state as reported by the kernel, e.g. R, S, D or Z
+		 */
+		public char getState() {
+			return state;
+		}
+
+		public boolean isZombie() {
+			return state == 'Z';
+		}
+
+		public String getArgs() {
+			return args;
+		}
+
+		/**
+		 * @return name of the executable, the first word of the command line
+		 */
+		public String getCommand() {
+			int pos = args.indexOf(' ');
+			return pos < 0 ? args : args.substring(0, pos);
+		}
+
+		public String toString() {
+			return user + " " + pid + " " + ppid + " " + uid + " " + rss + " " + state + " " + args;
+		}
+	}
+}
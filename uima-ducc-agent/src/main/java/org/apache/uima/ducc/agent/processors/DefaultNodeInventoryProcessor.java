@@ -20,7 +20,6 @@ package org.apache.uima.ducc.agent.processors;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.apache.camel.Exchange;
@@ -38,9 +37,10 @@ import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
  */
 public class DefaultNodeInventoryProcessor implements NodeInventoryProcessor {
 	DuccLogger logger = new DuccLogger(this.getClass(), "AGENT");
-	boolean inventoryChanged = true;
 	private NodeAgent agent;
-	private Map<DuccId, IDuccProcess> previousInventory;
+	// state version of each process as of its last publication
+	private Map<DuccId, Long> publishedVersions = new HashMap<DuccId, Long>();
+	private boolean publishDeltas = true;
 	private int forceInventoryUpdateMaxThreshold = 0;
 	private long counter = 0;
 
@@ -56,6 +56,10 @@ public class DefaultNodeInventoryProcessor implements NodeInventoryProcessor {
 		if (forceInventoryUpdateMaxThreshold == 0) {
 			forceInventoryUpdateMaxThreshold = 1;
 		}
+		String deltas = System.getProperty("ducc.agent.node.inventory.publish.delta");
+		if (deltas != null) {
+			publishDeltas = Boolean.parseBoolean(deltas.trim());
+		}
 	}
 
 	/**
@@ -70,125 +74,28 @@ public class DefaultNodeInventoryProcessor implements NodeInventoryProcessor {
 	 */
 	public void process(Exchange outgoingMessage) throws Exception {
 		String methodName = "process";
-		// Get a deep copy of agent's inventory
-		Map<DuccId, IDuccProcess> inventory = getInventory();
-		// Determine if the inventory changed since the last publishing was done
-		// First check if the inventory expanded or shrunk. If the same in size,
-		// compare process states and PID. If either of the two changed for any
-		// of the processes trigger immediate publish. If no changes found,
-		// publish
-		// according to skip counter
-		// (ducc.agent.node.inventory.publish.rate.skip)
-		// configured in ducc.properties.
-		if (previousInventory != null) {
-			if ( agent.getEventListener().forceInvotoryUpdate()) {
-				inventoryChanged = true;
-				agent.getEventListener().resetForceInventoryUpdateFlag();
-			}
-			if (inventory.size() != previousInventory.size()) {
-				inventoryChanged = true;
-			} else {
-				// Inventory maps are equal in size, check if all processes in
-				// the current
-				// inventory exist in the previous inventory snapshot. If not,
-				// it means that
-				// that perhaps a new process was added and one was removed. In
-				// this case,
-				// force the publish, since there was a change.
-				for (Map.Entry<DuccId, IDuccProcess> currentProcess : inventory
-						.entrySet()) {
-					// Check if a process in the current inventory exists in a
-					// previous
-					// inventory snapshot
-					if (previousInventory.containsKey(currentProcess.getKey())) {
-						IDuccProcess previousProcess = previousInventory
-								.get(currentProcess.getKey());
-						// check if either PID or process state has changed
-						if (currentProcess.getValue().getPID() != null
-								&& previousProcess.getPID() == null) {
-							inventoryChanged = true;
-							break;
-						} else if (!currentProcess.getValue().getProcessState()
-								.equals(previousProcess.getProcessState())) {
-							inventoryChanged = true;
-							break;
-						} else {
-							List<IUimaPipelineAEComponent> breakdown = currentProcess
-									.getValue().getUimaPipelineComponents();
-							if (breakdown != null && breakdown.size() > 0) {
-								List<IUimaPipelineAEComponent> previousBreakdown = previousProcess
-										.getUimaPipelineComponents();
-								if (previousBreakdown == null
-										|| previousBreakdown.size() == 0
-										|| breakdown.size() != previousBreakdown
-												.size()) {
-									inventoryChanged = true;
-								} else {
-									for (IUimaPipelineAEComponent uimaAeState : breakdown) {
-										boolean found = false;
-										for (IUimaPipelineAEComponent previousUimaAeState : previousBreakdown) {
-											if (uimaAeState.getAeName().equals(
-													previousUimaAeState
-															.getAeName())) {
-												found = true;
-												if (!uimaAeState
-														.getAeState()
-														.equals(previousUimaAeState
-																.getAeState())
-														|| uimaAeState
-																.getInitializationTime() != previousUimaAeState
-																.getInitializationTime()) {
-													inventoryChanged = true;
-													break;
-												}
-											}
-										}
-										if (!found) {
-											inventoryChanged = true;
-										}
-
-										if (inventoryChanged) {
-											break;
-										}
-
-									}
-								}
-
-							}
-						}
-					} else {
-						// New inventory contains a process not in the previous
-						// snapshot
-						inventoryChanged = true;
-						break;
-					}
-				}
-			}
+		// Publish processes whose state version changed since the last
+		// publication (new process, PID assigned, state, pipeline, exit code or
+		// reason changed). The whole inventory, including the latest metrics of
+		// processes which did not change, is published every
+		// forceInventoryUpdateMaxThreshold epochs as configured with
+		// ducc.agent.node.inventory.publish.rate.skip in ducc.properties,
+		// or when the agent detected that it missed an OR state publication.
+		// With ducc.agent.node.inventory.publish.delta=false any change
+		// triggers a publication of the whole inventory instead.
+		boolean full = (counter % forceInventoryUpdateMaxThreshold) == 0;
+		if ( agent.getEventListener().forceInvotoryUpdate()) {
+			full = true;
+			agent.getEventListener().resetForceInventoryUpdateFlag();
 		}
-
-		// Get this inventory snapshot
-		previousInventory = inventory;
-		// Broadcast inventory if there is a change or configured number of
-		// epochs
-		// passed since the last broadcast. This is configured in
-		// ducc.properties with
-		// property ducc.agent.node.inventory.publish.rate.skip
 		try {
-			if (inventory.size() > 0 && (inventoryChanged || // if there is
-																// inventory
-																// change,
-																// publish
-					forceInventoryUpdateMaxThreshold == 0 || // skip rate in
-																// ducc.properties
-																// is zero,
-																// publish
-					(counter > 0 && (counter % forceInventoryUpdateMaxThreshold) == 0))) { // if
-																							// reached
-																							// skip
-																							// rate,
-																							// publish
-
-				StringBuffer sb = new StringBuffer("Node Inventory ("
+			Map<DuccId, IDuccProcess> inventory = agent.getInventoryChanges(publishedVersions, full);
+			if (!publishDeltas && !full && inventory.size() > 0) {
+				full = true;
+				inventory = agent.getInventoryChanges(publishedVersions, true);
+			}
+			if (inventory.size() > 0) {
+				StringBuffer sb = new StringBuffer((full ? "Node Inventory (" : "Node Inventory Changes (")
 						+ inventory.size() + ")");
 				for (Map.Entry<DuccId, IDuccProcess> p : inventory.entrySet()) {
 					/*
@@ -260,7 +167,7 @@ public class DefaultNodeInventoryProcessor implements NodeInventoryProcessor {
 				logger.info(methodName, null, "Agent "
 						+ agent.getIdentity().getCanonicalName() + " Posting Inventory:"
 						+ sb.toString());
-				outgoingMessage.getIn().setBody(new NodeInventoryUpdateDuccEvent(inventory,agent.getLastORSequence(), agent.getIdentity()));
+				outgoingMessage.getIn().setBody(new NodeInventoryUpdateDuccEvent(inventory,agent.getLastORSequence(), agent.getIdentity(), !full));
 
 			} else {
 				// Add null to the body of the message. A filter
@@ -272,12 +179,7 @@ public class DefaultNodeInventoryProcessor implements NodeInventoryProcessor {
 		} catch (Exception e) {
 			logger.error(methodName, null, e);
 		} finally {
-			if (inventoryChanged) {
-				counter = 0;
-			} else {
-				counter++;
-			}
-			inventoryChanged = false;
+			counter = full ? 1 : counter + 1;
 		}
 	}
 
@@ -46,6 +46,8 @@ public class DefaultNodeMetricsProcessor extends BaseProcessor implements
 	private  NodeAgent agent;
 	
 	private ExecutorService pool = Executors.newFixedThreadPool(1);
+
+	private DefaultNodeMemoryCollector collector = new DefaultNodeMemoryCollector();
 	
 	DuccLogger logger = DuccLogger.getLogger(this.getClass(), Agent.COMPONENT_NAME);
 	
@@ -61,7 +63,6 @@ public class DefaultNodeMetricsProcessor extends BaseProcessor implements
 	  String methodName = "process";
 	  try {
 
-	    DefaultNodeMemoryCollector collector = new DefaultNodeMemoryCollector();
 	    Future<NodeMemory> nmiFuture = pool.submit(collector);
 
 	    DefaultNodeLoadAverageCollector loadAvgCollector = 
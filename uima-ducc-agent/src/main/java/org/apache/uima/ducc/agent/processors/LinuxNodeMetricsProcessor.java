@@ -52,6 +52,8 @@ public class LinuxNodeMetricsProcessor extends BaseProcessor implements
     private String osversion;
     private String osarch;
 	private final ExecutorService pool;
+	// reused across publications, keeps /proc/meminfo open
+	private NodeMemInfoCollector memCollector;
 	private RandomAccessFile memInfoFile;
 	private RandomAccessFile loadAvgFile;
 	//private Node node;
@@ -81,6 +83,7 @@ public class LinuxNodeMetricsProcessor extends BaseProcessor implements
 	}
 	public void setAgent(NodeAgent agent) {
 		this.agent = agent;
+		memCollector = new NodeMemInfoCollector(MeminfoTargetFields, agent.getProcessTableScanner());
 	}
 	public void initMemInfo(String memInfoFilePath) throws Exception {
 		this.memInfoFile = new RandomAccessFile(memInfoFilePath, "r");
@@ -92,6 +95,9 @@ public class LinuxNodeMetricsProcessor extends BaseProcessor implements
 
 	public void stop() {
 		try {
+			if (memCollector != null) {
+				memCollector.close();
+			}
 			if (memInfoFile != null) {
 				memInfoFile.close();
 			}
@@ -124,7 +130,6 @@ public class LinuxNodeMetricsProcessor extends BaseProcessor implements
 				}
 			}
 
-			NodeMemInfoCollector memCollector = new NodeMemInfoCollector(MeminfoTargetFields);
 			Future<NodeMemory> nmiFuture = pool.submit(memCollector);
 
 			NodeLoadAverageCollector loadAvgCollector = new NodeLoadAverageCollector();
@@ -19,22 +19,12 @@
 package org.apache.uima.ducc.agent.processors;
 
 import java.io.FileNotFoundException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.apache.camel.Exchange;
 import org.apache.uima.ducc.agent.NodeAgent;
 import org.apache.uima.ducc.agent.launcher.ManagedProcess;
 import org.apache.uima.ducc.agent.metrics.collectors.DuccGarbageStatsCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessCpuUsageCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessMajorFaultCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessResidentMemoryCollector;
-import org.apache.uima.ducc.agent.metrics.collectors.ProcessSwapUsageCollector;
-import org.apache.uima.ducc.common.agent.metrics.cpu.ProcessCpuUsage;
-import org.apache.uima.ducc.common.agent.metrics.memory.ProcessResidentMemory;
-import org.apache.uima.ducc.common.agent.metrics.swap.ProcessMemoryPageLoadUsage;
-import org.apache.uima.ducc.common.agent.metrics.swap.ProcessSwapSpaceUsage;
+import org.apache.uima.ducc.agent.metrics.collectors.ProcessMetricsSampler;
 import org.apache.uima.ducc.common.node.metrics.ProcessGarbageCollectionStats;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.Utils;
@@ -50,7 +40,7 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 	
 	private long previousSnapshotTime = 0;
 
-	private final ExecutorService pool;
+	private ProcessMetricsSampler sampler;
 
 	private IDuccProcess process;
 
@@ -77,7 +67,6 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 		this.logger = logger;
 		this.managedProcess = managedProcess;
 		this.agent = agent;
-		pool = Executors.newCachedThreadPool();
 		this.process = process;
 		gcStatsCollector = new DuccGarbageStatsCollector(logger, process);
 
@@ -101,8 +90,8 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 
 	public void stop() {
 		try {
-			if (pool != null) {
-				pool.shutdown();
+			if (sampler != null) {
+				sampler.close();
 			}
 		} catch (Exception e) {
 			logger.error("LinuxProcessMetricsProcessor.stop()", null, e);
@@ -129,80 +118,25 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 		return true;
 	}
 
-	private long getSwapUsage() throws Exception {
-		long swapUsage = -1;
-		if (agent.useCgroups) {
-
-			String containerId = agent.cgroupsManager
-					.getContainerId(managedProcess);
-
-			ProcessSwapUsageCollector processSwapCollector = new ProcessSwapUsageCollector(
-					logger, agent.cgroupsManager, containerId);
-			logger.debug("LinuxProcessMetricsProcessor.getSwapUsage", null,
-					"Fetching Swap Usage PID:" + process.getPID());
-			Future<ProcessSwapSpaceUsage> processFaults = pool
-					.submit(processSwapCollector);
-			swapUsage = processFaults.get().getSwapUsage();
-			logger.debug("LinuxProcessMetricsProcessor.getSwapUsage", null,
-					" Process Swap Usage:" + swapUsage);
-		}
-		return swapUsage;
-	}
-	
-	private long getFaults() throws Exception {
-		long faults = -1;
-		if (agent.useCgroups) {
-			String containerId = agent.cgroupsManager.getContainerId(managedProcess);
-
-			ProcessMajorFaultCollector processFaultsCollector = 
-					new ProcessMajorFaultCollector(logger, agent.cgroupsManager, containerId);
-	        logger.debug("LinuxProcessMetricsProcessor.getFaults",null,"Fetching Page Faults PID:"+process.getPID());
-	        Future<ProcessMemoryPageLoadUsage> processFaults = pool.submit(processFaultsCollector);
-		    faults = processFaults.get().getMajorFaults();
-			logger.debug(
-					"LinuxProcessMetricsProcessor.getFaults",null," Process Faults (pgpgin):"+faults);
-		}
-		return faults;
-	}
-	private long getRss() throws Exception {
-		long rss = -1;
-		if (agent.useCgroups) {
-			String containerId = agent.cgroupsManager.getContainerId(managedProcess);
-
-			ProcessResidentMemoryCollector processRSSCollector = 
-					new ProcessResidentMemoryCollector(logger, agent.cgroupsManager, containerId);
-	        logger.debug("LinuxProcessMetricsProcessor.getRss",null,"Fetching RSS Usage for PID:"+process.getPID());
-	        Future<ProcessResidentMemory> processRss = pool.submit(processRSSCollector);
-		    rss = processRss.get().get();
-			logger.debug(
-					"LinuxProcessMetricsProcessor.getRss",null," Process RSS:"+rss);
-		}
-		return rss;
-	}
-	
-	private long getCpuUsage() throws Exception {
-		long cpuUsage=-1;
-		if (agent.useCgroups) {
-			String containerId = agent.cgroupsManager.getContainerId(managedProcess);
-
-			Future<ProcessCpuUsage> processCpuUsage = null;
-			ProcessCpuUsageCollector processCpuUsageCollector = 
-					new ProcessCpuUsageCollector(logger, agent.cgroupsManager, containerId);
-	        logger.debug("LinuxProcessMetricsProcessor.getCpuUsage",null,"Fetching CPU Usage for PID:"+process.getPID());
-			processCpuUsage = pool
-					.submit(processCpuUsageCollector);
-			long cpuUsageInNanos = processCpuUsage.get().getCpuUsage();
-			if ( cpuUsageInNanos >= 0 ) {
-				// cpuUsage comes from cpuacct.usage and is in nanos
-				cpuUsage = Math.round( cpuUsageInNanos / 1000000 );  // normalize into millis
-			} 
-			logger.debug(
-					"LinuxProcessMetricsProcessor.getCpuUsage",null,
-					"CPU USAGE:"+cpuUsageInNanos+ " CLOCK RATE:"+agent.cpuClockRate+" Total CPU USAGE:"+cpuUsage);
+	/**
+	 * Returns the sampler for this process, creating it on first use once the
+	 * process PID is known. Cgroup files are sampled only when cgroups are enabled.
+	 */
+	private ProcessMetricsSampler getSampler() {
+		if (sampler == null && process.getPID() != null) {
+			String memoryStatFile = null;
+			String cpuAccountingFile = null;
+			if (agent.useCgroups) {
+				String containerId = agent.cgroupsManager.getContainerId(managedProcess);
+				memoryStatFile = agent.cgroupsManager.getMemoryStatFile(containerId);
+				cpuAccountingFile = agent.cgroupsManager.getCpuAccountingFile(containerId);
+			}
+			sampler = new ProcessMetricsSampler(process.getPID(), memoryStatFile,
+					cpuAccountingFile, blockSize, agent.cpuClockRate);
 		}
-		return cpuUsage;
+		return sampler;
 	}
-	
+
 	private long getCpuTime( long totalCpuUsageInMillis) throws Exception {
 		long cp = -1;
 		if (managedProcess.getDuccProcess().getProcessState()
@@ -210,7 +144,7 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 				managedProcess.getDuccProcess().getProcessState()
 				.equals(ProcessState.Initializing)	
 				) {
-			if (agent.useCgroups && totalCpuUsageInMillis != -1) {
+			if (totalCpuUsageInMillis != -1) {
 				
 				long timeRunning = 1;
 				if ( process.getTimeWindowInit() != null ) {
@@ -240,7 +174,7 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 			previousCPUReadingInMillis = totalCpuUsageInMillis;
 			previousSnapshotTime = System.currentTimeMillis();
 		} else {
-			if (agent.useCgroups && totalCpuUsageInMillis != -1 ) {
+			if (totalCpuUsageInMillis != -1 ) {
 				currentCpu = 0;
 			}
 		}
@@ -369,14 +303,18 @@ public class LinuxProcessMetricsProcessor extends BaseProcessor implements
 		}
 		try {
 			
-			process.setSwapUsage(getSwapUsage());
-			process.setMajorFaults(getFaults());
-
-			long rssInBytes = getRss();
+			long rssInBytes = -1;
+			long totalCpuUsageInMillis = -1;
+			ProcessMetricsSampler sampler = getSampler();
+			if (sampler != null) {
+				ProcessMetricsSampler.Sample sample = sampler.sample();
+				process.setSwapUsage(sample.swap);
+				process.setMajorFaults(sample.majorFaults);
+				rssInBytes = sample.rss;
+				totalCpuUsageInMillis = sample.cpuTimeMillis;
+			}
 			process.setResidentMemory(rssInBytes);
 
-			long totalCpuUsageInMillis = getCpuUsage();
-
 			// set CPU time in terms of %
 			process.setCpuTime(getCpuTime(totalCpuUsageInMillis));
 
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.benchmarks.rm;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmarks jar.  Accepts the usual JMH command line, e.g.
+ *
+ *    java -jar benchmarks.jar SchedulerEpoch -p machines=20000 -p churn=100 -rf json
+ *
+ * and always adds the GC profiler so the allocation per epoch is reported with the
+ * latency.  Results written with -rf json can be compared run to run to judge a scheduler
+ * change against a baseline.
+ */
+public class SchedulerBenchmarkMain
+{
+    public static void main(String[] args)
+        throws Exception
+    {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if ( cmd.shouldHelp() ) {
+            cmd.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder opts = new OptionsBuilder()
+            .parent(cmd)
+            .addProfiler(GCProfiler.class);
+
+        if ( cmd.getIncludes().isEmpty() ) {
+            opts.include(SchedulerEpochBenchmark.class.getSimpleName());
+        }
+        Runner runner = new Runner(opts.build());
+        if ( cmd.shouldList() ) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+}
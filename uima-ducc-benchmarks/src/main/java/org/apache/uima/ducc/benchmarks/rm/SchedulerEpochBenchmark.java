@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.benchmarks.rm;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.apache.uima.ducc.common.Node;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.rm.scheduler.IRmJob;
+import org.apache.uima.ducc.rm.scheduler.JobManagerUpdate;
+import org.apache.uima.ducc.rm.scheduler.Scheduler;
+import org.apache.uima.ducc.rm.scheduler.Share;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times one RM scheduling epoch, Scheduler.schedule(), over a synthetic cluster.
+ *
+ * The scheduler is booted the same way ResourceManagerComponent does it, init() reading the
+ * class definitions from a generated DUCC_HOME, but with no broker and with the
+ * NullRmStatePersistence so nothing touches the database.  Between epochs the benchmark plays
+ * the part of the Orchestrator: it completes 'churn' random requests, submits the same number
+ * of new ones, and confirms every eviction from the previous epoch so shrinking jobs actually
+ * give their shares back.
+ *
+ * Run with the GC profiler (SchedulerBenchmarkMain adds it by default) to get the allocation
+ * per epoch as gc.alloc.rate.norm next to the latency.
+ *
+ * Each JMH fork is its own JVM, so the static DUCC_HOME captured by IDuccEnv is always the one
+ * generated for the trial.  Do not run with -f 0.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class SchedulerEpochBenchmark
+{
+    @Param({"1000", "5000", "20000"})
+    int machines;
+
+    @Param({"true", "false"})
+    boolean incremental;
+
+    @Param({"0", "10", "100"})
+    int churn;
+
+    // Requests in the system per machine at steady state
+    @Param({"0.25"})
+    double load;
+
+    // Unscheduled epochs used to let the initial population expand before timing starts
+    static final int SETTLE_EPOCHS = 20;
+
+    SyntheticCluster cluster;
+    Scheduler scheduler;
+    SyntheticWorkload workload;
+    List<IRmJob> live = new ArrayList<IRmJob>();
+    Map<DuccId, HashMap<Share, Share>> evicted = new HashMap<DuccId, HashMap<Share, Share>>();
+    Map<DuccId, IRmJob> evictedJobs = new HashMap<DuccId, IRmJob>();
+
+    @Setup(Level.Trial)
+    public void setUp()
+        throws Exception
+    {
+        File home = Files.createTempDirectory("ducc-rm-bench").toFile();
+        cluster = new SyntheticCluster(home);
+        cluster.generate(machines);
+
+        System.setProperty("DUCC_HOME", home.getAbsolutePath());
+        System.setProperty("ducc.rm.persistence.impl", "org.apache.uima.ducc.common.persistence.rm.NullRmStatePersistence");
+        System.setProperty("ducc.rm.class.definitions", SyntheticCluster.CLASS_FILE);
+        System.setProperty("ducc.rm.scheduler", "org.apache.uima.ducc.rm.scheduler.NodepoolScheduler");
+        System.setProperty("ducc.rm.share.quantum", "1");
+        System.setProperty("ducc.rm.default.memory", "4");
+        System.setProperty("ducc.rm.initialization.cap", "1");
+        System.setProperty("ducc.rm.expand.by.doubling", "true");
+        System.setProperty("ducc.rm.eviction.policy", "SHRINK_BY_INVESTMENT");
+        System.setProperty("ducc.rm.fragmentation.threshold", "8");
+        System.setProperty("ducc.rm.incremental", Boolean.toString(incremental));
+
+        // The RM logs every epoch at INFO; keep that out of the measurement unless asked for
+        String level = System.getProperty("ducc.benchmarks.log.level", "WARN");
+        Logger.getRootLogger().setLevel(org.apache.log4j.Level.toLevel(level));
+
+        scheduler = new Scheduler(null);                 // no base component, so no reconfiguration
+        scheduler.init();
+        scheduler.start();                               // skip the node stability wait
+
+        for ( Node n : cluster.getNodes() ) {
+            scheduler.nodeArrives(n);
+        }
+
+        workload = new SyntheticWorkload(scheduler, 4242L);
+        int population = Math.max(1, (int) (machines * load));
+        for ( int i = 0; i < population; i++ ) {
+            live.add(workload.submit());
+        }
+
+        for ( int i = 0; i < SETTLE_EPOCHS; i++ ) {
+            epoch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        scheduler.stop();
+        cluster.delete();
+    }
+
+    @Benchmark
+    public JobManagerUpdate epoch()
+    {
+        for ( int i = 0; i < churn && live.size() > 0; i++ ) {
+            int ndx = workload.getRandom().nextInt(live.size());
+            IRmJob done = live.get(ndx);
+            live.set(ndx, live.get(live.size() - 1));     // swap-remove, order doesn't matter
+            live.remove(live.size() - 1);
+            scheduler.signalCompletion(done.getId());
+        }
+        for ( int i = 0; i < churn; i++ ) {
+            live.add(workload.submit());
+        }
+
+        // Confirm the evictions from the last epoch, as the OR would once the processes are gone
+        for ( DuccId id : evicted.keySet() ) {
+            IRmJob j = evictedJobs.get(id);
+            if ( j == null ) continue;
+            for ( Share s : evicted.get(id).values() ) {
+                scheduler.signalCompletion(j, s);
+            }
+        }
+        evicted.clear();
+        evictedJobs.clear();
+
+        JobManagerUpdate jmu = scheduler.schedule();
+        if ( jmu != null ) {
+            Map<DuccId, IRmJob> jobs = jmu.getAllJobs();
+            for ( Map.Entry<DuccId, HashMap<Share, Share>> e : jmu.getShrunkenShares().entrySet() ) {
+                evicted.put(e.getKey(), new HashMap<Share, Share>(e.getValue()));
+                evictedJobs.put(e.getKey(), jobs.get(e.getKey()));
+            }
+        }
+        return jmu;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.benchmarks.rm;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.uima.ducc.common.DuccNode;
+import org.apache.uima.ducc.common.Node;
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.node.metrics.NodeMemoryInfo;
+import org.apache.uima.ducc.common.node.metrics.NodeMetrics;
+
+/**
+ * Generates a synthetic DUCC_HOME for the RM benchmarks: a class definition file with
+ * two top-level nodepools, each with nested subpools, plus one nodefile per pool, and the
+ * matching set of Nodes as an agent would report them.
+ *
+ * Layout, as a fraction of the machines:
+ *
+ *    --default--     50%    (everything not named in a nodefile)
+ *      nightly       15%
+ *        nightly-big  5%
+ *    batch           20%    (second top-level pool, scheduled independently)
+ *      batch-big     10%
+ *
+ * Machine memory is cycled through a fixed set of sizes so every pool sees a mix of
+ * share orders.  Everything is deterministic in the number of machines.
+ */
+class SyntheticCluster
+{
+    static final String CLASS_FILE = "ducc.classes";
+
+    // GB per machine, cycled per pool; the "big" pools get the big machines
+    static final int[] MEMORY       = { 16, 32, 48, 64, 96, 128 };
+    static final int[] BIG_MEMORY   = { 128, 256, 512 };
+
+    static final String[] FAIR_CLASSES    = { "low", "normal", "high", "fair-nightly", "fair-nightly-big", "fair-batch", "fair-batch-big" };
+    static final String[] FIXED_CLASSES   = { "fixed", "fixed-batch" };
+    static final String[] RESERVE_CLASSES = { "reserve", "reserve-batch-big" };
+
+    private static final String[] CLASSES = {
+        "Nodepool --default--  { }",
+        "Nodepool nightly      { nodefile nightly.nodes     ; parent --default-- }",
+        "Nodepool nightly-big  { nodefile nightly-big.nodes ; parent nightly }",
+        "Nodepool batch        { nodefile batch.nodes }",
+        "Nodepool batch-big    { nodefile batch-big.nodes   ; parent batch }",
+        "",
+        "Class fair-base {",
+        "      policy = FAIR_SHARE",
+        "      nodepool = --default--",
+        "      priority = 10",
+        "      weight = 100",
+        "      abstract = true",
+        "}",
+        "",
+        "Class low              fair-base { weight = 50 }",
+        "Class normal           fair-base { weight = 100; default = true }",
+        "Class high             fair-base { weight = 200; priority = 9 }",
+        "Class fair-nightly     fair-base { nodepool = nightly }",
+        "Class fair-nightly-big fair-base { nodepool = nightly-big }",
+        "Class fair-batch       fair-base { nodepool = batch }",
+        "Class fair-batch-big   fair-base { nodepool = batch-big; weight = 200 }",
+        "",
+        "Class fixed-base {",
+        "      policy = FIXED_SHARE",
+        "      nodepool = --default--",
+        "      priority = 5",
+        "      abstract = true",
+        "      max-processes = 10",
+        "}",
+        "",
+        "Class fixed            fixed-base { default = true }",
+        "Class fixed-batch      fixed-base { nodepool = batch }",
+        "",
+        "Class reserve-base {",
+        "      policy = RESERVE",
+        "      nodepool = --default--",
+        "      priority = 1",
+        "      abstract = true",
+        "      max-machines = 10",
+        "}",
+        "",
+        "Class reserve           reserve-base { default = true }",
+        "Class reserve-batch-big reserve-base { nodepool = batch-big }",
+    };
+
+    private File home;
+    private List<Node> nodes = new ArrayList<Node>();
+
+    SyntheticCluster(File home)
+    {
+        this.home = home;
+    }
+
+    File getHome()
+    {
+        return home;
+    }
+
+    List<Node> getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Write the resources directory and create the nodes.
+     */
+    void generate(int nmachines)
+        throws Exception
+    {
+        File resources = new File(home, "resources");
+        if ( !resources.isDirectory() && !resources.mkdirs() ) {
+            throw new IOException("Cannot create " + resources);
+        }
+
+        write(new File(resources, CLASS_FILE), CLASSES);
+
+        int nightly    = (nmachines * 15) / 100;
+        int nightlyBig = (nmachines *  5) / 100;
+        int batch      = (nmachines * 20) / 100;
+        int batchBig   = (nmachines * 10) / 100;
+        int dflt       = nmachines - nightly - nightlyBig - batch - batchBig;
+
+        int next = 0;
+        next = addPool(resources, null,          next, dflt,       MEMORY);
+        next = addPool(resources, "nightly",     next, nightly,    MEMORY);
+        next = addPool(resources, "nightly-big", next, nightlyBig, BIG_MEMORY);
+        next = addPool(resources, "batch",       next, batch,      MEMORY);
+        next = addPool(resources, "batch-big",   next, batchBig,   BIG_MEMORY);
+    }
+
+    /**
+     * Create 'count' nodes starting at host number 'first'.  If 'pool' is not null
+     * the hosts are also written to its nodefile.
+     */
+    private int addPool(File resources, String pool, int first, int count, int[] memory)
+        throws Exception
+    {
+        String[] names = new String[count];
+        for ( int i = 0; i < count; i++ ) {
+            int n = first + i;
+            names[i] = String.format("bench%05d", n);
+            nodes.add(makeNode(names[i], n, memory[i % memory.length]));
+        }
+
+        if ( pool != null ) {
+            write(new File(resources, pool + ".nodes"), names);
+        }
+        return first + count;
+    }
+
+    private Node makeNode(String name, int n, int gb)
+        throws Exception
+    {
+        String ip = "10." + ((n >> 16) & 0xff) + "." + ((n >> 8) & 0xff) + "." + (n & 0xff);
+        long kb = ((long) gb) << 20;
+        NodeIdentity ni = new NodeIdentity(ip, name);
+        NodeMemoryInfo mem = new NodeMemoryInfo(new long[] { kb, kb, 0, 0 }, kb);
+        return new DuccNode(ni, new NodeMetrics(ni, mem, null, null, null, false), false);
+    }
+
+    private static void write(File f, String[] lines)
+        throws IOException
+    {
+        PrintWriter out = new PrintWriter(new FileWriter(f));
+        try {
+            for ( String l : lines ) {
+                out.println(l);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Remove the generated DUCC_HOME.
+     */
+    void delete()
+    {
+        delete(home);
+    }
+
+    private static void delete(File f)
+    {
+        File[] children = f.listFiles();
+        if ( children != null ) {
+            for ( File c : children ) {
+                delete(c);
+            }
+        }
+        f.delete();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.benchmarks.rm;
+
+import java.util.Random;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.rm.scheduler.IRmJob;
+import org.apache.uima.ducc.rm.scheduler.ResourceClass;
+import org.apache.uima.ducc.rm.scheduler.RmJob;
+import org.apache.uima.ducc.rm.scheduler.Scheduler;
+import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
+
+/**
+ * Creates jobs, fixed allocations, and reservations the way JobManagerConverter.jobArrives()
+ * does for work arriving from the Orchestrator.  The mix is roughly 70% fair-share, 20%
+ * fixed-share, and 10% reservations, spread over a modest number of users.  Seeded so
+ * that runs are repeatable.
+ */
+class SyntheticWorkload
+{
+    static final int NUSERS = 50;
+
+    static final int[] FAIR_MEMORY  = { 4, 8, 15, 30, 60 };          // GB
+    static final int[] FIXED_MEMORY = { 2, 4, 8, 30 };
+
+    private Scheduler scheduler;
+    private Random random;
+    private long nextId;
+
+    SyntheticWorkload(Scheduler scheduler, long seed)
+    {
+        this.scheduler = scheduler;
+        this.random = new Random(seed);
+        this.nextId = 1;
+    }
+
+    Random getRandom()
+    {
+        return random;
+    }
+
+    /**
+     * Make a new request and hand it to the scheduler.
+     */
+    IRmJob submit()
+    {
+        int r = random.nextInt(100);
+        RmJob j = new RmJob(new DuccId(nextId++));
+
+        j.setUserName("user" + random.nextInt(NUSERS));
+        j.setJobName("benchmark-" + j.getId());
+        j.setUserPriority(100);
+
+        String className;
+        int memory;
+        int maxShares;
+        int questions;
+        int threads;
+        DuccType type;
+        if ( r < 70 ) {
+            className = pick(SyntheticCluster.FAIR_CLASSES);
+            memory    = pick(FAIR_MEMORY);
+            maxShares = 1 + random.nextInt(200);
+            questions = 100 + random.nextInt(20000);
+            threads   = 4;
+            type      = DuccType.Job;
+        } else if ( r < 90 ) {
+            className = pick(SyntheticCluster.FIXED_CLASSES);
+            memory    = pick(FIXED_MEMORY);
+            maxShares = 1 + random.nextInt(4);
+            questions = 1;
+            threads   = 1;
+            type      = DuccType.Job;
+        } else {
+            className = pick(SyntheticCluster.RESERVE_CLASSES);
+            memory    = pick(SyntheticCluster.MEMORY);
+            maxShares = 1;                                   // reservations are always exactly one allocation
+            questions = 1;
+            threads   = 1;
+            type      = DuccType.Reservation;
+        }
+
+        j.setThreads(threads);
+        j.setNQuestions(questions, questions, 0.0);
+        j.setClassName(className);
+        j.setMemory(memory);
+        j.init();
+
+        j.setTimestamp(System.currentTimeMillis());
+        j.setInitWait(true);                                 // running, so it can expand past the init cap
+        j.setDuccType(type);
+
+        ResourceClass rescl = scheduler.getResourceClass(className);
+        if ( rescl == null ) {
+            throw new IllegalStateException("Benchmark class " + className + " is not defined.");
+        }
+        j.setResourceClass(rescl);
+        if ( type == DuccType.Reservation ) {
+            j.setReservation();
+        }
+        j.setMaxShares(maxShares);
+
+        scheduler.signalNewWork(j);
+        return j;
+    }
+
+    private String pick(String[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+
+    private int pick(int[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+}
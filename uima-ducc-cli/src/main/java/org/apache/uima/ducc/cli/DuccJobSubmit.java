@@ -65,6 +65,7 @@ public class DuccJobSubmit
         UiOption.DriverDescriptorCROverrides,
         UiOption.DriverExceptionHandler,
         UiOption.DriverExceptionHandlerArguments,
+        UiOption.CasSerialization,
 
         UiOption.ProcessJvmArgs,
         UiOption.ProcessMemorySize,
@@ -18,6 +18,7 @@
  */
 package org.apache.uima.ducc.cli;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.ConnectException;
 import java.util.ArrayList;
@@ -31,6 +32,7 @@ import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.common.utils.SynchronizedSimpleDateFormat;
 import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventHttpDispatcherCl;
+import org.apache.uima.ducc.transport.dispatcher.DuccEventHttpDispatcherCl.IJsonReceiver;
 import org.apache.uima.ducc.transport.event.IDuccContext.DuccContext;
 // import org.apache.commons.cli.CommandLine;
 // import org.apache.commons.cli.CommandLineParser;
@@ -67,6 +69,7 @@ public abstract class DuccMonitor {
 	private AtomicBoolean flag_timestamp = new AtomicBoolean(false);
 
 	private AtomicBoolean flag_observer = new AtomicBoolean(true);
+	private AtomicBoolean flag_subscribe = new AtomicBoolean(true);
 
 	private int milliseconds = 1;
 	private int seconds = 1000 * milliseconds;
@@ -82,6 +85,13 @@ public abstract class DuccMonitor {
 	private volatile MonitorInfo previousMonitorInfo = null;
 	
 	private String delayedRunning = null;
+
+	private String lastMessage = "";
+	private String lastRationale = "";
+
+	private boolean connectionFailed = false;
+
+	private Integer result = null;
 	
 	private SynchronizedSimpleDateFormat sdf = new SynchronizedSimpleDateFormat(
 			"dd/MM/yyyy HH:mm:ss");
@@ -140,6 +150,30 @@ public abstract class DuccMonitor {
 		return port;
 	}
 
+	/**
+	 * @return the WS event stream URL for monitoring id, or null if none
+	 */
+	public String getStreamUrl(String id) {
+		String monitor = null;
+		if (context == null) {
+			return null;
+		}
+		switch (context) {
+		case Job:
+			monitor = "job";
+			break;
+		case ManagedReservation:
+			monitor = "managed-reservation";
+			break;
+		case Reservation:
+			monitor = "reservation";
+			break;
+		default:
+			return null;
+		}
+		return "http://" + getHost() + ":" + getPort() + "/ducc-servlet/proxy-event-stream?monitor=" + monitor + "&id=" + id;
+	}
+
 	public String getId() {
 		return id;
 	}
@@ -341,19 +375,29 @@ public abstract class DuccMonitor {
 		// Setup polling
 		adjustWakeupInterval();
 		String urlString = getUrl(id);
-		String lastMessage = "";
-		String thisMessage = "";
-		String lastRationale = "";
-		String thisRationale = "";
+		String streamUrl = getStreamUrl(id);
+		if (streamUrl == null) {
+			flag_subscribe.set(false);
+		}
 		StringBuffer message = new StringBuffer();
 		message.append("id:" + id);
 		message.append(" location:");
 		message.append(ManagementFactory.getRuntimeMXBean().getName());
 		info(message.toString());
 		debug(urlString);
-		// Poll until finished - retry if the WS appears to be down
-		boolean connectionFailed = false;
+		debug(streamUrl);
+		// Subscribe to updates pushed by the WS if it offers them, else 
+		// poll until finished - retry if the WS appears to be down
 		while (flag_observer.get()) {
+			if (flag_subscribe.get()) {
+				Integer rc = subscribe(streamUrl);
+				if (rc != null) {
+					return rc;
+				}
+				if (!flag_observer.get()) {
+					break;
+				}
+			}
 			DuccEventHttpDispatcherCl dispatcher = null;
 			MonitorInfo monitorInfo = null;
 			try {
@@ -381,130 +425,10 @@ public abstract class DuccMonitor {
             		continue;
             	}
             	previousMonitorInfo = monitorInfo;
-            	displayRemotePids(monitorInfo);
-				int stateCount = monitorInfo.stateSequence.size();
-				debug("states:" + stateCount);
-				// If OR or network is very slow WS may not have seen the job yet so just report NotFound
-				// No longer give up and possibly falsely cancel the job
-				String state = NotFound;
-				Iterator<String> states = monitorInfo.stateSequence.iterator();
-				while (states.hasNext()) {
-					state = states.next();
-					debug("list:" + state);
-				}
-				message = new StringBuffer();
-				message.append("id:" + id);
-				message.append(" state:" + state);
-				if (state.equals(StateRunning)) {
-					message.append(details(monitorInfo));
-				} else if (state.equals(StateCompleting)) {
-					flag_cancel_on_interrupt.set(false);
-					message.append(details(monitorInfo));
-				} else if (state.equals(StateCompleted)) {
-					flag_cancel_on_interrupt.set(false);
-					message.append(details(monitorInfo));
-				}
-				else if (context == DuccContext.Reservation && state.equals(StateAssigned)) {       // A reservation has completed
-					flag_cancel_on_interrupt.set(false);
-					message.append(details(monitorInfo));
-				}
-				thisMessage = message.toString();
-				if (!thisMessage.equals(lastMessage)) {
-					boolean suppress = false;
-					if(state.equals(StateRunning)) {
-						if(seenRemotePids.size() == 0) {
-							suppress = true;
-							if(delayedRunning == null) {
-								delayedRunning = message.toString();
-							}
-						}
-						else {
-							delayedRunning = null;
-						}
-					}
-					if(!suppress) {
-						if(delayedRunning != null) {
-							info(delayedRunning);
-							delayedRunning = null;
-						}
-						info(thisMessage);
-						lastMessage = thisMessage;
-					}
-				}
-				if (state.equals(StateWaitingForResources)) {
-					if (!monitorInfo.rationale.equals("")) {
-						thisRationale = monitorInfo.rationale;
-						if (!thisRationale.equals(lastRationale)) {
-							info(thisRationale);
-							lastRationale = thisRationale;
-						}
-					}
-				}
-				if (context == DuccContext.Reservation && state.equals(StateAssigned)) {
-					if(monitorInfo.nodes != null) {
-						if(monitorInfo.nodes.size() > 0) {
-							StringBuffer sb = new StringBuffer();
-							sb.append("nodes: ");
-							for(String node : monitorInfo.nodes) {
-								sb.append(node);
-								sb.append(" ");
-							}
-							String nodes = sb.toString().trim();
-							info(nodes);
-						}
-					}
-					return RC_SUCCESS;
-				}
-				if (state.equals(StateCompleted)) {
-					// See Jira 2911
-					//if (monitorInfo.procs.equals("0")) {
-						if (monitorInfo.total.equals(monitorInfo.done)) {
-							if (!monitorInfo.rationale.equals("")) {
-								message = new StringBuffer();
-								message.append("id:" + id);
-								message.append(" rationale:" + monitorInfo.rationale);
-								thisMessage = message.toString();
-								info(thisMessage);
-							}
-							int rc = RC_FAILURE;
-							message = new StringBuffer();
-							message.append("id:" + id);
-							try {
-								rc = Integer.parseInt(monitorInfo.code);
-								message.append(" rc:" + rc);
-							} catch (NumberFormatException e) {
-								message.append(" code:" + monitorInfo.code);
-							}
-							thisMessage = message.toString();
-							info(thisMessage);
-							return rc;
-						} else {
-							if (!monitorInfo.errorLogs.isEmpty()) {
-								message = new StringBuffer();
-								message.append("id:" + id);
-								List<String> errorLogs = monitorInfo.errorLogs;
-								for (String errorLog : errorLogs) {
-									message.append(" file:" + errorLog);
-								}
-								thisMessage = message.toString();
-								info(thisMessage);
-							}
-							if (!monitorInfo.rationale.equals("")) {
-								message = new StringBuffer();
-								message.append("id:" + id);
-								message.append(" rationale:" + monitorInfo.rationale);
-								thisMessage = message.toString();
-								info(thisMessage);
-							}
-							message = new StringBuffer();
-							message.append("id:" + id);
-							message.append(" rc:" + RC_FAILURE);
-							thisMessage = message.toString();
-							info(thisMessage);
-							return RC_FAILURE;
-						}
-					//}
-				}
+            	Integer rc = display(monitorInfo);
+            	if (rc != null) {
+            		return rc;
+            	}
 			}
 			long start = System.currentTimeMillis();
 			long end = start;
@@ -524,6 +448,187 @@ public abstract class DuccMonitor {
 		return RC_SUCCESS;
 	}
 
+	/**
+	 * Report newly arrived monitor information.
+	 * 
+	 * @return the rc if the monitored entity is finished, else null
+	 */
+	private Integer display(MonitorInfo monitorInfo) {
+		displayRemotePids(monitorInfo);
+		StringBuffer message;
+		String thisMessage;
+		String thisRationale;
+		int stateCount = monitorInfo.stateSequence.size();
+		debug("states:" + stateCount);
+		// If OR or network is very slow WS may not have seen the job yet so just report NotFound
+		// No longer give up and possibly falsely cancel the job
+		String state = NotFound;
+		Iterator<String> states = monitorInfo.stateSequence.iterator();
+		while (states.hasNext()) {
+			state = states.next();
+			debug("list:" + state);
+		}
+		message = new StringBuffer();
+		message.append("id:" + id);
+		message.append(" state:" + state);
+		if (state.equals(StateRunning)) {
+			message.append(details(monitorInfo));
+		} else if (state.equals(StateCompleting)) {
+			flag_cancel_on_interrupt.set(false);
+			message.append(details(monitorInfo));
+		} else if (state.equals(StateCompleted)) {
+			flag_cancel_on_interrupt.set(false);
+			message.append(details(monitorInfo));
+		}
+		else if (context == DuccContext.Reservation && state.equals(StateAssigned)) {       // A reservation has completed
+			flag_cancel_on_interrupt.set(false);
+			message.append(details(monitorInfo));
+		}
+		thisMessage = message.toString();
+		if (!thisMessage.equals(lastMessage)) {
+			boolean suppress = false;
+			if(state.equals(StateRunning)) {
+				if(seenRemotePids.size() == 0) {
+					suppress = true;
+					if(delayedRunning == null) {
+						delayedRunning = message.toString();
+					}
+				}
+				else {
+					delayedRunning = null;
+				}
+			}
+			if(!suppress) {
+				if(delayedRunning != null) {
+					info(delayedRunning);
+					delayedRunning = null;
+				}
+				info(thisMessage);
+				lastMessage = thisMessage;
+			}
+		}
+		if (state.equals(StateWaitingForResources)) {
+			if (!monitorInfo.rationale.equals("")) {
+				thisRationale = monitorInfo.rationale;
+				if (!thisRationale.equals(lastRationale)) {
+					info(thisRationale);
+					lastRationale = thisRationale;
+				}
+			}
+		}
+		if (context == DuccContext.Reservation && state.equals(StateAssigned)) {
+			if(monitorInfo.nodes != null) {
+				if(monitorInfo.nodes.size() > 0) {
+					StringBuffer sb = new StringBuffer();
+					sb.append("nodes: ");
+					for(String node : monitorInfo.nodes) {
+						sb.append(node);
+						sb.append(" ");
+					}
+					String nodes = sb.toString().trim();
+					info(nodes);
+				}
+			}
+			return RC_SUCCESS;
+		}
+		if (state.equals(StateCompleted)) {
+			// See Jira 2911
+			//if (monitorInfo.procs.equals("0")) {
+				if (monitorInfo.total.equals(monitorInfo.done)) {
+					if (!monitorInfo.rationale.equals("")) {
+						message = new StringBuffer();
+						message.append("id:" + id);
+						message.append(" rationale:" + monitorInfo.rationale);
+						thisMessage = message.toString();
+						info(thisMessage);
+					}
+					int rc = RC_FAILURE;
+					message = new StringBuffer();
+					message.append("id:" + id);
+					try {
+						rc = Integer.parseInt(monitorInfo.code);
+						message.append(" rc:" + rc);
+					} catch (NumberFormatException e) {
+						message.append(" code:" + monitorInfo.code);
+					}
+					thisMessage = message.toString();
+					info(thisMessage);
+					return rc;
+				} else {
+					if (!monitorInfo.errorLogs.isEmpty()) {
+						message = new StringBuffer();
+						message.append("id:" + id);
+						List<String> errorLogs = monitorInfo.errorLogs;
+						for (String errorLog : errorLogs) {
+							message.append(" file:" + errorLog);
+						}
+						thisMessage = message.toString();
+						info(thisMessage);
+					}
+					if (!monitorInfo.rationale.equals("")) {
+						message = new StringBuffer();
+						message.append("id:" + id);
+						message.append(" rationale:" + monitorInfo.rationale);
+						thisMessage = message.toString();
+						info(thisMessage);
+					}
+					message = new StringBuffer();
+					message.append("id:" + id);
+					message.append(" rc:" + RC_FAILURE);
+					thisMessage = message.toString();
+					info(thisMessage);
+					return RC_FAILURE;
+				}
+			//}
+		}
+		return null;
+	}
+
+	/**
+	 * Receive monitor information pushed by the WS until finished.
+	 * 
+	 * @return the rc if the monitored entity is finished, or null if the
+	 *         subscription ended first (e.g. WS down or restarted), in which
+	 *         case the caller polls before subscribing again.  If the WS does 
+	 *         not offer the event stream, or declines, polling is used from
+	 *         then on.
+	 */
+	private Integer subscribe(String streamUrl) {
+		result = null;
+		try {
+			// the WS sends at least a keep-alive per OR publication
+			int timeout = Math.max(urlTimeout, 3 * wakeupInterval);
+			DuccEventHttpDispatcherCl dispatcher = new DuccEventHttpDispatcherCl(streamUrl, timeout);
+			int count = dispatcher.subscribeJson(MonitorInfo.class, new IJsonReceiver() {
+				public boolean receive(String event, Object object) {
+					if ("monitor".equals(event)) {
+						if (connectionFailed) {
+							info("id:" + id + " warning:Connection to DUCC restored");
+							connectionFailed = false;
+						}
+						MonitorInfo monitorInfo = (MonitorInfo) object;
+						if ((monitorInfo != null) && !monitorInfo.isRegression(previousMonitorInfo)) {
+							previousMonitorInfo = monitorInfo;
+							result = display(monitorInfo);
+						}
+					}
+					return (result == null) && flag_observer.get();
+				}
+			});
+			if (count == 0) {
+				debug("event stream not available, polling");
+				flag_subscribe.set(false);
+			}
+		} catch (IOException e) {
+			// WS down or connection lost - the poll reports and retries
+			debug(e);
+		} catch (Exception e) {
+			debug(e);
+			flag_subscribe.set(false);
+		}
+		return result;
+	}
+
 	private boolean isTimeExpired(long start, long end, long interval) {
 		boolean retVal = false;
 		long diff = end - start;
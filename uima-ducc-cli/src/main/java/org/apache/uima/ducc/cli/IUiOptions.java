@@ -96,6 +96,13 @@ public interface IUiOptions
             public String description() { return "Cancel on interrupt (Ctrl-C). Implies "+WaitForCompletion.pname(); }
         },       
         
+        CasSerialization { 
+            public String pname()       { return JobSpecificationProperties.key_cas_serialization; }
+            public String description() { return "Serialization of work item CASes sent to the job processes: xmi, or binary for UIMA compressed binary (form 6)."; }
+            public String argname()     { return "xmi|binary"; }
+            public String deflt()       { return "xmi"; }
+        },    
+        
         Classpath { 
             public String pname()       { return JobSpecificationProperties.key_classpath; }
             public String description() { return "Classpath for the Job. Default is current classpath."; }
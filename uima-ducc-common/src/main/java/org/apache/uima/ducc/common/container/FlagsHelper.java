@@ -33,6 +33,7 @@ public class FlagsHelper {
 	
 	public enum Name {
 		
+		CasSerialization,			// { xmi, binary }
 		CollectionReaderCfg,
 		CollectionReaderXml,
 		DuccClasspath,
@@ -110,6 +111,15 @@ public class FlagsHelper {
 		}
 	}
 	
+	public String getCasSerialization() {
+		Properties properties = System.getProperties();
+		return properties.getProperty(Name.CasSerialization.pname());
+	}
+	
+	public String getCasSerializationDashD(String value) {
+		return Name.CasSerialization.arg(value);
+	}
+	
 	public String getCollectionReaderCfg() {
 		Properties properties = System.getProperties();
 		return properties.getProperty(Name.CollectionReaderCfg.pname());
@@ -180,6 +180,34 @@ public class WorkItemState implements IWorkItemState {
 		return millisAtStart;
 	}
 	
+	public long getMillisAtQueued() {
+		return millisAtQueued;
+	}
+	
+	public long getMillisAtOperating() {
+		return millisAtOperating;
+	}
+	
+	public long getMillisAtFinish() {
+		return millisAtFinish;
+	}
+	
+	public long getMillisAtInvestment() {
+		return millisAtInvestment;
+	}
+	
+	/**
+	 * Reinstate state and times, e.g. as read back from a journal
+	 */
+	public void restore(State state, long millisAtStart, long millisAtQueued, long millisAtOperating, long millisAtFinish, long millisAtInvestment) {
+		this.state = state;
+		this.millisAtStart = millisAtStart;
+		this.millisAtQueued = millisAtQueued;
+		this.millisAtOperating = millisAtOperating;
+		this.millisAtFinish = millisAtFinish;
+		this.millisAtInvestment = millisAtInvestment;
+	}
+	
 	public long getMillisOverhead(long refTime) {
 		long retVal = 0;
 		if(millisAtStart > 0) {
@@ -0,0 +1,459 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.jd.files.workitem;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.uima.ducc.common.jd.files.IWorkItemState;
+import org.apache.uima.ducc.common.jd.files.IWorkItemState.State;
+import org.apache.uima.ducc.common.jd.files.WorkItemState;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Append-only journal of work item state transitions.
+ * 
+ * Each transition is encoded by the caller into a fixed size record and 
+ * queued without locking; a single writer thread appends whatever has 
+ * accumulated in one write followed by one force (group commit), so the
+ * cost per transition is independent of the number of work items.  Record 
+ * n is at offset HEADER_SIZE + n * RECORD_SIZE, so a reader can seek to 
+ * any record and pick up where it left off.  The latest record for a 
+ * work item is its current state.
+ * 
+ * Finished (ended or error) work items are also exported as their records
+ * are written to a gzipped JSON array, which zip() completes with the
+ * still active work items and moves into place, as the former JSON files 
+ * were transformed at the end of the job.  The export is made from the 
+ * work items themselves, not their records, in which long strings are cut
+ * to fit.
+ * 
+ * Should a write fail the journal is marked failed: records queued from 
+ * then on are discarded (a partial write leaves the file misaligned), and
+ * flush() reports the failure rather than waiting for them.
+ */
+public class WorkItemStateJournal {
+	
+	private static DuccLogger logger = DuccLogger.getLogger(WorkItemStateJournal.class, null);
+	
+	private static DuccId jobid = null;
+	
+	private static final int MAGIC = 0x44574953;	// "DWIS"
+	private static final int VERSION = 1;
+	
+	public static final int HEADER_SIZE = 16;
+	public static final int RECORD_SIZE = 256;
+	
+	// record layout
+	private static final int OFFSET_SEQNO = 0;
+	private static final int OFFSET_STATE = 4;
+	private static final int OFFSET_MILLIS = 8;
+	private static final int OFFSET_WIID = 48;
+	private static final int OFFSET_NODE = 144;
+	private static final int OFFSET_PID = 208;
+	private static final int OFFSET_TID = 240;
+	
+	private static final int SIZE_WIID = OFFSET_NODE - OFFSET_WIID;
+	private static final int SIZE_NODE = OFFSET_PID - OFFSET_NODE;
+	private static final int SIZE_PID = OFFSET_TID - OFFSET_PID;
+	private static final int SIZE_TID = RECORD_SIZE - OFFSET_TID;
+	
+	private static final int MAX_BATCH = 4096;
+	private static final long WRITE_INTERVAL_MILLIS = 200;
+	private static final long FLUSH_TIMEOUT_MILLIS = 60*1000;
+	
+	private static final Charset charset = Charset.forName("UTF-8");
+	private static final State[] states = State.values();
+	
+	private static Gson gson = new Gson();
+	
+	private String fnJournal = null;
+	private String fnExport = null;
+	private String fnExportTemp = null;
+	
+	private RandomAccessFile raf = null;
+	private FileChannel channel = null;
+	
+	private JsonWriter exporter = null;
+	
+	private ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<Entry>();
+	
+	private AtomicLong appended = new AtomicLong(0);
+	private AtomicLong written = new AtomicLong(0);
+	
+	private volatile boolean closed = false;
+	private volatile Exception failure = null;
+	
+	private Thread writer = null;
+	
+	/**
+	 * @param component for logging
+	 * @param fnJournal the journal file, created (anew) here
+	 * @param fnExport the gzipped JSON file written by zip()
+	 */
+	public WorkItemStateJournal(String component, String fnJournal, String fnExport) throws IOException {
+		logger = DuccLogger.getLogger(WorkItemStateJournal.class, component);
+		this.fnJournal = fnJournal;
+		this.fnExport = fnExport;
+		this.fnExportTemp = fnExport+".tmp";
+		open();
+		writer = new Thread(new Runnable() {
+			public void run() {
+				write();
+			}
+		}, WorkItemStateJournal.class.getSimpleName());
+		writer.setDaemon(true);
+		writer.start();
+	}
+	
+	private void open() throws IOException {
+		new File(fnJournal).delete();
+		raf = new RandomAccessFile(fnJournal, "rw");
+		channel = raf.getChannel();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(RECORD_SIZE);
+		header.putInt(0);
+		header.flip();
+		channel.write(header);
+		new File(fnExportTemp).delete();
+		FileOutputStream fos = new FileOutputStream(fnExportTemp);
+		exporter = new JsonWriter(new OutputStreamWriter(new GZIPOutputStream(fos), charset));
+		exporter.setIndent("  ");
+		exporter.beginArray();
+	}
+	
+	/**
+	 * Queue the current state of the work item; returns without waiting 
+	 * for the write.
+	 */
+	public void append(IWorkItemState wis) {
+		Entry entry = new Entry();
+		entry.record = encode(wis);
+		if(isFinished(wis)) {
+			// no longer changed by the keeper, so safe to export later
+			entry.finished = wis;
+		}
+		queue.offer(entry);
+		appended.incrementAndGet();
+	}
+	
+	/**
+	 * Wait until everything appended so far has been written, for at most 
+	 * a minute.
+	 */
+	public void flush() throws IOException {
+		flush(FLUSH_TIMEOUT_MILLIS);
+	}
+	
+	/**
+	 * Wait until everything appended so far has been written.
+	 * 
+	 * @throws IOException if the journal has failed, or the records are 
+	 *         not written within timeoutMillis
+	 */
+	public void flush(long timeoutMillis) throws IOException {
+		long target = appended.get();
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while(written.get() < target) {
+			checkFailure();
+			if(!writer.isAlive()) {
+				throw new IOException("writer not running: "+fnJournal);
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if(remaining <= 0) {
+				throw new IOException("timed out after "+timeoutMillis+"ms with "+(target-written.get())+" records unwritten: "+fnJournal);
+			}
+			LockSupport.unpark(writer);
+			synchronized(this) {
+				if((written.get() < target) && (failure == null)) {
+					try {
+						wait(Math.min(remaining, WRITE_INTERVAL_MILLIS));
+					}
+					catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("flush: "+fnJournal);
+					}
+				}
+			}
+		}
+		checkFailure();
+	}
+	
+	private void checkFailure() throws IOException {
+		Exception e = failure;
+		if(e != null) {
+			throw new IOException("journal failed: "+fnJournal, e);
+		}
+	}
+	
+	/**
+	 * Stop the journal: export the given still active work items after 
+	 * the finished ones, install the export file and remove the journal.
+	 */
+	public void zip(Collection<IWorkItemState> active) throws IOException {
+		String location = "zip";
+		try {
+			flush();
+		}
+		catch(IOException e) {
+			// export what there is
+			logger.warn(location, jobid, e);
+		}
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for(IWorkItemState wis : active) {
+			gson.toJson(wis, WorkItemState.class, exporter);
+		}
+		exporter.endArray();
+		exporter.close();
+		channel.close();
+		raf.close();
+		File export = new File(fnExport);
+		export.delete();
+		new File(fnExportTemp).renameTo(export);
+		new File(fnJournal).delete();
+	}
+	
+	private void write() {
+		String location = "write";
+		ByteBuffer batch = ByteBuffer.allocate(MAX_BATCH * RECORD_SIZE);
+		ArrayList<IWorkItemState> finished = new ArrayList<IWorkItemState>();
+		while(true) {
+			boolean last = closed;
+			int count = 0;
+			try {
+				batch.clear();
+				finished.clear();
+				Entry entry = queue.poll();
+				while(entry != null) {
+					batch.put(entry.record);
+					if(entry.finished != null) {
+						finished.add(entry.finished);
+					}
+					count++;
+					if(count == MAX_BATCH) {
+						break;
+					}
+					entry = queue.poll();
+				}
+				if(count > 0) {
+					if(failure == null) {
+						batch.flip();
+						while(batch.hasRemaining()) {
+							channel.write(batch);
+						}
+						channel.force(false);
+						for(IWorkItemState wis : finished) {
+							gson.toJson(wis, WorkItemState.class, exporter);
+						}
+					}
+					written.addAndGet(count);
+					int batched = count;
+					count = 0;
+					synchronized(this) {
+						notifyAll();
+					}
+					logger.trace(location, jobid, "records:"+batched+" "+"total:"+written.get());
+					if(batched == MAX_BATCH) {
+						continue;
+					}
+				}
+			}
+			catch(Exception e) {
+				logger.error(location, jobid, e);
+				// the records taken are lost; don't leave flush() waiting for them
+				failure = e;
+				written.addAndGet(count);
+				synchronized(this) {
+					notifyAll();
+				}
+			}
+			if(last && queue.isEmpty()) {
+				break;
+			}
+			LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(WRITE_INTERVAL_MILLIS));
+		}
+	}
+	
+	private static boolean isFinished(IWorkItemState wis) {
+		boolean retVal = false;
+		State state = wis.getState();
+		switch(state) {
+		case ended:
+		case error:
+			retVal = true;
+			break;
+		default:
+			break;
+		}
+		return retVal;
+	}
+	
+	private static State toState(byte ordinal) {
+		State retVal = State.unknown;
+		if((ordinal >= 0) && (ordinal < states.length)) {
+			retVal = states[ordinal];
+		}
+		return retVal;
+	}
+	
+	public static byte[] encode(IWorkItemState wis) {
+		ByteBuffer bb = ByteBuffer.allocate(RECORD_SIZE);
+		bb.putInt(OFFSET_SEQNO, Integer.parseInt(wis.getSeqNo()));
+		bb.put(OFFSET_STATE, (byte) wis.getState().ordinal());
+		if(wis instanceof WorkItemState) {
+			WorkItemState ws = (WorkItemState) wis;
+			bb.putLong(OFFSET_MILLIS, ws.getMillisAtStart());
+			bb.putLong(OFFSET_MILLIS+8, ws.getMillisAtQueued());
+			bb.putLong(OFFSET_MILLIS+16, ws.getMillisAtOperating());
+			bb.putLong(OFFSET_MILLIS+24, ws.getMillisAtFinish());
+			bb.putLong(OFFSET_MILLIS+32, ws.getMillisAtInvestment());
+		}
+		putString(bb, OFFSET_WIID, SIZE_WIID, wis.getWiId());
+		putString(bb, OFFSET_NODE, SIZE_NODE, wis.getNode());
+		putString(bb, OFFSET_PID, SIZE_PID, wis.getPid());
+		putString(bb, OFFSET_TID, SIZE_TID, wis.getTid());
+		return bb.array();
+	}
+	
+	/**
+	 * @param bb holding at least one record starting at position
+	 */
+	public static WorkItemState decode(ByteBuffer bb, int position) {
+		int seqNo = bb.getInt(position+OFFSET_SEQNO);
+		WorkItemState wis = new WorkItemState(seqNo);
+		State state = toState(bb.get(position+OFFSET_STATE));
+		long millisAtStart = bb.getLong(position+OFFSET_MILLIS);
+		long millisAtQueued = bb.getLong(position+OFFSET_MILLIS+8);
+		long millisAtOperating = bb.getLong(position+OFFSET_MILLIS+16);
+		long millisAtFinish = bb.getLong(position+OFFSET_MILLIS+24);
+		long millisAtInvestment = bb.getLong(position+OFFSET_MILLIS+32);
+		wis.restore(state, millisAtStart, millisAtQueued, millisAtOperating, millisAtFinish, millisAtInvestment);
+		wis.setWiId(getString(bb, position+OFFSET_WIID));
+		wis.setNode(getString(bb, position+OFFSET_NODE));
+		wis.setPid(getString(bb, position+OFFSET_PID));
+		wis.setTid(getString(bb, position+OFFSET_TID));
+		return wis;
+	}
+	
+	/**
+	 * @return true if the bytes begin with a journal header
+	 */
+	public static boolean isJournal(ByteBuffer bb) {
+		boolean retVal = false;
+		if(bb.remaining() >= HEADER_SIZE) {
+			int position = bb.position();
+			if(bb.getInt(position) == MAGIC) {
+				if(bb.getInt(position+8) == RECORD_SIZE) {
+					retVal = true;
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * @return the file offset of record number recordNo (from 0)
+	 */
+	public static long getOffset(long recordNo) {
+		return HEADER_SIZE + (recordNo * RECORD_SIZE);
+	}
+	
+	/**
+	 * @return the number of complete records in a journal of the given length
+	 */
+	public static long getRecords(long length) {
+		long retVal = 0;
+		if(length > HEADER_SIZE) {
+			retVal = (length - HEADER_SIZE) / RECORD_SIZE;
+		}
+		return retVal;
+	}
+	
+	// strings are stored as a length (short) followed by UTF-8 bytes, 
+	// truncated to fit the slot on a character boundary; null is stored 
+	// as length -1
+	
+	private static void putString(ByteBuffer bb, int offset, int size, String value) {
+		if(value == null) {
+			bb.putShort(offset, (short) -1);
+		}
+		else {
+			byte[] bytes = value.getBytes(charset);
+			int length = Math.min(bytes.length, size-2);
+			if(length < bytes.length) {
+				// don't split a character: back up past its continuation bytes
+				while((length > 0) && ((bytes[length] & 0xC0) == 0x80)) {
+					length--;
+				}
+			}
+			bb.putShort(offset, (short) length);
+			for(int i=0; i<length; i++) {
+				bb.put(offset+2+i, bytes[i]);
+			}
+		}
+	}
+	
+	private static String getString(ByteBuffer bb, int offset) {
+		String retVal = null;
+		int length = bb.getShort(offset);
+		if(length >= 0) {
+			byte[] bytes = new byte[length];
+			for(int i=0; i<length; i++) {
+				bytes[i] = bb.get(offset+2+i);
+			}
+			retVal = new String(bytes, charset);
+		}
+		return retVal;
+	}
+	
+	/*
+	 * A queued record, with the work item it came from if finished
+	 */
+	private static class Entry {
+		byte[] record;
+		IWorkItemState finished;
+	}
+}
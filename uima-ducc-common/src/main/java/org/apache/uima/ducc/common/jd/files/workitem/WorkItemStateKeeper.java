@@ -18,41 +18,34 @@
 */
 package org.apache.uima.ducc.common.jd.files.workitem;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.StringReader;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.zip.GZIPOutputStream;
 
 import org.apache.uima.ducc.common.jd.files.IWorkItemState;
 import org.apache.uima.ducc.common.jd.files.IWorkItemState.State;
 import org.apache.uima.ducc.common.jd.files.WorkItemState;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonWriter;
-
 public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkItemStateKeeper {
 	
 	private DuccLogger logger = DuccLogger.getLogger(WorkItemStateKeeper.class, null);
 	
-	private ConcurrentHashMap<Long, IWorkItemState> persist_map = new ConcurrentHashMap<Long, IWorkItemState>();
-	
-	private enum RecordingType { Memory, Disk };
+	private WorkItemStateJournal journal = null;
 	
 	public WorkItemStateKeeper(String component, String directory) {
+		String location = "WorkItemStateKeeper";
 		logger = DuccLogger.getLogger(WorkItemStateKeeper.class, component);
 		activeMap = new ActiveMap(component);
 		initialize(directory);
+		try {
+			journal = new WorkItemStateJournal(component, fnJournal, fnJsonGz);
+		}
+		catch(IOException e) {
+			// work item states are kept in memory only
+			logger.error(location, jobid, e);
+		}
 	}
 	
 	public ConcurrentHashMap<RemoteLocation, Long> getOperatingMillisMap() {
@@ -102,18 +95,18 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 	}
 	
 	@Override
-	public synchronized void zip() {
+	public void zip() {
 		String location = "zip";
 		try {
+			ArrayList<IWorkItemState> active = new ArrayList<IWorkItemState>();
 			for(Entry<Long, IWorkItemState> entry : activeMap.entrySet()) {
 				IWorkItemState wis = entry.getValue();
-				recordFinal(wis);
+				active.add(wis);
 				updateStatistics(wis);
 			}
-			deleteActive();
-			deleteZip();
-			transform();
-			deleteJson();
+			if(journal != null) {
+				journal.zip(active);
+			}
 		}
 		catch(Exception e) {
 			logger.error(location, jobid, e);
@@ -233,154 +226,38 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 		record(wis);
 	}
 
-	private synchronized void record(IWorkItemState wis) {
-		record(wis, RecordingType.Memory);
-	}
-	
-	private synchronized void record(IWorkItemState wis, RecordingType rType) {
+	private void record(IWorkItemState wis) {
 		String location = "record";
 		try {
 			State state = wis.getState();
 			String seqNo = wis.getSeqNo();
 			Long key = Long.valueOf(seqNo);
 			logger.debug(location, jobid, "seqNo:"+seqNo+" "+state.name());
+			if(journal != null) {
+				journal.append(wis);
+			}
 			switch(state) {
 			case ended:
 			case error:
-				switch(rType) {
-				case Memory:
-					activeMap.remove(key);
-					updateStatistics(wis);
-					break;
-				case Disk:
-					recordFinal(wis);
-					break;
-				}
+				activeMap.remove(key);
+				updateStatistics(wis);
 				break;
 			default:
 				activeMap.put(key, wis);
 				break;
 			}
-			switch(rType) {
-			case Memory:
-				persist_map.put(key, wis);
-				break;
-			case Disk:
-				recordActive();
-				break;
-			}
 		}
 		catch(Exception e) {
 			logger.error(location, jobid, e);
 		}
 	}
 	
-	private void transform() throws IOException {
-		String location = "transform";
-		InputStream fis = null;
-		InputStreamReader isr = null;
-		BufferedReader br = null;
-		String line = null;
-		File fileOut = null;
-		FileOutputStream fos = null;
-		GZIPOutputStream gos = null;
-		OutputStreamWriter osw = null;
-		JsonWriter jw = null;
-		try {
-			String targetFileIn = fnJson;
-			String targetFileOut = fnJsonGz;
-			fis = new FileInputStream(targetFileIn);
-			isr = new InputStreamReader(fis);
-			br = new BufferedReader(isr);
-			fileOut = new File(targetFileOut);
-			fos = new FileOutputStream(fileOut);
-			gos = new GZIPOutputStream(fos);
-			osw = new OutputStreamWriter(gos, encoding);
-			jw = new JsonWriter(osw);
-			jw.setIndent("  ");
-	        jw.beginArray();
-	        Type type = new TypeToken<WorkItemState>() { }.getType();
-	        line = br.readLine();
-			while(line != null) {
-				logger.trace(location, jobid, line);
-				StringReader sr = new StringReader(line.trim());
-				WorkItemState wis = gson.fromJson(sr, type);
-				gson.toJson(wis, WorkItemState.class, jw);
-				line = br.readLine();
-			}
-	        jw.endArray();
-		}
-		catch(Exception e) {
-			logger.error(location, jobid, e);
-		}
-		finally {
-			if(br != null) {
-				br.close();
-			}
-			if(jw != null) {
-				jw.close();
-			}
-		}
-	}
-	
-	private void deleteZip() {
-		String targetFile = fnJsonGz;
-		File file = new File(targetFile);
-		file.delete();
-	}
-	
-	private void deleteActive() {
-		String targetFile = fnActiveJson;
-		File file = new File(targetFile);
-		file.delete();
-	}
-	
-	private void deleteJson() {
-		String targetFile = fnJson;
-		File file = new File(targetFile);
-		file.delete();
-	}
-	
-	private void recordActive() throws IOException {
-		FileWriter fw = null;
-		String targetFile = fnActiveJson;
-		try {
-			deleteActive();
-			fw = new FileWriter(targetFile, !append);
-			for(Entry<Long, IWorkItemState> entry : activeMap.entrySet()) {
-				IWorkItemState wis = entry.getValue();
-				String json = gson.toJson(wis)+linend;
-				fw.write(json);
-			}
-		}
-		finally {
-			if(fw != null) {
-				fw.close();
-			}
-		}
-	}
-	
-	private void recordFinal(IWorkItemState wis) throws IOException {
-		FileWriter fw = null;
-		String targetFile = fnJson;
-		try {
-			fw = new FileWriter(targetFile, append);
-			String json = gson.toJson(wis)+linend;
-			fw.write(json);
-		}
-		finally {
-			if(fw != null) {
-				fw.close();
-			}
-		}
-	}
-	
 	public WorkItemStatistics getStatistics() {
 		stats.millisOperatingLeast = activeMap.getOperatingLeast();
 		return stats;
 	}
 	
-	private void updateStatistics(IWorkItemState wis) throws IOException {
+	private synchronized void updateStatistics(IWorkItemState wis) {
 		long wiMillis = wis.getMillisProcessing();
 		if(stats.count > 0) {
 			if(wiMillis > stats.millisMax) {
@@ -422,17 +299,19 @@ public class WorkItemStateKeeper extends WorkItemStateAbstract implements IWorkI
 		}
 	}
 
+	/**
+	 * Wait for the journal to catch up with the transitions recorded so far.
+	 */
 	@Override
 	public void persist() {
 		String location = "persist";
-		if(logger!= null) {
-			logger.trace(location, jobid, "size: "+persist_map.size());
-		}
-		for(Entry<Long, IWorkItemState> entry : persist_map.entrySet()) {
-			Long key = entry.getKey();
-			persist_map.remove(key);
-			IWorkItemState wis = entry.getValue();
-			record(wis, RecordingType.Disk);
+		if(journal != null) {
+			try {
+				journal.flush();
+			}
+			catch(IOException e) {
+				logger.error(location, jobid, e);
+			}
 		}
 	}
 
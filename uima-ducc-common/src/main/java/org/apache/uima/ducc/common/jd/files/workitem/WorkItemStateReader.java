@@ -24,8 +24,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
 import java.io.StringReader;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.zip.GZIPInputStream;
@@ -52,6 +54,9 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 	private String user = null;
 	private long wiVersion = 0;
 	
+	// records read from the journal per request
+	private static final int JournalChunk = 4096;
+	
 	public WorkItemStateReader(String component, String directory, String user, long wiVersion) {
 		logger = DuccLogger.getLogger(WorkItemStateKeeper.class, component);
 		setComponent(component);
@@ -78,6 +83,10 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 		wiVersion = value;
 	}
 	
+	protected long getWiVersion() {
+		return wiVersion;
+	}
+	
 	private void initialize() {
 		if(wiVersion == 0) {
 			wism = new WorkItemStateManager(component, directory, user);
@@ -105,7 +114,15 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 			map = new ConcurrentSkipListMap<Long,IWorkItemState>();
 			try {
 				fetchZipped(map, lastRecordNo, maxRecords);
-				if(map.isEmpty()) {
+				if(map.isEmpty() && (wiVersion > 1)) {
+					try {
+						fetchJournal(map, 0, lastRecordNo, maxRecords);
+					}
+					catch(Exception e) {
+						logger.debug(location, jobid, e);
+					}
+				}
+				else if(map.isEmpty()) {
 					try {
 						fetchActive(map);
 					}
@@ -229,6 +246,70 @@ public class WorkItemStateReader extends WorkItemStateAbstract implements IWorkI
 		}
 	}
 	
+	/**
+	 * Add the work item states recorded in the journal from record number 
+	 * fromRecordNo onwards, later records replacing earlier ones.
+	 * 
+	 * @return the number of the next record to be written, from which 
+	 *         a subsequent call can continue
+	 */
+	public long fetchJournal(ConcurrentSkipListMap<Long,IWorkItemState> map, long fromRecordNo) throws IOException {
+		long lastRecordNo = 0;
+		long maxRecords = 0;
+		return fetchJournal(map, fromRecordNo, lastRecordNo, maxRecords);
+	}
+	
+	protected long fetchJournal(ConcurrentSkipListMap<Long,IWorkItemState> map, long fromRecordNo, long lastRecordNo, long maxRecords) throws IOException {
+		String location = "fetchJournal";
+		long recordNo = fromRecordNo;
+		byte[] header = readJournal(0, WorkItemStateJournal.HEADER_SIZE);
+		if(header != null) {
+			if(WorkItemStateJournal.isJournal(ByteBuffer.wrap(header))) {
+				int length = JournalChunk * WorkItemStateJournal.RECORD_SIZE;
+				while(true) {
+					byte[] bytes = readJournal(WorkItemStateJournal.getOffset(recordNo), length);
+					if(bytes == null) {
+						break;
+					}
+					ByteBuffer bb = ByteBuffer.wrap(bytes);
+					int count = bytes.length / WorkItemStateJournal.RECORD_SIZE;
+					for(int i=0; i<count; i++) {
+						IWorkItemState wis = WorkItemStateJournal.decode(bb, i*WorkItemStateJournal.RECORD_SIZE);
+						tryToAdd(wis, map, lastRecordNo, maxRecords);
+					}
+					recordNo += count;
+					if(count < JournalChunk) {
+						break;
+					}
+				}
+			}
+		}
+		logger.debug(location, jobid, "from:"+fromRecordNo+" "+"to:"+recordNo+" "+"size:"+map.size());
+		return recordNo;
+	}
+	
+	/**
+	 * @return up to length bytes of the journal from offset, or null if there is no journal
+	 */
+	protected byte[] readJournal(long offset, int length) throws IOException {
+		byte[] retVal = null;
+		File file = new File(fnJournal);
+		if(file.exists()) {
+			RandomAccessFile raf = new RandomAccessFile(file, "r");
+			try {
+				long available = Math.max(0, raf.length() - offset);
+				byte[] bytes = new byte[(int) Math.min(length, available)];
+				raf.seek(offset);
+				raf.readFully(bytes);
+				retVal = bytes;
+			}
+			finally {
+				raf.close();
+			}
+		}
+		return retVal;
+	}
+	
 	private void fetchZipped(ConcurrentSkipListMap<Long,IWorkItemState> map, long lastRecordNo, long maxRecords) throws IOException {
 		String location = "fetchZipped";
 		File file = null;
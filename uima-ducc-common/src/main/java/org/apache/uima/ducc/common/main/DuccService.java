@@ -154,6 +154,10 @@ public class DuccService extends AbstractDuccComponent {
         //  overrides for entries in ducc properties file. Any key in the ducc
         //	property file can be overriden with -D<key>=<value>
 		loadProperties(DUCC_PROPERTY_FILE);
+		// Move log writes off the component threads once the logger tuning is known
+		if ( Boolean.valueOf(System.getProperty("ducc.logger.threaded", "false")) ) {
+			DuccLogger.setThreaded();
+		}
 
 		getLogger().trace("boot",null,System.getProperties());
 		//	Extract component configuration classes available in System properties
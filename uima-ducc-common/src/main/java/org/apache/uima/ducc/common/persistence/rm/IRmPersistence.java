@@ -222,6 +222,20 @@ public interface IRmPersistence
      * 
      */
     public void close();
+
+    /**
+     * End of epoch barrier.  Updates may be held and coalesced by the implementation;
+     * on return every update made before the call has been sent to the DB, though
+     * not necessarily acknowledged.
+     */
+    public void flush() throws Exception;
+
+    /**
+     * How far the DB is behind the RM, in milliseconds: the age of the oldest update
+     * not yet acknowledged by the DB, or if there is none, how long the most recently
+     * acknowledged update waited.
+     */
+    public long getLag();
     
     enum RmNodes
         implements IDbProperty
@@ -39,6 +39,8 @@ public class NullRmStatePersistence implements IRmPersistence
     public void init(DuccLogger logger) throws Exception { }
     public void clear() {}
     public void close() {}
+    public void flush() {}
+    public long getLag() { return 0; }
     public void setNodeProperty(String id, RmNodes key, Object value) { }
     public void setNodeProperties(String id, Object... props) {}
     public void createMachine(String id, Map<RmNodes, Object> props) { }
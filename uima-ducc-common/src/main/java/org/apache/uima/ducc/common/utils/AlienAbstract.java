@@ -18,7 +18,10 @@
 */
 package org.apache.uima.ducc.common.utils;
 
+import java.io.BufferedReader;
 import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
 
 import org.apache.uima.ducc.common.utils.id.DuccId;
 
@@ -26,6 +29,8 @@ public abstract class AlienAbstract {
 	
 	private static DuccLogger duccLogger = DuccLogger.getLogger(AlienAbstract.class);
 	
+	private static volatile IAlienFileAccess fileAccess = null;
+	
 	protected DuccId duccId = null;
 	
 	protected String encoding = "UTF-8";
@@ -36,6 +41,18 @@ public abstract class AlienAbstract {
 	
 	protected String user;
 	
+	/**
+	 * Register a long-lived file reader to use instead of forking ducc_ling
+	 * for every file; null reverts to forking.
+	 */
+	public static void setFileAccess(IAlienFileAccess value) {
+		fileAccess = value;
+	}
+	
+	protected static IAlienFileAccess getFileAccess() {
+		return fileAccess;
+	}
+	
 	protected void set_encoding(String value) {
 		encoding = value;
 	}
@@ -92,6 +109,25 @@ public abstract class AlienAbstract {
 		}
 	}
 	
+	/*
+	 * Read all lines, each terminated by a newline
+	 */
+	protected String lines(InputStreamReader isr) throws IOException {
+		BufferedReader br = new BufferedReader(isr);
+		try {
+			StringBuilder sb = new StringBuilder();
+			String line;
+			while ((line = br.readLine()) != null) {
+				sb.append(line);
+				sb.append("\n");
+			}
+			return sb.toString();
+		}
+		finally {
+			closer(br);
+		}
+	}
+	
 	protected void closer(Closeable c) {
 		try {
 			c.close();
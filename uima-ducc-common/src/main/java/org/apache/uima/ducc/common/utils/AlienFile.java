@@ -19,8 +19,11 @@
 package org.apache.uima.ducc.common.utils;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -42,6 +45,8 @@ public class AlienFile extends AlienAbstract {
 
 	private int exitValue;
 	
+	private static final byte[] unavailable = new byte[0];
+	
 	protected void set_command_cat(String value) {
 		command_cat = value;
 	}
@@ -73,12 +78,53 @@ public class AlienFile extends AlienAbstract {
 		return command;
 	}
 	
+	/*
+	 * Read the whole file through the registered file access service.
+	 * Returns null if the file is missing or cannot be read, or
+	 * unavailable if there is no service and ducc_ling must be used.
+	 */
+	private byte[] fetch() {
+		String location = "fetch";
+		IAlienFileAccess access = getFileAccess();
+		if(access == null) {
+			return unavailable;
+		}
+		try {
+			return access.read(user, file_name, 0, -1);
+		}
+		catch(IOException e) {
+			duccLogger.debug(location, duccId, file_name, e.getMessage());
+			return unavailable;
+		}
+	}
+	
+	private InputStreamReader getInputStreamReader(byte[] bytes) throws IOException {
+		InputStream is = new ByteArrayInputStream(bytes);
+		if(FileHelper.isGzFileType(file_name)) {
+			return new InputStreamReader(new GZIPInputStream(is), encoding);
+		}
+		return new InputStreamReader(is);
+	}
+	
 	/*
 	 * Read file contents into a string
 	 * Returns null if file is missing or cannot be read
 	 */
 	private String reader() throws Exception {
 	    String location = "reader";
+	    byte[] bytes = fetch();
+	    if(bytes != unavailable) {
+	    	if(bytes == null) {
+	    		return null;
+	    	}
+	    	try {
+	    		return lines(getInputStreamReader(bytes));
+	    	}
+	    	catch(Exception e) {
+	    		duccLogger.error(location, duccId, e);
+	    		throw e;
+	    	}
+	    }
 		BufferedReader br = null;
 		InputStreamReader isr = null;
 		Process p = null;
@@ -137,6 +183,11 @@ public class AlienFile extends AlienAbstract {
 	
 	public InputStreamReader getInputStreamReader() throws Exception {
 		InputStreamReader isr = null;
+		byte[] bytes = fetch();
+		if(bytes != unavailable) {
+			// an unreadable file looks like an empty one, as with cat
+			return getInputStreamReader(bytes == null ? new byte[0] : bytes);
+		}
 		try {
 			String[] command = getCommand();
 			echo(command);
@@ -160,6 +211,10 @@ public class AlienFile extends AlienAbstract {
 
 	public DataInputStream getDataInputStream() throws Exception {
 		DataInputStream dis = null;
+		byte[] bytes = fetch();
+		if(bytes != unavailable) {
+			return new DataInputStream(new ByteArrayInputStream(bytes == null ? new byte[0] : bytes));
+		}
 		try {
 			String[] command = getCommand();
 			echo(command);
@@ -175,6 +230,72 @@ public class AlienFile extends AlienAbstract {
 		return dis;
 	}
 	
+	/**
+	 * @return true if getBytes(offset, length) reads just that range, 
+	 * rather than the whole file
+	 */
+	public boolean isRangeReadable() {
+		return getFileAccess() != null;
+	}
+	
+	/**
+	 * Read the whole file;
+	 * return null if file is unreadable or does not exist
+	 */
+	public byte[] getBytes() throws Exception {
+		byte[] bytes = fetch();
+		if(bytes != unavailable) {
+			return bytes;
+		}
+		DataInputStream dis = getDataInputStream();
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while((n = dis.read(buffer)) >= 0) {
+				baos.write(buffer, 0, n);
+			}
+			return baos.toByteArray();
+		}
+		finally {
+			closer(dis);
+		}
+	}
+	
+	/**
+	 * Read up to length bytes from offset;
+	 * return null if file is unreadable or does not exist.
+	 * 
+	 * Unless isRangeReadable() the whole file is read each time, so a 
+	 * caller wanting several ranges should getBytes() once and slice it.
+	 */
+	public byte[] getBytes(long offset, int length) throws Exception {
+		String location = "getBytes";
+		IAlienFileAccess access = getFileAccess();
+		if(access != null) {
+			try {
+				return access.read(user, file_name, offset, length);
+			}
+			catch(IOException e) {
+				duccLogger.debug(location, duccId, file_name, e.getMessage());
+			}
+		}
+		return slice(getBytes(), offset, length);
+	}
+	
+	/**
+	 * @return up to length bytes of bytes from offset, or null if bytes is null
+	 */
+	public static byte[] slice(byte[] bytes, long offset, int length) {
+		byte[] retVal = null;
+		if(bytes != null) {
+			int from = (int) Math.min(offset, bytes.length);
+			int to = (int) Math.min((long) from + length, bytes.length);
+			retVal = Arrays.copyOfRange(bytes, from, to);
+		}
+		return retVal;
+	}
+	
 	/*
 	 * Execute a command and return an array of result lines
 	 * (not used but may be useful e.g. in getting the date of a file)
@@ -21,17 +21,26 @@ package org.apache.uima.ducc.common.utils;
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.Category;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
+import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.spi.ErrorHandler;
 import org.apache.log4j.spi.LoggingEvent;
 import org.apache.log4j.xml.DOMConfigurator;
@@ -50,9 +59,31 @@ public class DuccLogger
 
     private static String daemonComponent = null;
     
-    private static DuccLoggingThread log_thread = null;
-    private static LinkedBlockingQueue<DuccLoggingEvent> events = null;
+    private static volatile DuccLoggingThread log_thread = null;
+    private static EventRing events = null;
     private static AtomicBoolean threaded = new AtomicBoolean(false);
+
+    // Tuning for the logging thread, read once when threading is enabled
+    private static final String PROP_QUEUE_CAPACITY  = "ducc.logger.queue.capacity";
+    private static final String PROP_OVERFLOW_POLICY = "ducc.logger.overflow.policy";
+    private static final String PROP_OVERFLOW_LEVEL  = "ducc.logger.overflow.level";
+    private static final String PROP_SAMPLE_RATE     = "ducc.logger.overflow.sample.rate";
+
+    private static final int  DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int  DEFAULT_SAMPLE_RATE    = 100;
+    private static final long SHUTDOWN_WAIT_MILLIS   = 5000;
+
+    enum OverflowPolicy { block, drop, sample }
+
+    static OverflowPolicy overflowPolicy = OverflowPolicy.block;
+    static Level overflowLevel = Level.INFO;
+    static int sampleRate = DEFAULT_SAMPLE_RATE;
+
+    static final AtomicLong logged     = new AtomicLong(0);
+    static final AtomicLong dropped    = new AtomicLong(0);
+    static final AtomicLong sampled    = new AtomicLong(0);
+    static final AtomicLong blocked    = new AtomicLong(0);
+    static final AtomicLong overflowed = new AtomicLong(0);
     private static boolean watchdogStarted = false;
 
     private final static String DEFAULT_COMPONENT = "DUCC";
@@ -63,11 +94,78 @@ public class DuccLogger
     static synchronized protected void initLogger()
     {
         if ( log_thread == null ) {
-            events = new LinkedBlockingQueue<DuccLoggingEvent>();
+            configureOverflow();
+            events = new EventRing(getIntProperty(PROP_QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY));
             log_thread = new DuccLoggingThread();
             log_thread.setName("DuccLoggerThread");
             log_thread.setDaemon(true);
             log_thread.start();
+
+            // The logging thread is a daemon, give it a chance to write out what is queued
+            // when the process exits without calling shutdown().
+            Thread flusher = new Thread() {
+                    public void run()
+                    {
+                        stopLoggingThread();
+                    }
+                };
+            flusher.setName("DuccLoggerFlush");
+            Runtime.getRuntime().addShutdownHook(flusher);
+
+            registerStats();
+        }
+    }
+
+    private static int getIntProperty(String key, int dflt)
+    {
+        String value = System.getProperty(key);
+        if ( value == null ) return dflt;
+        try {
+            int ret = Integer.parseInt(value.trim());
+            if ( ret > 0 ) return ret;
+        } catch ( NumberFormatException e ) {
+            // fall through
+        }
+        fallback("invalid " + key + "=" + value + ", using " + dflt, null);
+        return dflt;
+    }
+
+    /**
+     * Diagnostics about the logger itself go to log4j's internal log (stderr), which never
+     * waits on the logging thread or the DUCC appenders.
+     */
+    static void fallback(String msg, Throwable t)
+    {
+        LogLog.warn("DuccLogger: " + msg, t);
+    }
+
+    private static void configureOverflow()
+    {
+        String policy = System.getProperty(PROP_OVERFLOW_POLICY);
+        if ( policy != null ) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(policy.trim().toLowerCase());
+            } catch ( IllegalArgumentException e ) {
+                fallback("invalid " + PROP_OVERFLOW_POLICY + "=" + policy + ", using " + overflowPolicy, null);
+            }
+        }
+        String level = System.getProperty(PROP_OVERFLOW_LEVEL);
+        if ( level != null ) {
+            overflowLevel = Level.toLevel(level.trim(), overflowLevel);
+        }
+        sampleRate = getIntProperty(PROP_SAMPLE_RATE, DEFAULT_SAMPLE_RATE);
+    }
+
+    private static void registerStats()
+    {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("org.apache.uima.ducc.service.admin.jmx:type=DuccLoggerStatsMBean,name=DuccLogger");
+            if ( ! mbs.isRegistered(name) ) {
+                mbs.registerMBean(new StandardMBean(new DuccLoggerStats(), DuccLoggerStatsMBean.class), name);
+            }
+        } catch ( Exception e ) {
+            fallback("unable to register logger statistics with JMX", e);
         }
     }
 
@@ -148,8 +246,14 @@ public class DuccLogger
         System.out.println("setUnthreaded is not supported.");
     }
 
+    /**
+     * Hand events to a single logging thread instead of writing them on the caller's thread.
+     * The queue is bounded by ducc.logger.queue.capacity; what happens when it is full is
+     * controlled by ducc.logger.overflow.policy.
+     */
     static public void setThreaded()
     {
+        initLogger();
     	threaded.set(true);
     }
 
@@ -401,189 +505,221 @@ public class DuccLogger
 
     public void doAppend(Level level, String method, DuccId jobid, String msg, Throwable t)
     {
-        DuccLoggingEvent ev = new DuccLoggingEvent(logger, component, level, method, jobid, msg, t, Thread.currentThread().getId(), Thread.currentThread().getName());
-        if ( threaded.get() ) {
-            events.offer(ev);
-        } else {
-            doLog(ev);
-        }
+        dispatch(new DuccLoggingEvent(this, level, method, jobid, msg, t));
     }
 
     public void doAppend(Level level, String method, DuccId jobid, String msg)
     {
-        DuccLoggingEvent ev = new DuccLoggingEvent(logger, component, level, method, jobid, msg, null, Thread.currentThread().getId(), Thread.currentThread().getName());
+        dispatch(new DuccLoggingEvent(this, level, method, jobid, msg, null));
+    }
+
+    // The arguments are formatted by whichever thread writes the event, see DuccLoggingEvent.getMessage()
+    private void append(Level level, String method, DuccId jobid, Throwable t, Object[] args)
+    {
+        dispatch(new DuccLoggingEvent(this, level, method, jobid, null, false, t, args));
+    }
+
+    private void appendWithProcess(Level level, String method, DuccId jobid, DuccId processId, Throwable t, Object[] args)
+    {
+        dispatch(new DuccLoggingEvent(this, level, method, jobid, processId, true, t, args));
+    }
+
+    private void dispatch(DuccLoggingEvent ev)
+    {
         if ( threaded.get() ) {
-            events.offer(ev);
-        } else {
-            doLog(ev);
+            ev.freeze();
+            if ( enqueue(events, ev) ) return;
+        }
+        doLog(ev);
+    }
+
+    /**
+     * Queue the event for the logging thread, applying the overflow policy if the queue is full.
+     *
+     * @return false if the logging thread is gone and the caller must log the event itself.
+     */
+    static boolean enqueue(EventRing ring, DuccLoggingEvent ev)
+    {
+        if ( ring.offer(ev) ) return true;
+        if ( ring.isClosed() ) return false;
+
+        if ( overflowPolicy != OverflowPolicy.block && overflowLevel.isGreaterOrEqual(ev.level) ) {
+            // expendable event: drop it, or for sample keep every sampleRate'th one
+            if ( overflowPolicy == OverflowPolicy.drop || (overflowed.incrementAndGet() % sampleRate) != 0 ) {
+                dropped.incrementAndGet();
+                return true;
+            }
+            sampled.incrementAndGet();
         }
+        blocked.incrementAndGet();
+        return ring.put(ev);
     }
 
     public void fatal(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.FATAL) ) {
-            doAppend(Level.FATAL, location, jobid, formatMsg(args));
+            append(Level.FATAL, location, jobid, null, args);
         }
     }
 
     public void fatal(String location, DuccId jobid, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.FATAL) ) {
-            doAppend(Level.FATAL, location, jobid, formatMsg(args), t);
+            append(Level.FATAL, location, jobid, t, args);
         }
     }
 
     public void fatal(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.FATAL) ) {
-            doAppend(Level.FATAL, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.FATAL, location, jobid, processId, null, args);
         }
     }
 
     public void fatal(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.FATAL) ) {
-            doAppend(Level.FATAL, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.FATAL, location, jobid, processId, t, args);
         }
     }
     
     public void debug(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.DEBUG) ) {
-            doAppend(Level.DEBUG, location, jobid, formatMsg(args));
+            append(Level.DEBUG, location, jobid, null, args);
         } 
     }
 
     public void debug(String location, DuccId jobid, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.DEBUG) ) {
-            doAppend(Level.DEBUG, location, jobid, formatMsg(args), t);
+            append(Level.DEBUG, location, jobid, t, args);
         }
     }
     
     public void debug(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.DEBUG) ) {
-            doAppend(Level.DEBUG, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.DEBUG, location, jobid, processId, null, args);
         } 
     }
 
     public void debug(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.DEBUG) ) {
-            doAppend(Level.DEBUG, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.DEBUG, location, jobid, processId, t, args);
         }
     }
     
     public void error(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.ERROR) ) {
-            doAppend(Level.ERROR, location, jobid, formatMsg(args));
+            append(Level.ERROR, location, jobid, null, args);
         }
     }
 
     public void error(String location, DuccId jobid, Throwable t, Object ... args)
     { 
         if ( isLevelEnabled(Level.ERROR) ) {
-            doAppend(Level.ERROR, location, jobid, formatMsg(args), t);
+            append(Level.ERROR, location, jobid, t, args);
         }
     }
     
     public void error(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.ERROR) ) {
-            doAppend(Level.ERROR, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.ERROR, location, jobid, processId, null, args);
         }
     }
 
     public void error(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     { 
         if ( isLevelEnabled(Level.ERROR) ) {
-            doAppend(Level.ERROR, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.ERROR, location, jobid, processId, t, args);
         }
     }
     
     public void info(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.INFO) ) {
-            doAppend(Level.INFO, location, jobid, formatMsg(args));
+            append(Level.INFO, location, jobid, null, args);
         }
     }
 
     public void info(String location, DuccId jobid, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.INFO) ) {
-            doAppend(Level.INFO, location, jobid, formatMsg(args), t);
+            append(Level.INFO, location, jobid, t, args);
         }
     }
     
     public void info(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.INFO) ) {
-            doAppend(Level.INFO, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.INFO, location, jobid, processId, null, args);
         }
     }
 
     public void info(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.INFO) ) {
-            doAppend(Level.INFO, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.INFO, location, jobid, processId, t, args);
         }
     }
     
     public void trace(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.TRACE) ) {
-            doAppend(Level.TRACE, location, jobid, formatMsg(args));
+            append(Level.TRACE, location, jobid, null, args);
         }
     }
 
     public void trace(String location, DuccId jobid, Throwable t, Object ... args)
     {    
         if ( isLevelEnabled(Level.TRACE) ) {
-            doAppend(Level.TRACE, location, jobid, formatMsg(args), t);
+            append(Level.TRACE, location, jobid, t, args);
         }
     }
     
     public void trace(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.TRACE) ) {
-            doAppend(Level.TRACE, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.TRACE, location, jobid, processId, null, args);
         }
     }
 
     public void trace(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     {    
         if ( isLevelEnabled(Level.TRACE) ) {
-            doAppend(Level.TRACE, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.TRACE, location, jobid, processId, t, args);
         }
     }
     
     public void warn(String location, DuccId jobid, Object ... args)
     {
         if ( isLevelEnabled(Level.WARN) ) {
-            doAppend(Level.WARN, location, jobid, formatMsg(args));
+            append(Level.WARN, location, jobid, null, args);
         }
     }
 
     public void warn(String location, DuccId jobid, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.WARN) ) {
-            doAppend(Level.WARN, location, jobid, formatMsg(args), t);
+            append(Level.WARN, location, jobid, t, args);
         }
     }
     
     public void warn(String location, DuccId jobid, DuccId processId, Object ... args)
     {
         if ( isLevelEnabled(Level.WARN) ) {
-            doAppend(Level.WARN, location, jobid, formatMsg(processId, args));
+            appendWithProcess(Level.WARN, location, jobid, processId, null, args);
         }
     }
 
     public void warn(String location, DuccId jobid, DuccId processId, Throwable t, Object ... args)
     {
         if ( isLevelEnabled(Level.WARN) ) {
-            doAppend(Level.WARN, location, jobid, formatMsg(processId, args), t);
+            appendWithProcess(Level.WARN, location, jobid, processId, t, args);
         }
     }
 
@@ -593,39 +729,118 @@ public class DuccLogger
     public void shutdown()
     {
         if ( threaded.get() ) {
-            DuccLoggingEvent ev = new DuccLoggingEvent();
-            ev.done = true;
-            events.offer(ev);
+            stopLoggingThread();
+        }
+    }
+
+    private static void stopLoggingThread()
+    {
+        DuccLoggingThread t = log_thread;
+        if ( t == null || !t.isAlive() ) return;
+
+        DuccLoggingEvent ev = new DuccLoggingEvent();
+        ev.done = true;
+        if ( events.put(ev) ) {
+            try {
+                t.join(SHUTDOWN_WAIT_MILLIS);
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 
-    class DuccLoggingEvent
+    static class DuccLoggingEvent
     {
+        DuccLogger source;
         Logger logger;
         String component;
         Level level;
         Object msg;
+        Object[] args;
+        DuccId processId;
+        boolean withProcessId;
         Throwable throwable;
         boolean done = false;
         long tid;
         String threadName;
         String method;
-        String jobid;
+        DuccId jobid;
         
         DuccLoggingEvent() {
         }
         
-        DuccLoggingEvent(Logger logger, String component, Level level, String method, DuccId jobid, Object msg, Throwable throwable, long threadId, String threadName)
+        DuccLoggingEvent(DuccLogger source, Level level, String method, DuccId jobid, Object msg, Throwable throwable)
         {
-            this.logger = logger;
-            this.component = component.trim();
+            this.source = source;
+            this.logger = source.logger;
+            this.component = source.component.trim();
             this.level = level;
             this.method = method.trim();
-            this.jobid = format(jobid);
+            this.jobid = jobid;
             this.msg = msg;
             this.throwable = throwable;
-            this.tid = threadId;
-            this.threadName = threadName.trim();
+            Thread current = Thread.currentThread();
+            this.tid = current.getId();
+            this.threadName = current.getName().trim();
+        }
+
+        DuccLoggingEvent(DuccLogger source, Level level, String method, DuccId jobid, DuccId processId, boolean withProcessId, Throwable throwable, Object[] args)
+        {
+            this(source, level, method, jobid, null, throwable);
+            this.processId = processId;
+            this.withProcessId = withProcessId;
+            this.args = args;
+        }
+
+        /**
+         * Called before the event leaves the caller's thread. Arguments that may still change
+         * underneath us (collections, maps, the caller's own objects) are rendered now; the
+         * immutable ones, and all the string building, are left to the logging thread.
+         */
+        void freeze()
+        {
+            if ( args == null ) return;
+
+            Object[] frozen = args;
+            for ( int i = 0; i < args.length; i++ ) {
+                Object a = args[i];
+                if ( a == null || isImmutable(a) ) continue;
+                if ( frozen == args ) {
+                    frozen = args.clone();
+                }
+                frozen[i] = a.toString();
+            }
+            args = frozen;
+        }
+
+        private static boolean isImmutable(Object a)
+        {
+            return (a instanceof String)
+                || (a instanceof Integer)
+                || (a instanceof Long)
+                || (a instanceof Boolean)
+                || (a instanceof Double)
+                || (a instanceof Float)
+                || (a instanceof Short)
+                || (a instanceof Byte)
+                || (a instanceof Character)
+                || (a instanceof Enum)
+                || (a instanceof DuccId)
+                || (a instanceof Throwable);
+        }
+
+        Object getMessage()
+        {
+            if ( args != null ) {
+                msg = withProcessId ? source.formatMsg(processId, args) : source.formatMsg(args);
+                args = null;
+            }
+            return msg;
+        }
+
+        String getJobId()
+        {
+            return source.format(jobid);
         }
     }
 
@@ -645,15 +860,15 @@ public class DuccLogger
 
         MDC.put("COMPONENT", ev.component);
         MDC.put("TID", ev.tid);
-        MDC.put("JID", ev.jobid);
+        MDC.put("JID", ev.getJobId());
         MDC.put("METHOD", ev.method);
         MDC.put("TNAME", ev.threadName);
         
         try {
             if (ev.throwable == null) {
-                ev.logger.log(ev.level, ev.msg);
+                ev.logger.log(ev.level, ev.getMessage());
             } else {
-                ev.logger.log(ev.level, ev.msg, ev.throwable);
+                ev.logger.log(ev.level, ev.getMessage(), ev.throwable);
             }
             if ( loggingError != null ) {
                 throw loggingError;
@@ -678,23 +893,232 @@ public class DuccLogger
         extends Thread
     {
         public void run()
+        {
+            try {
+                while ( true ) {
+                    DuccLoggingEvent ev = events.take();
+                    if ( ev.done ) return;      // we're shutdown
+                    doLog(ev);
+                    logged.incrementAndGet();
+                }
+            } finally {
+                // Callers log for themselves from here on; write out anything that raced in behind us.
+                threaded.set(false);
+                events.close();
+                DuccLoggingEvent ev;
+                while ( (ev = events.drain()) != null ) {
+                    if ( !ev.done ) doLog(ev);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring of logging events. Producers claim a slot
+     * with a single CAS and never take a lock; each slot carries a sequence number that tells
+     * the consumer when it has been published and the producers when it has been freed.
+     * Closing sets the top bit of the tail, so no slot can be claimed after the consumer
+     * has seen the ring closed.
+     */
+    static class EventRing
+    {
+        private static final long CONSUMER_PARK_NANOS  = TimeUnit.MILLISECONDS.toNanos(100);
+        private static final long PRODUCER_PARK_NANOS  = TimeUnit.MICROSECONDS.toNanos(50);
+        private static final long CLOSED               = Long.MIN_VALUE;
+
+        private final DuccLoggingEvent[] slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong(0);
+        private volatile long head = 0;
+        private volatile Thread consumer = null;
+
+        EventRing(int capacity)
+        {
+            int size = 2;                                        // with one slot "freed" and "published" look the same
+            while ( size < capacity ) size <<= 1;
+
+            slots = new DuccLoggingEvent[size];
+            sequences = new AtomicLongArray(size);
+            for ( int i = 0; i < size; i++ ) {
+                sequences.set(i, i);
+            }
+            mask = size - 1;
+        }
+
+        int capacity()
+        {
+            return slots.length;
+        }
+
+        int size()
+        {
+            long n = (tail.get() & ~CLOSED) - head;
+            return (int) Math.max(0, Math.min(n, slots.length));
+        }
+
+        boolean isClosed()
+        {
+            return (tail.get() & CLOSED) != 0;
+        }
+
+        void close()
+        {
+            while ( true ) {
+                long pos = tail.get();
+                if ( (pos & CLOSED) != 0 ) return;
+                if ( tail.compareAndSet(pos, pos | CLOSED) ) return;
+            }
+        }
+
+        /**
+         * @return false if the ring is full or closed
+         */
+        boolean offer(DuccLoggingEvent ev)
+        {
+            while ( true ) {
+                long pos = tail.get();
+                if ( (pos & CLOSED) != 0 ) return false;
+                int ndx = (int) (pos & mask);
+                long dif = sequences.get(ndx) - pos;
+                if ( dif == 0 ) {
+                    if ( tail.compareAndSet(pos, pos + 1) ) {
+                        slots[ndx] = ev;
+                        sequences.set(ndx, pos + 1);
+                        Thread t = consumer;
+                        if ( t != null ) {
+                            LockSupport.unpark(t);
+                        }
+                        return true;
+                    }
+                } else if ( dif < 0 ) {
+                    return false;           // the consumer has not freed this slot yet
+                }
+                // otherwise another producer got the slot first, try the next one
+            }
+        }
+
+        /**
+         * Wait for room in the ring.
+         *
+         * @return false if the ring was closed before the event could be queued
+         */
+        boolean put(DuccLoggingEvent ev)
+        {
+            while ( !isClosed() ) {
+                if ( offer(ev) ) return true;
+                LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+            }
+            return false;
+        }
+
+        /**
+         * Consumer only.
+         */
+        DuccLoggingEvent poll()
+        {
+            long pos = head;
+            int ndx = (int) (pos & mask);
+            if ( sequences.get(ndx) != pos + 1 ) return null;    // empty, or the producer is still filling it
+            return consume(pos, ndx);
+        }
+
+        /**
+         * Consumer only, after close(). Returns every event whose slot was claimed before the
+         * ring closed, waiting out producers that claimed a slot but have not filled it yet.
+         *
+         * @return null when the ring is empty
+         */
+        DuccLoggingEvent drain()
+        {
+            long pos = head;
+            if ( pos >= (tail.get() & ~CLOSED) ) return null;
+
+            int ndx = (int) (pos & mask);
+            while ( sequences.get(ndx) != pos + 1 ) {
+                Thread.yield();
+            }
+            return consume(pos, ndx);
+        }
+
+        private DuccLoggingEvent consume(long pos, int ndx)
+        {
+            DuccLoggingEvent ev = slots[ndx];
+            slots[ndx] = null;
+            sequences.lazySet(ndx, pos + slots.length);
+            head = pos + 1;
+            return ev;
+        }
+
+        /**
+         * Consumer only.
+         */
+        DuccLoggingEvent take()
         {
             while ( true ) {
-            	
-                DuccLoggingEvent ev = null;
-				try {
-					ev = events.take();
-				} catch (InterruptedException e) {                    
-					System.out.println("Logger is interrupted!");
-                    continue;
-				}
-
-                if ( ev.done ) return;      // we're shutdown
-                doLog(ev);
+                DuccLoggingEvent ev = poll();
+                if ( ev != null ) return ev;
+
+                consumer = Thread.currentThread();
+                ev = poll();                                        // a producer may have published before seeing us
+                if ( ev == null ) {
+                    LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+                    if ( Thread.interrupted() ) {
+                        fallback("logging thread interrupted", null);
+                    }
+                }
+                consumer = null;
+                if ( ev != null ) return ev;
             }
         }
     }
 
+    static class DuccLoggerStats
+        implements DuccLoggerStatsMBean
+    {
+        public boolean isThreaded()
+        {
+            return threaded.get();
+        }
+
+        public int getQueueDepth()
+        {
+            EventRing ring = events;
+            return ring == null ? 0 : ring.size();
+        }
+
+        public int getQueueCapacity()
+        {
+            EventRing ring = events;
+            return ring == null ? 0 : ring.capacity();
+        }
+
+        public String getOverflowPolicy()
+        {
+            return overflowPolicy.name();
+        }
+
+        public long getLoggedCount()
+        {
+            return logged.get();
+        }
+
+        public long getDroppedCount()
+        {
+            return dropped.get();
+        }
+
+        public long getSampledCount()
+        {
+            return sampled.get();
+        }
+
+        public long getBlockedCount()
+        {
+            return blocked.get();
+        }
+    }
+
     static class DuccLogErrorHandler
         implements ErrorHandler
     {
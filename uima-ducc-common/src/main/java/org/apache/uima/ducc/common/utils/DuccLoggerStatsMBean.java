@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.utils;
+
+/**
+ * JMX view of the asynchronous DuccLogger pipeline shared by all loggers in the process.
+ */
+public interface DuccLoggerStatsMBean
+{
+    /**
+     * @return true if events are handed to the logging thread, false if callers log directly
+     */
+    public boolean isThreaded();
+
+    /**
+     * @return the number of events waiting for the logging thread
+     */
+    public int getQueueDepth();
+
+    /**
+     * @return the maximum number of events the logging thread can fall behind by
+     */
+    public int getQueueCapacity();
+
+    /**
+     * @return the configured overflow policy: block, drop or sample
+     */
+    public String getOverflowPolicy();
+
+    /**
+     * @return the number of events written by the logging thread
+     */
+    public long getLoggedCount();
+
+    /**
+     * @return the number of events discarded because the queue was full
+     */
+    public long getDroppedCount();
+
+    /**
+     * @return the number of events kept by the sample policy while the queue was full
+     */
+    public long getSampledCount();
+
+    /**
+     * @return the number of times a caller had to wait for room in the queue
+     */
+    public long getBlockedCount();
+}
@@ -115,6 +115,8 @@ public class DuccPropertiesResolver {
     public static final String ducc_database_jmx_port = "ducc.database.jmx.port";
     
     public static final String ducc_orchestrator_state_publish_rate = "ducc.orchestrator.state.publish.rate";
+    public static final String ducc_orchestrator_state_publish_delta = "ducc.orchestrator.state.publish.delta";
+    public static final String ducc_orchestrator_state_publish_keyframe_interval = "ducc.orchestrator.state.publish.keyframe.interval";
     public static final String ducc_orchestrator_state_update_endpoint_type = "ducc.orchestrator.state.update.endpoint.type";
     public static final String ducc_orchestrator_state_update_endpoint = "ducc.orchestrator.state.update.endpoint";
     public static final String ducc_orchestrator_http_port = "ducc.orchestrator.http.port";
@@ -144,6 +146,11 @@ public class DuccPropertiesResolver {
     
     public static final String ducc_jd_workitem_name_maximum_length = "ducc.jd.workitem.name.maximum.length";
     
+    public static final String ducc_jd_cr_prefetch = "ducc.jd.cr.prefetch";
+    
+    public static final String ducc_jd_get_wait_seconds = "ducc.jd.get.wait.seconds";
+    public static final String ducc_jd_get_wait_max = "ducc.jd.get.wait.max";
+    
     public static final String ducc_jd_error_handler_class = "ducc.jd.error.handler.class";
     public static final String ducc_jd_error_handler_args = "ducc.jd.error.handler.args";
     
@@ -166,6 +173,14 @@ public class DuccPropertiesResolver {
     public static final String ducc_ws_bytes_per_page = "ducc.ws.bytes.per.page";
     public static final String ducc_ws_banner_message = "ducc.ws.banner.message";
     public static final String ducc_ws_user_data_access = "ducc.ws.user.data.access";
+    public static final String ducc_ws_file_helper_enabled = "ducc.ws.file.helper.enabled";
+    public static final String ducc_ws_file_helper_max_per_user = "ducc.ws.file.helper.max.per.user";
+    public static final String ducc_ws_file_helper_idle_seconds = "ducc.ws.file.helper.idle.seconds";
+    public static final String ducc_ws_event_stream_enabled = "ducc.ws.event.stream.enabled";
+    public static final String ducc_ws_event_stream_max_subscriptions = "ducc.ws.event.stream.max.subscriptions";
+    public static final String ducc_ws_event_stream_max_queued = "ducc.ws.event.stream.max.queued";
+    public static final String ducc_ws_history_index_enabled = "ducc.ws.history.index.enabled";
+    public static final String ducc_ws_history_index_resident_entries = "ducc.ws.history.index.resident.entries";
     
     public static final String ducc_rm_node_stability = "ducc.rm.node.stability";
     public static final String ducc_agent_node_metrics_publish_rate = "ducc.agent.node.metrics.publish.rate";
@@ -174,6 +189,7 @@ public class DuccPropertiesResolver {
     public static final String ducc_agent_node_inventory_publish_rate_skip ="ducc.agent.node.inventory.publish.rate.skip";
     
     public static final String ducc_transport_trace = "ducc.transport.trace";
+    public static final String ducc_transport_codec = "ducc.transport.codec";
     
     public static final String ducc_ws_port_ssl = "ducc.ws.port.ssl";
     public static final String ducc_ws_welcome_page = "ducc.ws.welcome.page";
@@ -194,7 +210,18 @@ public class DuccPropertiesResolver {
         defaultProperties.put(ducc_jd_share_quantum_reserve_count,"2");
         defaultProperties.put(ducc_orchestrator_unmanaged_reservations_accepted,"true");
         defaultProperties.put(ducc_orchestrator_use_lock_file,"false");
+        defaultProperties.put(ducc_orchestrator_state_publish_delta,"false");
+        defaultProperties.put(ducc_orchestrator_state_publish_keyframe_interval,"6");
+        defaultProperties.put(ducc_transport_codec,"xstream");
         defaultProperties.put(ducc_ws_login_enabled,"true");
+        defaultProperties.put(ducc_ws_file_helper_enabled,"true");
+        defaultProperties.put(ducc_ws_file_helper_max_per_user,"2");
+        defaultProperties.put(ducc_ws_file_helper_idle_seconds,"300");
+        defaultProperties.put(ducc_ws_event_stream_enabled,"true");
+        defaultProperties.put(ducc_ws_event_stream_max_subscriptions,"256");
+        defaultProperties.put(ducc_ws_event_stream_max_queued,"8");
+        defaultProperties.put(ducc_ws_history_index_enabled,"true");
+        defaultProperties.put(ducc_ws_history_index_resident_entries,"128");
         defaultProperties.put(ducc_authentication_implementer,"org.apache.uima.ducc.ws.authentication.LinuxAuthenticationManager");
         defaultProperties.put(ducc_jd_state_publish_rate,""+1000*15*1);
         defaultProperties.put(ducc_jd_host_class,"JobDriver");
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.utils;
+
+import java.io.IOException;
+
+/**
+ * Reads files on behalf of another user without forking a new ducc_ling per file.
+ * A daemon that has such a service registers it with AlienAbstract.setFileAccess();
+ * the Alien* readers use it when present and fall back to ducc_ling otherwise.
+ */
+public interface IAlienFileAccess {
+	
+	/**
+	 * @param user the user to read as, or null for the daemon's own user
+	 * @param file absolute path of the file
+	 * @param offset first byte to return
+	 * @param length maximum number of bytes to return, or -1 for the rest of the file
+	 * 
+	 * @return the raw file bytes (not decompressed), or null if the file is missing or unreadable
+	 * 
+	 * @throws IOException if the service cannot take the request; the caller should use ducc_ling
+	 */
+	public byte[] read(String user, String file, long offset, long length) throws IOException;
+	
+	/**
+	 * @return the file size in bytes, or -1 if the file is missing or unreadable
+	 * 
+	 * @throws IOException if the service cannot take the request; the caller should use ducc_ling
+	 */
+	public long size(String user, String file) throws IOException;
+}
@@ -53,6 +53,18 @@ public class ADuccId
         myFriendly = given;
     }
 
+    /**
+     * Constructor - restore an id from its "friendly" id and UUID, without generating a new UUID.
+     *
+     * @param given This is the "friendly" id.
+     * @param unique This is the unique ID.
+     */
+    public ADuccId(long given, UUID unique)
+    {
+        this.unique = unique;
+        myFriendly = given;
+    }
+
     /**
      * Create a DuccId from a given UUID. This is used internally to restore a DuccId from some
      * serialized resource.
@@ -18,6 +18,8 @@
 */
 package org.apache.uima.ducc.common.utils.id;
 
+import java.util.UUID;
+
 @SuppressWarnings("serial")
 public class DuccId extends ADuccId {
 
@@ -25,4 +27,8 @@ public class DuccId extends ADuccId {
 		super(given);
 	}
 
+	public DuccId(long given, UUID unique) {
+		super(given, unique);
+	}
+
 }
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.common.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.log4j.Level;
+import org.apache.uima.ducc.common.utils.DuccLogger.DuccLoggingEvent;
+import org.apache.uima.ducc.common.utils.DuccLogger.EventRing;
+import org.apache.uima.ducc.common.utils.DuccLogger.OverflowPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DuccLoggerTest {
+
+	private OverflowPolicy policy;
+	private Level level;
+	private int rate;
+
+	@Before
+	public void setUp() throws Exception {
+		policy = DuccLogger.overflowPolicy;
+		level = DuccLogger.overflowLevel;
+		rate = DuccLogger.sampleRate;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		DuccLogger.overflowPolicy = policy;
+		DuccLogger.overflowLevel = level;
+		DuccLogger.sampleRate = rate;
+	}
+
+	private static DuccLoggingEvent mkEvent(Level level, long tid, long seq) {
+		DuccLoggingEvent ev = new DuccLoggingEvent();
+		ev.level = level;
+		ev.tid = tid;
+		ev.msg = Long.valueOf(seq);
+		return ev;
+	}
+
+	private static Thread startConsumer(final EventRing ring, final List<DuccLoggingEvent> taken) {
+		Thread consumer = new Thread() {
+			public void run() {
+				while(true) {
+					DuccLoggingEvent ev = ring.take();
+					if(ev.done) {
+						return;
+					}
+					taken.add(ev);
+				}
+			}
+		};
+		consumer.start();
+		return consumer;
+	}
+
+	private static void stopConsumer(EventRing ring, Thread consumer) throws Exception {
+		DuccLoggingEvent ev = new DuccLoggingEvent();
+		ev.done = true;
+		assertTrue(ring.put(ev));
+		consumer.join(10000);
+		assertFalse(consumer.isAlive());
+	}
+
+	/**
+	 * Every event from every producer arrives exactly once and, per producer, in order.
+	 */
+	@Test
+	public void testConcurrentProducers() throws Exception {
+		final int producers = 8;
+		final int count = 20000;
+		final EventRing ring = new EventRing(64);
+		List<DuccLoggingEvent> taken = new ArrayList<DuccLoggingEvent>();
+		Thread consumer = startConsumer(ring, taken);
+		final CountDownLatch go = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int p = 0; p < producers; p++) {
+			final long tid = p;
+			Thread t = new Thread() {
+				public void run() {
+					try {
+						go.await();
+					}
+					catch(InterruptedException e) {
+						return;
+					}
+					for(long i = 0; i < count; i++) {
+						ring.put(mkEvent(Level.INFO, tid, i));
+					}
+				}
+			};
+			t.start();
+			threads.add(t);
+		}
+		go.countDown();
+		for(Thread t : threads) {
+			t.join();
+		}
+		stopConsumer(ring, consumer);
+		assertEquals(producers * count, taken.size());
+		long[] next = new long[producers];
+		for(DuccLoggingEvent ev : taken) {
+			int p = (int) ev.tid;
+			assertEquals(next[p], ((Long) ev.msg).longValue());
+			next[p]++;
+		}
+	}
+
+	/**
+	 * Drop discards expendable events when the ring is full but never anything above the
+	 * overflow level.
+	 */
+	@Test
+	public void testOverflowDrop() throws Exception {
+		DuccLogger.overflowPolicy = OverflowPolicy.drop;
+		DuccLogger.overflowLevel = Level.INFO;
+		EventRing ring = new EventRing(4);
+		for(int i = 0; i < ring.capacity(); i++) {
+			assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, i)));
+		}
+		long dropped = DuccLogger.dropped.get();
+		for(int i = 0; i < 10; i++) {
+			assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.DEBUG, 0, i)));
+			assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, i)));
+		}
+		assertEquals(dropped + 20, DuccLogger.dropped.get());
+		assertEquals(ring.capacity(), ring.size());
+		// a warning has to wait for room
+		List<DuccLoggingEvent> taken = new ArrayList<DuccLoggingEvent>();
+		Thread consumer = startConsumer(ring, taken);
+		assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.WARN, 0, 99)));
+		stopConsumer(ring, consumer);
+		assertEquals(ring.capacity() + 1, taken.size());
+		assertEquals(Level.WARN, taken.get(taken.size() - 1).level);
+	}
+
+	/**
+	 * Sample keeps every sampleRate'th expendable event when the ring is full.
+	 */
+	@Test
+	public void testOverflowSample() throws Exception {
+		DuccLogger.overflowPolicy = OverflowPolicy.sample;
+		DuccLogger.overflowLevel = Level.INFO;
+		DuccLogger.sampleRate = 4;
+		DuccLogger.overflowed.set(0);
+		EventRing ring = new EventRing(2);
+		List<DuccLoggingEvent> taken = new ArrayList<DuccLoggingEvent>();
+		// no consumer yet: fill the ring, then the first three overflow events are dropped
+		assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, 0)));
+		assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, 1)));
+		long dropped = DuccLogger.dropped.get();
+		long sampled = DuccLogger.sampled.get();
+		for(int i = 2; i < 5; i++) {
+			assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, i)));
+		}
+		assertEquals(dropped + 3, DuccLogger.dropped.get());
+		// the fourth is kept, and has to wait for the consumer
+		Thread consumer = startConsumer(ring, taken);
+		assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.INFO, 0, 5)));
+		stopConsumer(ring, consumer);
+		assertEquals(sampled + 1, DuccLogger.sampled.get());
+		Set<Long> seqs = new HashSet<Long>();
+		for(DuccLoggingEvent ev : taken) {
+			seqs.add((Long) ev.msg);
+		}
+		assertEquals(3, seqs.size());
+		assertTrue(seqs.contains(Long.valueOf(5)));
+	}
+
+	/**
+	 * Block never loses an event, however small the ring.
+	 */
+	@Test
+	public void testOverflowBlock() throws Exception {
+		DuccLogger.overflowPolicy = OverflowPolicy.block;
+		EventRing ring = new EventRing(1);
+		List<DuccLoggingEvent> taken = new ArrayList<DuccLoggingEvent>();
+		Thread consumer = startConsumer(ring, taken);
+		for(int i = 0; i < 1000; i++) {
+			assertTrue(DuccLogger.enqueue(ring, mkEvent(Level.DEBUG, 0, i)));
+		}
+		stopConsumer(ring, consumer);
+		assertEquals(1000, taken.size());
+	}
+
+	/**
+	 * Once closed nothing more is accepted, and everything accepted before is drained.
+	 */
+	@Test
+	public void testCloseDrain() throws Exception {
+		final EventRing ring = new EventRing(1024);
+		final int producers = 4;
+		final long[] accepted = new long[producers];
+		final CountDownLatch go = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+		for(int p = 0; p < producers; p++) {
+			final int ndx = p;
+			Thread t = new Thread() {
+				public void run() {
+					try {
+						go.await();
+					}
+					catch(InterruptedException e) {
+						return;
+					}
+					for(long i = 0; ; i++) {
+						if(!ring.offer(mkEvent(Level.INFO, ndx, i))) {
+							if(ring.isClosed()) {
+								return;
+							}
+							Thread.yield();
+							i--;
+							continue;
+						}
+						accepted[ndx]++;
+					}
+				}
+			};
+			t.start();
+			threads.add(t);
+		}
+		go.countDown();
+		int seen = 0;
+		while(seen < 10000) {
+			if(ring.poll() != null) {
+				seen++;
+			}
+		}
+		ring.close();
+		assertTrue(ring.isClosed());
+		assertFalse(ring.offer(mkEvent(Level.INFO, 0, 0)));
+		assertFalse(ring.put(mkEvent(Level.INFO, 0, 0)));
+		while(ring.drain() != null) {
+			seen++;
+		}
+		for(Thread t : threads) {
+			t.join();
+		}
+		long total = 0;
+		for(long n : accepted) {
+			total += n;
+		}
+		assertEquals(total, seen);
+		assertNull(ring.drain());
+		assertEquals(0, ring.size());
+	}
+}
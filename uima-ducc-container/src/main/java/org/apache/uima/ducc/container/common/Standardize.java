@@ -123,6 +123,10 @@ public class Standardize {
 		runMax,
 		runMin,
 		userKey,
+		prefetch,
+		timersArmed,
+		timersFired,
+		timersCancelled,
 		;
 		
 		Label() {
@@ -74,6 +74,9 @@ public class JobDriver {
 	
 	public synchronized static JobDriver getNewInstance() throws JobDriverException {
 		String location = "getNewInstance";
+		if(instance != null) {
+			instance.stop();
+		}
 		instance = null;
 		try {
 			instance = new JobDriver();
@@ -109,6 +112,23 @@ public class JobDriver {
 		initialize();
 	}
 	
+	/**
+	 * Stop the current instance, if any, without waiting for one to be created.
+	 */
+	public synchronized static void shutdown() {
+		if(instance != null) {
+			instance.stop();
+		}
+	}
+	
+	private void stop() {
+		String location = "stop";
+		if(cm != null) {
+			cm.stop();
+		}
+		logger.info(location, ILogger.null_id, "stopped");
+	}
+	
 	private void initialize() throws JobDriverException {
 		String location = "initialize";
 		try {
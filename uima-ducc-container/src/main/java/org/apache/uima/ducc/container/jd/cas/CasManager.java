@@ -18,8 +18,10 @@
 */
 package org.apache.uima.ducc.container.jd.cas;
 
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
 import org.apache.uima.ducc.container.common.classloader.ProxyException;
@@ -29,7 +31,9 @@ import org.apache.uima.ducc.container.common.logger.Logger;
 import org.apache.uima.ducc.container.jd.JobDriverException;
 import org.apache.uima.ducc.container.jd.cas.CasManagerStats.RetryReason;
 import org.apache.uima.ducc.container.jd.classload.ProxyJobDriverCollectionReader;
+import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerThread;
 import org.apache.uima.ducc.ps.net.iface.IMetaTask;
+import org.apache.uima.ducc.ps.net.impl.MetaTask;
 
 public class CasManager {
 
@@ -37,9 +41,17 @@ public class CasManager {
 	
 	private ProxyJobDriverCollectionReader pjdcr = null;
 	
+	private CasPrefetcher casPrefetcher = null;
+	
 	private LinkedBlockingQueue<IMetaTask> cacheQueue = new LinkedBlockingQueue<IMetaTask>();
 	
+	// waited on by JP Gets held open until a work item is queued
+	private Object availability = new Object();
+	
 	private CasManagerStats casManagerStats = new CasManagerStats();
+	
+	// remote worker threads known to hold the type system of binary CASes
+	private ConcurrentHashMap<IRemoteWorkerThread, Boolean> typeSystemHolders = new ConcurrentHashMap<IRemoteWorkerThread, Boolean>();
 
 	public CasManager() throws JobDriverException {
 		initialize();
@@ -50,6 +62,21 @@ public class CasManager {
 		try {
 			pjdcr = new ProxyJobDriverCollectionReader();
 			casManagerStats.setCrTotal(pjdcr.getTotal());
+			int depth = getPrefetchDepth();
+			if(depth > 0) {
+				CasPrefetcher.Reader reader = new CasPrefetcher.Reader() {
+					@Override
+					public IMetaTask getMetaCas() throws ProxyException {
+						return pjdcr.getMetaCas();
+					}
+				};
+				casPrefetcher = new CasPrefetcher(reader, depth);
+				casPrefetcher.start();
+			}
+			MessageBuffer mb = new MessageBuffer();
+			mb.append(Standardize.Label.total.get()+casManagerStats.getCrTotal());
+			mb.append(Standardize.Label.prefetch.get()+depth);
+			logger.info(location, ILogger.null_id, mb);
 		}
 		catch(ProxyException e) {
 			logger.error(location, ILogger.null_id, e);
@@ -57,6 +84,30 @@ public class CasManager {
 		}
 	}
 	
+	private int getPrefetchDepth() {
+		String location = "getPrefetchDepth";
+		int retVal = 0;
+		String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_jd_cr_prefetch);
+		if(value != null) {
+			try {
+				retVal = Math.max(0, Integer.parseInt(value));
+			}
+			catch(Exception e) {
+				logger.warn(location, ILogger.null_id, DuccPropertiesResolver.ducc_jd_cr_prefetch+"="+value);
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Stop reading ahead from the CR (JD shutdown).
+	 */
+	public void stop() {
+		if(casPrefetcher != null) {
+			casPrefetcher.stop();
+		}
+	}
+	
 	public IMetaTask getEmptyMetaCas() throws ProxyException  {
 		IMetaTask retVal = null;
 		if(retVal == null) {
@@ -71,7 +122,13 @@ public class CasManager {
 	public IMetaTask getMetaCas() throws ProxyException, JobDriverException {
 		IMetaTask retVal = dequeueMetaCas();
 		if(retVal == null) {
-			retVal = pjdcr.getMetaCas();
+			// CR gets and seen-all are counted on delivery, not on read-ahead
+			if(casPrefetcher != null) {
+				retVal = casPrefetcher.getMetaCas();
+			}
+			else {
+				retVal = pjdcr.getMetaCas();
+			}
 			if(retVal != null) {
 				casManagerStats.incCrGets();
 			}
@@ -111,6 +168,91 @@ public class CasManager {
 		mb.append(Standardize.Label.gets.get()+casManagerStats.getRetryQueueGets());
 		mb.append(Standardize.Label.reason.get()+retryReason.name());
 		logger.debug(location, ILogger.null_id, mb);
+		signalMetaCas();
+	}
+	
+	/**
+	 * Wait up to millis for a work item to be queued for retry or for
+	 * the job to reach an end state (exhausted, premature or killed),
+	 * since in either case a Get would now be answered differently.
+	 * 
+	 * @return true if the wait ended before the timeout
+	 */
+	public boolean awaitMetaCas(long millis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + millis;
+		synchronized(availability) {
+			while(!isAvailable()) {
+				long remaining = deadline - System.currentTimeMillis();
+				if(remaining <= 0) {
+					break;
+				}
+				availability.wait(remaining);
+			}
+			return isAvailable();
+		}
+	}
+	
+	/**
+	 * Wake waiting Gets to re-evaluate, e.g. after an End
+	 * which may have completed the job.
+	 */
+	public void signalMetaCas() {
+		synchronized(availability) {
+			availability.notifyAll();
+		}
+	}
+	
+	private boolean isAvailable() {
+		boolean retVal = false;
+		if(!cacheQueue.isEmpty()) {
+			retVal = true;
+		}
+		else if(casManagerStats.isKillJob()) {
+			retVal = true;
+		}
+		else if(casManagerStats.isExhausted()) {
+			retVal = true;
+		}
+		else if(casManagerStats.isPremature()) {
+			retVal = true;
+		}
+		return retVal;
+	}
+	
+	/**
+	 * The work item as delivered to the given remote worker thread: a
+	 * binary CAS is preceded by its type system until the thread is known
+	 * to hold it.  The work item itself is not modified.
+	 */
+	public IMetaTask getDeliverableMetaCas(IRemoteWorkerThread rwt, IMetaTask metaCas) {
+		IMetaTask retVal = metaCas;
+		if(metaCas != null) {
+			Object userSpaceTask = metaCas.getUserSpaceTask();
+			if(userSpaceTask instanceof byte[]) {
+				byte[] typeSystem = pjdcr.getSerializedTypeSystem();
+				if((typeSystem != null) && !typeSystemHolders.containsKey(rwt)) {
+					byte[] serializedCas = (byte[]) userSpaceTask;
+					byte[] bytes = new byte[typeSystem.length+serializedCas.length];
+					System.arraycopy(typeSystem, 0, bytes, 0, typeSystem.length);
+					System.arraycopy(serializedCas, 0, bytes, typeSystem.length, serializedCas.length);
+					MetaTask deliverable = new MetaTask(0, metaCas.getUserKey(), bytes);
+					deliverable.setSystemKey(metaCas.getSystemKey());
+					deliverable.setAppData(metaCas.getAppData());
+					retVal = deliverable;
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * The given remote worker thread has acknowledged or ended a work
+	 * item delivered by getDeliverableMetaCas, so holds its type system.
+	 */
+	public void setTypeSystemHolder(IRemoteWorkerThread rwt) {
+		if(pjdcr.getSerializedTypeSystem() != null) {
+			typeSystemHolders.putIfAbsent(rwt, Boolean.TRUE);
+		}
 	}
 	
 	public CasManagerStats getCasManagerStats() {
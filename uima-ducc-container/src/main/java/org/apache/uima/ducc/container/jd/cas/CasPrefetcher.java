@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.cas;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.ducc.container.common.MessageBuffer;
+import org.apache.uima.ducc.container.common.Standardize;
+import org.apache.uima.ducc.container.common.classloader.ProxyException;
+import org.apache.uima.ducc.container.common.logger.IComponent;
+import org.apache.uima.ducc.container.common.logger.ILogger;
+import org.apache.uima.ducc.container.common.logger.Logger;
+import org.apache.uima.ducc.ps.net.iface.IMetaTask;
+
+/**
+ * Read-ahead stage between the user collection reader and the
+ * JP Get handler.
+ * 
+ * A single daemon thread drives the CR and keeps up to "depth"
+ * ready (already serialized) work items on hand.  The user side
+ * serializes CR access itself, so additional threads would only
+ * contend for that lock.  A full queue blocks the thread, which
+ * bounds memory; CR exceptions and end-of-collection are queued
+ * in order and surfaced to the consumer when reached.
+ * 
+ * Any other failure of the CR (or a stop) ends the thread; from 
+ * then on each consumer receives that failure rather than waiting
+ * for a work item that will never arrive.
+ */
+public class CasPrefetcher implements Runnable {
+
+	private static Logger logger = Logger.getLogger(CasPrefetcher.class, IComponent.Id.JD.name());
+	
+	/**
+	 * Source of work items, normally the user collection reader.
+	 */
+	public interface Reader {
+		public IMetaTask getMetaCas() throws ProxyException;
+	}
+	
+	private static class Entry {
+		private IMetaTask metaTask = null;
+		private Throwable failure = null;
+		private boolean terminal = false;
+		private Entry(IMetaTask metaTask, Throwable failure, boolean terminal) {
+			this.metaTask = metaTask;
+			this.failure = failure;
+			this.terminal = terminal;
+		}
+	}
+	
+	private static final Entry endOfCollection = new Entry(null, null, true);
+	
+	// consumer re-check interval for a prefetch thread that has ended
+	private static final long pollMillis = 1000;
+	
+	private Reader reader = null;
+	private BlockingQueue<Entry> queue = null;
+	
+	// terminal entry, once the prefetch thread has ended
+	private volatile Entry last = null;
+	
+	// terminal entry, once reached by a consumer
+	private volatile Entry finished = null;
+	
+	private volatile boolean stopped = false;
+	
+	private Thread thread = null;
+	
+	public CasPrefetcher(Reader reader, int depth) {
+		this.reader = reader;
+		this.queue = new ArrayBlockingQueue<Entry>(depth);
+	}
+	
+	public void start() {
+		thread = new Thread(this, CasPrefetcher.class.getSimpleName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	public void stop() {
+		stopped = true;
+		if(thread != null) {
+			thread.interrupt();
+		}
+	}
+	
+	@Override
+	public void run() {
+		String location = "run";
+		Entry terminal = null;
+		try {
+			while((terminal == null) && !stopped) {
+				Entry entry = null;
+				try {
+					IMetaTask metaTask = reader.getMetaCas();
+					if(metaTask != null) {
+						entry = new Entry(metaTask, null, false);
+					}
+					else {
+						entry = endOfCollection;
+						terminal = entry;
+					}
+				}
+				catch(ProxyException e) {
+					entry = new Entry(null, e, false);
+				}
+				catch(Throwable t) {
+					logger.error(location, ILogger.null_id, t);
+					entry = new Entry(null, t, true);
+					terminal = entry;
+				}
+				queue.put(entry);
+				if(entry.metaTask != null) {
+					MessageBuffer mb = new MessageBuffer();
+					mb.append(Standardize.Label.seqNo.get()+entry.metaTask.getSystemKey());
+					mb.append(Standardize.Label.size.get()+queue.size());
+					logger.debug(location, ILogger.null_id, mb);
+				}
+			}
+			if(terminal == endOfCollection) {
+				logger.info(location, ILogger.null_id, "end of collection");
+			}
+		}
+		catch(InterruptedException e) {
+			logger.info(location, ILogger.null_id, "interrupted");
+		}
+		finally {
+			if(terminal == null) {
+				terminal = new Entry(null, new ProxyException("prefetch stopped"), true);
+			}
+			last = terminal;
+		}
+	}
+	
+	/**
+	 * Next prefetched work item, waiting for the CR if necessary;
+	 * null once the collection is exhausted.
+	 */
+	public IMetaTask getMetaCas() throws ProxyException {
+		Entry entry = finished;
+		if(entry == null) {
+			entry = take();
+			if(entry.terminal) {
+				finished = entry;
+				// leave the marker for any concurrent consumer
+				queue.offer(entry);
+			}
+		}
+		if(entry.failure != null) {
+			rethrow(entry.failure);
+		}
+		return entry.metaTask;
+	}
+	
+	private void rethrow(Throwable t) throws ProxyException {
+		if(t instanceof ProxyException) {
+			throw (ProxyException) t;
+		}
+		if(t instanceof RuntimeException) {
+			throw (RuntimeException) t;
+		}
+		if(t instanceof Error) {
+			throw (Error) t;
+		}
+		throw new ProxyException(t.toString());
+	}
+	
+	private Entry take() throws ProxyException {
+		try {
+			while(true) {
+				Entry entry = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+				if(entry != null) {
+					return entry;
+				}
+				Entry terminal = last;
+				if((terminal != null) && queue.isEmpty()) {
+					return terminal;
+				}
+			}
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ProxyException(e.getMessage());
+		}
+	}
+	
+	public int getReady() {
+		return queue.size();
+	}
+}
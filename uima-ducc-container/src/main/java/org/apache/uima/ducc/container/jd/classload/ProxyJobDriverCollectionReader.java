@@ -66,6 +66,10 @@ public class ProxyJobDriverCollectionReader {
 	private String name_getSeqNo = "getSeqNo";
 	private String name_getDocumentText = "getDocumentText";
 	private String name_getSerializedCas = "getSerializedCas";
+	private String name_getSerializedTypeSystem = "getSerializedTypeSystem";
+	
+	// binary serialization: type system block of the CASes read
+	private volatile byte[] serializedTypeSystem = null;
 
 	private String[] requiredClasses = { 
 			"org.apache.uima.ducc.user.jd.JdUserCollectionReader", 
@@ -151,6 +155,11 @@ public class ProxyJobDriverCollectionReader {
 				Method method_getDocumentText = class_JdUserMetaCas.getMethod(name_getDocumentText, nullClassArray);
 				String rawDocId = (String)ContextSwitch.call(urlClassLoader, method_getDocumentText, instance_metaCas, nullObjectArray);
 				String docId = normalizeDocId(seqNo, rawDocId);
+				Method method_getSerializedTypeSystem = class_JdUserMetaCas.getMethod(name_getSerializedTypeSystem, nullClassArray);
+				byte[] typeSystem = (byte[])ContextSwitch.call(urlClassLoader, method_getSerializedTypeSystem, instance_metaCas, nullObjectArray);
+				if(typeSystem != null) {
+					serializedTypeSystem = typeSystem;
+				}
 				retVal = new MetaTask(seqNo, docId, serializedCas);
 			}
 		} 
@@ -179,6 +188,11 @@ public class ProxyJobDriverCollectionReader {
 				Method method_getDocumentText = class_JdUserMetaCas.getMethod(name_getDocumentText, nullClassArray);
 				String rawDocId = (String)ContextSwitch.call(urlClassLoader, method_getDocumentText, instance_metaCas, nullObjectArray);
 				String docId = normalizeDocId(seqNo, rawDocId);
+				Method method_getSerializedTypeSystem = class_JdUserMetaCas.getMethod(name_getSerializedTypeSystem, nullClassArray);
+				byte[] typeSystem = (byte[])ContextSwitch.call(urlClassLoader, method_getSerializedTypeSystem, instance_metaCas, nullObjectArray);
+				if(typeSystem != null) {
+					serializedTypeSystem = typeSystem;
+				}
 				retVal = new MetaTask(seqNo, docId, serializedCas);
 			}
 		} 
@@ -190,6 +204,13 @@ public class ProxyJobDriverCollectionReader {
 		return retVal;
 	}
 	
+	/**
+	 * Type system to precede a binary serialized CAS (null for XMI).
+	 */
+	public byte[] getSerializedTypeSystem() {
+		return serializedTypeSystem;
+	}
+	
 	private void construct(URLClassLoader classLoader, String crXml, String cfCfg) throws Exception {
 		setup(classLoader, crXml, cfCfg);
 		validate();
@@ -22,6 +22,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.net.URLClassLoader;
+import java.util.Base64;
 
 import org.apache.uima.ducc.common.container.FlagsHelper;
 import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
@@ -195,13 +196,26 @@ public class ProxyJobDriverErrorHandler {
 		return retVal;
 	}
 	
+	// The user error handler interface takes the CAS as a String, so a
+	// binary serialized CAS is presented in Base64 form
+	private String toErrorHandlerCas(Object serializedCAS) {
+		String retVal = null;
+		if(serializedCAS instanceof byte[]) {
+			retVal = Base64.getEncoder().encodeToString((byte[]) serializedCAS);
+		}
+		else {
+			retVal = (String) serializedCAS;
+		}
+		return retVal;
+	}
+	
 	// Failed work item
-	public ProxyJobDriverDirective handle(String serializedCAS, Object userException) throws JobDriverException {
+	public ProxyJobDriverDirective handle(Object serializedCAS, Object userException) throws JobDriverException {
 		String location = "handle";
 		ProxyJobDriverDirective retVal = new ProxyJobDriverDirective();
 		try {
 			Object[] plist = new Object[2];
-			plist[0] = serializedCAS;
+			plist[0] = toErrorHandlerCas(serializedCAS);
 			plist[1] = userException;
 			Object directive = ContextSwitch.call(classLoader, methodInstanceHandle, objectInstance, plist);
 			boolean isKillJob = (Boolean) ContextSwitch.call(classLoader, methodInstanceIsKillJob, directive, nullObjectArray);
@@ -216,7 +230,7 @@ public class ProxyJobDriverErrorHandler {
 	}
 	
 	// Failed process
-	public ProxyJobDriverDirective handle(String serializedCAS) throws JobDriverException {
+	public ProxyJobDriverDirective handle(Object serializedCAS) throws JobDriverException {
 		String location = "handle";
 		ProxyJobDriverDirective retVal = new ProxyJobDriverDirective();
 		try {
@@ -98,7 +98,7 @@ public abstract class ActionEndAbstract extends Action implements IAction {
 		//
 		ProxyJobDriverDirective pjdd = null;
 		try {
-			String serializedCas = (String) metaCas.getUserSpaceTask();
+			Object serializedCas = metaCas.getUserSpaceTask();
 			ProxyJobDriverErrorHandler pjdeh = jd.getProxyJobDriverErrorHandler();
 			pjdd = pjdeh.handle(serializedCas, userException);
 		}
@@ -253,7 +253,7 @@ public class ActionGet implements IAction {
 					metaCas = mmc.getMetaCas();
 				}
 				wi.setMetaCas(metaCas);
-				trans.setMetaTask(metaCas);
+				trans.setMetaTask(jd.getCasManager().getDeliverableMetaCas(rwt, metaCas));
 				IWorkItemStateKeeper wisk = jd.getWorkItemStateKeeper();
 				MetaCasHelper metaCasHelper = new MetaCasHelper(metaCas);
 				IProcessStatistics pStats = jdh.getProcessStatistics(rwp);
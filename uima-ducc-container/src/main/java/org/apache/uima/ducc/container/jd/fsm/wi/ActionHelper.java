@@ -136,6 +136,7 @@ public class ActionHelper {
 	protected static void killJob(Logger logger, IActionData actionData, CasManager cm) {
 		String location = "killJob";
 		cm.getCasManagerStats().setKillJob();
+		cm.signalMetaCas();
 		MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
 		logger.info(location, ILogger.null_id, mb.toString());
 	}
@@ -97,7 +97,7 @@ public class ActionProcessFailure extends Action implements IAction {
 				if(rwp != null) {
 					IProcessStatistics pStats = jdh.getProcessStatistics(rwp);
 					if(metaCas != null) {
-						String serializedCas = (String) metaCas.getUserSpaceTask();
+						Object serializedCas = metaCas.getUserSpaceTask();
 						ProxyJobDriverErrorHandler pjdeh = jd.getProxyJobDriverErrorHandler();
 						ProxyJobDriverDirective pjdd = pjdeh.handle(serializedCas);
 						if(pjdd != null) {
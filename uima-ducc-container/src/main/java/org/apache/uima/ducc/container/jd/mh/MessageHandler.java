@@ -21,11 +21,14 @@ package org.apache.uima.ducc.container.jd.mh;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
 import org.apache.uima.ducc.container.common.fsm.iface.IEvent;
@@ -50,6 +53,8 @@ import org.apache.uima.ducc.container.jd.mh.iface.IProcessInfo;
 import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerProcess;
 import org.apache.uima.ducc.container.jd.mh.iface.remote.IRemoteWorkerThread;
 import org.apache.uima.ducc.container.jd.mh.impl.OperatingInfo;
+import org.apache.uima.ducc.container.jd.timeout.ITimeoutManager;
+import org.apache.uima.ducc.container.jd.timeout.TimeoutManager;
 import org.apache.uima.ducc.container.jd.wi.IRunningWorkItemStatistics;
 import org.apache.uima.ducc.container.jd.wi.IWorkItem;
 import org.apache.uima.ducc.container.jd.wi.IWorkItemStatistics;
@@ -60,6 +65,7 @@ import org.apache.uima.ducc.ps.net.iface.IMetaTask;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Hint;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.JdState;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Option;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Type;
 import org.apache.uima.ducc.ps.net.impl.MetaTask;
 import org.apache.uima.ducc.ps.net.impl.TransactionHelper;
@@ -80,7 +86,44 @@ public class MessageHandler implements IMessageHandler {
 	
 	private JobProcessBlacklist jobProcessBlacklist = JobProcessBlacklist.getInstance();
 	
+	private long waitMillis = 0;
+	private int maxWaiters = 32;
+	private Semaphore waiters = null;
+	
 	public MessageHandler() {
+		initialize();
+	}
+	
+	/*
+	 * for testing, in lieu of ducc.jd.get.wait.seconds and ducc.jd.get.wait.max
+	 */
+	public MessageHandler(long waitMillis, int maxWaiters) {
+		this.waitMillis = waitMillis;
+		this.maxWaiters = maxWaiters;
+		waiters = new Semaphore(maxWaiters);
+	}
+	
+	private void initialize() {
+		String location = "initialize";
+		String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_jd_get_wait_seconds);
+		if(value != null) {
+			try {
+				waitMillis = Math.max(0, Long.parseLong(value.trim())) * 1000;
+			}
+			catch(Exception e) {
+				logger.warn(location, ILogger.null_id, DuccPropertiesResolver.ducc_jd_get_wait_seconds+"="+value);
+			}
+		}
+		value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_jd_get_wait_max);
+		if(value != null) {
+			try {
+				maxWaiters = Math.max(0, Integer.parseInt(value.trim()));
+			}
+			catch(Exception e) {
+				logger.warn(location, ILogger.null_id, DuccPropertiesResolver.ducc_jd_get_wait_max+"="+value);
+			}
+		}
+		waiters = new Semaphore(maxWaiters);
 	}
 	
 	@Override
@@ -204,6 +247,10 @@ public class MessageHandler implements IMessageHandler {
 			oi.setWorkItemRunningAboveAvgCount(aboveAvgCount);
 			oi.setWorkItemSkewAvg(skewAvg);
 			oi.setWorkItemTodMostRecentStart(rwis.getTodMostRecentStart());
+			ITimeoutManager toMgr = TimeoutManager.getInstance();
+			oi.setWorkItemTimersArmed(toMgr.getTimersArmed());
+			oi.setWorkItemTimersFired(toMgr.getTimersFired());
+			oi.setWorkItemTimersCancelled(toMgr.getTimersCancelled());
 			oi.setActiveWorkItemInfo(jdh.getActiveWorkItemInfo());
 			oi.setProcessInfo(jdh.getProcessInfo());
 			oi.setJdState(jd.getJdState().name());
@@ -224,6 +271,9 @@ public class MessageHandler implements IMessageHandler {
 			mb.append(Standardize.Label.runningMillisMin.get()+oi.getWorkItemRunningMillisMin());
 			mb.append(Standardize.Label.runningMillisMax.get()+oi.getWorkItemRunningMillisMax());
 			mb.append(Standardize.Label.todMostRecentStart.get()+oi.getWorkItemTodMostRecentStart());
+			mb.append(Standardize.Label.timersArmed.get()+oi.getWorkItemTimersArmed());
+			mb.append(Standardize.Label.timersFired.get()+oi.getWorkItemTimersFired());
+			mb.append(Standardize.Label.timersCancelled.get()+oi.getWorkItemTimersCancelled());
 			logger.debug(location, jobid, mb.toString());
 			retVal = oi;
 			totalWorkItems  = cms.getCrTotal();  // Used by accumlateTimes
@@ -497,12 +547,18 @@ public class MessageHandler implements IMessageHandler {
 			switch(type) {
 			case Get:
 				handleMetaCasTransationGet(trans, rwt);
+				handleMetaCasTransationWaitForWork(trans, rwt);
+				handleMetaCasTransationAckImplied(trans, rwt);
 				break;
 			case Ack:
 				handleMetaCasTransationAck(trans, rwt);
+				handleMetaCasTransationTypeSystem(trans, rwt);
 				break;
 			case End:
 				handleMetaCasTransationEnd(trans, rwt);
+				handleMetaCasTransationTypeSystem(trans, rwt);
+				JobDriver.getInstance().getCasManager().signalMetaCas();
+				handleMetaCasTransationGetNext(trans, rwt);
 				break;
 			case InvestmentReset:
 				handleMetaCasTransationInvestmentReset(trans, rwt);
@@ -589,6 +645,114 @@ public class MessageHandler implements IMessageHandler {
 		}
 	}
 	
+	/*
+	 * An accepted Ack or End shows the remote worker thread received
+	 * its work item, along with any type system it was sent
+	 */
+	private void handleMetaCasTransationTypeSystem(IMetaTaskTransaction trans, IRemoteWorkerThread rwt) {
+		List<Hint> hints = trans.getResponseHints();
+		if((hints == null) || !hints.contains(Hint.Rejected)) {
+			JobDriver.getInstance().getCasManager().setTypeSystemHolder(rwt);
+		}
+	}
+	
+	/*
+	 * Get with AckImplied: acknowledge the work item just delivered,
+	 * saving the JP an Ack round trip
+	 */
+	private void handleMetaCasTransationAckImplied(IMetaTaskTransaction trans, IRemoteWorkerThread rwt) {
+		if(TransactionHelper.hasRequestOption(trans, Option.AckImplied)) {
+			if(trans.getMetaTask() != null) {
+				handleMetaCasTransationAck(trans, rwt);
+			}
+		}
+	}
+	
+	/*
+	 * Get with WaitForWork: when no work item is available but the job 
+	 * is not finished, hold the Get open until one is queued for retry
+	 * (or the job finishes) and then answer it, sparing the JP a sleep
+	 * and re-poll; bounded by ducc.jd.get.wait.seconds, and since each
+	 * holds a web server thread by ducc.jd.get.wait.max Gets at once
+	 */
+	private void handleMetaCasTransationWaitForWork(IMetaTaskTransaction trans, IRemoteWorkerThread rwt) throws InterruptedException {
+		String location = "handleMetaCasTransationWaitForWork";
+		if(TransactionHelper.hasRequestOption(trans, Option.WaitForWork)) {
+			if((waitMillis > 0) && isWaitable(trans)) {
+				if(!waiters.tryAcquire()) {
+					// too many held open already; reply now, the JP sleeps and asks again
+					MessageBuffer mb = new MessageBuffer();
+					mb.append(Standardize.Label.remote.get()+rwt.toString());
+					mb.append(Standardize.Label.type.get()+Option.WaitForWork);
+					mb.append(Standardize.Label.limit.get()+maxWaiters);
+					logger.debug(location, ILogger.null_id, mb.toString());
+					return;
+				}
+				try {
+					CasManager cm = JobDriver.getInstance().getCasManager();
+					long deadline = System.currentTimeMillis() + waitMillis;
+					while(isWaitable(trans)) {
+						long remaining = deadline - System.currentTimeMillis();
+						if(remaining <= 0) {
+							break;
+						}
+						if(cm.awaitMetaCas(remaining)) {
+							trans.setResponseHints(new ArrayList<Hint>());
+							handleMetaCasTransationGet(trans, rwt);
+						}
+					}
+				}
+				finally {
+					waiters.release();
+				}
+				if(isWaitable(trans)) {
+					// timed out; the JP need not sleep before asking again
+					TransactionHelper.addResponseHint(trans, Hint.Waited);
+				}
+				MessageBuffer mb = new MessageBuffer();
+				mb.append(Standardize.Label.remote.get()+rwt.toString());
+				mb.append(Standardize.Label.type.get()+Option.WaitForWork);
+				mb.append(Standardize.Label.result.get()+(trans.getMetaTask() != null));
+				logger.debug(location, ILogger.null_id, mb.toString());
+			}
+		}
+	}
+	
+	/*
+	 * no work item delivered, and none of exhausted, premature, killed or blacklisted
+	 */
+	private boolean isWaitable(IMetaTaskTransaction trans) {
+		boolean retVal = false;
+		if(trans.getMetaTask() == null) {
+			List<Hint> hints = trans.getResponseHints();
+			if((hints == null) || hints.isEmpty()) {
+				retVal = true;
+			}
+		}
+		return retVal;
+	}
+	
+	/*
+	 * End with GetNext: deliver the next work item in the reply to End,
+	 * saving the JP a Get round trip; hints given in response to the 
+	 * End (e.g. Rejected) are kept alongside those for the Get
+	 */
+	private void handleMetaCasTransationGetNext(IMetaTaskTransaction trans, IRemoteWorkerThread rwt) {
+		if(TransactionHelper.hasRequestOption(trans, Option.GetNext)) {
+			List<Hint> endHints = new ArrayList<Hint>();
+			if(trans.getResponseHints() != null) {
+				endHints.addAll(trans.getResponseHints());
+			}
+			trans.setResponseHints(new ArrayList<Hint>());
+			trans.setMetaTask(null);
+			handleMetaCasTransationGet(trans, rwt);
+			handleMetaCasTransationAckImplied(trans, rwt);
+			for(Hint hint : endHints) {
+				TransactionHelper.addResponseHint(trans, hint);
+			}
+		}
+	}
+	
 	private void handleMetaCasTransationInvestmentReset(IMetaTaskTransaction trans, IRemoteWorkerThread rwt) {
 		String location = "handleMetaCasTransationInvestmentReset";
 		WiTracker tracker = WiTracker.getInstance();
@@ -125,6 +125,17 @@ public interface IOperatingInfo extends Serializable {
 	
 	//
 	
+	public void setWorkItemTimersArmed(long value);
+	public long getWorkItemTimersArmed();
+	
+	public void setWorkItemTimersFired(long value);
+	public long getWorkItemTimersFired();
+	
+	public void setWorkItemTimersCancelled(long value);
+	public long getWorkItemTimersCancelled();
+	
+	//
+	
 	public void setJdState(String value);
 	public String getJdState();
 	
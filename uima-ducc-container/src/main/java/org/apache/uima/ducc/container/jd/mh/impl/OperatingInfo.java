@@ -67,6 +67,10 @@ public class OperatingInfo implements IOperatingInfo {
 	
 	private long todMostRecentStart = 0;
 	
+	private long timersArmed = 0;
+	private long timersFired = 0;
+	private long timersCancelled = 0;
+	
 	private String jdState = null;
 	private boolean killJob = false;
 
@@ -342,6 +346,36 @@ public class OperatingInfo implements IOperatingInfo {
 	public long getWorkItemTodMostRecentStart() {
 		return todMostRecentStart;
 	}
+	
+	@Override
+	public void setWorkItemTimersArmed(long value) {
+		timersArmed = value;
+	}
+	
+	@Override
+	public long getWorkItemTimersArmed() {
+		return timersArmed;
+	}
+	
+	@Override
+	public void setWorkItemTimersFired(long value) {
+		timersFired = value;
+	}
+	
+	@Override
+	public long getWorkItemTimersFired() {
+		return timersFired;
+	}
+	
+	@Override
+	public void setWorkItemTimersCancelled(long value) {
+		timersCancelled = value;
+	}
+	
+	@Override
+	public long getWorkItemTimersCancelled() {
+		return timersCancelled;
+	}
 
 	@Override
 	public void setKillJob() {
@@ -30,4 +30,8 @@ public interface ITimeoutManager {
 	
 	public void timeout(IActionData actionData);
 	public void cancelTimer(IActionData actionData);
+	
+	public long getTimersArmed();
+	public long getTimersFired();
+	public long getTimersCancelled();
 }
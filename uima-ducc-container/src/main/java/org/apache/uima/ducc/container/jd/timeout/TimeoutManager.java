@@ -18,13 +18,9 @@
 */
 package org.apache.uima.ducc.container.jd.timeout;
 
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.uima.ducc.container.common.MessageBuffer;
 import org.apache.uima.ducc.container.common.Standardize;
@@ -37,6 +33,7 @@ import org.apache.uima.ducc.container.jd.JobDriver;
 import org.apache.uima.ducc.container.jd.fsm.wi.IActionData;
 import org.apache.uima.ducc.container.jd.fsm.wi.WiFsm;
 import org.apache.uima.ducc.container.jd.log.LoggerHelper;
+import org.apache.uima.ducc.container.jd.timeout.TimingWheel.Timer;
 import org.apache.uima.ducc.container.jd.wi.IWorkItem;
 
 public class TimeoutManager implements ITimeoutManager {
@@ -49,16 +46,20 @@ public class TimeoutManager implements ITimeoutManager {
 		return instance;
 	}
 	
-	private ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(5);
+	// deadlines are seconds to minutes out, so a one second tick suffices
+	private static final long tickMillis = 1000;
+	private static final int wheelSize = 512;
+	
+	private ExecutorService executorService = Executors.newFixedThreadPool(5);
+	
+	private TimingWheel timingWheel = new TimingWheel(TimeoutManager.class.getSimpleName(), tickMillis, wheelSize, executorService);
 	
 	private long ackTimeout= 60*1000;
 	
 	private ConcurrentHashMap<IWorkItem,ITimeoutTask> mapTask = new ConcurrentHashMap<IWorkItem,ITimeoutTask>();
-	private ConcurrentHashMap<IWorkItem,ScheduledFuture<?>> mapFuture = new ConcurrentHashMap<IWorkItem,ScheduledFuture<?>>();
+	private ConcurrentHashMap<IWorkItem,Timer> mapTimer = new ConcurrentHashMap<IWorkItem,Timer>();
 
 	private TimeoutManager() {
-		ScheduledThreadPoolExecutor scheduledThreadPoolExecutor = (ScheduledThreadPoolExecutor) scheduledExecutorService;
-		scheduledThreadPoolExecutor.setRemoveOnCancelPolicy(true);
 	}
 	
 	@Override
@@ -147,15 +148,16 @@ public class TimeoutManager implements ITimeoutManager {
 		String location = "register";
 		try {
 			mapTask.put(wi, timeoutTask);
-			Callable<?> callable = timeoutTask;
-			long delay = timeoutTask.getDeadline() - System.currentTimeMillis();
-			TimeUnit timeUnit = TimeUnit.MILLISECONDS;
-			ScheduledFuture<?> scheduledFuture = scheduledExecutorService.schedule(callable, delay, timeUnit);
-			mapFuture.put(wi, scheduledFuture);
+			Timer timer = timingWheel.schedule(timeoutTask, timeoutTask.getDeadline());
+			Timer prior = mapTimer.put(wi, timer);
+			if(prior != null) {
+				// superseded, e.g. ack timer not yet cancelled when end timer is set
+				prior.cancel();
+			}
 			//
 			IActionData actionData = timeoutTask.getActionData();
 			MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-			mb.append(Standardize.Label.futures.get()+mapFuture.size());
+			mb.append(Standardize.Label.futures.get()+mapTimer.size());
 			mb.append(Standardize.Label.tasks.get()+mapTask.size());
 			logger.debug(location, ILogger.null_id, mb.toString());
 		}
@@ -167,21 +169,21 @@ public class TimeoutManager implements ITimeoutManager {
 	private void unregister(IWorkItem wi) {
 		String location = "unregister";
 		try {
-			ScheduledFuture<?> scheduledFuture = mapFuture.remove(wi);
-			if(scheduledFuture != null) {
-				scheduledFuture.cancel(false);
+			Timer timer = mapTimer.remove(wi);
+			if(timer != null) {
+				timer.cancel();
 			}
 			ITimeoutTask timeoutTask = mapTask.remove(wi);
 			if(timeoutTask != null) {
 				IActionData actionData = timeoutTask.getActionData();
 				MessageBuffer mb = LoggerHelper.getMessageBuffer(actionData);
-				mb.append(Standardize.Label.futures.get()+mapFuture.size());
+				mb.append(Standardize.Label.futures.get()+mapTimer.size());
 				mb.append(Standardize.Label.tasks.get()+mapTask.size());
 				logger.debug(location, ILogger.null_id, mb.toString());
 			}
 			else {
 				MessageBuffer mb = new MessageBuffer();
-				mb.append(Standardize.Label.futures.get()+mapFuture.size());
+				mb.append(Standardize.Label.futures.get()+mapTimer.size());
 				mb.append(Standardize.Label.tasks.get()+mapTask.size());
 				logger.trace(location, ILogger.null_id, mb.toString());
 			}
@@ -191,6 +193,21 @@ public class TimeoutManager implements ITimeoutManager {
 		}
 	}
 
+	@Override
+	public long getTimersArmed() {
+		return timingWheel.getArmed();
+	}
+	
+	@Override
+	public long getTimersFired() {
+		return timingWheel.getFired();
+	}
+	
+	@Override
+	public long getTimersCancelled() {
+		return timingWheel.getCancelled();
+	}
+	
 	@Override
 	public void timeout(IActionData actionData) {
 		String location = "timeout";
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.timeout;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.uima.ducc.container.common.logger.IComponent;
+import org.apache.uima.ducc.container.common.logger.ILogger;
+import org.apache.uima.ducc.container.common.logger.Logger;
+
+/**
+ * Hashed timing wheel: timers are hashed by deadline tick into a ring of
+ * buckets, each a doubly linked list, so scheduling and cancelling are
+ * constant time regardless of how many timers are armed.
+ * 
+ * A single thread advances the wheel once per tick and hands every timer
+ * expiring in that tick to the executor. Timers fire no earlier than their
+ * deadline and at most about one tick later. Deadlines further out than
+ * one turn of the wheel wait the corresponding number of turns.
+ */
+public class TimingWheel {
+
+	private static Logger logger = Logger.getLogger(TimingWheel.class, IComponent.Id.JD.name());
+	
+	private enum State { Armed, Cancelled, Expired };
+	
+	public class Timer {
+		
+		private Callable<?> task;
+		private long target;
+		private long rounds;
+		private State state = State.Armed;
+		private Timer prev = null;
+		private Timer next = null;
+		
+		private Timer(Callable<?> task, long target, long rounds) {
+			this.task = task;
+			this.target = target;
+			this.rounds = rounds;
+		}
+		
+		/**
+		 * @return true if the timer was armed and now will not fire
+		 */
+		public boolean cancel() {
+			return TimingWheel.this.cancel(this);
+		}
+	}
+	
+	private final long tickMillis;
+	private final int mask;
+	private final Timer[] buckets;
+	private final ExecutorService executor;
+	private final long start;
+	
+	// next tick to be processed
+	private long tick = 0;
+	private long pending = 0;
+	
+	private AtomicLong armed = new AtomicLong(0);
+	private AtomicLong fired = new AtomicLong(0);
+	private AtomicLong cancelled = new AtomicLong(0);
+	
+	/**
+	 * @param name of the thread advancing the wheel
+	 * @param tickMillis the resolution of the wheel
+	 * @param size the number of buckets, rounded up to a power of two
+	 * @param executor runs the expired tasks
+	 */
+	public TimingWheel(String name, long tickMillis, int size, ExecutorService executor) {
+		int buckets = 1;
+		while(buckets < size) {
+			buckets = buckets << 1;
+		}
+		this.tickMillis = tickMillis;
+		this.mask = buckets - 1;
+		this.buckets = new Timer[buckets];
+		this.executor = executor;
+		this.start = System.currentTimeMillis();
+		Thread thread = new Thread(new Runnable() {
+			public void run() {
+				advance();
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Arrange for task to be run once deadline (epoch millis) is reached.
+	 */
+	public Timer schedule(Callable<?> task, long deadline) {
+		Timer timer;
+		synchronized(this) {
+			long target = (deadline - start + tickMillis - 1) / tickMillis;
+			if(target < tick) {
+				target = tick;
+			}
+			long rounds = (target - tick) / buckets.length;
+			timer = new Timer(task, target, rounds);
+			link(timer);
+			pending++;
+		}
+		armed.incrementAndGet();
+		return timer;
+	}
+	
+	private boolean cancel(Timer timer) {
+		boolean retVal = false;
+		synchronized(this) {
+			if(timer.state == State.Armed) {
+				timer.state = State.Cancelled;
+				unlink(timer);
+				pending--;
+				retVal = true;
+			}
+		}
+		if(retVal) {
+			cancelled.incrementAndGet();
+		}
+		return retVal;
+	}
+	
+	private void link(Timer timer) {
+		int index = (int) (timer.target & mask);
+		Timer head = buckets[index];
+		timer.next = head;
+		if(head != null) {
+			head.prev = timer;
+		}
+		buckets[index] = timer;
+	}
+	
+	private void unlink(Timer timer) {
+		int index = (int) (timer.target & mask);
+		if(timer.prev != null) {
+			timer.prev.next = timer.next;
+		}
+		else {
+			buckets[index] = timer.next;
+		}
+		if(timer.next != null) {
+			timer.next.prev = timer.prev;
+		}
+		timer.prev = null;
+		timer.next = null;
+	}
+	
+	/**
+	 * @return the timers of the current tick that are due, 
+	 *         removed from the wheel; the tick is advanced
+	 */
+	private synchronized ArrayList<Timer> expire() {
+		ArrayList<Timer> list = new ArrayList<Timer>();
+		int index = (int) (tick & mask);
+		Timer timer = buckets[index];
+		while(timer != null) {
+			Timer next = timer.next;
+			if(timer.rounds <= 0) {
+				unlink(timer);
+				timer.state = State.Expired;
+				pending--;
+				list.add(timer);
+			}
+			else {
+				timer.rounds--;
+			}
+			timer = next;
+		}
+		tick++;
+		return list;
+	}
+	
+	private void advance() {
+		String location = "advance";
+		while(true) {
+			try {
+				long due = start + tick * tickMillis;
+				long now = System.currentTimeMillis();
+				if(now < due) {
+					Thread.sleep(due - now);
+					continue;
+				}
+				ArrayList<Timer> list = expire();
+				for(Timer timer : list) {
+					fired.incrementAndGet();
+					executor.submit(timer.task);
+				}
+			}
+			catch(InterruptedException e) {
+				// keep time
+			}
+			catch(Throwable t) {
+				logger.error(location, ILogger.null_id, t);
+			}
+		}
+	}
+	
+	public synchronized long getPending() {
+		return pending;
+	}
+	
+	public long getArmed() {
+		return armed.get();
+	}
+	
+	public long getFired() {
+		return fired.get();
+	}
+	
+	public long getCancelled() {
+		return cancelled.get();
+	}
+}
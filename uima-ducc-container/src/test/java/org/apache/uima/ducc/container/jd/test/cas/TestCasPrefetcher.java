@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.cas;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.uima.ducc.container.common.classloader.ProxyException;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.cas.CasPrefetcher;
+import org.apache.uima.ducc.container.jd.test.TestBase;
+import org.apache.uima.ducc.ps.net.iface.IMetaTask;
+import org.apache.uima.ducc.ps.net.impl.MetaTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCasPrefetcher extends TestBase {
+	
+	private CasPrefetcher prefetcher = null;
+	
+	@Before
+	public void setUp() throws JobDriverException {
+		initialize();
+	}
+	
+	@After
+	public void tearDown() {
+		if(prefetcher != null) {
+			prefetcher.stop();
+		}
+	}
+	
+	/*
+	 * Reader of "total" work items; item "failAt" (if any) throws 
+	 * the given exception instead
+	 */
+	private CasPrefetcher.Reader getReader(final int total, final int failAt, final Exception exception) {
+		CasPrefetcher.Reader reader = new CasPrefetcher.Reader() {
+			private AtomicInteger seqNo = new AtomicInteger(0);
+			@Override
+			public IMetaTask getMetaCas() throws ProxyException {
+				int next = seqNo.incrementAndGet();
+				if(next == failAt) {
+					if(exception instanceof ProxyException) {
+						throw (ProxyException) exception;
+					}
+					throw (RuntimeException) exception;
+				}
+				IMetaTask retVal = null;
+				if(next <= total) {
+					retVal = new MetaTask(next, "doc"+next, null);
+				}
+				return retVal;
+			}
+		};
+		return reader;
+	}
+	
+	// work items in order, then null at end of collection (and thereafter)
+	
+	@Test
+	public void test_01() {
+		try {
+			prefetcher = new CasPrefetcher(getReader(10, 0, null), 4);
+			prefetcher.start();
+			for(int i=1; i<=10; i++) {
+				IMetaTask metaTask = prefetcher.getMetaCas();
+				assertTrue(metaTask != null);
+				assertTrue(metaTask.getSystemKey().equals(""+i));
+			}
+			asExpected("work items delivered in order");
+			assertTrue(prefetcher.getMetaCas() == null);
+			assertTrue(prefetcher.getMetaCas() == null);
+			asExpected("end of collection");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// a CR ProxyException is surfaced in order, prefetching continues
+	
+	@Test
+	public void test_02() {
+		try {
+			prefetcher = new CasPrefetcher(getReader(5, 3, new ProxyException("test")), 4);
+			prefetcher.start();
+			assertTrue(prefetcher.getMetaCas().getSystemKey().equals("1"));
+			assertTrue(prefetcher.getMetaCas().getSystemKey().equals("2"));
+			try {
+				prefetcher.getMetaCas();
+				fail("no exception");
+			}
+			catch(ProxyException e) {
+				asExpected(e);
+			}
+			assertTrue(prefetcher.getMetaCas().getSystemKey().equals("4"));
+			assertTrue(prefetcher.getMetaCas().getSystemKey().equals("5"));
+			assertTrue(prefetcher.getMetaCas() == null);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// a CR RuntimeException ends prefetching and is rethrown to every consumer
+	
+	@Test
+	public void test_03() {
+		try {
+			prefetcher = new CasPrefetcher(getReader(5, 2, new IllegalStateException("test")), 4);
+			prefetcher.start();
+			assertTrue(prefetcher.getMetaCas().getSystemKey().equals("1"));
+			for(int i=0; i<2; i++) {
+				try {
+					prefetcher.getMetaCas();
+					fail("no exception");
+				}
+				catch(IllegalStateException e) {
+					asExpected(e);
+				}
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// a stopped prefetcher fails consumers rather than blocking them
+	
+	@Test
+	public void test_04() {
+		try {
+			CasPrefetcher.Reader reader = new CasPrefetcher.Reader() {
+				@Override
+				public IMetaTask getMetaCas() throws ProxyException {
+					try {
+						Thread.sleep(60*1000);
+					}
+					catch(InterruptedException e) {
+						throw new ProxyException("interrupted");
+					}
+					return null;
+				}
+			};
+			prefetcher = new CasPrefetcher(reader, 4);
+			prefetcher.start();
+			prefetcher.stop();
+			long start = System.currentTimeMillis();
+			for(int i=0; i<2; i++) {
+				try {
+					prefetcher.getMetaCas();
+					fail("no exception");
+				}
+				catch(ProxyException e) {
+					asExpected(e);
+				}
+			}
+			assertTrue(System.currentTimeMillis()-start < 30*1000);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+}
@@ -23,8 +23,10 @@ import static org.junit.Assert.assertTrue;
 import org.apache.uima.ducc.container.jd.mh.MessageHandler;
 import org.apache.uima.ducc.container.jd.test.TestBase;
 import org.apache.uima.ducc.ps.net.iface.IMetaTask;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Option;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Type;
 import org.apache.uima.ducc.ps.net.impl.MetaTaskTransaction;
+import org.apache.uima.ducc.ps.net.impl.TransactionHelper;
 import org.apache.uima.ducc.ps.net.impl.TransactionId;
 
 
@@ -89,4 +91,38 @@ public class TestMessageHandler extends TestBase {
 		transCommon(messageHandler, trans, reqNo);
 	}
 	
+	// pipelined: Get acknowledges the work item delivered
+	
+	protected MetaTaskTransaction transGetAckImplied(MessageHandler messageHandler, String node, int pid, int tid, int reqNo) {
+		debug("Get+AckImplied");
+		MetaTaskTransaction trans = create(node, pid, tid, Type.Get);
+		trans.setTransactionId(new TransactionId(reqNo,0));
+		TransactionHelper.addRequestOption(trans, Option.AckImplied);
+		transCommon(messageHandler, trans, reqNo);
+		return trans;
+	}
+	
+	// Get held open by the JD until work is available, or it gives up
+	
+	protected MetaTaskTransaction transGetWaitForWork(MessageHandler messageHandler, String node, int pid, int tid, int reqNo) {
+		debug("Get+WaitForWork");
+		MetaTaskTransaction trans = create(node, pid, tid, Type.Get);
+		trans.setTransactionId(new TransactionId(reqNo,0));
+		TransactionHelper.addRequestOption(trans, Option.WaitForWork);
+		transCommon(messageHandler, trans, reqNo);
+		return trans;
+	}
+	
+	// pipelined: End delivers (and acknowledges) the next work item, expected to be nextNo
+	
+	protected void transEndGetNext(MessageHandler messageHandler, MetaTaskTransaction trans, int reqNo, int nextNo) {
+		debug("End+GetNext");
+		trans.setType(Type.End);
+		trans.setTransactionId(new TransactionId(reqNo,2));
+		trans.setRequestOptions(null);
+		TransactionHelper.addRequestOption(trans, Option.AckImplied);
+		TransactionHelper.addRequestOption(trans, Option.GetNext);
+		transCommon(messageHandler, trans, nextNo);
+	}
+	
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.messagehandler;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.util.List;
+
+import org.apache.uima.ducc.common.container.FlagsHelper;
+import org.apache.uima.ducc.container.jd.JobDriver;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.blacklist.JobProcessBlacklist;
+import org.apache.uima.ducc.container.jd.mh.MessageHandler;
+import org.apache.uima.ducc.container.jd.mh.iface.IOperatingInfo;
+import org.apache.uima.ducc.container.jd.test.helper.Utilities;
+import org.apache.uima.ducc.ps.net.iface.IMetaTask;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Hint;
+import org.apache.uima.ducc.ps.net.impl.MetaTaskTransaction;
+import org.junit.Test;
+
+public class TestMessageHandler07 extends TestMessageHandler {
+	
+	protected JobDriver jd;
+	
+    public void setUp() throws JobDriverException {
+        initialize();
+        jd = JobDriver.getNewInstance();
+        JobProcessBlacklist.getInstance().disable();
+        //
+        File working = mkWorkingDir();
+        String directory = working.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.JobDirectory.pname(), directory);
+        //
+        URL urlXml = null;
+        File file = null;
+        String path = null;
+        //
+        urlXml = this.getClass().getResource("/CR100.xml");
+        file = new File(urlXml.getFile());
+        path = file.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.CollectionReaderXml.pname(), path);
+        //
+        urlXml = this.getClass().getResource("/DDSleepDescriptor.xml");
+        file = new File(urlXml.getFile());
+        path = file.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.JpDd.pname(), path);
+        //
+        String userClasspath = Utilities.getInstance().getUserCP();
+        System.setProperty(FlagsHelper.Name.UserClasspath.pname(), userClasspath);
+    }
+    
+	private boolean hasHint(MetaTaskTransaction trans, Hint hint) {
+		boolean retVal = false;
+		List<Hint> hints = trans.getResponseHints();
+		if(hints != null) {
+			retVal = hints.contains(hint);
+		}
+		return retVal;
+	}
+	
+	// single node:pid:tid, pipelined End+GetNext through end of collection
+	
+	@Test
+	public void test_07a() {
+		try {
+			if(skipAll) {
+				return;
+			}
+			//
+			setUp();
+			//
+			MessageHandler messageHandler = new MessageHandler();
+			String node = "node01";
+			int pid = 23;
+			int tid = 45;
+			int casNo = 1;
+			MetaTaskTransaction trans = transGetAckImplied(messageHandler,node,pid,tid,casNo);
+			IMetaTask metaCas = trans.getMetaTask();
+			assertTrue(metaCas != null);
+			IMetaTask metaCasPrevious = null;
+			while(metaCas != null) {
+				metaCasPrevious = metaCas;
+				transEndGetNext(messageHandler,trans,casNo,casNo+1);
+				assertTrue(!hasHint(trans, Hint.Rejected));
+				casNo++;
+				metaCas = trans.getMetaTask();
+			}
+			assertTrue(metaCasPrevious.getSystemKey().equals("100"));
+			asExpected("CASes processed count == 100");
+			IOperatingInfo oi = messageHandler.handleGetOperatingInfo();
+			assertTrue(oi.getWorkItemCrFetches() == 100);
+			asExpected("CASes fetched count == 100");
+			assertTrue(oi.getWorkItemEndSuccesses() == 100);
+			asExpected("CASes ended count == 100");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// End+GetNext for an unrecognized work item is Rejected, yet delivers the next
+	
+	@Test
+	public void test_07b() {
+		try {
+			if(skipAll) {
+				return;
+			}
+			//
+			setUp();
+			//
+			MessageHandler messageHandler = new MessageHandler();
+			String node = "node01";
+			int pid = 23;
+			int tid = 45;
+			int casNo = 1;
+			MetaTaskTransaction trans = transGetAckImplied(messageHandler,node,pid,tid,casNo);
+			assertTrue(trans.getMetaTask() != null);
+			// End from a thread that was never given work item 1
+			trans.setRequesterThreadId(tid+1);
+			transEndGetNext(messageHandler,trans,casNo,casNo+1);
+			assertTrue(hasHint(trans, Hint.Rejected));
+			asExpected("End hint Rejected retained");
+			assertTrue(trans.getMetaTask() != null);
+			asExpected("next work item delivered");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.messagehandler;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.uima.ducc.common.container.FlagsHelper;
+import org.apache.uima.ducc.container.jd.JobDriver;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.blacklist.JobProcessBlacklist;
+import org.apache.uima.ducc.container.jd.mh.MessageHandler;
+import org.apache.uima.ducc.container.jd.test.helper.Utilities;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Hint;
+import org.apache.uima.ducc.ps.net.impl.MetaTaskTransaction;
+import org.junit.Test;
+
+public class TestMessageHandler08 extends TestMessageHandler {
+	
+	protected JobDriver jd;
+	
+	private long waitMillis = 2000;
+	private int maxWaiters = 2;
+	
+    public void setUp() throws JobDriverException {
+        initialize();
+        jd = JobDriver.getNewInstance();
+        JobProcessBlacklist.getInstance().disable();
+        //
+        File working = mkWorkingDir();
+        String directory = working.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.JobDirectory.pname(), directory);
+        //
+        URL urlXml = null;
+        File file = null;
+        String path = null;
+        //
+        urlXml = this.getClass().getResource("/CR100.xml");
+        file = new File(urlXml.getFile());
+        path = file.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.CollectionReaderXml.pname(), path);
+        //
+        urlXml = this.getClass().getResource("/DDSleepDescriptor.xml");
+        file = new File(urlXml.getFile());
+        path = file.getAbsolutePath();
+        System.setProperty(FlagsHelper.Name.JpDd.pname(), path);
+        //
+        String userClasspath = Utilities.getInstance().getUserCP();
+        System.setProperty(FlagsHelper.Name.UserClasspath.pname(), userClasspath);
+    }
+    
+	private boolean hasHint(MetaTaskTransaction trans, Hint hint) {
+		boolean retVal = false;
+		List<Hint> hints = trans.getResponseHints();
+		if(hints != null) {
+			retVal = hints.contains(hint);
+		}
+		return retVal;
+	}
+	
+	// hand out all 100 work items, none ended, so that the job is neither done nor has work
+	
+	private void exhaust(MessageHandler messageHandler, String node, int pid) {
+		for(int casNo = 1; casNo <= 100; casNo++) {
+			MetaTaskTransaction trans = transGetAckImplied(messageHandler,node,pid,casNo,casNo);
+			assertTrue(trans.getMetaTask() != null);
+		}
+		asExpected("CASes delivered count == 100");
+	}
+	
+	private class Waiter extends Thread {
+		
+		MessageHandler messageHandler;
+		CountDownLatch go;
+		int tid;
+		MetaTaskTransaction trans;
+		long elapsed;
+		
+		Waiter(MessageHandler messageHandler, CountDownLatch go, int tid) {
+			this.messageHandler = messageHandler;
+			this.go = go;
+			this.tid = tid;
+		}
+		
+		public void run() {
+			try {
+				go.await();
+			}
+			catch(InterruptedException e) {
+				return;
+			}
+			long start = System.currentTimeMillis();
+			trans = transGetWaitForWork(messageHandler,"node01",23,tid,0);
+			elapsed = System.currentTimeMillis() - start;
+		}
+	}
+	
+	// a Get that finds no work is held open, and told so when the wait runs out
+	
+	@Test
+	public void test_08a() {
+		try {
+			if(skipAll) {
+				return;
+			}
+			//
+			setUp();
+			//
+			MessageHandler messageHandler = new MessageHandler(waitMillis, maxWaiters);
+			exhaust(messageHandler,"node01",23);
+			long start = System.currentTimeMillis();
+			MetaTaskTransaction trans = transGetWaitForWork(messageHandler,"node01",23,101,0);
+			long elapsed = System.currentTimeMillis() - start;
+			assertTrue(trans.getMetaTask() == null);
+			assertTrue(hasHint(trans, Hint.Waited));
+			asExpected("Waited hint");
+			assertTrue(elapsed >= waitMillis);
+			asExpected("held open "+elapsed+" ms");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// beyond the maximum number held open at once, a Get is answered immediately
+	
+	@Test
+	public void test_08b() {
+		try {
+			if(skipAll) {
+				return;
+			}
+			//
+			setUp();
+			//
+			MessageHandler messageHandler = new MessageHandler(waitMillis, maxWaiters);
+			exhaust(messageHandler,"node01",23);
+			CountDownLatch go = new CountDownLatch(1);
+			List<Waiter> list = new ArrayList<Waiter>();
+			for(int i = 0; i < maxWaiters+1; i++) {
+				Waiter waiter = new Waiter(messageHandler, go, 101+i);
+				waiter.start();
+				list.add(waiter);
+			}
+			go.countDown();
+			int waited = 0;
+			int immediate = 0;
+			for(Waiter waiter : list) {
+				waiter.join();
+				assertTrue(waiter.trans.getMetaTask() == null);
+				if(hasHint(waiter.trans, Hint.Waited)) {
+					assertTrue(waiter.elapsed >= waitMillis);
+					waited++;
+				}
+				else {
+					assertTrue(waiter.elapsed < waitMillis);
+					immediate++;
+				}
+			}
+			assertTrue(waited == maxWaiters);
+			asExpected("held open count == "+maxWaiters);
+			assertTrue(immediate == 1);
+			asExpected("answered immediately count == 1");
+			// once they are answered, a Get is again held open
+			MetaTaskTransaction trans = transGetWaitForWork(messageHandler,"node01",23,201,0);
+			assertTrue(hasHint(trans, Hint.Waited));
+			asExpected("held open after waiters released");
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.timeout;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.test.TestBase;
+import org.apache.uima.ducc.container.jd.timeout.TimingWheel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTimingWheel extends TestBase {
+
+	private ExecutorService executor;
+	
+	@Before
+	public void setUp() throws JobDriverException {
+		initialize();
+		executor = Executors.newFixedThreadPool(2);
+	}
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	private Callable<Object> getTask(final CountDownLatch latch) {
+		Callable<Object> task = new Callable<Object>() {
+			public Object call() {
+				latch.countDown();
+				return null;
+			}
+		};
+		return task;
+	}
+	
+	@Test
+	public void test_01() throws InterruptedException {
+		TimingWheel wheel = new TimingWheel("test_01", 10, 8, executor);
+		long now = System.currentTimeMillis();
+		CountDownLatch latch = new CountDownLatch(3);
+		// beyond one turn of the wheel
+		wheel.schedule(getTask(latch), now+200);
+		wheel.schedule(getTask(latch), now+20);
+		wheel.schedule(getTask(latch), now);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.currentTimeMillis() >= now+200);
+		assertTrue(wheel.getArmed() == 3);
+		assertTrue(wheel.getFired() == 3);
+		assertTrue(wheel.getCancelled() == 0);
+		assertTrue(wheel.getPending() == 0);
+	}
+	
+	@Test
+	public void test_02() throws InterruptedException {
+		TimingWheel wheel = new TimingWheel("test_02", 10, 8, executor);
+		long now = System.currentTimeMillis();
+		CountDownLatch latchCancelled = new CountDownLatch(1);
+		CountDownLatch latchFired = new CountDownLatch(1);
+		TimingWheel.Timer timer = wheel.schedule(getTask(latchCancelled), now+50);
+		wheel.schedule(getTask(latchFired), now+100);
+		assertTrue(timer.cancel());
+		assertTrue(!timer.cancel());
+		assertTrue(latchFired.await(5, TimeUnit.SECONDS));
+		assertTrue(latchCancelled.getCount() == 1);
+		assertTrue(wheel.getArmed() == 2);
+		assertTrue(wheel.getFired() == 1);
+		assertTrue(wheel.getCancelled() == 1);
+		assertTrue(wheel.getPending() == 0);
+	}
+}
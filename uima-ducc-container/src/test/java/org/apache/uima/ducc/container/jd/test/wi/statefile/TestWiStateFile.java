@@ -22,9 +22,12 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileWriter;
 
+import org.apache.uima.ducc.common.jd.files.WorkItemState;
 import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateKeeper;
 import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateReader;
+import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateAbstract;
 import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateKeeper;
 import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateReader;
 import org.apache.uima.ducc.container.jd.JobDriver;
@@ -33,6 +36,8 @@ import org.apache.uima.ducc.container.jd.test.TestBase;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.gson.Gson;
+
 public class TestWiStateFile extends TestBase {
 	
 	protected JobDriver jd;
@@ -43,6 +48,55 @@ public class TestWiStateFile extends TestBase {
         jd = JobDriver.getNewInstance();
     }
 	
+	private WorkItemState create(int seqNo) {
+		WorkItemState wis = new WorkItemState(seqNo);
+		wis.setWiId("u."+seqNo);
+		wis.setNode("n."+seqNo);
+		wis.setPid("p."+seqNo);
+		wis.setTid("t."+seqNo);
+		wis.stateStart();
+		return wis;
+	}
+	
+	private void write(File file, WorkItemState... list) throws Exception {
+		Gson gson = new Gson();
+		FileWriter fw = new FileWriter(file);
+		try {
+			for(WorkItemState wis : list) {
+				fw.write(gson.toJson(wis)+WorkItemStateAbstract.linend);
+			}
+		}
+		finally {
+			fw.close();
+		}
+	}
+	
+	// the JSON files of a job recorded with version 1, from which the keeper has moved on
+	
+	private void writeVersion1(String directory) throws Exception {
+		WorkItemState wis0 = create(0);
+		WorkItemState wis1 = create(1);
+		wis1.stateQueued();
+		WorkItemState wis2 = create(2);
+		wis2.stateQueued();
+		wis2.stateOperating();
+		WorkItemState wis3 = create(3);
+		wis3.stateQueued();
+		wis3.stateOperating();
+		wis3.stateEnded();
+		WorkItemState wis4 = create(4);
+		wis4.stateQueued();
+		wis4.stateOperating();
+		wis4.stateError();
+		WorkItemState wis5 = create(5);
+		wis5.stateQueued();
+		wis5.stateOperating();
+		wis5.stateRetry();
+		String name = WorkItemStateAbstract.work_item_state;
+		write(new File(directory, name+WorkItemStateAbstract.infoActive+WorkItemStateAbstract.typeJson), wis0, wis1, wis2, wis5);
+		write(new File(directory, name+WorkItemStateAbstract.typeJson), wis3, wis4);
+	}
+	
 	@Test
 	public void test_01() {
 		try {
@@ -79,6 +133,7 @@ public class TestWiStateFile extends TestBase {
 			wisk.retry(5);
 			//
 			wisk.persist();
+			writeVersion1(directory);
 			//
 			String user = "self";
 			long version = 1;
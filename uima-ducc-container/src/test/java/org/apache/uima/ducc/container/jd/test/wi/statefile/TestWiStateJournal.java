@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.container.jd.test.wi.statefile;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.uima.ducc.common.jd.files.IWorkItemState;
+import org.apache.uima.ducc.common.jd.files.IWorkItemState.State;
+import org.apache.uima.ducc.common.jd.files.WorkItemState;
+import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateKeeper;
+import org.apache.uima.ducc.common.jd.files.workitem.IWorkItemStateReader;
+import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateJournal;
+import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateKeeper;
+import org.apache.uima.ducc.common.jd.files.workitem.WorkItemStateReader;
+import org.apache.uima.ducc.container.jd.JobDriver;
+import org.apache.uima.ducc.container.jd.JobDriverException;
+import org.apache.uima.ducc.container.jd.test.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWiStateJournal extends TestBase {
+	
+	protected JobDriver jd;
+	
+	@Before
+    public void setUp() throws JobDriverException {
+        initialize();
+        jd = JobDriver.getNewInstance();
+    }
+	
+	@Test
+	public void test_01() {
+		try {
+			File working = mkWorkingDir();
+			String component = "JD.test";
+			String directory = working.getAbsolutePath();
+			debug(directory);
+			IWorkItemStateKeeper wisk = new WorkItemStateKeeper(component, directory);
+			//
+			// int seqNo, String wiId, String node, String pid, String tid
+			//
+			wisk.start(0, "u.0", "n.0", "p.0", "t.0");
+			//
+			wisk.start(1, "u.1", "n.1", "p.1", "t.1");
+			wisk.queued(1);
+			//
+			wisk.start(2, "u.2", "n.2", "p.2", "t.2");
+			wisk.queued(2);
+			wisk.operating(2);
+			//
+			wisk.start(3, "u.3", "n.3", "p.3", "t.3");
+			wisk.queued(3);
+			wisk.operating(3);
+			wisk.ended(3);
+			//
+			wisk.start(4, "u.4", "n.4", "p.4", "t.4");
+			wisk.queued(4);
+			wisk.operating(4);
+			wisk.error(4);
+			//
+			wisk.start(5, "u.5", "n.5", "p.5", "t.5");
+			wisk.queued(5);
+			wisk.operating(5);
+			wisk.retry(5);
+			//
+			wisk.persist();
+			//
+			String user = "self";
+			long version = 2;
+			IWorkItemStateReader wisr = new WorkItemStateReader(component, directory, user, version);		
+			int size = wisr.getMap().size();
+			debug("size="+size);
+			assertTrue(size == 6);
+			//
+			WorkItemStateReader journalReader = new WorkItemStateReader(component, directory, user, version);
+			ConcurrentSkipListMap<Long,IWorkItemState> map = new ConcurrentSkipListMap<Long,IWorkItemState>();
+			long next = journalReader.fetchJournal(map, 0);
+			assertTrue(next == 18);
+			assertTrue(map.get(new Long(3)).getState() == State.ended);
+			map.clear();
+			// seek: record 13 is seqNo 4 error, those after it seqNo 5
+			next = journalReader.fetchJournal(map, 13);
+			assertTrue(next == 18);
+			assertTrue(map.size() == 2);
+			assertTrue(map.get(new Long(4)).getState() == State.error);
+			assertTrue(map.get(new Long(5)).getState() == State.retry);
+			//
+			wisk.zip();
+			//
+			wisr = new WorkItemStateReader(component, directory, user, version);
+			size = wisr.getMap().size();
+			assertTrue(size == 6);
+			//
+			delete(working);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	private String repeat(String value, int count) {
+		StringBuffer sb = new StringBuffer();
+		for(int i = 0; i < count; i++) {
+			sb.append(value);
+		}
+		return sb.toString();
+	}
+	
+	private String roundTrip(String wiId) {
+		WorkItemState wis = new WorkItemState(7);
+		wis.setWiId(wiId);
+		byte[] record = WorkItemStateJournal.encode(wis);
+		assertTrue(record.length == WorkItemStateJournal.RECORD_SIZE);
+		return WorkItemStateJournal.decode(ByteBuffer.wrap(record), 0).getWiId();
+	}
+	
+	// names too long for their slot are cut, but never within a character
+	
+	@Test
+	public void test_02() {
+		try {
+			String e = "\u00e9";
+			String ascii = repeat("x", 200);
+			String cut = roundTrip(ascii);
+			assertTrue(ascii.startsWith(cut));
+			int slot = cut.length();
+			debug("slot="+slot);
+			// two byte characters, the slot odd or even
+			for(String prefix : new String[] { "", "a" }) {
+				String wiId = prefix+repeat(e, 100);
+				String decoded = roundTrip(wiId);
+				assertTrue(wiId.startsWith(decoded));
+				assertTrue(decoded.getBytes("UTF-8").length >= slot-1);
+			}
+			// four byte characters (surrogate pairs)
+			String smile = "\ud83d\ude00";
+			for(String prefix : new String[] { "", "a", "ab", "abc" }) {
+				String wiId = prefix+repeat(smile, 40);
+				String decoded = roundTrip(wiId);
+				assertTrue(wiId.startsWith(decoded));
+				assertTrue(decoded.getBytes("UTF-8").length >= slot-3);
+			}
+			// what fits is kept whole
+			String fits = repeat(e, slot/2);
+			assertTrue(fits.equals(roundTrip(fits)));
+			assertTrue(roundTrip(null) == null);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+	// the journal cuts long names to fit its records, the export keeps them whole
+	
+	@Test
+	public void test_03() {
+		try {
+			File working = mkWorkingDir();
+			String component = "JD.test";
+			String directory = working.getAbsolutePath();
+			IWorkItemStateKeeper wisk = new WorkItemStateKeeper(component, directory);
+			String wiId0 = "/data/documents/"+repeat("\u00e9", 100)+"/0.txt";
+			String wiId1 = "/data/documents/"+repeat("x", 200)+"/1.txt";
+			wisk.start(0, wiId0, "n.0", "p.0", "t.0");
+			wisk.queued(0);
+			wisk.operating(0);
+			wisk.ended(0);
+			wisk.start(1, wiId1, "n.1", "p.1", "t.1");
+			wisk.queued(1);
+			wisk.persist();
+			//
+			String user = "self";
+			long version = 2;
+			WorkItemStateReader journalReader = new WorkItemStateReader(component, directory, user, version);
+			ConcurrentSkipListMap<Long,IWorkItemState> map = new ConcurrentSkipListMap<Long,IWorkItemState>();
+			journalReader.fetchJournal(map, 0);
+			String cut = map.get(new Long(0)).getWiId();
+			assertTrue(cut.length() < wiId0.length());
+			assertTrue(wiId0.startsWith(cut));
+			//
+			wisk.zip();
+			//
+			IWorkItemStateReader wisr = new WorkItemStateReader(component, directory, user, version);
+			map = wisr.getMap();
+			assertTrue(map.size() == 2);
+			assertTrue(map.get(new Long(0)).getState() == State.ended);
+			assertTrue(wiId0.equals(map.get(new Long(0)).getWiId()));
+			assertTrue(wiId1.equals(map.get(new Long(1)).getWiId()));
+			//
+			delete(working);
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+	}
+	
+}
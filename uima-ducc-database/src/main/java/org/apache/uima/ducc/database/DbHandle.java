@@ -18,12 +18,19 @@
 */
 package org.apache.uima.ducc.database;
 
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.persistence.IDbProperty;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 
 public class DbHandle
 {
@@ -65,6 +72,71 @@ public class DbHandle
         return manager.execute(s);
     }
 
+    public ResultSet execute(Statement s)
+    {
+        return manager.execute(s);
+    }
+
+    /**
+     * Send the statement and return without waiting for the result.
+     */
+    public ResultSetFuture executeAsync(Statement s)
+    {
+        return manager.executeAsync(s);
+    }
+
+    public ResultSetFuture executeAsync(PreparedStatement ps, Object ... fields)
+    {
+        return manager.executeAsync(ps.bind(fields));
+    }
+
+    /**
+     * Iterate the rows of a large query a page at a time.  When half of the current page has been
+     * consumed the next page is requested asynchronously, so the caller processes rows while the
+     * db fetches, and no more than about two pages are held in memory.
+     *
+     * @param s The query.
+     * @param fetchSize The number of rows per page.
+     */
+    public Iterable<Row> stream(Statement s, final int fetchSize)
+    {
+        s.setFetchSize(fetchSize);
+        final ResultSet rs = manager.execute(s);
+        return new Iterable<Row>() {
+            public Iterator<Row> iterator()
+            {
+                final Iterator<Row> rows = rs.iterator();
+                return new Iterator<Row>() {
+                    public boolean hasNext()
+                    {
+                        return rows.hasNext();
+                    }
+
+                    public Row next()
+                    {
+                        if ( (rs.getAvailableWithoutFetching() == fetchSize / 2) && !rs.isFullyFetched() ) {
+                            rs.fetchMoreResults();
+                        }
+                        return rows.next();
+                    }
+
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException("remove");
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @return The latency histogram of each prepared statement executed so far, keyed on its CQL.
+     */
+    public Map<String, LatencyHistogram> getLatencies()
+    {
+        return manager.getLatencies();
+    }
+
     public ResultSet execute(PreparedStatement ps, Object ... fields)
         throws Exception
     {
@@ -207,39 +279,41 @@ public class DbHandle
      * This views a row as a set of properties.  We update a single column in the table.
      *
      * @param table The table name.
-     * @param row   The key to search on for update.  Caller must fully-form it e.g. "name=bob", if the key
-     *                  field is called 'name'.
-     * @param propkey The name of the column.
+     * @param key   The primary key column identifying the row.
+     * @param keyval The value of the key.
+     * @param prop  The column.
      * @param propval The value to replace the existing value.
      */
-    public boolean updateProperty(String table, String row, String propkey, Object propval)
+    public boolean updateProperty(String table, IDbProperty key, Object keyval, IDbProperty prop, Object propval)
         throws Exception
     {
     	String methodName = "updateProperty";
         long now = System.currentTimeMillis();
         
-        String cql = "UPDATE " + table + " SET " + propkey + "=" + propval + " WHERE " + row;
         try {
-            manager.execute(cql);
+            updateProperties(table, key, keyval, prop, propval);
             return true;
         } finally {
-            logger.debug(methodName, null, "Time to update one property", propkey, System.currentTimeMillis() - now);        
+            logger.debug(methodName, null, "Time to update one property", prop.columnName(), System.currentTimeMillis() - now);        
         }
     }
     
     /**
      * This views a row as a set of properties.  We update multiple columns in a single row of the table.
      *
+     * The statement is prepared once per table and set of columns, and the values are bound, so
+     * values need no quoting and the db does not re-parse the statement.
+     *
      * @param table The table name.
-     * @param row   The key to search on for update.  Caller must fully-form it e.g. "name=bob", if the key
-     *                  field is called 'name'.
-     * @param props This is a list of propertes where every even-numbered object is a column name and
+     * @param key   The primary key column identifying the row.
+     * @param keyval The value of the key.
+     * @param props This is a list of propertes where every even-numbered object is an IDbProperty and
      *                  every odd-numbered object is its value.
      * 
-     * @throws IllegalArgumentException if the number of 'props' is not even.  Lower layers may throw
-     *                  unchecked exceptions also.
+     * @throws IllegalArgumentException if the number of 'props' is not even, or one of them is a
+     *                  primary key.  Lower layers may throw unchecked exceptions also.
      */
-    public void updateProperties(String table, String row, Object... props)
+    public void updateProperties(String table, IDbProperty key, Object keyval, Object... props)
         throws Exception
     {
     	String methodName = "updateProperties";
@@ -249,16 +323,26 @@ public class DbHandle
             throw new IllegalArgumentException("mkUpdate: need even number of props to form (k,v) list.  Found " + props.length + " props.");
         }
 
-        String cql = DbUtil.mkUpdate(table, row, props);
+        Object[] vals = new Object[props.length / 2 + 1];
+        String cql = DbUtil.mkPreparedUpdate(table, key, props);
+        for ( int i = 0; i < props.length; i += 2 ) {
+            vals[i / 2] = DbUtil.bindable((IDbProperty) props[i], props[i+1]);
+        }
+        vals[vals.length - 1] = DbUtil.bindable(key, keyval);
+
         try {
             logger.trace(methodName, null, cql);
-            manager.execute(cql);
+            execute(prepare(cql), vals);
         } finally {
             logger.debug(methodName, null, "Total time to update properties", System.currentTimeMillis() - now);
         }
     }
 
 
+    /**
+     * Prepare the CQL.  Prepared statements are cached by the DbManager, so repeated calls
+     * with the same CQL do not go back to the db.
+     */
     public PreparedStatement prepare(String cql)
     {
         //String methodName = "prepare";
@@ -21,10 +21,16 @@ package org.apache.uima.ducc.database;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
 
+import com.datastax.driver.core.BatchStatement;
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.Host;
@@ -32,8 +38,10 @@ import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.PlainTextAuthProvider;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.policies.ConstantReconnectionPolicy;
 import com.datastax.driver.core.policies.ReconnectionPolicy;
 
@@ -52,6 +60,28 @@ public class DbManager
     private Cluster cluster;            // only one
     private Session session;            // only one - it's thread safe and manages a connection pool
 
+    static final int PREPARED_CACHE_SIZE = 256;
+    static final String UNPREPARED = "(unprepared)";
+    static final String OTHER = "(other)";
+
+    // run completion callbacks on the driver's thread, they only do bookkeeping
+    static final Executor inline = new Executor() {
+            public void execute(Runnable r) { r.run(); }
+        };
+
+    // Prepared statements, keyed on their CQL, least recently used evicted first.  Values are
+    // always bound, so the CQL identifies the table and column shape, not the row.
+    @SuppressWarnings("serial")
+    private Map<String, PreparedStatement> prepared = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+            {
+                return size() > PREPARED_CACHE_SIZE;
+            }
+        };
+
+    // Execution latency, keyed on the CQL of prepared statements; unprepared CQL and batches are lumped together,
+    // as are statements beyond the first PREPARED_CACHE_SIZE
+    private Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<String, LatencyHistogram>();
     
     public DbManager(String[] dburls, DuccLogger logger)
         throws Exception
@@ -116,14 +146,63 @@ public class DbManager
     {
     	String methodName = "closeDatabase";
         logger.info(methodName, null, "Closing the database.");
+        for ( Map.Entry<String, LatencyHistogram> e : getLatencies().entrySet() ) {
+            logger.info(methodName, null, "Latency", e.getValue(), ":", truncateText(e.getKey()));
+        }
         if ( cluster != null ) cluster.close();        
         cluster = null;
         session = null;
+        synchronized(prepared) {
+            prepared.clear();                 // bound to the old session
+        }
     }
 
+    /**
+     * Prepare the CQL, or return it from the cache if it was prepared recently.  The db
+     * re-parses nothing for a cached statement.
+     */
     PreparedStatement prepare(String cql)
     {
-        return session.prepare(cql);
+        PreparedStatement ps = null;
+        synchronized(prepared) {
+            ps = prepared.get(cql);
+        }
+        if ( ps != null ) return ps;
+
+        // a round trip to the db, so don't hold up other callers for it; if two race, the first in wins
+        PreparedStatement fresh = session.prepare(cql);
+        synchronized(prepared) {
+            ps = prepared.putIfAbsent(cql, fresh);
+        }
+        return (ps == null) ? fresh : ps;
+    }
+
+    /**
+     * @return A snapshot of the latency histograms, keyed on statement.
+     */
+    Map<String, LatencyHistogram> getLatencies()
+    {
+        return new HashMap<String, LatencyHistogram>(latencies);
+    }
+
+    private void record(Statement s, long start)
+    {
+        String key = UNPREPARED;
+        if ( s instanceof BoundStatement ) {
+            key = ((BoundStatement) s).preparedStatement().getQueryString();
+        } else if ( s instanceof BatchStatement ) {
+            key = "BATCH";
+        }
+
+        LatencyHistogram hist = latencies.get(key);
+        if ( hist == null ) {
+            if ( latencies.size() >= PREPARED_CACHE_SIZE ) {
+                key = OTHER;
+            }
+            latencies.putIfAbsent(key, new LatencyHistogram());
+            hist = latencies.get(key);
+        }
+        hist.record(System.nanoTime() - start);
     }
 
     void truncate(String table)
@@ -149,19 +228,41 @@ public class DbManager
         } else {
             logger.trace(methodName, null, "EXECUTE CQL:", truncateText(cql));
         }
-        return session.execute(cql);
-    }
-
-    ResultSet execute(BoundStatement s)
-    {
-        return session.execute(s);
+        return execute(new SimpleStatement(cql));
     }
 
     ResultSet execute(SimpleStatement s)
     {
     	String methodName = "execute";
         logger.trace(methodName, null, "EXECUTE STATEMENT:", truncateText(s.getQueryString()));
-        return session.execute(s);
+        return execute((Statement) s);
+    }
+
+    ResultSet execute(Statement s)
+    {
+        long start = System.nanoTime();
+        try {
+            return session.execute(s);
+        } finally {
+            record(s, start);
+        }
+    }
+
+    /**
+     * Send the statement without waiting for the result.  The session bounds nothing here;
+     * callers must limit how much they have in flight.
+     */
+    ResultSetFuture executeAsync(final Statement s)
+    {
+        final long start = System.nanoTime();
+        ResultSetFuture f = session.executeAsync(s);
+        f.addListener(new Runnable() {
+                public void run()
+                {
+                    record(s, start);
+                }
+            }, inline);
+        return f;
     }
 
     static void dbPassword()
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import org.apache.uima.ducc.common.persistence.IDbProperty;
 import org.apache.uima.ducc.common.persistence.IDbProperty.Type;
@@ -203,6 +204,65 @@ public class DbUtil
 
     }
 
+    /**
+     * Generate an UPDATE of one row with bind markers for every value; the columns are set in the
+     * order given, followed by the key.  Because no values are included, the result is the same
+     * for every row of the table and can be prepared once.
+     *
+     * @param props Every even-numbered object is an IDbProperty; the odd-numbered objects are ignored.
+     *              Key fields are not allowed here.
+     */
+    static String mkPreparedUpdate(String table, IDbProperty key, Object... props)
+    {
+        int len = props.length;
+        StringBuffer buf = new StringBuffer("UPDATE ");
+        buf.append(table);        
+        buf.append(" SET ");
+        
+        for ( int i = 0; i < len; i+=2) {
+            IDbProperty prop = (IDbProperty) props[i];
+
+            if ( prop.isPrimaryKey() ) {
+                throw new IllegalArgumentException("Primary key not allowed in UPDATE");
+            }
+
+            buf.append(prop.columnName());
+            buf.append("=?");
+            if ( i + 2 < len ) {
+                buf.append(",");
+            }  
+        }
+        buf.append(" WHERE ");
+        buf.append(key.columnName());
+        buf.append("=?");
+        return buf.toString();
+    }
+
+    /**
+     * Convert val to the java type the driver binds for the column type.  Literal CQL took any
+     * value whose string form parsed as the column type; binding is strict.
+     */
+    static Object bindable(IDbProperty p, Object val)
+    {
+        if ( val == null ) return null;
+        switch ( p.type() ) {
+            case String:
+                return val.toString();
+            case Integer:
+                return (val instanceof Number) ? ((Number) val).intValue() : Integer.parseInt(val.toString().trim());
+            case Long:
+                return (val instanceof Number) ? ((Number) val).longValue() : Long.parseLong(val.toString().trim());
+            case Double:
+                return (val instanceof Number) ? ((Number) val).doubleValue() : Double.parseDouble(val.toString().trim());
+            case Boolean:
+                return (val instanceof Boolean) ? val : Boolean.parseBoolean(val.toString().trim());
+            case UUID:
+                return (val instanceof UUID) ? val : UUID.fromString(val.toString().trim());
+            default:
+                return val;
+        }
+    }
+
     /**
      * Imporant: do not pass key fields in the props or this will barf. 
      */
@@ -552,8 +552,8 @@ public class HistoryManagerDb
         DbHandle h = null;
 
         h = dbManager.open();
-        String cql = "SELECT WORK FROM " + tablename + " WHERE DUCC_ID=" + Long.toString(friendly_id);
-        ResultSet rs = h.execute(cql);
+        PreparedStatement ps = h.prepare("SELECT WORK FROM " + tablename + " WHERE DUCC_ID=?");
+        ResultSet rs = h.execute(ps, friendly_id);
         for ( Row r : rs ) {
             logger.info(methodName, null, "----- Restoring", friendly_id); 
             ByteBuffer bbWork = r.getBytes("work");
@@ -592,14 +592,12 @@ public class HistoryManagerDb
         String query =  sb.toString();
         logger.info(methodName, null, query);
         SimpleStatement s = new SimpleStatement(query);
-        s.setFetchSize(100);
         long now = System.currentTimeMillis();
 
         try {
             int count = 0;
             int nbytes = 0;
-            ResultSet rs = h.execute(s);
-            for ( Row r : rs ) {
+            for ( Row r : h.stream(s, 100) ) {     // deserialize each page while the next is fetched
                 count++;
                 ByteBuffer b = r.getBytes("work");
                 byte[] workbytes = b.array();
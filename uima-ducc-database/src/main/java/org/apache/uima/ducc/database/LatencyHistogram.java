@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+
+package org.apache.uima.ducc.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency distribution of one statement, in power-of-two buckets of microseconds:
+ * bucket 0 counts times under 1us, bucket n times in [2^(n-1), 2^n) us.  Recording
+ * is lock free; percentiles are reported as the upper bound of their bucket.
+ */
+public class LatencyHistogram
+{
+    static final int BUCKETS = 32;                 // the last bucket holds everything over ~18 minutes
+
+    private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private AtomicLong count = new AtomicLong(0);
+    private AtomicLong total = new AtomicLong(0);  // micros
+    private AtomicLong max   = new AtomicLong(0);  // micros
+
+    void record(long nanos)
+    {
+        long micros = Math.max(0, nanos / 1000);
+        int b = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(b);
+        count.incrementAndGet();
+        total.addAndGet(micros);
+
+        long m = max.get();
+        while ( (micros > m) && !max.compareAndSet(m, micros) ) {
+            m = max.get();
+        }
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public long getMeanMicros()
+    {
+        long n = count.get();
+        return (n == 0) ? 0 : total.get() / n;
+    }
+
+    public long getMaxMicros()
+    {
+        return max.get();
+    }
+
+    /**
+     * @param p The percentile, 0 - 100.
+     * @return The upper bound in microseconds of the bucket holding the percentile, 0 if nothing is recorded.
+     */
+    public long getPercentileMicros(double p)
+    {
+        long n = count.get();
+        if ( n == 0 ) return 0;
+
+        long rank = (long) Math.ceil(n * p / 100.0);
+        long seen = 0;
+        for ( int b = 0; b < BUCKETS; b++ ) {
+            seen += counts.get(b);
+            if ( seen >= rank ) {
+                return 1L << b;
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return A copy of the bucket counts.
+     */
+    public long[] getCounts()
+    {
+        long[] ret = new long[BUCKETS];
+        for ( int b = 0; b < BUCKETS; b++ ) {
+            ret[b] = counts.get(b);
+        }
+        return ret;
+    }
+
+    public String toString()
+    {
+        return "count=" + getCount()
+            + " mean=" + getMeanMicros() + "us"
+            + " p50<" + getPercentileMicros(50) + "us"
+            + " p99<" + getPercentileMicros(99) + "us"
+            + " max=" + getMaxMicros() + "us";
+    }
+}
@@ -26,14 +26,13 @@ import java.util.Map;
 import java.util.Properties;
 
 import org.apache.uima.ducc.common.db.DbHelper;
+import org.apache.uima.ducc.common.persistence.IDbProperty;
 import org.apache.uima.ducc.common.persistence.rm.IDbJob;
 import org.apache.uima.ducc.common.persistence.rm.IDbShare;
 import org.apache.uima.ducc.common.persistence.rm.IRmPersistence;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 
-import com.datastax.driver.core.PreparedStatement;
-import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SimpleStatement;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
@@ -41,6 +40,9 @@ import com.datastax.driver.core.exceptions.NoHostAvailableException;
 /**
  * Manage saving and fetching of transient RM state.  The primary consumer is
  * intended to be the WS. 
+ *
+ * Updates are not written as they are made; they are coalesced by the RmStateWriter
+ * and sent asynchronously when the RM calls flush() at the end of each epoch.
  */
 public class RmStatePersistence
     implements IRmPersistence
@@ -52,20 +54,14 @@ public class RmStatePersistence
     static final String RM_SHARE_TABLE = RmShares.TABLE_NAME.pname();
     static final String RM_LOAD_TABLE  = RmLoad.TABLE_NAME.pname();
 
-    // Prepared statements to manage the RmNodes table
+    // Primary keys, partition key first
+    static final IDbProperty[] RM_NODE_KEY  = { RmNodes.Name };
+    static final IDbProperty[] RM_SHARE_KEY = { RmShares.Node, RmShares.DuccDbid, RmShares.JobId };
+    static final IDbProperty[] RM_LOAD_KEY  = { RmLoad.JobId };
 
-    // Prepared statements to manage the RmShares table
-    PreparedStatement shareAddPrepare = null;
-    PreparedStatement shareDelPrepare = null;
-    PreparedStatement updateFixedPrepare = null;
-    PreparedStatement updatePurgedPrepare = null;
-    PreparedStatement updateEvictedPrepare = null;
-    PreparedStatement updateSharePrepare = null;
+    RmStateWriter writer = null;
 
-    // Prepared statements to manage the RmLoad table
-    PreparedStatement addJobPrepare = null;
-    PreparedStatement deleteJobPrepare = null;
-    PreparedStatement updateDemandPrepare = null;
+    static final int FETCH_SIZE = 500;        // rows per page when reading whole tables
 
     public RmStatePersistence()
     {
@@ -101,35 +97,36 @@ public class RmStatePersistence
     	this.logger = logger;
         String[] dbUrls = DbHelper.getHostList();
         init(dbUrls);
-        DbHandle h = dbManager.open();
+        dbManager.open();
 
-        // For creating a new share
-        // These are upserts - sometimes the shares are updated before they're actually added to the DB.
-        shareAddPrepare = h.prepare("UPDATE " + RM_SHARE_TABLE + " SET  uuid=?, share_order=?, blacklisted=?, evicted=?, fixed=?, purged=?, quantum=?, jobtype=? WHERE node=? AND ducc_dbid=? and job_id=?");
-        shareDelPrepare = h.prepare("DELETE FROM " + RM_SHARE_TABLE + " WHERE node = ? and ducc_dbid = ? and job_id = ?;");
-        updateFixedPrepare = h.prepare("UPDATE " + RM_SHARE_TABLE + " SET fixed = ? WHERE node = ? AND ducc_dbid = ? and job_id = ?");
-        updatePurgedPrepare = h.prepare("UPDATE " + RM_SHARE_TABLE + " SET purged = ? WHERE node = ? AND ducc_dbid = ? and job_id = ?");
-        updateEvictedPrepare = h.prepare("UPDATE " + RM_SHARE_TABLE + " SET evicted = ? WHERE node = ? AND ducc_dbid = ? and job_id = ?");
-        updateSharePrepare = h.prepare("UPDATE " + RM_SHARE_TABLE + " SET investment = ?, state = ?, init_time = ?, pid = ?  WHERE node = ? AND ducc_dbid = ? and job_id = ?");
-
-        // An upsert
-        addJobPrepare = h.prepare("UPDATE " + RM_LOAD_TABLE + " SET class = ?, user = ?, memory = ?, jobtype = ? WHERE job_id = ?");
-        deleteJobPrepare = h.prepare("DELETE FROM " + RM_LOAD_TABLE + " WHERE job_id=?");
-        updateDemandPrepare = h.prepare("UPDATE " + RM_LOAD_TABLE + " SET demand = ?, occupancy = ?, state = ? WHERE job_id=?");
+        // All row changes are upserts - sometimes the shares are updated before they're actually added to the DB.
+        writer = new RmStateWriter(dbManager, logger);
     }
 
     public void close()
     {
+        if ( writer != null ) writer.flush(true);
         if ( dbManager != null ) dbManager.shutdown();
         dbManager = null;
     }
 
+    public void flush()
+    {
+        writer.flush(false);
+    }
+
+    public long getLag()
+    {
+        return writer.getLag();
+    }
+
     public void clear()
         throws Exception
     {
         String methodName = "clear";
         DbHandle h = null;
         try {
+            writer.clear();
             h = dbManager.open();
             h.execute("TRUNCATE " + RM_NODE_TABLE);
             h.execute("TRUNCATE " + RM_SHARE_TABLE);
@@ -177,94 +174,81 @@ public class RmStatePersistence
     public void createMachine(String m, Map<RmNodes, Object> props)
     	throws Exception
     {
-        String methodName = "createMachine";
-        DbHandle h = dbManager.open();
-        try {           
-            String cql = DbUtil.mkInsert(RM_NODE_TABLE, props);
-            h.execute(cql);
-        } catch ( Exception e ) {
-            logger.error(methodName, null, "Error creating new record:", e);
-        } 
+        List<Object> columns = new ArrayList<Object>();
+        for ( RmNodes k : props.keySet() ) {
+            if ( k.isPrimaryKey() ) continue;          // the row key, not a column to set
+            columns.add(k);
+            columns.add(props.get(k));
+        }
+        writer.update(RM_NODE_TABLE, RM_NODE_KEY, new Object[] { m }, columns.toArray());
     }
 
     public void setNodeProperties(String node, Object... props)
     	throws Exception
     {
-        String methodName = "setProperties";
-
-        long now = System.currentTimeMillis();
         if (( props.length % 2) != 0 ) {
             throw new IllegalStateException("Set properties: number of properties must be even, instead was " + props.length);
         }
-
-        DbHandle h = dbManager.open();
-
-        try {           
-            h.updateProperties(RM_NODE_TABLE, "name='" + node + "'", props);
-        } catch ( Exception e ) {
-            logger.error(methodName, null, "Problem setting properties", e);
-        } finally {           
-            logger.debug(methodName, null, "Total time to update properties on", System.currentTimeMillis() - now);
-
-        }
-        
+        writer.update(RM_NODE_TABLE, RM_NODE_KEY, new Object[] { node }, props);
     }
 
     public void setNodeProperty(String node, RmNodes k, Object v)
     	throws Exception
     {
-        String methodName = "setProperty";
-
-        DbHandle h = dbManager.open();
-
-        try {           
-            h.updateProperty(RM_NODE_TABLE, "name='" + node + "'", k.columnName(), v);
-        } catch ( Exception e ) {
-            logger.error(methodName, null, "Problem setting properties:", e);
-        } 
-        
+        writer.update(RM_NODE_TABLE, RM_NODE_KEY, new Object[] { node }, k, v);
     }
 
     public void addAssignment(String node, DuccId jobid, IDbShare s, int quantum, String type)
     	throws Exception
     {
-        DbHandle h = dbManager.open();
-        h.saveObject(shareAddPrepare, s.getId().getUUID(), s.getShareOrder(), s.isBlacklisted(), s.isEvicted(), s.isFixed(), s.isPurged(), quantum, type, node, s.getId().getFriendly(), jobid.getFriendly() ); 
+        writer.update(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, s.getId(), jobid),
+                      RmShares.Uuid, s.getId().getUUID(),
+                      RmShares.ShareOrder, s.getShareOrder(),
+                      RmShares.Blacklisted, s.isBlacklisted(),
+                      RmShares.Evicted, s.isEvicted(),
+                      RmShares.Fixed, s.isFixed(),
+                      RmShares.Purged, s.isPurged(),
+                      RmShares.Quantum, quantum,
+                      RmShares.JobType, type);
     }
 
     public void removeAssignment(String node, DuccId jobid, IDbShare s)
     	throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(shareDelPrepare, node, s.getId().getFriendly(), jobid.getFriendly());
+        writer.delete(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, s.getId(), jobid));
     }
 
     public void setFixed(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(updateFixedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        writer.update(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, shareId, jobId), RmShares.Fixed, val);
     }
 
     public void setPurged(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(updatePurgedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        writer.update(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, shareId, jobId), RmShares.Purged, val);
     }
 
     public void setEvicted(String node, DuccId shareId, DuccId jobId, boolean val) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(updateEvictedPrepare, val, node, shareId.getFriendly(), jobId.getFriendly());
+        writer.update(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, shareId, jobId), RmShares.Evicted, val);
     }
 
     public void updateShare(String node, DuccId shareid, DuccId jobid, long investment, String state, long init_time, long pid) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(updateSharePrepare, investment, state, init_time, pid, node, shareid.getFriendly(), jobid.getFriendly());
+        writer.update(RM_SHARE_TABLE, RM_SHARE_KEY, shareKey(node, shareid, jobid),
+                      RmShares.Investment, investment,
+                      RmShares.State, state,
+                      RmShares.InitTime, init_time,
+                      RmShares.Pid, pid);
+    }
+
+    static Object[] shareKey(String node, DuccId shareid, DuccId jobid)
+    {
+        return new Object[] { node, shareid.getFriendly(), jobid.getFriendly() };
     }
 
     public Properties getMachine(String m)
@@ -280,8 +264,7 @@ public class RmStatePersistence
         Map<String, Map<String, Object>> ret = new HashMap<String, Map<String, Object>>();
         String cql = "SELECT * FROM " + RM_NODE_TABLE;
         DbHandle h = dbManager.open();
-        ResultSet rs = h.execute(cql);
-        for ( Row r : rs ) {
+        for ( Row r : h.stream(new SimpleStatement(cql), FETCH_SIZE) ) {
             Map<String, Object> mach = DbUtil.getProperties(RmNodes.values(), r);
             ret.put((String)mach.get(RmNodes.Name.pname()), mach);
         }
@@ -295,8 +278,7 @@ public class RmStatePersistence
         Map<String, Map<String, Object>> ret = new HashMap<String, Map<String, Object>>();
         String cql = "SELECT * FROM " + RM_SHARE_TABLE;
         DbHandle h = dbManager.open();
-        ResultSet rs = h.execute(cql);
-        for ( Row r : rs ) {
+        for ( Row r : h.stream(new SimpleStatement(cql), FETCH_SIZE) ) {
 
             Map<String, Object> share = DbUtil.getProperties(RmShares.values(), r);
             String key = share.get(RmShares.Node.pname()) + ":" + share.get(RmShares.DuccDbid.pname()) + ":" + share.get(RmShares.JobId.pname());
@@ -312,8 +294,7 @@ public class RmStatePersistence
         List<Map<String, Object>> ret = new ArrayList<Map<String, Object>>();
         String cql = "SELECT * FROM " + RM_LOAD_TABLE;
         DbHandle h = dbManager.open();
-        ResultSet rs = h.execute(cql);
-        for ( Row r : rs ) {
+        for ( Row r : h.stream(new SimpleStatement(cql), FETCH_SIZE) ) {
             Map<String, Object> job = DbUtil.getProperties(RmLoad.values(), r);
             ret.add(job);
         }
@@ -323,24 +304,28 @@ public class RmStatePersistence
     public void addJob(IDbJob j) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(addJobPrepare, j.getClassName(), j.getUserName(), j.getMemory(), j.getShortType(), j.getFriendlyId());
+        writer.update(RM_LOAD_TABLE, RM_LOAD_KEY, new Object[] { j.getFriendlyId() },
+                      RmLoad.Class, j.getClassName(),
+                      RmLoad.User, j.getUserName(),
+                      RmLoad.Memory, j.getMemory(),
+                      RmLoad.JobType, j.getShortType());
     }
 
     public void deleteJob(IDbJob j) 
         throws Exception
     {
-    	DbHandle h = dbManager.open();
-        h.execute(deleteJobPrepare, j.getFriendlyId());        
+        writer.delete(RM_LOAD_TABLE, RM_LOAD_KEY, new Object[] { j.getFriendlyId() });
     }
 
     public void updateDemand(IDbJob j)
     	throws Exception
     {
-    	DbHandle h = dbManager.open();
         // queryDemand returns the number of processes wanted by the job, of the job's memory size
         // The occupancy is converted from qshares to nshares (processes) for the db.
-        h.execute(updateDemandPrepare, j.queryDemand(), (j.countOccupancy() / j.getShareOrder()), j.getState(), j.getFriendlyId());
+        writer.update(RM_LOAD_TABLE, RM_LOAD_KEY, new Object[] { j.getFriendlyId() },
+                      RmLoad.Demand, j.queryDemand(),
+                      RmLoad.Occupancy, (j.countOccupancy() / j.getShareOrder()),
+                      RmLoad.State, j.getState());
     }
 
     public static void main(String[] args)
@@ -0,0 +1,468 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+
+package org.apache.uima.ducc.database;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.uima.ducc.common.persistence.IDbProperty;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.SystemPropertyResolver;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.QueryExecutionException;
+
+/**
+ * Write-behind for the RM state tables.
+ *
+ * The RM records node, share, and load changes from inside its scheduling loop.  Rather than
+ * making a database round trip for each, changes are coalesced here by table and primary key
+ * until the RM flushes at the end of the epoch; a node whose heartbeats, assignments, and
+ * shares left all change in one epoch is written once.
+ *
+ * On flush each row is bound to a prepared statement, one per table and column set from the
+ * DbManager's cache, and the rows are sent as unlogged batches, one partition per batch, with executeAsync.  The number
+ * of requests outstanding against the database is bounded; flush blocks only when that bound
+ * is reached.
+ *
+ * Every statement carries the time of the change it represents (USING TIMESTAMP), so the
+ * database orders the writes correctly even though batches complete in any order, and a batch
+ * retried after the database comes back cannot overwrite a later change.
+ */
+class RmStateWriter
+{
+    static final String MAX_INFLIGHT  = "ducc.rm.persistence.max.inflight";
+    static final String FLUSH_TIMEOUT = "ducc.rm.persistence.flush.timeout";
+
+    static final int MAX_BATCH = 64;                // rows per unlogged batch
+    static final int MAX_RETRY = 10000;             // rows held for retry while the db is unreachable
+
+    DbManager dbManager;
+    DuccLogger logger;
+
+    int maxInflight;
+    long flushTimeout;
+    Semaphore inflight;
+
+    // Rows changed since the last flush, keyed on table and primary key, oldest first
+    private Map<String, Change> pending = new LinkedHashMap<String, Change>();
+
+    // Rows whose write failed for a transient reason, resent on the next flush
+    private List<Change> retry = new ArrayList<Change>();
+
+    private long lastTimestamp = 0;
+
+    // For each request in flight, the time its oldest change was recorded
+    private Map<ResultSetFuture, Long> outstanding = new ConcurrentHashMap<ResultSetFuture, Long>();
+
+    private AtomicLong lastLag = new AtomicLong(0);
+    private AtomicLong written = new AtomicLong(0);
+    private AtomicLong dropped = new AtomicLong(0);
+
+    RmStateWriter(DbManager dbManager, DuccLogger logger)
+    {
+        String methodName = "<ctr>";
+        this.dbManager = dbManager;
+        this.logger = logger;
+
+        maxInflight = Math.max(1, SystemPropertyResolver.getIntProperty(MAX_INFLIGHT, 16));
+        flushTimeout = SystemPropertyResolver.getLongProperty(FLUSH_TIMEOUT, 10000);
+        inflight = new Semaphore(maxInflight);
+        logger.info(methodName, null, "Max requests in flight:", maxInflight, "Flush timeout:", flushTimeout);
+    }
+
+    /**
+     * Set columns in a row.
+     *
+     * @param table The table name.
+     * @param keys  The primary key columns of the table, partition key first.
+     * @param keyvals The values of the primary key columns.
+     * @param props Every even-numbered object is a non-key IDbProperty and every odd-numbered
+     *              object is its value.
+     */
+    synchronized void update(String table, IDbProperty[] keys, Object[] keyvals, Object... props)
+    {
+        if ( ( props.length % 2 ) != 0 ) {
+            throw new IllegalArgumentException("update: need even number of props to form (k,v) list.  Found " + props.length + " props.");
+        }
+
+        Change c = change(table, keys, keyvals);
+        for ( int i = 0; i < props.length; i += 2 ) {
+            IDbProperty p = (IDbProperty) props[i];
+            if ( p.isPrimaryKey() ) {
+                throw new IllegalArgumentException("Primary key not allowed in UPDATE");
+            }
+            c.columns.put(p, props[i+1]);
+        }
+        c.updated = timestamp();
+    }
+
+    /**
+     * Delete a row.  Columns set on the row after this are written after the delete, as they
+     * would be had each change been executed immediately.
+     */
+    synchronized void delete(String table, IDbProperty[] keys, Object[] keyvals)
+    {
+        Change c = change(table, keys, keyvals);
+        c.columns.clear();
+        c.updated = 0;
+        c.deleted = timestamp();
+    }
+
+    /**
+     * Forget everything not yet sent, and wait for what has been sent.  Used before the tables
+     * are truncated so nothing older lands after.
+     */
+    void clear()
+    {
+        synchronized(this) {
+            pending.clear();
+            retry.clear();
+        }
+        await();
+    }
+
+    /**
+     * Send every change recorded so far.  On return all of them are in requests issued to the
+     * database, or held for retry if the database is unreachable.
+     *
+     * @param wait If true, also wait up to the flush timeout for the database to acknowledge them.
+     */
+    void flush(boolean wait)
+    {
+        String methodName = "flush";
+
+        List<Change> changes = new ArrayList<Change>();
+        synchronized(this) {
+            changes.addAll(retry);
+            changes.addAll(pending.values());
+            retry.clear();
+            pending.clear();
+        }
+
+        // one partition per batch
+        Map<String, List<Change>> partitions = new LinkedHashMap<String, List<Change>>();
+        for ( Change c : changes ) {
+            if ( (c.deleted == 0) && c.columns.isEmpty() ) continue;
+            List<Change> l = partitions.get(c.partition());
+            if ( l == null ) {
+                l = new ArrayList<Change>();
+                partitions.put(c.partition(), l);
+            }
+            l.add(c);
+        }
+
+        int requests = 0;
+        boolean open = true;
+        for ( List<Change> l : partitions.values() ) {
+            for ( int i = 0; i < l.size(); i += MAX_BATCH ) {
+                List<Change> chunk = l.subList(i, Math.min(l.size(), i + MAX_BATCH));
+                if ( open ) {
+                    open = submit(chunk);          // once we time out, don't wait again for each chunk
+                    if ( open ) requests++;
+                } else {
+                    requeue(chunk);
+                }
+            }
+        }
+
+        if ( requests > 0 ) {
+            logger.debug(methodName, null, "Flushed", changes.size(), "rows in", requests, "requests.");
+        }
+        if ( wait ) {
+            await();
+        }
+    }
+
+    /**
+     * Wait up to the flush timeout for all requests in flight to complete.
+     *
+     * @return true if they completed.
+     */
+    boolean await()
+    {
+        String methodName = "await";
+        try {
+            if ( inflight.tryAcquire(maxInflight, flushTimeout, TimeUnit.MILLISECONDS) ) {
+                inflight.release(maxInflight);
+                return true;
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+        logger.warn(methodName, null, "Timed out waiting for", outstanding.size(), "database requests.");
+        return false;
+    }
+
+    /**
+     * Persistence lag in milliseconds: the age of the oldest change not yet acknowledged by the
+     * database or, if there is none, how long the most recently acknowledged change waited.
+     */
+    long getLag()
+    {
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        synchronized(this) {
+            for ( Change c : retry ) {
+                oldest = Math.min(oldest, c.since);
+            }
+            for ( Change c : pending.values() ) {
+                oldest = Math.min(oldest, c.since);
+                break;                            // insertion order, the first is the oldest
+            }
+        }
+        for ( Long since : outstanding.values() ) {
+            oldest = Math.min(oldest, since);
+        }
+        if ( oldest < now ) {
+            return now - oldest;
+        }
+        return lastLag.get();
+    }
+
+    long getWritten()
+    {
+        return written.get();
+    }
+
+    long getDropped()
+    {
+        return dropped.get();
+    }
+
+    // caller must hold the lock
+    private Change change(String table, IDbProperty[] keys, Object[] keyvals)
+    {
+        StringBuffer buf = new StringBuffer(table);
+        for ( Object k : keyvals ) {
+            buf.append(":");
+            buf.append(k);
+        }
+        String key = buf.toString();
+
+        Change c = pending.get(key);
+        if ( c == null ) {
+            c = new Change(table, keys, keyvals);
+            pending.put(key, c);
+        }
+        return c;
+    }
+
+    // Microseconds, strictly increasing so changes made in the same millisecond stay ordered.
+    // caller must hold the lock
+    private long timestamp()
+    {
+        lastTimestamp = Math.max(System.currentTimeMillis() * 1000, lastTimestamp + 1);
+        return lastTimestamp;
+    }
+
+    /**
+     * Issue one request for the chunk.
+     *
+     * @return false if no request slot came free within the flush timeout.  The chunk is then
+     *         held for retry.
+     */
+    private boolean submit(final List<Change> chunk)
+    {
+        String methodName = "submit";
+
+        Statement s = null;
+        try {
+            s = statement(chunk);
+        } catch ( Exception e ) {
+            dropped.addAndGet(chunk.size());
+            logger.error(methodName, null, "Cannot bind", chunk.size(), "rows for", chunk.get(0).partition(), ":", e);
+            return true;
+        }
+
+        try {
+            if ( ! inflight.tryAcquire(flushTimeout, TimeUnit.MILLISECONDS) ) {
+                logger.warn(methodName, null, "No database request slot after", flushTimeout, "ms; holding changes for the next flush.");
+                requeue(chunk);
+                return false;
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            requeue(chunk);
+            return false;
+        }
+
+        long since = Long.MAX_VALUE;
+        for ( Change c : chunk ) {
+            since = Math.min(since, c.since);
+        }
+        final long oldest = since;
+
+        final ResultSetFuture f;
+        try {
+            f = dbManager.executeAsync(s);
+        } catch ( Exception e ) {
+            inflight.release();
+            failed(chunk, e);
+            return true;
+        }
+
+        outstanding.put(f, oldest);
+        f.addListener(new Runnable() {
+                public void run()
+                {
+                    try {
+                        f.getUninterruptibly();
+                        written.addAndGet(chunk.size());
+                        lastLag.set(System.currentTimeMillis() - oldest);
+                    } catch ( Throwable t ) {
+                        failed(chunk, t);
+                    } finally {
+                        outstanding.remove(f);
+                        inflight.release();
+                    }
+                }
+            }, DbManager.inline);
+        return true;
+    }
+
+    private void failed(List<Change> chunk, Throwable t)
+    {
+        String methodName = "failed";
+        if ( (t instanceof NoHostAvailableException) || (t instanceof OperationTimedOutException) || (t instanceof QueryExecutionException) ) {
+            logger.warn(methodName, null, "Cannot write", chunk.size(), "rows for", chunk.get(0).partition(), ", will retry:", t.toString());
+            requeue(chunk);
+        } else {
+            dropped.addAndGet(chunk.size());
+            logger.error(methodName, null, "Cannot write", chunk.size(), "rows for", chunk.get(0).partition(), ":", t);
+        }
+    }
+
+    private synchronized void requeue(List<Change> chunk)
+    {
+        String methodName = "requeue";
+        retry.addAll(chunk);
+        int excess = retry.size() - MAX_RETRY;
+        if ( excess > 0 ) {
+            retry.subList(0, excess).clear();
+            dropped.addAndGet(excess);
+            logger.warn(methodName, null, "Retry limit reached, discarded the", excess, "oldest changes.");
+        }
+    }
+
+    // package-private so tests can stand in for the prepared statements
+    Statement statement(List<Change> chunk)
+    {
+        List<Statement> statements = new ArrayList<Statement>();
+        for ( Change c : chunk ) {
+            if ( c.deleted != 0 ) {
+                statements.add(bindDelete(c));
+            }
+            if ( ! c.columns.isEmpty() ) {
+                statements.add(bindUpdate(c));
+            }
+        }
+        if ( statements.size() == 1 ) {
+            return statements.get(0);
+        }
+
+        BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+        batch.addAll(statements);
+        return batch;
+    }
+
+    private BoundStatement bindUpdate(Change c)
+    {
+        Object[] vals = new Object[1 + c.columns.size() + c.keys.length];
+        int n = 0;
+
+        StringBuffer buf = new StringBuffer("UPDATE ");
+        buf.append(c.table);
+        buf.append(" USING TIMESTAMP ? SET ");
+        vals[n++] = c.updated;
+        for ( IDbProperty p : c.columns.keySet() ) {
+            if ( n > 1 ) {
+                buf.append(", ");
+            }
+            buf.append(p.columnName());
+            buf.append("=?");
+            vals[n++] = DbUtil.bindable(p, c.columns.get(p));
+        }
+        where(buf, c, vals, n);
+        return dbManager.prepare(buf.toString()).bind(vals);
+    }
+
+    private BoundStatement bindDelete(Change c)
+    {
+        Object[] vals = new Object[1 + c.keys.length];
+        StringBuffer buf = new StringBuffer("DELETE FROM ");
+        buf.append(c.table);
+        buf.append(" USING TIMESTAMP ?");
+        vals[0] = c.deleted;
+        where(buf, c, vals, 1);
+        return dbManager.prepare(buf.toString()).bind(vals);
+    }
+
+    private void where(StringBuffer buf, Change c, Object[] vals, int n)
+    {
+        buf.append(" WHERE ");
+        for ( int i = 0; i < c.keys.length; i++ ) {
+            if ( i > 0 ) {
+                buf.append(" AND ");
+            }
+            buf.append(c.keys[i].columnName());
+            buf.append("=?");
+            vals[n++] = DbUtil.bindable(c.keys[i], c.keyvals[i]);
+        }
+    }
+
+    /**
+     * The pending change to one row.
+     */
+    static class Change
+    {
+        String table;
+        IDbProperty[] keys;
+        Object[] keyvals;
+
+        long since = System.currentTimeMillis();                         // first change, for lag
+        long deleted = 0;                                                // timestamp of a delete, or 0
+        long updated = 0;                                                // timestamp of the latest column change
+        Map<IDbProperty, Object> columns = new LinkedHashMap<IDbProperty, Object>();
+
+        Change(String table, IDbProperty[] keys, Object[] keyvals)
+        {
+            this.table = table;
+            this.keys = keys;
+            this.keyvals = keyvals;
+        }
+
+        String partition()
+        {
+            return table + ":" + keyvals[0];
+        }
+    }
+}
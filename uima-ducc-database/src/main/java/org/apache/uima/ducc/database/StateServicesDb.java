@@ -34,7 +34,8 @@ import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccProperties;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 
-import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.SimpleStatement;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
@@ -117,11 +118,9 @@ public class StateServicesDb
     	String methodName = "getProperties";
         Map<Long, DuccProperties> ret = new HashMap<Long, DuccProperties>();
         
-        SimpleStatement s = new SimpleStatement( "SELECT * FROM " + tableid + " WHERE is_archived=" + active);
-        s.setFetchSize(100);
         DbHandle h = dbManager.open();
-        ResultSet rs = h.execute(s);
-        for ( Row r : rs ) {
+        PreparedStatement ps = h.prepare("SELECT * FROM " + tableid + " WHERE is_archived=?");
+        for ( Row r : h.stream(ps.bind(active), 100) ) {
             Map<String, Object> rowvals = DbUtil.getProperties(props, r);
             DuccProperties dp = new DuccProperties();
             dp.ignorePlaceholders();    // Place-holders already resolved -- leave ${DUCC_SERVICE_INSTANCE} as-is
@@ -326,25 +325,11 @@ public class StateServicesDb
 
             job_props.put(SvcRegProps.is_archived.pname(), "true");
             meta_props.put(SvcRegProps.is_archived.pname(), "true");
-            StringBuffer buf = new StringBuffer("BEGIN BATCH ");
-            buf.append("UPDATE ");
-            buf.append(SVC_TABLE);
-            buf.append(" SET ");
-            buf.append(SvcRegProps.is_archived.columnName());
-            buf.append("=true WHERE numeric_id='");
-            buf.append(Long.toString(serviceId.getFriendly()));
-            buf.append("';");
-
-            buf.append("UPDATE ");
-            buf.append(META_TABLE);
-            buf.append(" SET ");
-            buf.append(SvcMetaProps.is_archived.columnName());
-            buf.append("=true WHERE numeric_id='");
-            buf.append(Long.toString(serviceId.getFriendly()));
-            buf.append("';");
-
-            buf.append("APPLY BATCH");
-            h.execute(buf.toString());
+            String id = Long.toString(serviceId.getFriendly());
+            BatchStatement batch = new BatchStatement();
+            batch.add(h.prepare(DbUtil.mkPreparedUpdate(SVC_TABLE, SvcRegProps.numeric_id, SvcRegProps.is_archived, null)).bind(true, id));
+            batch.add(h.prepare(DbUtil.mkPreparedUpdate(META_TABLE, SvcMetaProps.numeric_id, SvcMetaProps.is_archived, null)).bind(true, id));
+            h.execute(batch);
 
             return true;
         }  catch ( Exception e ) {
@@ -364,7 +349,7 @@ public class StateServicesDb
      * @param props The properties file to save.  Usually it's just the meta but if
      *              the service is being modified, it could also be the registration being updated.
      */
-    private boolean updateProperties(DuccId serviceId, String table, String key, Map<String, ? extends IDbProperty> converter, Properties props)
+    private boolean updateProperties(DuccId serviceId, String table, IDbProperty keyField, String key, Map<String, ? extends IDbProperty> converter, Properties props)
     {
         String methodName = "updatePropeties";
         DbHandle h = null;
@@ -381,7 +366,7 @@ public class StateServicesDb
                 tmp.add(map.get(k));
             }
             
-            h.updateProperties(table, key, tmp.toArray(new Object[tmp.size()]));
+            h.updateProperties(table, keyField, key, tmp.toArray(new Object[tmp.size()]));
             return true;
         } catch ( Exception e ) {
             logger.error(methodName, null, "Unable to update properties for service", key, "table", table, ":", e);
@@ -405,7 +390,7 @@ public class StateServicesDb
         	return false;
         }
     	
-    	return updateProperties(serviceId, SVC_TABLE, "numeric_id='" + Long.toString(serviceId.getFriendly()) + "'", s2regProps, props);
+    	return updateProperties(serviceId, SVC_TABLE, SvcRegProps.numeric_id, Long.toString(serviceId.getFriendly()), s2regProps, props);
     }
 
     /**
@@ -424,7 +409,7 @@ String methodName = "updateMetaProperties";
         	return false;
         }
         
-        return updateProperties(serviceId, META_TABLE, "numeric_id='" + Long.toString(serviceId.getFriendly()) + "'", s2metaProps, props);
+        return updateProperties(serviceId, META_TABLE, SvcMetaProps.numeric_id, Long.toString(serviceId.getFriendly()), s2metaProps, props);
     }
 
     public void shutdown()
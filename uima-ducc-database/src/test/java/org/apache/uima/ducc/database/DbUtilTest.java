@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+
+package org.apache.uima.ducc.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.UUID;
+
+import org.apache.uima.ducc.common.persistence.IDbProperty;
+import org.junit.Test;
+
+public class DbUtilTest
+{
+    enum Props
+        implements IDbProperty
+    {
+        Id       { public Type type() { return Type.String;  } public boolean isPrimaryKey() { return true; } },
+        Name     { public Type type() { return Type.String;  } },
+        Count    { public Type type() { return Type.Integer; } },
+        Total    { public Type type() { return Type.Long;    } },
+        Ratio    { public Type type() { return Type.Double;  } },
+        Online   { public Type type() { return Type.Boolean; } },
+        Token    { public Type type() { return Type.UUID;    } },
+        Data     { public Type type() { return Type.Blob;    } },
+        ;
+        public String  pname()        { return name(); }
+        public boolean isPrimaryKey() { return false; }
+        public boolean isPrivate()    { return false; }
+        public boolean isMeta()       { return false; }
+        public boolean isIndex()      { return false; }
+        public String  columnName()   { return "c_" + name().toLowerCase(); }
+    }
+
+    /**
+     * The CQL has a marker for every value and none of the values, so every row of the table
+     * shares one prepared statement.
+     */
+    @Test
+    public void testMkPreparedUpdate()
+    {
+        String cql = DbUtil.mkPreparedUpdate("t", Props.Id, Props.Name, "a", Props.Count, 1, Props.Online, true);
+        assertEquals("UPDATE t SET c_name=?,c_count=?,c_online=? WHERE c_id=?", cql);
+        assertEquals(cql, DbUtil.mkPreparedUpdate("t", Props.Id, Props.Name, "b'; DROP t", Props.Count, 2, Props.Online, false));
+
+        assertEquals("UPDATE t SET c_total=? WHERE c_id=?", DbUtil.mkPreparedUpdate("t", Props.Id, Props.Total, 5L));
+    }
+
+    @Test
+    public void testMkPreparedUpdateRejectsKey()
+    {
+        try {
+            DbUtil.mkPreparedUpdate("t", Props.Id, Props.Name, "a", Props.Id, "x");
+            fail("Primary key accepted in UPDATE");
+        } catch ( IllegalArgumentException e ) {
+            // expected
+        }
+    }
+
+    /**
+     * Values become the java type the driver binds for the column, whether they arrive as
+     * that type, another number, or a string.
+     */
+    @Test
+    public void testBindable()
+    {
+        assertNull(DbUtil.bindable(Props.Count, null));
+
+        assertEquals("42", DbUtil.bindable(Props.Name, 42));
+        assertEquals("x", DbUtil.bindable(Props.Name, "x"));
+
+        assertEquals(Integer.valueOf(42), DbUtil.bindable(Props.Count, 42));
+        assertEquals(Integer.valueOf(42), DbUtil.bindable(Props.Count, 42L));
+        assertEquals(Integer.valueOf(42), DbUtil.bindable(Props.Count, " 42 "));
+
+        assertEquals(Long.valueOf(42), DbUtil.bindable(Props.Total, 42));
+        assertEquals(Long.valueOf(42), DbUtil.bindable(Props.Total, "42"));
+
+        assertEquals(Double.valueOf(1.5), DbUtil.bindable(Props.Ratio, 1.5f));
+        assertEquals(Double.valueOf(2.0), DbUtil.bindable(Props.Ratio, 2));
+        assertEquals(Double.valueOf(1.5), DbUtil.bindable(Props.Ratio, "1.5"));
+
+        assertEquals(Boolean.TRUE, DbUtil.bindable(Props.Online, true));
+        assertEquals(Boolean.TRUE, DbUtil.bindable(Props.Online, "true"));
+        assertEquals(Boolean.FALSE, DbUtil.bindable(Props.Online, "no"));
+
+        UUID u = UUID.randomUUID();
+        assertEquals(u, DbUtil.bindable(Props.Token, u));
+        assertEquals(u, DbUtil.bindable(Props.Token, u.toString()));
+
+        byte[] b = new byte[] { 1, 2 };
+        assertEquals(b, DbUtil.bindable(Props.Data, b));
+    }
+
+    @Test
+    public void testBindableRejectsBadNumber()
+    {
+        try {
+            DbUtil.bindable(Props.Count, "many");
+            fail("Bound a non-number to an int column");
+        } catch ( NumberFormatException e ) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+
+package org.apache.uima.ducc.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.uima.ducc.common.persistence.rm.IRmPersistence.RmNodes;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class RmStateWriterTest
+{
+    DuccLogger logger = DuccLogger.getLogger(RmStateWriterTest.class, "DB");
+
+    TestDbManager dbManager;
+    TestWriter writer;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        System.setProperty(RmStateWriter.MAX_INFLIGHT, "1");
+        System.setProperty(RmStateWriter.FLUSH_TIMEOUT, "100");
+        dbManager = new TestDbManager(logger);
+        writer = new TestWriter(dbManager, logger);
+    }
+
+    @After
+    public void tearDown()
+    {
+        System.clearProperty(RmStateWriter.MAX_INFLIGHT);
+        System.clearProperty(RmStateWriter.FLUSH_TIMEOUT);
+    }
+
+    void heartbeat(String node, Object count)
+    {
+        writer.update(RmStatePersistence.RM_NODE_TABLE, RmStatePersistence.RM_NODE_KEY, new Object[] { node }, RmNodes.Heartbeats, count);
+    }
+
+    /**
+     * Repeated updates to a row between flushes are sent as one change holding the latest
+     * value of each column.
+     */
+    @Test
+    public void testCoalesce()
+    {
+        heartbeat("n1", 1);
+        heartbeat("n2", 1);
+        heartbeat("n1", 2);
+        writer.update(RmStatePersistence.RM_NODE_TABLE, RmStatePersistence.RM_NODE_KEY, new Object[] { "n1" }, RmNodes.Responsive, true);
+        heartbeat("n1", 3);
+        writer.flush(true);
+
+        assertEquals(2, writer.chunks.size());                 // one partition per request
+        RmStateWriter.Change c = writer.chunks.get(0).get(0);
+        assertEquals(1, writer.chunks.get(0).size());
+        assertEquals("n1", c.keyvals[0]);
+        assertEquals(2, c.columns.size());
+        assertEquals(3, c.columns.get(RmNodes.Heartbeats));
+        assertEquals(true, c.columns.get(RmNodes.Responsive));
+        assertEquals(2, writer.getWritten());
+
+        // nothing changed since, nothing sent
+        writer.flush(true);
+        assertEquals(2, writer.chunks.size());
+    }
+
+    /**
+     * A delete followed by an update of the same row is one change; the update is stamped
+     * after the delete so the database keeps the new columns.
+     */
+    @Test
+    public void testDeleteThenUpdate()
+    {
+        heartbeat("n1", 1);
+        writer.delete(RmStatePersistence.RM_NODE_TABLE, RmStatePersistence.RM_NODE_KEY, new Object[] { "n1" });
+        heartbeat("n1", 2);
+        writer.flush(true);
+
+        assertEquals(1, writer.chunks.size());
+        RmStateWriter.Change c = writer.chunks.get(0).get(0);
+        assertTrue(c.deleted != 0);
+        assertTrue(c.updated > c.deleted);
+        assertEquals(1, c.columns.size());
+        assertEquals(2, c.columns.get(RmNodes.Heartbeats));
+    }
+
+    /**
+     * Rows whose write fails while the database is unreachable are sent again on the next
+     * flush; rows that fail for any other reason are dropped.
+     */
+    @Test
+    public void testRetry()
+    {
+        dbManager.failure = new NoHostAvailableException(Collections.emptyMap());
+        heartbeat("n1", 1);
+        writer.flush(true);
+        assertEquals(1, writer.chunks.size());
+        assertEquals(0, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+
+        // a newer change to another row goes out with the retried one
+        dbManager.failure = null;
+        heartbeat("n2", 1);
+        writer.flush(true);
+        assertEquals(3, writer.chunks.size());
+        assertEquals("n1", writer.chunks.get(1).get(0).keyvals[0]);
+        assertEquals("n2", writer.chunks.get(2).get(0).keyvals[0]);
+        assertEquals(2, writer.getWritten());
+
+        dbManager.failure = new IllegalStateException("not transient");
+        heartbeat("n3", 1);
+        writer.flush(true);
+        assertEquals(1, writer.getDropped());
+        writer.flush(true);
+        assertEquals(4, writer.chunks.size());                 // not resent
+    }
+
+    /**
+     * When no request slot comes free within the flush timeout the flush returns anyway,
+     * holding what it could not send for the next one.
+     */
+    @Test
+    public void testFlushTimeout()
+    {
+        dbManager.hold = true;
+        heartbeat("n1", 1);
+        writer.flush(false);
+        assertEquals(1, dbManager.futures.size());             // the only slot is taken
+
+        heartbeat("n2", 1);
+        long start = System.currentTimeMillis();
+        writer.flush(false);
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        assertEquals(1, dbManager.futures.size());             // n2 held back
+        assertFalse(writer.await());
+        assertTrue(writer.getLag() > 0);
+
+        dbManager.futures.get(0).succeed();
+        assertTrue(writer.await());
+        assertEquals(1, writer.getWritten());
+
+        dbManager.hold = false;
+        writer.flush(true);
+        assertEquals(2, dbManager.futures.size());
+        assertEquals("n2", writer.chunks.get(writer.chunks.size() - 1).get(0).keyvals[0]);
+        assertEquals(2, writer.getWritten());
+        assertEquals(0, writer.getDropped());
+    }
+
+    /**
+     * Records the rows of each request instead of binding them to prepared statements, which
+     * would need a live session.
+     */
+    static class TestWriter
+        extends RmStateWriter
+    {
+        List<List<Change>> chunks = new ArrayList<List<Change>>();
+
+        TestWriter(DbManager dbManager, DuccLogger logger)
+        {
+            super(dbManager, logger);
+        }
+
+        Statement statement(List<Change> chunk)
+        {
+            chunks.add(new ArrayList<Change>(chunk));
+            return new SimpleStatement("chunk " + chunks.size());
+        }
+    }
+
+    /**
+     * Completes each request at once, with the current failure if one is set, or holds it
+     * until the test completes it.
+     */
+    static class TestDbManager
+        extends DbManager
+    {
+        List<TestFuture> futures = new ArrayList<TestFuture>();
+        RuntimeException failure = null;
+        boolean hold = false;
+
+        TestDbManager(DuccLogger logger)
+            throws Exception
+        {
+            super(new String[0], logger);
+        }
+
+        ResultSetFuture executeAsync(Statement s)
+        {
+            TestFuture f = new TestFuture();
+            futures.add(f);
+            if ( ! hold ) {
+                if ( failure == null ) {
+                    f.succeed();
+                } else {
+                    f.fail(failure);
+                }
+            }
+            return f;
+        }
+    }
+
+    static class TestFuture
+        extends AbstractFuture<ResultSet>
+        implements ResultSetFuture
+    {
+        void succeed()
+        {
+            set(null);
+        }
+
+        void fail(RuntimeException e)
+        {
+            setException(e);
+        }
+
+        public ResultSet getUninterruptibly()
+        {
+            try {
+                return Uninterruptibles.getUninterruptibly(this);
+            } catch ( ExecutionException e ) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        public ResultSet getUninterruptibly(long timeout, TimeUnit unit)
+            throws TimeoutException
+        {
+            try {
+                return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+            } catch ( ExecutionException e ) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+    }
+}
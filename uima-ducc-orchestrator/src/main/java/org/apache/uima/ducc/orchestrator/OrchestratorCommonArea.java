@@ -21,7 +21,6 @@ package org.apache.uima.ducc.orchestrator;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.lang.SerializationUtils;
 import org.apache.uima.ducc.common.IDuccEnv;
 import org.apache.uima.ducc.common.internationalization.Messages;
 import org.apache.uima.ducc.common.utils.ComponentHelper;
@@ -130,13 +129,11 @@ public class OrchestratorCommonArea {
 		String methodName = "getCheckpointable";
 		DuccWorkMap ckptWorkMap;
 		ConcurrentHashMap<DuccId,DuccId> ckptProcessToJobMap;
-		TrackSync ts = TrackSync.await(workMap, this.getClass(), methodName);
 		synchronized(this) {
-			ts.using();
-			ckptWorkMap = (DuccWorkMap)SerializationUtils.clone(workMap);
+			// read-only snapshot, work map lock held only while serializing
+			ckptWorkMap = WorkMapHelper.snapshot(workMap, this, methodName);
 			ckptProcessToJobMap = ProcessToJobMap.getInstance().getMap();
 		}
-		ts.ended();
 		return new Checkpointable(ckptWorkMap,ckptProcessToJobMap);
 	}
 	
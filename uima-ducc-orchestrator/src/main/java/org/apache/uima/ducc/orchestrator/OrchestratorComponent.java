@@ -566,6 +566,7 @@ implements Orchestrator {
 		logger.trace(methodName, null, messages.fetch("enter"));
 		if(isAcceptNodeInventory()) {
 			HashMap<DuccId, IDuccProcess> processMap = duccEvent.getProcesses();
+			logger.debug(methodName, null, "size:"+processMap.size()+" partial:"+duccEvent.isPartial());
 			stateManager.reconcileState(processMap);
 			NodeAccounting.getInstance().heartbeat(processMap);
 			adjustPublicationSequenceNumber(duccEvent);
@@ -765,8 +766,32 @@ implements Orchestrator {
 		
 		DuccWorkMap workMap = orchestratorCommonArea.getWorkMap();
 		
+		WorkMapDeltaPublisher deltaPublisher = WorkMapDeltaPublisher.getInstance();
+		if(deltaPublisher.isEnabled()) {
+			try {
+				switch(dh_transition) {
+				case master_to_backup:
+				case backup_to_master:
+					deltaPublisher.reset();
+					break;
+				default:
+					break;
+				}
+				boolean jdMinimalAllocateRequirementMet = jdScheduler.isMinimalAllocateRequirementMet();
+				deltaPublisher.publish(orchestratorStateDuccEvent, workMap, jdMinimalAllocateRequirementMet, this, methodName);
+				logger.trace(methodName, null, messages.fetch("exit"));
+				return orchestratorStateDuccEvent;
+			}
+			catch(Throwable t) {
+				// never republish the previous snapshot; fall back to a full publication this cycle
+				deltaPublisher.reset();
+				logger.error(methodName, null, "delta publication failed, publishing full state", t);
+			}
+		}
+		
 		try {
-			DuccWorkMap workMapCopy = WorkMapHelper.deepCopy(workMap, this, methodName);
+			// read-only snapshot, setWorkMap() below makes the trimmed copy for publication
+			DuccWorkMap workMapCopy = WorkMapHelper.snapshot(workMap, this, methodName);
 			int activeJobs = workMapCopy.getJobCount();
 			int activeReservations = workMapCopy.getReservationCount();
 			int activeServices = workMapCopy.getServiceCount();
@@ -1667,6 +1667,10 @@ public class StateManager {
 
 	/**
 	 * Node Inventory reconciliation
+	 * 
+	 * The map may be a partial inventory holding only the processes that changed
+	 * on the node since the agent's previous publication. Each process is
+	 * reconciled on its own and processes absent from the map are left as is.
 	 */
 	public void reconcileState(HashMap<DuccId, IDuccProcess> inventoryProcessMap) {
 		String methodName = "reconcileState (Node Inventory)";
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.orchestrator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.orchestrator.utilities.TrackSync;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccProcess;
+import org.apache.uima.ducc.transport.event.common.IDuccProcessMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkExecutable;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+
+/**
+ * Publisher side of Orchestrator delta publication.
+ * 
+ * Under the work map lock each entry is serialized individually (the
+ * same work done by a deep copy, less the de-serialization).  Outside
+ * the lock the bytes are compared with those of the previous epoch and
+ * only the changed entries are de-serialized and published, each marked
+ * with the epoch of its most recent change.  Processes of changed work
+ * are likewise marked.  Every keyframe interval the full map is published.
+ */
+public class WorkMapDeltaPublisher {
+
+	private static final DuccLogger logger = DuccLogger.getLogger(WorkMapDeltaPublisher.class);
+	private static DuccId jobid = null;
+	
+	private static WorkMapDeltaPublisher instance = new WorkMapDeltaPublisher();
+	
+	public static WorkMapDeltaPublisher getInstance() {
+		return instance;
+	}
+	
+	private boolean enabled = false;
+	private int keyframeInterval = 6;
+	
+	private long epoch = 0;
+	private long epochsSinceKeyframe = 0;
+	private boolean keyframeRequired = true;
+	
+	/*
+	 * Serialized form and change epoch of each published entry
+	 */
+	private static class Mark {
+		byte[] bytes;
+		long sequence;
+		Mark(byte[] bytes, long sequence) {
+			this.bytes = bytes;
+			this.sequence = sequence;
+		}
+	}
+	
+	private Map<DuccId,Mark> previousWork = new HashMap<DuccId,Mark>();
+	private Map<DuccId,Map<DuccId,Mark>> previousProcess = new HashMap<DuccId,Map<DuccId,Mark>>();
+	
+	private WorkMapDeltaPublisher() {
+		String location = "WorkMapDeltaPublisher";
+		DuccPropertiesResolver dpr = DuccPropertiesResolver.getInstance();
+		String delta = dpr.getProperty(DuccPropertiesResolver.ducc_orchestrator_state_publish_delta);
+		enabled = Boolean.valueOf(delta);
+		int interval = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_orchestrator_state_publish_keyframe_interval, keyframeInterval);
+		if(interval > 0) {
+			keyframeInterval = interval;
+		}
+		logger.info(location, jobid, "enabled:"+enabled+" "+"keyframe.interval:"+keyframeInterval);
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Force a keyframe at next publication, for example upon head transition.
+	 */
+	public synchronized void reset() {
+		keyframeRequired = true;
+	}
+	
+	public synchronized void publish(OrchestratorStateDuccEvent event, DuccWorkMap workMap, boolean jdMinimalAllocateRequirementMet, Object object, String methodName) {
+		String location = "publish";
+		Map<DuccId,byte[]> currentWork = snapshot(workMap, object, methodName);
+		epoch++;
+		epochsSinceKeyframe++;
+		boolean keyframe = keyframeRequired || (epochsSinceKeyframe >= keyframeInterval);
+		Map<DuccId,IDuccWork> changed = new HashMap<DuccId,IDuccWork>();
+		Map<DuccId,IDuccWork> unchanged = new HashMap<DuccId,IDuccWork>();
+		List<DuccId> removed = new ArrayList<DuccId>();
+		Map<DuccId,Mark> currentMarks = new HashMap<DuccId,Mark>();
+		for(Entry<DuccId, byte[]> entry : currentWork.entrySet()) {
+			DuccId duccId = entry.getKey();
+			byte[] bytes = entry.getValue();
+			Mark mark = previousWork.get(duccId);
+			if((mark == null) || !Arrays.equals(mark.bytes, bytes)) {
+				mark = new Mark(bytes, epoch);
+				IDuccWork dw = (IDuccWork) SerializationUtils.deserialize(bytes);
+				dw.setChangeSequence(mark.sequence);
+				markProcesses(duccId, dw, true);
+				changed.put(duccId, dw);
+			}
+			else if(keyframe) {
+				IDuccWork dw = (IDuccWork) SerializationUtils.deserialize(bytes);
+				dw.setChangeSequence(mark.sequence);
+				markProcesses(duccId, dw, false);
+				unchanged.put(duccId, dw);
+			}
+			currentMarks.put(duccId, mark);
+		}
+		for(DuccId duccId : previousWork.keySet()) {
+			if(!currentMarks.containsKey(duccId)) {
+				removed.add(duccId);
+				previousProcess.remove(duccId);
+			}
+		}
+		previousWork = currentMarks;
+		if(keyframe) {
+			DuccWorkMap keyframeMap = new DuccWorkMap();
+			for(IDuccWork dw : changed.values()) {
+				keyframeMap.addDuccWork(dw);
+			}
+			for(IDuccWork dw : unchanged.values()) {
+				keyframeMap.addDuccWork(dw);
+			}
+			if(jdMinimalAllocateRequirementMet) {
+				keyframeMap.setJobDriverMinimalAllocateRequirementMet();
+			}
+			else {
+				keyframeMap.resetJobDriverMinimalAllocateRequirementMet();
+			}
+			event.setKeyframe(epoch, keyframeMap);
+			epochsSinceKeyframe = 0;
+			keyframeRequired = false;
+			logger.debug(location, jobid, "keyframe epoch:"+epoch+" size:"+keyframeMap.size()+" changed:"+changed.size()+" removed:"+removed.size());
+		}
+		else {
+			event.setDelta(epoch, epoch-1, changed, removed, jdMinimalAllocateRequirementMet);
+			logger.debug(location, jobid, "delta epoch:"+epoch+" size:"+currentWork.size()+" changed:"+changed.size()+" removed:"+removed.size());
+		}
+	}
+	
+	/*
+	 * Serialize each work entry while holding the work map lock
+	 */
+	private Map<DuccId,byte[]> snapshot(DuccWorkMap workMap, Object object, String methodName) {
+		Map<DuccId,byte[]> retVal = null;
+		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
+		synchronized(workMap) {
+			ts.using();
+			retVal = workMap.serializeEntries();
+		}
+		ts.ended();
+		return retVal;
+	}
+	
+	/*
+	 * Mark each process of the work with the epoch of its most recent change
+	 */
+	private void markProcesses(DuccId workId, IDuccWork dw, boolean workChanged) {
+		Map<DuccId,Mark> previous = previousProcess.get(workId);
+		if(previous == null) {
+			previous = new HashMap<DuccId,Mark>();
+		}
+		Map<DuccId,Mark> current = new HashMap<DuccId,Mark>();
+		if(dw instanceof IDuccWorkExecutable) {
+			IDuccWorkExecutable dwe = (IDuccWorkExecutable) dw;
+			markProcesses(dwe.getProcessMap(), previous, current, workChanged);
+		}
+		if(dw instanceof IDuccWorkJob) {
+			IDuccWorkJob job = (IDuccWorkJob) dw;
+			if(job.getDriver() != null) {
+				markProcesses(job.getDriver().getProcessMap(), previous, current, workChanged);
+			}
+		}
+		previousProcess.put(workId, current);
+	}
+	
+	private void markProcesses(IDuccProcessMap processMap, Map<DuccId,Mark> previous, Map<DuccId,Mark> current, boolean workChanged) {
+		if(processMap != null) {
+			for(IDuccProcess process : processMap.values()) {
+				DuccId duccId = process.getDuccId();
+				Mark mark = previous.get(duccId);
+				// unchanged work implies unchanged processes
+				if(workChanged || (mark == null)) {
+					// copies are de-serialized from live objects, hence sequence is zero here
+					byte[] bytes = SerializationUtils.serialize(process);
+					if((mark == null) || !Arrays.equals(mark.bytes, bytes)) {
+						mark = new Mark(bytes, epoch);
+					}
+				}
+				process.setChangeSequence(mark.sequence);
+				current.put(duccId, mark);
+			}
+		}
+	}
+}
@@ -18,11 +18,14 @@
 */
 package org.apache.uima.ducc.orchestrator;
 
+import java.util.Map;
+
 import org.apache.commons.lang.SerializationUtils;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.orchestrator.utilities.TrackSync;
 import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMapSnapshot;
 import org.apache.uima.ducc.transport.event.common.IDuccWork;
 import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 
@@ -35,6 +38,8 @@ public class WorkMapHelper {
 	private static final DuccLogger logger = DuccLogger.getLogger(WorkMapHelper.class);
 	private static DuccId jobid = null;
 	
+	private static DuccWorkMapSnapshot duccWorkMapSnapshot = new DuccWorkMapSnapshot();
+	
 	public static void addDuccWork(DuccWorkMap workMap, IDuccWork dw, Object object, String methodName) {
 		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
 		synchronized(workMap) {
@@ -57,13 +62,15 @@ public class WorkMapHelper {
 	public static IDuccWork cloneDuccWork(DuccWorkMap workMap, String duccId, Object object, String methodName) {
 		String location = "cloneDuccWork";
 		IDuccWork dwClone = null;
+		byte[] bytes = null;
 		logger.trace(location, jobid, "enter", duccId);
 		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
 		synchronized(workMap) {
 			ts.using();
 			IDuccWork dw = workMap.findDuccWork(duccId);
 			if(dw != null) {
-				dwClone = (IDuccWork)SerializationUtils.clone(dw);
+				// serialize under lock, de-serialize after
+				bytes = SerializationUtils.serialize(dw);
 			}
 			else {
 				StringBuffer sb = new StringBuffer();
@@ -79,6 +86,9 @@ public class WorkMapHelper {
 			}
 		}
 		ts.ended();
+		if(bytes != null) {
+			dwClone = (IDuccWork)SerializationUtils.deserialize(bytes);
+		}
 		logger.trace(location, jobid, "exit", duccId, dwClone);
 		return dwClone;
 	}
@@ -116,15 +126,39 @@ public class WorkMapHelper {
 		return dw;
 	}
 	
+	/**
+	 * Private, mutable copy.  The lock is held only while serializing.
+	 */
 	public static DuccWorkMap deepCopy(DuccWorkMap workMap, Object object, String methodName) {
 		DuccWorkMap workMapCopy = null;
+		byte[] bytes = null;
 		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
 		synchronized(workMap) {
 			ts.using();
-			workMapCopy = workMap.deepCopy();
+			bytes = SerializationUtils.serialize(workMap);
 		}
 		ts.ended();
+		workMapCopy = (DuccWorkMap) SerializationUtils.deserialize(bytes);
 		return workMapCopy;
 	}
 	
+	/**
+	 * Structurally shared, read-only snapshot for publication and checkpoint.
+	 * The lock is held only while serializing; unchanged entries are shared
+	 * with the previous snapshot instead of being de-serialized again.
+	 */
+	public static DuccWorkMap snapshot(DuccWorkMap workMap, Object object, String methodName) {
+		Map<DuccId,byte[]> entries = null;
+		boolean jdMinimalAllocateRequirementMet = false;
+		TrackSync ts = TrackSync.await(workMap, object.getClass(), methodName);
+		synchronized(workMap) {
+			ts.using();
+			entries = workMap.serializeEntries();
+			jdMinimalAllocateRequirementMet = workMap.isJobDriverMinimalAllocateRequirementMet();
+		}
+		ts.ended();
+		DuccWorkMap workMapSnapshot = duccWorkMapSnapshot.assemble(entries, jdMinimalAllocateRequirementMet);
+		return workMapSnapshot;
+	}
+	
 }
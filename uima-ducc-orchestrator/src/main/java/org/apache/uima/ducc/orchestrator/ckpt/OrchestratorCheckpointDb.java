@@ -50,23 +50,18 @@ public class OrchestratorCheckpointDb extends AOrchestratorCheckpoint implements
 		logger.trace(location, jobid, messages.fetch("enter"));
 		boolean retVal = false;
 		if(isCkptEnabled()) {
-			DuccWorkMap workMap = orchestratorCommonArea.getWorkMap();
-			TrackSync ts = TrackSync.await(workMap, this.getClass(), location);
-			synchronized(workMap) {
-				ts.using();
-				try
-				{
-					logger.info(location, jobid, messages.fetchLabel("saving to ")+saveLocation);
-					Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
-                    retVal = saver.checkpoint(checkpointable.getWorkMap(), checkpointable.getProcessToJobMap());
-					logger.info(location, jobid, messages.fetchLabel("saved ")+saveLocation);
-				}
-				catch(Exception e)
-				{
-					logger.error(location, jobid, e);
-				}
+			// snapshot holds the work map lock only while serializing, write is unlocked
+			try
+			{
+				logger.info(location, jobid, messages.fetchLabel("saving to ")+saveLocation);
+				Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
+				retVal = saver.checkpoint(checkpointable.getWorkMap(), checkpointable.getProcessToJobMap());
+				logger.info(location, jobid, messages.fetchLabel("saved ")+saveLocation);
+			}
+			catch(Exception e)
+			{
+				logger.error(location, jobid, e);
 			}
-			ts.ended();
 		}
 		else {
 			logger.debug(location, jobid, messages.fetchLabel("bypass saving to ")+saveLocation);
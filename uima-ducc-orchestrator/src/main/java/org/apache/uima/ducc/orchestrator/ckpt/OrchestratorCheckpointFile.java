@@ -53,29 +53,24 @@ public class OrchestratorCheckpointFile extends AOrchestratorCheckpoint implemen
 		logger.trace(location, jobid, messages.fetch("enter"));
 		boolean retVal = false;
 		if(isCkptEnabled()) {
-			DuccWorkMap workMap = orchestratorCommonArea.getWorkMap();
-			TrackSync ts = TrackSync.await(workMap, this.getClass(), location);
-			synchronized(workMap) {
-				ts.using();
-				try
-				{
-					logger.info(location, jobid, messages.fetchLabel("saving to ")+saveLocation);
-					FileOutputStream fos = null;
-					ObjectOutputStream out = null;
-					fos = new FileOutputStream(saveLocation);
-					out = new ObjectOutputStream(fos);
-					Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
-					out.writeObject(checkpointable);
-					out.close();
-					retVal = true;
-					logger.info(location, jobid, messages.fetchLabel("saved ")+saveLocation);
-				}
-				catch(IOException e)
-				{
-					logger.error(location, jobid, e);
-				}
+			// snapshot holds the work map lock only while serializing, write is unlocked
+			try
+			{
+				logger.info(location, jobid, messages.fetchLabel("saving to ")+saveLocation);
+				FileOutputStream fos = null;
+				ObjectOutputStream out = null;
+				Checkpointable checkpointable = orchestratorCommonArea.getCheckpointable();
+				fos = new FileOutputStream(saveLocation);
+				out = new ObjectOutputStream(fos);
+				out.writeObject(checkpointable);
+				out.close();
+				retVal = true;
+				logger.info(location, jobid, messages.fetchLabel("saved ")+saveLocation);
+			}
+			catch(IOException e)
+			{
+				logger.error(location, jobid, e);
 			}
-			ts.ended();
 		}
 		else {
 			logger.debug(location, jobid, messages.fetchLabel("bypass saving to ")+saveLocation);
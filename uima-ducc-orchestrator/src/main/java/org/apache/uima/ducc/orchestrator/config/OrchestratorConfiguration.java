@@ -30,7 +30,6 @@ import org.apache.uima.ducc.common.config.DuccBlastGuardPredicate;
 import org.apache.uima.ducc.common.exception.DuccRuntimeException;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.IDuccLoggerComponents;
-import org.apache.uima.ducc.common.utils.XStreamUtils;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.orchestrator.Orchestrator;
 import org.apache.uima.ducc.orchestrator.OrchestratorComponent;
@@ -39,6 +38,8 @@ import org.apache.uima.ducc.orchestrator.state.IOrchestratorState;
 import org.apache.uima.ducc.orchestrator.state.OrchestratorState;
 import org.apache.uima.ducc.orchestrator.system.events.log.SystemEventsLogger;
 import org.apache.uima.ducc.transport.DuccTransportConfiguration;
+import org.apache.uima.ducc.transport.codec.DuccEventCodec;
+import org.apache.uima.ducc.transport.codec.DuccEventDataFormat;
 import org.apache.uima.ducc.transport.event.AServiceRequest;
 import org.apache.uima.ducc.transport.event.CancelJobDuccEvent;
 import org.apache.uima.ducc.transport.event.CancelJobReplyDuccEvent;
@@ -135,7 +136,7 @@ public class OrchestratorConfiguration {
             
             // accept any URL, for example { /or, /sm }
             from("jetty://http://0.0.0.0:"+common.duccORHttpPort+"?matchOnUriPrefix=true")
-            .unmarshal().xstream()
+            .unmarshal(new DuccEventDataFormat())   // xstream or binary, by content-type
             
             .bean(delegate)
             .process(new OrchestratorReplyProcessor())   // inject reply object
@@ -143,12 +144,13 @@ public class OrchestratorConfiguration {
               
               public void process(Exchange exchange) throws Exception {
                 exchange.getOut().setHeader(Exchange.HTTP_RESPONSE_CODE, 200);
-                exchange.getOut().setHeader("content-type", "text/xml");
+                DuccEventCodec codec = DuccEventDataFormat.getReplyCodec(exchange);
+                exchange.getOut().setHeader("content-type", codec.getContentType());
                 Object o = exchange.getIn().getBody();
                 if ( o != null ) {
-                  String body = XStreamUtils.marshall(o);
+                  byte[] body = codec.encode(o);
                   exchange.getOut().setBody(body);
-                  exchange.getOut().setHeader("content-length", body.length());
+                  exchange.getOut().setHeader("content-length", body.length);
                 } else {
                   duccLogger.warn("RouteBuilder.configure", null, new DuccRuntimeException("Orchestrator Has Not Provided a Reply Object."));
                   exchange.getOut().setHeader(Exchange.HTTP_RESPONSE_CODE, 500);
@@ -291,6 +291,8 @@ public class JobFactory implements IJobFactory {
 			opt = FlagsHelper.Name.CollectionReaderCfg.dname()+"="+crcfg;
 			jcl.addOption(opt);
 		}
+		// add CasSerialization
+		addDashD(jcl, FlagsHelper.Name.CasSerialization, jobRequestProperties.getProperty(JobSpecificationProperties.key_cas_serialization));
 		// add userCP
 		String prependUserCP = getPrependUserCP(jobid, jobRequestProperties);
 		String userCP = jobRequestProperties.getProperty(JobSpecificationProperties.key_classpath);
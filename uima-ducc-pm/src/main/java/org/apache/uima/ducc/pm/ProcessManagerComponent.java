@@ -19,9 +19,13 @@
 package org.apache.uima.ducc.pm;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.camel.CamelContext;
 import org.apache.uima.ducc.common.NodeIdentity;
@@ -43,6 +47,7 @@ import org.apache.uima.ducc.transport.event.DuccEvent.EventType;
 import org.apache.uima.ducc.transport.event.DuccJobsStateEvent;
 import org.apache.uima.ducc.transport.event.PmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.common.DuccJobDeployment;
+import org.apache.uima.ducc.transport.event.common.DuccReservationMap;
 import org.apache.uima.ducc.transport.event.common.DuccUserReservation;
 import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
 import org.apache.uima.ducc.transport.event.common.DuccWorkPop;
@@ -50,6 +55,7 @@ import org.apache.uima.ducc.transport.event.common.DuccWorkPopDriver;
 import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccJobDeployment;
 import org.apache.uima.ducc.transport.event.common.IDuccProcess;
+import org.apache.uima.ducc.transport.event.common.IDuccReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccReservationMap;
 import org.apache.uima.ducc.transport.event.common.IDuccTypes.DuccType;
 import org.apache.uima.ducc.transport.event.common.IDuccUnits.MemoryUnits;
@@ -76,6 +82,8 @@ implements ProcessManager {
 	private DuccEventDispatcher eventDispatcher;
   private int shareQuantum;
   private int fudgeFactor = 5; // default 5%
+  private boolean dispatchPerNode = true;
+  private long epoch = 0;      // counts publications to agents so they can detect gaps
   
   private String stateChangeEndpoint;
   
@@ -91,6 +99,10 @@ implements ProcessManager {
          System.getProperty("ducc.agent.share.size.fudge.factor").trim().length() > 0) {
       fudgeFactor = Integer.parseInt(System.getProperty("ducc.agent.share.size.fudge.factor").trim());
     }
+    if ( System.getProperty("ducc.pm.dispatch.per.node") != null &&
+         System.getProperty("ducc.pm.dispatch.per.node").trim().length() > 0) {
+      dispatchPerNode = Boolean.parseBoolean(System.getProperty("ducc.pm.dispatch.per.node").trim());
+    }
 		
 		header = 
 				String.format(jobHeaderFormat,jobHeaderArray[0],jobHeaderArray[1],jobHeaderArray[2],
@@ -232,29 +244,28 @@ implements ProcessManager {
         }
 	  }
       logger.debug(methodName, null , "---- PM Dispatching DuccJobsStateEvent request to Agent(s) - State Map Size:"+jobDeploymentList.size()+" Reservation List:"+reservationList.size());
-      DuccJobsStateEvent ev =  new DuccJobsStateEvent(DuccEvent.EventType.PM_STATE, jobDeploymentList, reservationList);
-      ev.setSequence(sequence);
-      
+      epoch++;
+      DuccHeadState headState = null;
       
 		DuccHeadTransition dh_transition = getDuccHead().transition();
 		logger.info(methodName, jobid, dh_transition);
 		switch(dh_transition) {
 		case master_to_backup:
 			stateChange(EventType.SWITCH_TO_BACKUP);
-			ev.setDuccHeadState(DuccHeadState.backup);
+			headState = DuccHeadState.backup;
 			logger.warn(methodName, jobid, "ducc head -> backup");
 			break;
 		case backup_to_master:
 			stateChange(EventType.SWITCH_TO_MASTER);
-			ev.setDuccHeadState(DuccHeadState.master);
+			headState = DuccHeadState.master;
 			logger.warn(methodName, jobid, "ducc head -> master");
 			break;
 		case master_to_master:
-			ev.setDuccHeadState(DuccHeadState.master);
+			headState = DuccHeadState.master;
 			logger.debug(methodName, jobid, "ducc head == master");
 			break;
 		case backup_to_backup:
-			ev.setDuccHeadState(DuccHeadState.backup);;
+			headState = DuccHeadState.backup;
 			logger.debug(methodName, jobid, "ducc head == backup");
 			break;
 		default:
@@ -263,13 +274,127 @@ implements ProcessManager {
 		}
 
       //  Dispatch state update to agents
-      eventDispatcher.dispatch(ev);
+      if ( dispatchPerNode ) {
+        dispatchToNodes(jobDeploymentList, reservationList, sequence, headState);
+      } else {
+        DuccJobsStateEvent ev =  new DuccJobsStateEvent(DuccEvent.EventType.PM_STATE, jobDeploymentList, reservationList);
+        ev.setSequence(sequence);
+        ev.setEpoch(epoch);
+        ev.setDuccHeadState(headState);
+        eventDispatcher.dispatch(ev);
+      }
       logger.debug(methodName, null , "+++++ PM Dispatched State To Agent(s)");
 	  } catch( Throwable t ) {
       logger.error(methodName,null,t);
 	  }
 	}
 	
+	/**
+	 * Split the agent state by node and send each node only the processes and reservations
+	 * it hosts, using the target node header so other agents drop the message unread. The
+	 * epoch is then closed with one untargeted event with empty lists: an agent that got
+	 * nothing in this epoch takes that as "no work on this node".
+	 */
+	private void dispatchToNodes(List<IDuccJobDeployment> jobDeploymentList, List<DuccUserReservation> reservationList, 
+	                             long sequence, DuccHeadState headState) throws Exception {
+	  String methodName = "dispatchToNodes";
+	  Map<String, List<IDuccJobDeployment>> jobsByNode = new HashMap<String, List<IDuccJobDeployment>>();
+	  Map<String, List<DuccUserReservation>> reservationsByNode = new HashMap<String, List<DuccUserReservation>>();
+
+	  for ( IDuccJobDeployment jobDeployment : jobDeploymentList ) {
+	    Map<String, List<IDuccProcess>> processesByNode = new HashMap<String, List<IDuccProcess>>();
+	    for ( IDuccProcess process : jobDeployment.getJpProcessList() ) {
+	      String node = nodeOf(process);
+	      if ( node == null ) {
+	        logger.warn(methodName, jobDeployment.getJobId(), "Process "+process.getDuccId()+" has no node assignment, not dispatched");
+	        continue;
+	      }
+	      List<IDuccProcess> processes = processesByNode.get(node);
+	      if ( processes == null ) {
+	        processes = new ArrayList<IDuccProcess>();
+	        processesByNode.put(node, processes);
+	      }
+	      processes.add(process);
+	    }
+	    String driverNode = nodeOf(jobDeployment.getJdProcess());
+	    if ( driverNode != null && !processesByNode.containsKey(driverNode) ) {
+	      processesByNode.put(driverNode, new ArrayList<IDuccProcess>());
+	    }
+	    for ( Entry<String, List<IDuccProcess>> entry : processesByNode.entrySet() ) {
+	      IDuccProcess driverProcess = entry.getKey().equals(driverNode) ? jobDeployment.getJdProcess() : null;
+	      List<IDuccJobDeployment> jobs = jobsByNode.get(entry.getKey());
+	      if ( jobs == null ) {
+	        jobs = new ArrayList<IDuccJobDeployment>();
+	        jobsByNode.put(entry.getKey(), jobs);
+	      }
+	      jobs.add(new DuccJobDeployment(jobDeployment.getJobId(), jobDeployment.getJdCmdLine(), 
+	                                     jobDeployment.getJpCmdLine(), 
+	                                     jobDeployment.getStandardInfo(), 
+	                                     driverProcess, 
+	                                     jobDeployment.getProcessMemoryAssignment(), 
+	                                     entry.getValue(), jobDeployment.getType()));
+	    }
+	  }
+
+	  for ( DuccUserReservation reservation : reservationList ) {
+	    Map<String, DuccReservationMap> mapsByNode = new HashMap<String, DuccReservationMap>();
+	    for ( IDuccReservation r : reservation.getUserReservations().getMap().values() ) {
+	      if ( r.getNodeIdentity() == null ) {
+	        continue;
+	      }
+	      String node = r.getNodeIdentity().getIp();
+	      DuccReservationMap map = mapsByNode.get(node);
+	      if ( map == null ) {
+	        map = new DuccReservationMap();
+	        mapsByNode.put(node, map);
+	      }
+	      map.addReservation(r);
+	    }
+	    for ( Entry<String, DuccReservationMap> entry : mapsByNode.entrySet() ) {
+	      List<DuccUserReservation> reservations = reservationsByNode.get(entry.getKey());
+	      if ( reservations == null ) {
+	        reservations = new ArrayList<DuccUserReservation>();
+	        reservationsByNode.put(entry.getKey(), reservations);
+	      }
+	      reservations.add(new DuccUserReservation(reservation.getUserId(), reservation.getReserveID(), entry.getValue()));
+	    }
+	  }
+
+	  Set<String> nodes = new HashSet<String>(jobsByNode.keySet());
+	  nodes.addAll(reservationsByNode.keySet());
+
+	  for ( String node : nodes ) {
+	    List<IDuccJobDeployment> jobs = jobsByNode.get(node);
+	    List<DuccUserReservation> reservations = reservationsByNode.get(node);
+	    DuccJobsStateEvent ev = new DuccJobsStateEvent(DuccEvent.EventType.PM_STATE, 
+	        (jobs == null ? new ArrayList<IDuccJobDeployment>() : jobs), 
+	        (reservations == null ? new ArrayList<DuccUserReservation>() : reservations));
+	    ev.setSequence(sequence);
+	    ev.setEpoch(epoch);
+	    ev.setPartitioned(true);
+	    ev.setTargetNode(node);
+	    ev.setDuccHeadState(headState);
+	    eventDispatcher.dispatch(ev, node);
+	  }
+
+	  // Close the epoch. Sent synchronously, like the targeted events, so it cannot overtake them.
+	  DuccJobsStateEvent ev = new DuccJobsStateEvent(DuccEvent.EventType.PM_STATE, 
+	      new ArrayList<IDuccJobDeployment>(), new ArrayList<DuccUserReservation>());
+	  ev.setSequence(sequence);
+	  ev.setEpoch(epoch);
+	  ev.setPartitioned(true);
+	  ev.setDuccHeadState(headState);
+	  eventDispatcher.dispatch(ev, Collections.<String, Object>emptyMap());
+	  logger.debug(methodName, null, "---- PM Dispatched epoch "+epoch+" to "+nodes.size()+" node(s)");
+	}
+
+	private String nodeOf(IDuccProcess process) {
+	  if ( process == null || process.getNodeIdentity() == null ) {
+	    return null;
+	  }
+	  return process.getNodeIdentity().getIp();
+	}
+	
 	private IDuccHead getDuccHead() {
     	if(dh == null) {
     		dh = DuccHead.getInstance();
@@ -23,6 +23,7 @@ import org.apache.uima.ducc.pm.ProcessManager;
 import org.apache.uima.ducc.pm.ProcessManagerComponent;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReassembler;
 import org.apache.uima.ducc.transport.event.delegate.DuccEventDelegateListener;
 
 
@@ -36,9 +37,11 @@ implements DuccEventDelegateListener {
 //	private DuccEventDispatcher eventDispatcher;
 //	private String targetEndpoint;
 	private ProcessManager processManager;
+	private OrchestratorStateReassembler orchestratorStateReassembler = null;
 	
 	public ProcessManagerEventListener(ProcessManager processManager) {
 		this.processManager = processManager;
+		this.orchestratorStateReassembler = new OrchestratorStateReassembler(((ProcessManagerComponent)processManager).getLogger());
 	}
 	public void setDuccEventDispatcher( DuccEventDispatcher eventDispatcher ) {
 //		this.eventDispatcher = eventDispatcher;
@@ -52,6 +55,10 @@ implements DuccEventDelegateListener {
 	 * @param jobMap - state Map sent by the Job Manager
 	 */
 	public void onJobManagerStateUpdate(@Body OrchestratorStateDuccEvent duccEvent) {
+		// rebuild full OR state when delta publication is in effect
+		if ( !orchestratorStateReassembler.reassemble(duccEvent) ) {
+			return;
+		}
 		// process OR state only if the JD has been assigned
 		if ( !duccEvent.getWorkMap().isJobDriverMinimalAllocateRequirementMet() ) {
 			((ProcessManagerComponent)processManager).getLogger().info("onJobManagerStateUpdate", null, "Orchestrator JD node not assigned. Ignoring Orchestrator state update");
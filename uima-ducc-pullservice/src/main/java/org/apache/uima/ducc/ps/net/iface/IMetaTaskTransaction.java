@@ -36,11 +36,23 @@ public interface IMetaTaskTransaction extends IMetaTaskProvider, IMetaTaskReques
 		Exhausted,		// the workitems have all been processed (successfully or otherwise)
 		Premature,		// the available workitems have all been processed (successfully or otherwise)
 		Rejected,		// the request has been rejected
+		Waited,			// the JD held the Get open awaiting work (see Option.WaitForWork)
 		};
 	
 	public List<Hint> getResponseHints();
 	public void setResponseHints(List<Hint> value);
 	
+	/*
+	 * Request options, absent unless requested by the JP
+	 * AckImplied - the work item delivered by a Get is acknowledged by the Get itself
+	 * GetNext - an End is followed by a Get for the same thread in the same transaction
+	 * WaitForWork - a Get finding no work item is held open until one is queued or a timeout
+	 */
+	public enum Option { AckImplied, GetNext, WaitForWork };
+	
+	public List<Option> getRequestOptions();
+	public void setRequestOptions(List<Option> value);
+	
 	public enum Direction { Request, Response };
 	
 	public Direction getDirection();
@@ -34,6 +34,7 @@ public class MetaTaskTransaction implements IMetaTaskTransaction {
 	private Direction direction = null;
 	
 	private List<Hint> hints = null;
+	private List<Option> options = null;
 	
 	private String providerKey = null;
 	private String providerName = null;
@@ -163,6 +164,16 @@ public class MetaTaskTransaction implements IMetaTaskTransaction {
 		hints = value;
 	}
 
+	@Override
+	public List<Option> getRequestOptions() {
+		return options;
+	}
+
+	@Override
+	public void setRequestOptions(List<Option> value) {
+		options = value;
+	}
+
 	@Override
 	public TransactionId getTransactionId() {
 		return transactionId;
@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Hint;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Option;
 
 public class TransactionHelper {
 
@@ -49,4 +50,30 @@ public class TransactionHelper {
 			}
 		}
 	}
+	
+	public static void addRequestOption(IMetaTaskTransaction trans, Option option) {
+		if(trans != null) {
+			if(option != null) {
+				List<Option> options = trans.getRequestOptions();
+				if(options == null) {
+					options = new ArrayList<Option>();
+					trans.setRequestOptions(options);
+				}
+				if(!options.contains(option)) {
+					options.add(option);
+				}
+			}
+		}
+	}
+	
+	public static boolean hasRequestOption(IMetaTaskTransaction trans, Option option) {
+		boolean retVal = false;
+		if(trans != null) {
+			List<Option> options = trans.getRequestOptions();
+			if(options != null) {
+				retVal = options.contains(option);
+			}
+		}
+		return retVal;
+	}
 }
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.uima.cas.CAS;
 import org.apache.uima.ducc.ps.service.errors.IServiceErrorHandler;
 import org.apache.uima.ducc.ps.service.errors.builtin.WindowBasedErrorHandler;
 import org.apache.uima.ducc.ps.service.utils.UimaSerializer;
@@ -68,6 +69,19 @@ public class AbstractServiceProcessor {
 	   	return serializerMap.get(Thread.currentThread().getId());
 	}
 
+	// DUCC JP services are given a serialized CAS, either XMI or compressed
+	// binary as chosen by the job ... others just the doc-text for a CAS
+	protected void deserializeTask(Object serializedTask, CAS cas, boolean isJp) throws Exception {
+		if (serializedTask instanceof byte[]) {
+			getUimaSerializer().deserializeCasFromBinary((byte[]) serializedTask, cas);
+		} else if (isJp) {
+			getUimaSerializer().deserializeCasFromXmi((String) serializedTask, cas);
+		} else {
+			cas.setDocumentText((String) serializedTask);
+			cas.setDocumentLanguage("en");
+		}
+	}
+
 	protected void stop() throws Exception {
 	
 	}
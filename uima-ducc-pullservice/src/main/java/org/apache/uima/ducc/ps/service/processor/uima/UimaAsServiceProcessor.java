@@ -49,7 +49,7 @@ import org.apache.uima.ducc.ps.service.metrics.builtin.ProcessWindowStats;
 import org.apache.uima.ducc.ps.service.monitor.IServiceMonitor;
 import org.apache.uima.ducc.ps.service.monitor.builtin.RemoteStateObserver;
 import org.apache.uima.ducc.ps.service.processor.IProcessResult;
-import org.apache.uima.ducc.ps.service.processor.IServiceProcessor;
+import org.apache.uima.ducc.ps.service.processor.IServiceBinaryProcessor;
 import org.apache.uima.ducc.ps.service.processor.IServiceResultSerializer;
 import org.apache.uima.ducc.ps.service.processor.uima.utils.PerformanceMetrics;
 import org.apache.uima.ducc.ps.service.processor.uima.utils.UimaResultDefaultSerializer;
@@ -60,7 +60,7 @@ import org.apache.uima.util.CasCreationUtils;
 import org.apache.uima.util.Level;
 import org.apache.uima.util.Logger;
 
-public class UimaAsServiceProcessor extends AbstractServiceProcessor implements IServiceProcessor, IScaleable {
+public class UimaAsServiceProcessor extends AbstractServiceProcessor implements IServiceBinaryProcessor, IScaleable {
 	private static final Class<?> CLASS_NAME = UimaAsServiceProcessor.class;
 
 	Logger logger = UIMAFramework.getLogger(UimaServiceProcessor.class);
@@ -240,23 +240,25 @@ public class UimaAsServiceProcessor extends AbstractServiceProcessor implements
         return sb.toString();
 	}
 
-	private CAS getCAS(String serializedTask) throws Exception {
+	private CAS getCAS(Object serializedTask) throws Exception {
 		CAS cas = uimaASClient.getCAS();
-		// DUCC JP services are given a serialized CAS ... others just the doc-text for
-		// a CAS
-		if (serviceConfiguration.getJpType() != null) {
-			// Use thread dedicated UimaSerializer to de-serialize the CAS
-			getUimaSerializer().deserializeCasFromXmi(serializedTask, cas);
-		} else {
-			cas.setDocumentText(serializedTask);
-			cas.setDocumentLanguage("en");
-		}
+		// Use thread dedicated UimaSerializer to de-serialize the CAS
+		deserializeTask(serializedTask, cas, serviceConfiguration.getJpType() != null);
 		return cas;
 	}
 
 	
 	@Override
 	public IProcessResult process(String serializedTask) {
+		return processTask(serializedTask);
+	}
+
+	@Override
+	public IProcessResult process(byte[] serializedTask) {
+		return processTask(serializedTask);
+	}
+
+	private IProcessResult processTask(Object serializedTask) {
 		CAS cas = null;
 		IProcessResult result;
 		try {
@@ -41,7 +41,7 @@ import org.apache.uima.ducc.ps.service.metrics.builtin.ProcessWindowStats;
 import org.apache.uima.ducc.ps.service.monitor.IServiceMonitor;
 import org.apache.uima.ducc.ps.service.monitor.builtin.RemoteStateObserver;
 import org.apache.uima.ducc.ps.service.processor.IProcessResult;
-import org.apache.uima.ducc.ps.service.processor.IServiceProcessor;
+import org.apache.uima.ducc.ps.service.processor.IServiceBinaryProcessor;
 import org.apache.uima.ducc.ps.service.processor.IServiceResultSerializer;
 import org.apache.uima.ducc.ps.service.processor.uima.utils.PerformanceMetrics;
 import org.apache.uima.ducc.ps.service.processor.uima.utils.UimaMetricsGenerator;
@@ -57,7 +57,7 @@ import org.apache.uima.util.Level;
 import org.apache.uima.util.Logger;
 import org.apache.uima.util.XMLInputSource;
 
-public class UimaServiceProcessor extends AbstractServiceProcessor implements IServiceProcessor {
+public class UimaServiceProcessor extends AbstractServiceProcessor implements IServiceBinaryProcessor {
 	public static final String IMPORT_BY_NAME_PREFIX = "*importByName:";
 	Logger logger = UIMAFramework.getLogger(UimaServiceProcessor.class);
    // Map to store DuccUimaSerializer instances. Each has affinity to a thread
@@ -212,19 +212,22 @@ public class UimaServiceProcessor extends AbstractServiceProcessor implements IS
 
 	@Override
 	public IProcessResult process(String serializedTask) {
+		return processTask(serializedTask);
+	}
+
+	@Override
+	public IProcessResult process(byte[] serializedTask) {
+		return processTask(serializedTask);
+	}
+
+	private IProcessResult processTask(Object serializedTask) {
 		AnalysisEngine ae = null;
 
 		CAS cas = casPool.getCas();
 		IProcessResult result;
 		
 		try {
-		  // DUCC JP  services are given a serialized CAS ... others just the doc-text for a CAS
-			if (serviceConfiguration.getJpType() != null) {
-			  getUimaSerializer().deserializeCasFromXmi(serializedTask, cas);
-			} else {
-			  cas.setDocumentText(serializedTask);
-			  cas.setDocumentLanguage("en");
-			}
+			deserializeTask(serializedTask, cas, serviceConfiguration.getJpType() != null);
 			// check out AE instance pinned to this thread
 			ae = threadLocal.get();
 			// get AE metrics before calling process(). Needed for
@@ -36,6 +36,7 @@ import org.apache.uima.ducc.ps.service.errors.IServiceErrorHandler.Action;
 import org.apache.uima.ducc.ps.service.errors.ServiceException;
 import org.apache.uima.ducc.ps.service.errors.ServiceInitializationException;
 import org.apache.uima.ducc.ps.service.processor.IProcessResult;
+import org.apache.uima.ducc.ps.service.processor.IServiceBinaryProcessor;
 import org.apache.uima.ducc.ps.service.processor.IServiceProcessor;
 import org.apache.uima.ducc.ps.service.protocol.INoTaskAvailableStrategy;
 import org.apache.uima.ducc.ps.service.protocol.IServiceProtocolHandler;
@@ -167,6 +168,20 @@ public class DefaultServiceProtocolHandler implements IServiceProtocolHandler {
 
 	}
 
+	private IProcessResult process(Object task) {
+		// the JD sends a byte array when the job asks for binary CAS serialization
+		if ( task instanceof byte[] ) {
+			if ( processor instanceof IServiceBinaryProcessor ) {
+				return ((IServiceBinaryProcessor) processor).process((byte[]) task);
+			}
+			// unrecoverable, stop requesting tasks
+			String msg = "Processor "+processor.getClass().getName()+" does not support binary serialized tasks";
+			logger.log(Level.SEVERE, msg);
+			throw new IllegalStateException(msg);
+		}
+		return processor.process((String) task);
+	}
+
 	private IMetaTaskTransaction callAck(IMetaTaskTransaction transaction) throws Exception {
 		transaction.setType(Type.Ack);
 		if ( logger.isLoggable(Level.FINE)) {
@@ -277,7 +292,7 @@ public class DefaultServiceProtocolHandler implements IServiceProtocolHandler {
 				if (!running  && !quiescing ) {
 					break;
 				}
-				IProcessResult processResult = processor.process((String) task);
+				IProcessResult processResult = process(task);
 
 				// assume success
 				Action action = Action.CONTINUE;
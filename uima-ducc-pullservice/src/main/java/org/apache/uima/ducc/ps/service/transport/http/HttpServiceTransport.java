@@ -27,9 +27,9 @@ import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.http.HttpEntity;
@@ -73,20 +73,28 @@ public class HttpServiceTransport implements IServiceTransport {
     private final String nodeIP;
     private final String nodeName;
     private final String pid;		
-    private ITargetURI currentTargetUrl = new NoOpTargetURI();
+    private volatile ITargetURI currentTargetUrl = new NoOpTargetURI();
     private static final  String NA="N/A";
     private TransportStats stats = new TransportStats();
     private IRegistryClient registryClient;
     // holds reference to HttpPost object for every thread. Key=thread id
     private Map<Long,HttpPost> httpPostMap = 
-    		new HashMap<>();
+    		new ConcurrentHashMap<>();
     private volatile boolean stopping = false;
 	private volatile boolean running = false;
-	private volatile boolean log = true;
+	// per thread flag to log only the first of a series of failed dispatches
+	private ThreadLocal<Boolean> log = new ThreadLocal<Boolean>() {
+		@Override
+		protected Boolean initialValue() {
+			return Boolean.TRUE;
+		}
+	};
 	
  	public HttpServiceTransport(IRegistryClient registryClient, int scaleout) throws ServiceException {
 		this.registryClient = registryClient;
+		// each process thread may have a request in flight, all on the same route
 		clientMaxConnections = scaleout;
+		clientMaxConnectionsPerRoute = scaleout;
 
 		
 		if ( Objects.isNull(System.getenv("DUCC_IP")) || Objects.isNull(System.getenv("DUCC_NODENAME"))) {
@@ -108,14 +116,13 @@ public class HttpServiceTransport implements IServiceTransport {
 		pid = getProcessIP(NA);
 	}
 	private HttpPost getPostMethodForCurrentThread() {
-		HttpPost postMethod;
-		if ( !httpPostMap.containsKey(Thread.currentThread().getId())) {
-			// each thread needs its own PostMethod
+		HttpPost postMethod = httpPostMap.get(Thread.currentThread().getId());
+		if ( postMethod == null ) {
+			// each thread needs its own PostMethod. Only the current thread
+			// adds under its own id, so no check-then-put race.
 			postMethod =
 			    new HttpPost(currentTargetUrl.asString());
 			httpPostMap.put(Thread.currentThread().getId(),postMethod);
-		} else {
-			postMethod = httpPostMap.get(Thread.currentThread().getId());
 		}
 		return postMethod;
 	}
@@ -137,7 +144,19 @@ public class HttpServiceTransport implements IServiceTransport {
 		return fallback;
 	}
 	private void lookupNewTarget() {
+		lookupNewTarget(null);
+	}
+	/**
+	 * Refreshes the target from the registry. When several threads fail 
+	 * against the same target only the first does the lookup, the rest
+	 * find the target already replaced once they get the lock.
+	 */
+	private void lookupNewTarget(ITargetURI failedTarget) {
 		registryLookupLock.lock();
+		if ( failedTarget != null && failedTarget != currentTargetUrl ) {
+			registryLookupLock.unlock();
+			return;
+		}
 		while( !stopping ) {
 			try {
 				String newTarget = registryClient.lookUp(currentTargetUrl.asString());
@@ -199,16 +218,12 @@ public class HttpServiceTransport implements IServiceTransport {
 
 	}
     private void addCommonHeaders( HttpPost method ) {
-    	synchronized( HttpServiceTransport.class ) {
-    		
-    		 method.setHeader("IP", nodeIP);
-             method.setHeader("Hostname", nodeName);
-             method.setHeader("ThreadID",
-                             String.valueOf(Thread.currentThread().getId()));
-             method.setHeader("PID", pid);
-    		
-    	}
-		
+    	// method is owned by the current thread
+		method.setHeader("IP", nodeIP);
+		method.setHeader("Hostname", nodeName);
+		method.setHeader("ThreadID",
+				String.valueOf(Thread.currentThread().getId()));
+		method.setHeader("PID", pid);
     }
 
 	private HttpEntity wrapRequest(String serializedRequest) {
@@ -224,8 +239,9 @@ public class HttpServiceTransport implements IServiceTransport {
 
 		// retry until service is stopped
 		while (isRunning()) {
+			ITargetURI target = currentTargetUrl;
 			try {
-				response =  doPost(postMethod);
+				response =  doPost(postMethod, target);
 				break;
 
 			} catch (TransportException | IOException | URISyntaxException exx) {
@@ -235,14 +251,14 @@ public class HttpServiceTransport implements IServiceTransport {
 					Thread.currentThread().interrupt();
 				}
 			}
-			lookupNewTarget();
+			lookupNewTarget(target);
 			 
 		}
 		return response;
 		
 	}
-	private IMetaTaskTransaction doPost(HttpPost postMethod) throws URISyntaxException, IOException, TransportException {
-		postMethod.setURI(new URI(currentTargetUrl.asString()));
+	private IMetaTaskTransaction doPost(HttpPost postMethod, ITargetURI target) throws URISyntaxException, IOException, TransportException {
+		postMethod.setURI(new URI(target.asString()));
 
 		IMetaTaskTransaction metaTransaction=null;
 		HttpResponse response = httpClient.execute(postMethod);
@@ -279,13 +295,14 @@ public class HttpServiceTransport implements IServiceTransport {
 		return metaTransaction;
 	}
 	/**
-	 * Dispatches request to remote driver via doPost(). Its synchronized to prevent over-running the driver with
-	 * requests from multiple threads. When the transport fails sending GET/ACK/END a single thread
-	 * will try to recover connection and send the request.
+	 * Dispatches request to remote driver via doPost(). Process threads dispatch concurrently,
+	 * each with its own HttpPost and a pooled connection (one per thread). When the transport 
+	 * fails sending GET/ACK/END each affected thread retries on its own, and the first to get
+	 * the registry lock looks up the new target on behalf of the others.
 	 * 
 	 */
 	@Override
-	public synchronized IMetaTaskTransaction dispatch(String serializedRequest) throws TransportException  {
+	public IMetaTaskTransaction dispatch(String serializedRequest) throws TransportException  {
 	    //if ( stopping ) {
 	    //		throw new IllegalStateException("Service transport has been stopped, unable to dispatch request");
 	    //	}
@@ -317,7 +334,7 @@ public class HttpServiceTransport implements IServiceTransport {
 						new HttpClientExceptionGenerator(simulatedException);
 				mockExceptionGenerator.throwSimulatedException();
 			} else {
-				transaction = doPost(postMethod);
+				transaction = doPost(postMethod, currentTargetUrl);
 			}
 		} catch( IOException | URISyntaxException ex) {
 			if ( stopping ) {
@@ -325,14 +342,14 @@ public class HttpServiceTransport implements IServiceTransport {
 				logger.log(Level.INFO,"Process Thread:"+Thread.currentThread().getId()+" - Process is already stopping - Caught Exception while calling doPost() \n"+ex);
 				throw new TransportException(ex);
 			} else {
-				if ( log ) {
-					log = false;
+				if ( log.get() ) {
+					log.set(false);
 					stats.incrementErrorCount();
 					logger.log(Level.WARNING, this.getClass().getName()+".dispatch() >>>>>>>>>> Handling Exception \n"+ex);
 					logger.log(Level.INFO, ">>>>>>>>>> Unable to communicate with target:"+currentTargetUrl.asString()+" - retrying until successfull - with "+threadSleepTime/1000+" seconds wait between retries  ");
 				}
 				transaction = retryUntilSuccessfull(serializedRequest, postMethod);
-				log = true;
+				log.set(true);
 				logger.log(Level.INFO, "Established connection to target:"+currentTargetUrl.asString());
 			}
 
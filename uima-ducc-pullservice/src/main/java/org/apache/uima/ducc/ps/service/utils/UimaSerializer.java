@@ -32,6 +32,7 @@ import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
 import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.ducc.user.common.DuccUimaSerializer;
 import org.apache.uima.util.Level;
 import org.apache.uima.util.XMLSerializer;
 import org.xml.sax.ContentHandler;
@@ -64,6 +65,23 @@ public class UimaSerializer {
       writer.close();
     }
   }
+  
+  // binary CASes are only ever sent by the DUCC JD (uima-ducc-user), whose
+  // serializer is on the classpath of every DUCC JP
+  private DuccUimaSerializer binarySerializer = null;
+  
+  /**
+   * Utility method for deserializing a CAS from a byte array produced
+   * by the JD (see DuccUimaSerializer.serializeCasToBinary)
+   */
+  public void deserializeCasFromBinary(byte[] bytes, CAS aCAS)
+          throws Exception {
+    if(binarySerializer == null) {
+      binarySerializer = new DuccUimaSerializer();
+    }
+    binarySerializer.deserializeCasFromBinary(bytes, aCAS);
+  }
+  
   private void secureXmlReader(XMLReader xmlReader) {
 	    try {
 	        xmlReader.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ps.transport;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction;
+import org.apache.uima.ducc.ps.net.impl.MetaTask;
+import org.apache.uima.ducc.ps.net.impl.MetaTaskTransaction;
+import org.apache.uima.ducc.ps.service.registry.DefaultRegistryClient;
+import org.apache.uima.ducc.ps.service.transport.ITargetURI;
+import org.apache.uima.ducc.ps.service.transport.XStreamUtils;
+import org.apache.uima.ducc.ps.service.transport.http.HttpServiceTransport;
+import org.apache.uima.ducc.ps.service.transport.target.HttpTargetURI;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that HttpServiceTransport dispatches requests concurrently when
+ * shared by several process threads (scaleout). The servlet simulates a
+ * driver taking a fixed time to answer each request and records the peak
+ * number of requests it holds at once, which exceeds one only if the 
+ * transport does not serialize requests.
+ */
+public class JunitTransportScaleoutTestCase {
+	private Server server;
+	private final static String app="test";
+	private int httpPort = 12322;
+	private int maxThreads = 40;
+	// simulated driver latency per request
+	private static final long driverMillis = 10;
+	private static final int requestsPerThread = 50;
+	// requests currently in the servlet, and the most seen at once
+	private final AtomicInteger inServer = new AtomicInteger();
+	private final AtomicInteger peakInServer = new AtomicInteger();
+	
+	private int getJettyPort() {
+		while(true) {
+			ServerSocket socket=null;
+			try {
+				socket = new ServerSocket(httpPort);
+				break;
+			} catch( IOException e) {
+				httpPort++;
+			} finally {
+				if ( socket != null ) {
+					try {
+						socket.close();
+					} catch( Exception ee) {}
+					
+				}
+			}
+		}
+		return httpPort;
+	}
+	
+    @Before
+    public void startJetty() throws Exception
+    {
+    	// may be left behind by the transport error tests
+    	System.clearProperty("MockHttpPostError");
+		QueuedThreadPool threadPool = new QueuedThreadPool();
+		threadPool.setMaxThreads(Math.max(maxThreads, threadPool.getMinThreads()));
+	    server = new Server(threadPool);
+
+		ServerConnector connector = new ServerConnector(server);
+		connector.setPort(getJettyPort());
+		server.setConnectors(new Connector[] { connector });
+		ServletContextHandler context = new ServletContextHandler(
+				ServletContextHandler.SESSIONS);
+		context.setContextPath("/");
+		server.setHandler(context);
+		context.addServlet(new ServletHolder(new TaskHandlerServlet()), "/"+app);
+		server.start();
+    }
+
+    @After
+    public void stopJetty()
+    {
+        try
+        {
+            server.stop();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+    }
+    
+    private void dispatch(int scaleout) throws Exception {
+    	ITargetURI targetUrl = new HttpTargetURI("http://localhost:"+httpPort+"/"+app);
+    	DefaultRegistryClient registryClient =
+    			new DefaultRegistryClient(targetUrl);
+    	final HttpServiceTransport transport = new HttpServiceTransport(registryClient, scaleout);
+    	transport.initialize();
+    	final String request = XStreamUtils.marshall(new MetaTaskTransaction());
+    	ExecutorService executor = Executors.newFixedThreadPool(scaleout);
+    	try {
+    		List<Callable<Integer>> workers = new ArrayList<>();
+    		for( int i=0; i < scaleout; i++ ) {
+    			workers.add(new Callable<Integer>() {
+    				@Override
+    				public Integer call() throws Exception {
+    					int count = 0;
+    					for( int j=0; j < requestsPerThread; j++ ) {
+    						IMetaTaskTransaction reply = transport.dispatch(request);
+    						if ( reply != null ) {
+    							count++;
+    						}
+    					}
+    					return count;
+    				}
+    			});
+    		}
+    		int total = 0;
+    		for( Future<Integer> f : executor.invokeAll(workers)) {
+    			total += f.get();
+    		}
+    		assertTrue(total == scaleout*requestsPerThread);
+    	} finally {
+    		executor.shutdownNow();
+    		transport.stop(false);
+    	}
+    }
+    
+    @Test
+    public void testSingleThreadIsSerial() throws Exception
+    { 
+    	System.out.println(".... Test::testSingleThreadIsSerial");
+    	dispatch(1);
+    	assertTrue("peak concurrent requests "+peakInServer.get(), peakInServer.get() == 1);
+    }
+    
+    @Test
+    public void testScaleoutIsConcurrent() throws Exception
+    { 
+    	System.out.println(".... Test::testScaleoutIsConcurrent");
+    	dispatch(8);
+    	assertTrue("peak concurrent requests "+peakInServer.get(), peakInServer.get() > 1);
+    }
+    
+	public class TaskHandlerServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		protected void doPost(HttpServletRequest request,
+				HttpServletResponse response) throws ServletException,
+				IOException {
+			try {
+				StringBuilder sb = new StringBuilder();
+				BufferedReader reader = request.getReader();
+				String line;
+				while ((line = reader.readLine()) != null) {
+					sb.append(line);
+				}
+				IMetaTaskTransaction transaction = (IMetaTaskTransaction)XStreamUtils.unmarshall(sb.toString().trim());
+				int now = inServer.incrementAndGet();
+				try {
+					int peak = peakInServer.get();
+					while(now > peak && !peakInServer.compareAndSet(peak, now)) {
+						peak = peakInServer.get();
+					}
+					Thread.sleep(driverMillis);
+				} finally {
+					inServer.decrementAndGet();
+				}
+				transaction.setMetaTask(new MetaTask(1,"",null));
+				transaction.getMetaTask().setUserSpaceTask("Test Message");
+				response.getWriter().write(XStreamUtils.marshall(transaction));
+			} catch (Throwable e) {
+				e.printStackTrace();
+				throw new ServletException(e);
+			}
+		}
+	}
+}
@@ -34,6 +34,7 @@ import org.apache.uima.ducc.transport.event.AgentProcessLifecycleReportDuccEvent
 import org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReassembler;
 import org.apache.uima.ducc.transport.event.common.IDuccProcess;
 import org.apache.uima.ducc.transport.event.delegate.DuccEventDelegateListener;
 
@@ -48,6 +49,7 @@ public class ResourceManagerEventListener
     private ResourceManager rm;
     private DuccEventDispatcher eventDispatcher;
     private ANodeStability nodeStability;
+    private OrchestratorStateReassembler orchestratorStateReassembler = new OrchestratorStateReassembler(logger);
 
     public DuccEventDispatcher getEventDispatcher() {
 		return eventDispatcher;
@@ -148,7 +150,9 @@ public class ResourceManagerEventListener
     {
     	String methodName = "onOrchestratorStateUpdateEvent";
         logger.info(methodName, null, "Event arrives");
-        rm.onOrchestratorStateUpdate(duccEvent.getWorkMap());
+        if ( orchestratorStateReassembler.reassemble(duccEvent) ) {
+            rm.onOrchestratorStateUpdate(duccEvent.getWorkMap());
+        }
     }
 
 }
@@ -34,6 +34,8 @@ public interface IPersistenceAccess {
 	public void createMachine(String id, Map<RmNodes, Object> props) throws Exception;
 	public void clear() throws Exception;
 	public void close();
+	public void flush() throws Exception;
+	public long getLag();
 	public void addJob(IDbJob j) throws Exception;
     public void deleteJob(IDbJob j) throws Exception;
     public void updateDemand(IDbJob j) throws Exception;
@@ -136,6 +136,22 @@ public class PersistenceAccess implements IPersistenceAccess {
 		}
 	}
 
+	@Override
+	public void flush() throws Exception {
+		String location = "flush";
+		if(is_master()) {
+			rm_persistence.flush();
+		}
+		else {
+			logger.debug(location, jobid, bypass);
+		}
+	}
+
+	@Override
+	public long getLag() {
+		return rm_persistence.getLag();
+	}
+
 	@Override
 	public void addJob(IDbJob j) throws Exception {
 		String location = "addJob";
@@ -45,6 +45,7 @@ public class Machine
     private int heartbeats = 0;
 
     private NodePool nodepool;
+    private int slot = -1;          // position in the nodepool's MachineIndex
 
     //
     // These are subtly different.
@@ -225,6 +226,16 @@ public class Machine
         return nodepool;
     }
 
+    int getSlot()
+    {
+        return slot;
+    }
+
+    void setSlot(int slot)
+    {
+        this.slot = slot;
+    }
+
     public boolean isFree()
     {
         //
@@ -362,6 +373,7 @@ public class Machine
     	String methodName = "assignShare";
         long now = System.currentTimeMillis();
         activeShares.put(s, s);
+        nodepool.occupancyChanged(this);
         shares_left -= s.getShareOrder();
         if (shares_left < 0) {
             logger.warn(methodName, s.getJob().getId(), "Node", this.id, "must have shrunk as it has",
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.rm.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Dense, int-indexed occupancy index over the machines of a single nodepool (not its children).
+ *
+ * Each machine is given a slot when it joins the nodepool.  Slots are never reused because machines
+ * are never removed from a nodepool, only marked offline or unresponsive.  For each share order there
+ * are three bitsets over the slots:
+ *    - byOrder:        all machines of that physical order
+ *    - byVirtualOrder: schedulable machines whose virtual (not yet given away) share order is that order
+ *    - freeByOrder:    schedulable machines of that physical order with nothing at all assigned
+ *
+ * Moving a machine between buckets is O(1) and counting a bucket is a popcount.  Iteration is in
+ * slot order, which is the order the machines arrived in, so searches are deterministic.
+ */
+class MachineIndex
+{
+    private Machine[] machines = new Machine[64];
+    private int[] orders       = new int[64];        // physical order each slot is bucketed under
+    private int[] vorders      = new int[64];        // virtual order each slot is bucketed under, -1 if unschedulable
+    private int nslots = 0;
+
+    private BitSet[] byOrder        = new BitSet[0];
+    private BitSet[] byVirtualOrder = new BitSet[0];
+    private BitSet[] freeByOrder    = new BitSet[0];
+
+    /**
+     * Give the machine a slot and bucket it by its physical order.  It is not virtual or free until
+     * the first update().
+     */
+    void add(Machine m, int order)
+    {
+        if ( nslots == machines.length ) {
+            int len = nslots * 2;
+            machines = Arrays.copyOf(machines, len);
+            orders   = Arrays.copyOf(orders, len);
+            vorders  = Arrays.copyOf(vorders, len);
+        }
+        int slot = nslots++;
+        machines[slot] = m;
+        orders[slot]   = order;
+        vorders[slot]  = -1;
+        m.setSlot(slot);
+        byOrder = bucket(byOrder, order);
+        byOrder[order].set(slot);
+    }
+
+    /**
+     * Move the machine to the buckets for its current state.
+     *
+     * @param order   the machine's physical share order
+     * @param vorder  the machine's virtual share order, or -1 if it is not schedulable
+     * @param free    true if the machine is schedulable and has nothing assigned
+     */
+    void update(Machine m, int order, int vorder, boolean free)
+    {
+        int slot = m.getSlot();
+
+        if ( orders[slot] != order ) {
+            byOrder[orders[slot]].clear(slot);
+            if ( orders[slot] < freeByOrder.length && freeByOrder[orders[slot]] != null ) {
+                freeByOrder[orders[slot]].clear(slot);
+            }
+            orders[slot] = order;
+            byOrder = bucket(byOrder, order);
+            byOrder[order].set(slot);
+        }
+
+        if ( vorders[slot] != vorder ) {
+            if ( vorders[slot] >= 0 ) {
+                byVirtualOrder[vorders[slot]].clear(slot);
+            }
+            vorders[slot] = vorder;
+            if ( vorder >= 0 ) {
+                byVirtualOrder = bucket(byVirtualOrder, vorder);
+                byVirtualOrder[vorder].set(slot);
+            }
+        }
+
+        if ( free ) {
+            freeByOrder = bucket(freeByOrder, order);
+            freeByOrder[order].set(slot);
+        } else if ( order < freeByOrder.length && freeByOrder[order] != null ) {
+            freeByOrder[order].clear(slot);
+        }
+    }
+
+    /**
+     * The virtual order the machine is currently bucketed under, -1 if it is unschedulable.
+     */
+    int getVirtualOrder(Machine m)
+    {
+        return vorders[m.getSlot()];
+    }
+
+    int countByOrder(int order)
+    {
+        return count(byOrder, order);
+    }
+
+    int countVirtualByOrder(int vorder)
+    {
+        return count(byVirtualOrder, vorder);
+    }
+
+    int countFreeByOrder(int order)
+    {
+        return count(freeByOrder, order);
+    }
+
+    /**
+     * All machines by physical order, indexed like the nodepool's counting arrays.
+     */
+    void countAllByOrder(int[] counts)
+    {
+        for ( int o = 0; (o < byOrder.length) && (o < counts.length); o++ ) {
+            counts[o] = count(byOrder, o);
+        }
+    }
+
+    /**
+     * The lists are snapshots, so callers can assign shares, which moves machines between
+     * buckets, while they iterate.
+     */
+    List<Machine> getByOrder(int order)
+    {
+        return list(byOrder, order);
+    }
+
+    List<Machine> getVirtualByOrder(int vorder)
+    {
+        return list(byVirtualOrder, vorder);
+    }
+
+    List<Machine> getFreeByOrder(int order)
+    {
+        return list(freeByOrder, order);
+    }
+
+    private static BitSet[] bucket(BitSet[] buckets, int order)
+    {
+        if ( order >= buckets.length ) {
+            buckets = Arrays.copyOf(buckets, order + 1);
+        }
+        if ( buckets[order] == null ) {
+            buckets[order] = new BitSet();
+        }
+        return buckets;
+    }
+
+    private static int count(BitSet[] buckets, int order)
+    {
+        if ( (order < 0) || (order >= buckets.length) || (buckets[order] == null) ) {
+            return 0;
+        }
+        return buckets[order].cardinality();
+    }
+
+    private List<Machine> list(BitSet[] buckets, int order)
+    {
+        int n = count(buckets, order);
+        List<Machine> ret = new ArrayList<Machine>(n);
+        if ( n > 0 ) {
+            BitSet b = buckets[order];
+            for ( int slot = b.nextSetBit(0); slot >= 0; slot = b.nextSetBit(slot + 1) ) {
+                ret.add(machines[slot]);
+            }
+        }
+        return ret;
+    }
+}
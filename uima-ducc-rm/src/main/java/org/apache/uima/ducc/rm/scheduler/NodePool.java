@@ -24,9 +24,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.uima.ducc.common.Node;
 import org.apache.uima.ducc.common.NodeIdentity;
@@ -49,6 +51,7 @@ class NodePool
 
     int depth;
     int updated = 0;
+    long generation = 0;                 // bumped on every change to the machines in this pool
     int search_order = 100;
     int share_quantum = 0;
 
@@ -60,11 +63,11 @@ class NodePool
     HashMap<Node, Machine> allMachines                       = new HashMap<Node, Machine>();                   // all active machines in the system
     HashMap<Node, Machine> unresponsiveMachines              = new HashMap<Node, Machine>();                   // machines with excessive missed heartbeats
     HashMap<Node, Machine> offlineMachines                   = new HashMap<Node, Machine>();
-    HashMap<Integer, HashMap<Node, Machine>> machinesByOrder = new HashMap<Integer, HashMap<Node, Machine>>(); // All schedulable machines, not necessarily free
+    MachineIndex machineIndex                                = new MachineIndex();                             // my machines by order, virtual order, and free
     HashMap<String, Machine>                 machinesByName  = new HashMap<String, Machine>();                 // by name, for nodepool support
     HashMap<String, Machine>                 deadByName      = new HashMap<String, Machine>();                 // anything we move to offline or unresponsive,
                         
-    List<Node> quiesceMachines = new ArrayList<Node>();
+    Set<Node> quiesceMachines = new HashSet<Node>();
                                                                                                                // sometimes stupid domain gets in the way
     HashMap<String, Machine>                 machinesByIp    = new HashMap<String, Machine>();                 // by IP, for nodepool support
 
@@ -99,9 +102,6 @@ class NodePool
 
     //     int shareExpansion[];
     Map<Integer, Integer> onlineMachinesByOrder = new HashMap<Integer, Integer>();  // all online machines
-
-    // Indexed by available free shares, the specific machines with the indicated free space
-    HashMap<Integer, Map<Node, Machine>> virtualMachinesByOrder = new HashMap<Integer, Map<Node, Machine>>();  // UIMA-4142
     GlobalOrder maxorder = null;
 
     private IPersistenceAccess persistenceAccess = PersistenceAccess.getInstance();
@@ -201,6 +201,23 @@ class NodePool
     void removeShare(Share s)
     {
         allShares.remove(s);
+        occupancyChanged(s.getMachine());
+    }
+
+    /**
+     * Called when one of my machines gains or loses a share, or its size, free space, or
+     * schedulability changes, to move it to the right buckets in the occupancy index.
+     *
+     * Blacklisting is not reported here because it arrives on the Orchestrator's thread; it is
+     * picked up by the next reset(), and the searches still check isSchedulable() as they go.
+     */
+    void occupancyChanged(Machine m)
+    {
+        if ( isSchedulable(m) ) {
+            machineIndex.update(m, m.getShareOrder(), m.getVirtualShareOrder(), m.isFree());
+        } else {
+            machineIndex.update(m, m.getShareOrder(), -1, false);
+        }
     }
 
     boolean containsPoolNode(Node n)
@@ -311,18 +328,7 @@ class NodePool
      */
     int countFreeMachines(int order)
     {
-        int cnt = 0;
-
-        HashMap<Node, Machine> mlist = null;
-        mlist = machinesByOrder.get(order);
-        if ( mlist == null ) return 0;
-
-        for ( Machine m : mlist.values() ) {
-            if ( isSchedulable(m) && m.isFree() ) {
-                cnt++;
-            }
-        }
-        return cnt;
+        return machineIndex.countFreeByOrder(order);
     }
 
     /**
@@ -365,11 +371,7 @@ class NodePool
 
     int countAllMachinesByOrder(int o)
     {
-        int count = 0;
-        if ( machinesByOrder.containsKey(o) ) {
-            count = machinesByOrder.get(o).size();
-        }
-
+        int count = machineIndex.countByOrder(o);
         for ( NodePool np : children.values() ) {
             count += np.countAllMachinesByOrder(o);
         }
@@ -379,9 +381,7 @@ class NodePool
     int[] countAllLocalMachines()
     {
         int[] ret = makeArray();
-        for ( int o : machinesByOrder.keySet() ) {
-            ret[o] = machinesByOrder.get(o).size();
-        }
+        machineIndex.countAllByOrder(ret);
         return ret;
     }
 
@@ -430,6 +430,19 @@ class NodePool
         return false;
     }
 
+    /**
+     * Count of changes to the machines in me and my kids.  The scheduler compares this between
+     * epochs to decide whether the heirarchy needs to be scheduled again.
+     */
+    long getGeneration()
+    {
+        long ret = generation;
+        for ( NodePool np : children.values() ) {
+            ret += np.getGeneration();
+        }
+        return ret;
+    }
+
     /**
      * Helper for compatibleNodepool(), find the top of the heirarchy.
      * UIMA-4142
@@ -615,44 +628,21 @@ class NodePool
         return machs;
     }
 
-    @SuppressWarnings("unchecked")
-    HashMap<Node, Machine> getMachinesByOrder(int order)
+    List<Machine> getMachinesByOrder(int order)
     {
-
-        HashMap<Node, Machine> machs;
-
-        if( machinesByOrder.containsKey(order) ) {
-            machs = (HashMap<Node, Machine>) machinesByOrder.get(order).clone();
-        } else {
-            machs = new HashMap<Node, Machine>();
-        }
-
+        List<Machine> machs = machineIndex.getByOrder(order);
         for ( NodePool np : children.values() ) {
-            HashMap<Node, Machine> m = np.getMachinesByOrder(order);
-            machs.putAll(m);
+            machs.addAll(np.getMachinesByOrder(order));
         }
-
         return machs;
     }
 
-    @SuppressWarnings("unchecked")
-    Map<Node, Machine> getVirtualMachinesByOrder(int order)
+    /**
+     * Local machines with exactly 'order' virtual shares free, in arrival order.
+     */
+    List<Machine> getVirtualMachinesByOrder(int order)
     {
-        Map<Node, Machine> machs;
-
-        if( virtualMachinesByOrder.containsKey(order) ) {
-            HashMap<Node, Machine> tmp = (HashMap<Node, Machine>) virtualMachinesByOrder.get(order);
-            machs = (HashMap<Node, Machine>) tmp.clone();
-        } else {
-            machs = new HashMap<Node, Machine>();
-        }
-
-//         for ( NodePool np : children.values() ) {
-//             HashMap<Machine, Machine> m = np.getVirtualMachinesByOrder(order);
-//             machs.putAll(m);
-//         }
-
-        return machs;
+        return machineIndex.getVirtualByOrder(order);
     }
 
     /**
@@ -684,6 +674,18 @@ class NodePool
         }
     }
 
+    /**
+     * Incremental form of calcNSharesByOrder() for a single machine moving into or out of the
+     * free-space count at 'order': every order that fits into it gains or loses order/o shares.
+     * O(order) instead of recalculating the whole table.
+     */
+    private void adjustNSharesByOrder(int order, int delta)
+    {
+        for ( int o = 1; o <= order; o++ ) {
+            nSharesByOrder[o] += delta * (order / o);
+        }
+    }
+
     protected int[] countMachinesByOrder()
     {
         int[] ans = nMachinesByOrder.clone();
@@ -764,14 +766,8 @@ class NodePool
 
             logger.trace(methodName, null, m.getId(), "order", order, "v_order", v_order, "r_order", r_order);
 
-            if ( v_order == r_order ) {
-                nMachinesByOrder[r_order]--;
-            } else {
-                vMachinesByOrder[v_order]--;
-            }
-
-            Map<Node, Machine> vlist = virtualMachinesByOrder.get(v_order);
-            if ( vlist == null ) {
+            int indexed = machineIndex.getVirtualOrder(m);
+            if ( (indexed >= 0) && (indexed != v_order) ) {
                 // Delivered under UIMA-4275 as that is when I decided to try to avoid NPE here.
                 //
                 // This is fatal, the internal records are all wrong.  Usually this is because of some
@@ -781,20 +777,21 @@ class NodePool
                 logger.error(methodName, null, "ERROR: bad virtual machine list.", m.getId(), "order", order, "v_order", v_order, "r_order", r_order);
                 return;
             }
-            vlist.remove(m.key());
+
+            if ( v_order == r_order ) {
+                nMachinesByOrder[r_order]--;
+            } else {
+                vMachinesByOrder[v_order]--;
+            }
+            adjustNSharesByOrder(v_order, -1);
 
             v_order -= order;
             m.setVirtualShareOrder(v_order);
             if (v_order != 0 ) {
-                vlist = virtualMachinesByOrder.get(v_order);
-                if ( vlist == null ) {
-                    vlist = new HashMap<Node, Machine>();
-                    virtualMachinesByOrder.put(v_order, vlist);
-                }
-                vlist.put(m.key(), m);
                 vMachinesByOrder[v_order]++;
+                adjustNSharesByOrder(v_order, 1);
             }
-            calcNSharesByOrder();
+            occupancyChanged(m);
         } else {
             for ( NodePool np : children.values() ) {
                 np.rearrangeVirtual(m, order, policy);
@@ -844,29 +841,21 @@ class NodePool
         //           machinesByOrder because blacklisting can cause v_order != r_order
         //           during reset.
         // UIMA-4910 Ignore unusable machines
-        virtualMachinesByOrder.clear();
         for ( Machine m : allMachines.values() ) {
             if ( !isSchedulable(m) ) {
+              occupancyChanged(m);    // drops it from the virtual and free buckets
               continue;               // Ignore unusable machines
             }
             m.resetVirtualShareOrder();
+            occupancyChanged(m);
             int v_order = m.getVirtualShareOrder();
             int r_order = m.getShareOrder();
 
-            Map<Node, Machine> ml = null;
             if ( v_order == r_order ) {
                 nMachinesByOrder[r_order]++;
             } else {
                 vMachinesByOrder[v_order]++;
             }
-
-            ml = virtualMachinesByOrder.get(v_order);
-            if ( ml == null ) {
-                ml = new HashMap<Node, Machine>();
-                virtualMachinesByOrder.put(v_order, ml);
-            }
-
-            ml.put(m.key(), m);
         }
 
         // UIMA 4142 this old calc isn't right any more because blacklisting can cause
@@ -1057,16 +1046,10 @@ class NodePool
     {
         int oldorder = m.getShareOrder();
         if ( oldorder != neworder ) {                  // can change. e.g. if it was taken offline for
-            HashMap<Node, Machine> mlist = machinesByOrder.get(oldorder);
-            mlist.remove(m.key());
             m.updateShareOrder(neworder);                       // UIMA-5605 Correct shares_left when size changes
+            generation++;
             signalDb(m, RmNodes.ShareOrder, neworder);          // Jira 4913 Update DB so ducc-mon can show the current size
-            mlist = machinesByOrder.get(neworder);
-            if ( mlist == null ) {
-                mlist = new HashMap<Node, Machine>();
-                machinesByOrder.put(neworder, mlist);
-            }
-            mlist.put(m.key(), m);
+            occupancyChanged(m);
         }
     }
 
@@ -1107,9 +1090,11 @@ class NodePool
     	}
 	   	else {
 	   		quiesceMachines.add(node);
+	   		generation++;
 	   		logger.info(methodName, null, "Node ", name, " is quiesced.");
 	   		if(allMachines.containsKey(node)) {
 	   			Machine machine = allMachines.get(node);
+	   			occupancyChanged(machine);
 	   			signalDb(machine, RmNodes.Quiesced, true);
 	   			logger.info(methodName, null, "Node ", name, " db marked quiesced.");
 	   		}
@@ -1128,9 +1113,11 @@ class NodePool
     	}
 	   	else {
 	   		quiesceMachines.remove(node);
+	   		generation++;
 	   		logger.info(methodName, null, "Node ", name, " is not quiesced.");
 	   		if(allMachines.containsKey(node)) {
 	   			Machine machine = allMachines.get(node);
+	   			occupancyChanged(machine);
 	   			signalDb(machine, RmNodes.Quiesced, false);
 	   			logger.info(methodName, null, "Node ", name, " db marked not quiesced.");
 	   		}
@@ -1174,9 +1161,11 @@ class NodePool
 
             logger.info(methodName, null, "RECOVER NODE", n);
             Machine m = unresponsiveMachines.remove(node);       // not unresponsive any more
+            generation++;
 
             // Deal with memory on the machine changing
             adjustMachinesByOrder(order, m);
+            occupancyChanged(m);
 
             // Note: The machine must be on all the other lists by definition since it wasn't taken off when it went offline
 
@@ -1209,14 +1198,11 @@ class NodePool
         machine.setNodepool(this);
 
         total_shares += order;
+        generation++;
 
         // index it by its share order to make it easier to find
-        HashMap<Node, Machine> mlist = machinesByOrder.get(order);
-        if ( mlist == null ) {
-            mlist = new HashMap<Node, Machine>();
-            machinesByOrder.put(order, mlist);
-        }
-        mlist.put(key, machine);
+        machineIndex.add(machine, order);
+        occupancyChanged(machine);
 
         logger.info(methodName, null, "Nodepool:", id, "Host added:", id, ": ", machine.getId(), "Nodefile:", subpoolNames.get(machine.getId()), // UIMA-4142, add file nodefile
                     String.format("shares %2d total %4d:", order, total_shares), machine.toString());
@@ -1286,6 +1272,8 @@ class NodePool
         if ( allMachines.containsKey(m.key()) ) {
             disable(m, true);    // Remove all work
             unresponsiveMachines.put(m.key(), m);
+            generation++;
+            occupancyChanged(m);
             signalDb(m, RmNodes.Responsive, false);
         } else {
             for ( NodePool np : children.values() ) {
@@ -1328,12 +1316,16 @@ class NodePool
         if ( unresponsiveMachines.containsKey(m.key()) ) {
             // lets be friendly and tell caller it's also unresponsive
             offlineMachines.put(m.key(), m);
+            generation++;
+            occupancyChanged(m);
             signalDb(m, RmNodes.Online, false);
             return "VaryOff: Nodepool " + id + " - Unresponsive machine, marked offline: " + node;
         }
 
         offlineMachines.put(m.key(), m);
+        generation++;
         disable(m, false);                    // Remove just pre-emptable work
+        occupancyChanged(m);
         signalDb(m, RmNodes.Online, false);
         return "VaryOff: " + node + " - OK.";
     }
@@ -1363,6 +1355,8 @@ class NodePool
         }
 
         offlineMachines.remove(key);
+        generation++;
+        occupancyChanged(m);
         signalDb(m, RmNodes.Online, true);
 
         return "VaryOn: Nodepool " + id + " - Machine marked online: " + node;
@@ -1411,8 +1405,9 @@ class NodePool
         int order = j.getShareOrder();
         int max_order = getMaxShareOrder(j);
         do {
-            if (machinesByOrder.containsKey(order) && machinesByOrder.get(order).size() > 0) {
-                return machinesByOrder.get(order).size();
+            int count = machineIndex.countByOrder(order);
+            if ( count > 0 ) {
+                return count;
             }
         } while (++order <= max_order);
         return 0;
@@ -1427,9 +1422,7 @@ class NodePool
         int order = j.getShareOrder();
         int ret = 0;
         for ( int i = order; i < getMaxOrder(); i++ ) {
-            if ( machinesByOrder.containsKey(order) ) {
-                ret += machinesByOrder.get(order).size();
-            }
+            ret += machineIndex.countByOrder(order);
         }
         return ret;
     }
@@ -1488,9 +1481,7 @@ class NodePool
         // Get all machines in this range of sizes and sort by increasing eviction cost, with smallest first if empty
         ArrayList<Machine>  machs = new ArrayList<Machine>();
         for (int order = share_order; order <= max_share_order; ++order) {
-            if ( machinesByOrder.containsKey(order) ) {
-                machs.addAll(machinesByOrder.get(order).values());            // candidates
-            }
+            machs.addAll(machineIndex.getByOrder(order));                      // candidates
         }
         if (machs.size() == 0) {
             return 0;
@@ -1691,14 +1682,14 @@ class NodePool
         }
 
         // something awful happened if we throw here.
-        if ( ! machinesByOrder.containsKey(order) ) {       // hosed if this happens
+        if ( machineIndex.countByOrder(order) == 0 ) {       // hosed if this happens
             throw new SchedInternalError(job.getId(), "Scheduling counts are wrong - machinesByOrder does not match nMachinesByOrder");
         }
 
         // Since all are the same size and only empty ones are considered, no need to sort
         //machs = sortedForReservation(machinesByOrder.get(order));
 
-        for ( Machine mm : machinesByOrder.get(order).values() ) {
+        for ( Machine mm : machineIndex.getFreeByOrder(order) ) {
             if ( isSchedulable(mm) && mm.isFree() ) {
                 Share s = new Share(mm, job, mm.getShareOrder());
                 s.setFixed();
@@ -1923,10 +1914,7 @@ class NodePool
                         continue;                                            // nothing here to give
                     }
 
-                    Map<Node, Machine> machs = getVirtualMachinesByOrder(i);
-                    ArrayList<Machine> ml = new ArrayList<Machine>();
-                    ml.addAll(machs.values());
-
+                    List<Machine> ml = getVirtualMachinesByOrder(i);
                     for ( Machine m : ml ) {                                // look for space
                         if ( !isSchedulable(m) ) continue;                  // nope
                         if ( (!allowVertical) && (m.hasVerticalConflict(j)) ) continue;  // UIMA-4712
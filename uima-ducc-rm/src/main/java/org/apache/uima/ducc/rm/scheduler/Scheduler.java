@@ -25,9 +25,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.uima.ducc.common.IDuccEnv;
@@ -136,6 +138,18 @@ public class Scheduler
 
     EvictionPolicy evictionPolicy = EvictionPolicy.SHRINK_BY_MACHINE;
 
+    //
+    // Incremental scheduling.  A top-level nodepool is scheduled only if its machines or the demand of
+    // its jobs changed since the last epoch, or if its last schedule was not yet settled (e.g. still
+    // expanding by doubling).  Every fullScheduleInterval epochs everything is scheduled regardless.
+    //
+    boolean incremental = false;
+    int fullScheduleInterval = 10;
+    int epochsSinceFull = 0;
+    boolean[] settled;                                                    // by top-level nodepool: last schedule changed nothing
+    long[] nodepoolGenerations;                                           // by top-level nodepool: machine generation at last schedule
+    Map<DuccId, Long> jobSignatures = new HashMap<DuccId, Long>();        // demand as of the last schedule
+
 //     int nodeMetricsUpdateRate = 30000;
 //     int startupCountdown = 0;       // update each epoch.  only schedule when it's > nodeStability
     int nodeStability = 3;
@@ -197,6 +211,9 @@ public class Scheduler
         nodeStability     = SystemPropertyResolver.getIntProperty("ducc.rm.node.stability", 3);        // number of node metrics updates to wait for before scheduling
                                                                                   // 0 means, just jump right in and don't wait
 
+        incremental          = SystemPropertyResolver.getBooleanProperty("ducc.rm.incremental", false);
+        fullScheduleInterval = SystemPropertyResolver.getIntProperty("ducc.rm.full.schedule.interval", 10);
+
         dramOverride = SystemPropertyResolver.getLongProperty("ducc.rm.override.dram", 0);
         if ( dramOverride > 0 ) {
             dramOverride = dramOverride * (1024 * 1024);         // convert to KB
@@ -262,6 +279,8 @@ public class Scheduler
         logger.info(methodName, null, "                       expand by doubling      : ", SystemPropertyResolver.getBooleanProperty("ducc.rm.expand.by.doubling", true));
         logger.info(methodName, null, "                       fragmentation threshold : ", SystemPropertyResolver.getIntProperty("ducc.rm.fragmentation.threshold", 2));
         logger.info(methodName, null, "                       do defragmentation      : ", SystemPropertyResolver.getBooleanProperty("ducc.rm.defragmentation", true));
+        logger.info(methodName, null, "                       incremental scheduling  : ", incremental);
+        logger.info(methodName, null, "                       full schedule interval  : ", fullScheduleInterval, " epochs");
         logger.info(methodName, null, "                       DUCC home               : ", System.getProperty("DUCC_HOME"));
         logger.info(methodName, null, "                       ActiveMQ URL            : ", SystemPropertyResolver.getStringProperty("ducc.broker.url"));
         logger.info(methodName, null, "                       JVM                     : ", System.getProperty("java.vendor") +
@@ -639,6 +658,10 @@ public class Scheduler
 
         nodepools = new NodePool[nps.length];                   // top-level nodepools
         schedulers = new IScheduler[nps.length];                // a schedler for each top-level nodepool
+        settled = new boolean[nps.length];                      // nothing is settled until it's been scheduled
+        nodepoolGenerations = new long[nps.length];
+        jobSignatures.clear();
+        epochsSinceFull = fullScheduleInterval;                 // first epoch after (re)configuration is a full one
 
         // Here build up the ResourceClass definitions
         logger.info(methodName, null, "Classes:");
@@ -994,10 +1017,13 @@ public class Scheduler
         // tracking the OR hang problem - are topics being delivered?
         logger.info("nodeArrives", null, "Total arrivals:", total_arrivals);
 
+        boolean full = fullScheduleDue();
         synchronized(this) {
             handleIllNodes();
             handleDeadNodes();
-            resetNodepools();
+            if ( full ) {
+                resetNodepools();
+            }
         }
 
         // TODO: Can we combine these two into one?
@@ -1160,12 +1186,31 @@ public class Scheduler
             }
 
             logger.info(methodName, null, "Scheduling " + newJobs.size(), " new jobs.  Existing jobs: " + allJobs.size());
+            boolean[] dirty = findDirtyNodepools(full, doneJobs, doneShares);
+            int nscheduled = 0;
             for ( int i = 0; i < schedulers.length; i++ ) {
+                if ( ! dirty[i] ) {
+                    logger.info(methodName, null, "Skip scheduler", i, "with top-level nodepool", nodepools[i].getId(), ": no changes.");
+                    continue;
+                }
                 logger.info(methodName, null, "Run scheduler", i, "with top-level nodepool", nodepools[i].getId());
+                if ( ! full ) {
+                    nodepools[i].reset(nodepools[i].getMaxOrder());     // full epochs reset everything up front
+                }
+                int changes = countChanges(upd);
                 schedulers[i].schedule(upd);
+                settled[i] = ( countChanges(upd) == changes );
+                nodepoolGenerations[i] = nodepools[i].getGeneration();
+                nscheduled++;
             }
+            epochsSinceFull = full ? 0 : epochsSinceFull + 1;
+            logger.info(methodName, null, (full ? "Full" : "Incremental"), "epoch scheduled", nscheduled, "of", schedulers.length, "top-level nodepools.");
 
             for ( IRmJob j : allJobs.values() ) {       // UIMA-4577 persist 'demand'
+                int ndx = findTopNodepool(j);
+                if ( (ndx >= 0) && !dirty[ndx] ) {
+                    continue;                           // not rescheduled, demand is unchanged
+                }
                 try {
 					persistenceAccess.updateDemand(j);
 				} catch (Exception e) {
@@ -1179,10 +1224,140 @@ public class Scheduler
             logger.debug(methodName, null, "------------------------------------------------");                
             dispatch(upd, jmu);                 // my own job lists get updated by this
 
+            for ( IRmJob j : doneJobs ) {
+                jobSignatures.remove(j.getId());
+            }
+            for ( IRmJob j : allJobs.values() ) {
+                jobSignatures.put(j.getId(), demandSignature(j));
+            }
+
+            try {
+                persistenceAccess.flush();      // send this epoch's node, share, and demand updates
+            } catch (Exception e) {
+                logger.warn(methodName, null, "Cannot flush updates to database:", e);
+            }
+            logger.debug(methodName, null, "Database persistence lag", persistenceAccess.getLag(), "ms.");
+
             return jmu;
         }
     }
 
+    /**
+     * A full schedule is needed if incremental scheduling is off, if the safety-net interval has
+     * elapsed, or if recovery is pending since that rebuilds share state from the outside.
+     */
+    private boolean fullScheduleDue()
+    {
+        if ( !incremental || (epochsSinceFull >= fullScheduleInterval) ) {
+            return true;
+        }
+        synchronized(recoveredJobs) {
+            return recoveredJobs.size() > 0;
+        }
+    }
+
+    /**
+     * Find the top-level nodepools that need to be scheduled this epoch: those that are not settled,
+     * whose machines have changed, or which hold jobs that arrived, left, vacated a share, or whose
+     * demand has changed since the last schedule.  A change in a user's set of jobs dirties all the
+     * nodepools where that user has work, since user allotments span nodepools.
+     */
+    private boolean[] findDirtyNodepools(boolean full, List<IRmJob> doneJobs, List<Pair<IRmJob, Share>> doneShares)
+    {
+        boolean[] dirty = new boolean[nodepools.length];
+        for ( int i = 0; i < nodepools.length; i++ ) {
+            dirty[i] = full || !settled[i] || (nodepools[i].getGeneration() != nodepoolGenerations[i]);
+        }
+        if ( full ) {
+            return dirty;
+        }
+
+        Set<User> changedUsers = new HashSet<User>();
+        for ( IRmJob j : doneJobs ) {
+            markDirty(dirty, j);
+            changedUsers.add(j.getUser());
+        }
+        for ( Pair<IRmJob, Share> p : doneShares ) {
+            markDirty(dirty, p.first());
+        }
+        for ( IRmJob j : allJobs.values() ) {
+            Long sig = jobSignatures.get(j.getId());
+            if ( sig == null ) {
+                changedUsers.add(j.getUser());            // new job
+            } else if ( sig.longValue() != demandSignature(j) ) {
+                markDirty(dirty, j);
+            }
+        }
+        if ( changedUsers.size() > 0 ) {
+            for ( IRmJob j : allJobs.values() ) {
+                if ( changedUsers.contains(j.getUser()) ) {
+                    markDirty(dirty, j);
+                }
+            }
+        }
+        return dirty;
+    }
+
+    private void markDirty(boolean[] dirty, IRmJob j)
+    {
+        int ndx = findTopNodepool(j);
+        if ( ndx >= 0 ) {
+            dirty[ndx] = true;
+        }
+    }
+
+    /**
+     * @return the index of the top-level nodepool that serves the job, or -1 if it has no nodepool,
+     *         e.g. because it was refused.
+     */
+    private int findTopNodepool(IRmJob j)
+    {
+        ResourceClass rc = j.getResourceClass();
+        if ( (rc == null) || (rc.getNodepool() == null) ) {
+            return -1;
+        }
+        NodePool top = rc.getNodepool().findTopOfHeirarchy();
+        for ( int i = 0; i < nodepools.length; i++ ) {
+            if ( nodepools[i] == top ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Summarize everything about a job that the schedulers act on.  If this doesn't change from one
+     * epoch to the next, the job doesn't need to be rescheduled.
+     */
+    private long demandSignature(IRmJob j)
+    {
+        long sig = j.nQuestions();
+        sig = sig * 31 + j.nQuestionsRemaining();
+        sig = sig * 31 + j.getMaxShares();
+        sig = sig * 31 + j.getShareOrder();
+        sig = sig * 31 + j.countNShares();
+        sig = sig * 31 + j.getPendingShares().size();
+        sig = sig * 31 + j.getPendingRemoves().size();
+        sig = sig * 31 + (j.isInitialized() ? 1 : 0);
+        sig = sig * 31 + (j.isCompleted()   ? 1 : 0);
+        return sig;
+    }
+
+    /**
+     * Number of scheduling decisions in the update.  Compared before and after a scheduler runs to
+     * see if it changed anything.
+     */
+    private int countChanges(SchedulingUpdate upd)
+    {
+        int ret = upd.getExpandedJobs().size() + upd.getShrunkenJobs().size() + upd.getRefusedJobs().size();
+        for ( IRmJob j : upd.getReservedJobs().values() ) {
+            if ( j.getPendingShares().size() > 0 ) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
     synchronized public void shutdown()
     {
         done = true;
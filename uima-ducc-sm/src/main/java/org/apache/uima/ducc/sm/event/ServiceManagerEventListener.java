@@ -23,6 +23,7 @@ import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.sm.IServiceManager;
 import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReassembler;
 import org.apache.uima.ducc.transport.event.ServiceDisableEvent;
 import org.apache.uima.ducc.transport.event.ServiceEnableEvent;
 import org.apache.uima.ducc.transport.event.ServiceIgnoreEvent;
@@ -54,6 +55,8 @@ public class ServiceManagerEventListener
 
 	private static DuccLogger logger = DuccLogger.getLogger(ServiceManagerEventListener.class.getName(), "SM");	
 
+	private OrchestratorStateReassembler orchestratorStateReassembler = new OrchestratorStateReassembler(logger);
+
 	public ServiceManagerEventListener(IServiceManager serviceManager) 
     {
 		this.serviceManager = serviceManager;
@@ -222,7 +225,9 @@ public class ServiceManagerEventListener
 		System.out.println("......... Service Manager Received OrchestratorStateDuccEvent.");
 		// serviceManager.evaluateServiceRequirements(duccEvent.getWorkMap());
         try {
-            serviceManager.orchestratorStateArrives(duccEvent.getWorkMap());
+            if ( orchestratorStateReassembler.reassemble(duccEvent) ) {
+                serviceManager.orchestratorStateArrives(duccEvent.getWorkMap());
+            }
         } catch ( Throwable t ) {
             logger.error(methodName, null, t);
         }
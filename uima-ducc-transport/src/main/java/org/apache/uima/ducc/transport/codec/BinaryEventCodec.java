@@ -0,0 +1,349 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Compact binary codec for DUCC events.
+ * 
+ * The encoding is Java serialization with three reductions:
+ * <ul>
+ * <li>classes in the registered class table are written as a varint index
+ * rather than as a full class descriptor (name, serialVersionUID, fields)
+ * <li>DuccIds are written as a varint friendly id plus the two longs of the
+ * UUID, rather than as an object with a nested UUID object
+ * <li>equal Strings (node names, users, property keys...) are written once
+ * per message and thereafter as back references
+ * </ul>
+ * Both ends must run the same DUCC release, which is already required by
+ * the Java serialization used for JMS publications.
+ */
+public class BinaryEventCodec implements DuccEventCodec {
+
+	public static final String NAME = "binary";
+	public static final String CONTENT_TYPE = "application/x-ducc-binary";
+	
+	private static final int MAGIC = 0xDC;
+	private static final int VERSION = 1;
+	
+	/*
+	 * Registered class table.  The index of each entry is its id on the 
+	 * wire, so entries may only ever be appended.  Id 0 means that a full
+	 * class descriptor follows.
+	 */
+	private static final String[] registeredClassNames = {
+		null,
+		"java.lang.Enum",
+		"java.lang.Number",
+		"java.lang.Boolean",
+		"java.lang.Integer",
+		"java.lang.Long",
+		"java.lang.Double",
+		"java.util.ArrayList",
+		"java.util.HashMap",
+		"java.util.LinkedHashMap",
+		"java.util.TreeMap",
+		"java.util.Hashtable",
+		"java.util.Properties",
+		"java.util.concurrent.ConcurrentHashMap",
+		"java.util.UUID",
+		"[B",
+		"[Ljava.lang.String;",
+		"org.apache.uima.ducc.common.utils.id.ADuccId",
+		"org.apache.uima.ducc.common.utils.id.DuccId",
+		"org.apache.uima.ducc.transport.codec.BinaryEventCodec$CompactDuccId",
+		"org.apache.uima.ducc.common.utils.DuccProperties",
+		"org.apache.uima.ducc.common.Identity",
+		"org.apache.uima.ducc.common.NodeIdentity",
+		"org.apache.uima.ducc.common.node.metrics.NodeMetrics",
+		"org.apache.uima.ducc.common.node.metrics.NodeMemoryInfo",
+		"org.apache.uima.ducc.common.node.metrics.NodeLoadAverageInfo",
+		"org.apache.uima.ducc.common.node.metrics.NodeCpuInfo",
+		"org.apache.uima.ducc.common.node.metrics.NodeUsersInfo",
+		"org.apache.uima.ducc.common.node.metrics.ProcessGarbageCollectionStats",
+		"org.apache.uima.ducc.transport.event.AbstractDuccEvent",
+		"org.apache.uima.ducc.transport.event.AbstractDuccOrchestratorEvent",
+		"org.apache.uima.ducc.transport.event.AbstractDuccJobEvent",
+		"org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent",
+		"org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent",
+		"org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent",
+		"org.apache.uima.ducc.transport.event.DuccJobsStateEvent",
+		"org.apache.uima.ducc.transport.event.JdEvent",
+		"org.apache.uima.ducc.transport.event.JdRequestEvent",
+		"org.apache.uima.ducc.transport.event.JdReplyEvent",
+		"org.apache.uima.ducc.transport.event.DuccWorkRequestEvent",
+		"org.apache.uima.ducc.transport.event.DuccWorkReplyEvent",
+		"org.apache.uima.ducc.transport.event.SubmitJobDuccEvent",
+		"org.apache.uima.ducc.transport.event.SubmitJobReplyDuccEvent",
+		"org.apache.uima.ducc.transport.event.RmStateDuccEvent",
+		"org.apache.uima.ducc.transport.event.PmStateDuccEvent",
+		"org.apache.uima.ducc.transport.event.SmStateDuccEvent",
+		"org.apache.uima.ducc.transport.event.common.ADuccWork",
+		"org.apache.uima.ducc.transport.event.common.ADuccWorkExecutable",
+		"org.apache.uima.ducc.transport.event.common.DuccWorkMap",
+		"org.apache.uima.ducc.transport.event.common.DuccWorkJob",
+		"org.apache.uima.ducc.transport.event.common.DuccWorkReservation",
+		"org.apache.uima.ducc.transport.event.common.DuccWorkPopDriver",
+		"org.apache.uima.ducc.transport.event.common.DuccWorkService",
+		"org.apache.uima.ducc.transport.event.common.DuccProcess",
+		"org.apache.uima.ducc.transport.event.common.DuccProcessMap",
+		"org.apache.uima.ducc.transport.event.common.DuccProcessConcurrentMap",
+		"org.apache.uima.ducc.transport.event.common.DuccProcessWorkItems",
+		"org.apache.uima.ducc.transport.event.common.DuccSchedulingInfo",
+		"org.apache.uima.ducc.transport.event.common.DuccStandardInfo",
+		"org.apache.uima.ducc.transport.event.common.DuccReservation",
+		"org.apache.uima.ducc.transport.event.common.DuccReservationMap",
+		"org.apache.uima.ducc.transport.event.common.DuccUimaDeploymentDescriptor",
+		"org.apache.uima.ducc.transport.event.common.DuccJobDeployment",
+		"org.apache.uima.ducc.transport.event.common.DuccUserReservation",
+		"org.apache.uima.ducc.transport.event.common.DuccPerWorkItemStatistics",
+		"org.apache.uima.ducc.transport.event.common.CGroup",
+		"org.apache.uima.ducc.transport.event.common.Rationale",
+		"org.apache.uima.ducc.transport.event.common.TimeWindow",
+		"org.apache.uima.ducc.transport.event.common.ProcessMemoryAssignment",
+	};
+	
+	private static final Class<?>[] registeredClasses = new Class<?>[registeredClassNames.length];
+	private static final Map<String,Integer> registeredIds = new HashMap<String,Integer>();
+	
+	static {
+		ClassLoader cl = BinaryEventCodec.class.getClassLoader();
+		for(int i=1; i<registeredClassNames.length; i++) {
+			String name = registeredClassNames[i];
+			try {
+				registeredClasses[i] = Class.forName(name, false, cl);
+				registeredIds.put(name, i);
+			}
+			catch(Throwable t) {
+				// not available to this class loader; encoded in full if ever seen
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of registered classes available to this class loader
+	 */
+	public static int getRegisteredClassCount() {
+		return registeredIds.size();
+	}
+	
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public String getContentType() {
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public byte[] encode(Object object) throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(4096);
+		baos.write(MAGIC);
+		baos.write(VERSION);
+		EncodingStream eos = new EncodingStream(baos);
+		eos.writeObject(object);
+		eos.close();
+		return baos.toByteArray();
+	}
+
+	@Override
+	public Object decode(byte[] bytes) throws Exception {
+		ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+		int magic = bais.read();
+		int version = bais.read();
+		if(magic != MAGIC) {
+			throw new StreamCorruptedException("not a "+NAME+" encoded message");
+		}
+		if(version != VERSION) {
+			throw new StreamCorruptedException("unsupported "+NAME+" encoding version: "+version);
+		}
+		DecodingStream dis = new DecodingStream(bais);
+		try {
+			return dis.readObject();
+		}
+		finally {
+			dis.close();
+		}
+	}
+	
+	private static void writeVarint(OutputStream os, long value) throws IOException {
+		while((value & ~0x7FL) != 0) {
+			os.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		os.write((int) value);
+	}
+	
+	private static long readVarint(InputStream is) throws IOException {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			int b = is.read();
+			if(b < 0) {
+				throw new StreamCorruptedException("truncated varint");
+			}
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException("malformed varint");
+	}
+	
+	private static class EncodingStream extends ObjectOutputStream {
+		
+		private Map<String,String> strings = new HashMap<String,String>();
+		
+		EncodingStream(OutputStream os) throws IOException {
+			super(os);
+			enableReplaceObject(true);
+		}
+		
+		@Override
+		protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+			Integer id = registeredIds.get(desc.getName());
+			if(id == null) {
+				writeVarint(this, 0);
+				super.writeClassDescriptor(desc);
+			}
+			else {
+				writeVarint(this, id);
+			}
+		}
+		
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			Object retVal = obj;
+			if(obj instanceof String) {
+				// equal strings become references to the first one written
+				String s = (String) obj;
+				String first = strings.get(s);
+				if(first == null) {
+					strings.put(s, s);
+				}
+				else {
+					retVal = first;
+				}
+			}
+			else if(obj != null && obj.getClass() == DuccId.class) {
+				retVal = new CompactDuccId((DuccId) obj);
+			}
+			return retVal;
+		}
+	}
+	
+	private static class DecodingStream extends ObjectInputStream {
+		
+		DecodingStream(InputStream is) throws IOException {
+			super(is);
+		}
+		
+		@Override
+		protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+			ObjectStreamClass retVal = null;
+			int id = (int) readVarint(this);
+			if(id == 0) {
+				retVal = super.readClassDescriptor();
+			}
+			else if(id < registeredClasses.length && registeredClasses[id] != null) {
+				retVal = ObjectStreamClass.lookup(registeredClasses[id]);
+			}
+			else {
+				throw new ClassNotFoundException("unregistered class id: "+id);
+			}
+			return retVal;
+		}
+		
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			Integer id = registeredIds.get(desc.getName());
+			if(id != null) {
+				return registeredClasses[id];
+			}
+			return super.resolveClass(desc);
+		}
+	}
+	
+	/**
+	 * Wire form of a DuccId: varint friendly id followed by the UUID.
+	 */
+	public static class CompactDuccId implements Externalizable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private long friendly;
+		private UUID unique;
+		
+		public CompactDuccId() {
+		}
+		
+		CompactDuccId(DuccId duccId) {
+			friendly = duccId.getFriendly();
+			unique = duccId.getUUID();
+		}
+		
+		@Override
+		public void writeExternal(ObjectOutput out) throws IOException {
+			OutputStream os = (OutputStream) out;
+			writeVarint(os, friendly);
+			if(unique == null) {
+				out.writeBoolean(false);
+			}
+			else {
+				out.writeBoolean(true);
+				out.writeLong(unique.getMostSignificantBits());
+				out.writeLong(unique.getLeastSignificantBits());
+			}
+		}
+
+		@Override
+		public void readExternal(ObjectInput in) throws IOException {
+			InputStream is = (InputStream) in;
+			friendly = readVarint(is);
+			if(in.readBoolean()) {
+				long msb = in.readLong();
+				long lsb = in.readLong();
+				unique = new UUID(msb, lsb);
+			}
+		}
+		
+		private Object readResolve() throws ObjectStreamException {
+			return new DuccId(friendly, unique);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.codec;
+
+/**
+ * Encodes DUCC events (and their replies) for transmission between daemons
+ * and decodes them on receipt.  Implementations are stateless and may be
+ * shared between threads.
+ */
+public interface DuccEventCodec {
+
+	/**
+	 * @return the name by which this codec is selected in ducc.properties
+	 */
+	public String getName();
+	
+	/**
+	 * @return the HTTP Content-Type of encoded messages
+	 */
+	public String getContentType();
+	
+	public byte[] encode(Object object) throws Exception;
+	
+	public Object decode(byte[] bytes) throws Exception;
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.codec;
+
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+
+/**
+ * Selects the DuccEventCodec for a route from ducc.properties:
+ * ducc.transport.codec.&lt;route&gt; if specified, else ducc.transport.codec, 
+ * else XStream.  On receipt the codec is chosen by Content-Type, so that 
+ * a receiver understands every sender regardless of configuration.
+ */
+public class DuccEventCodecFactory {
+
+	private static final DuccEventCodec xstreamCodec = new XStreamEventCodec();
+	private static final DuccEventCodec binaryCodec = new BinaryEventCodec();
+	
+	public static DuccEventCodec getDefaultCodec() {
+		return xstreamCodec;
+	}
+	
+	public static DuccEventCodec getCodecByName(String name) {
+		DuccEventCodec retVal = xstreamCodec;
+		if(name != null) {
+			if(name.trim().equalsIgnoreCase(BinaryEventCodec.NAME)) {
+				retVal = binaryCodec;
+			}
+		}
+		return retVal;
+	}
+	
+	public static DuccEventCodec getCodecByContentType(String contentType) {
+		DuccEventCodec retVal = xstreamCodec;
+		if(contentType != null) {
+			if(contentType.trim().toLowerCase().startsWith(BinaryEventCodec.CONTENT_TYPE)) {
+				retVal = binaryCodec;
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * @param route the route name, e.g. "or" for http://host:port/or
+	 */
+	public static DuccEventCodec getCodec(String route) {
+		DuccPropertiesResolver dpr = DuccPropertiesResolver.getInstance();
+		String name = null;
+		if(route != null) {
+			name = dpr.getProperty(DuccPropertiesResolver.ducc_transport_codec+"."+route);
+		}
+		if(name == null) {
+			name = dpr.getProperty(DuccPropertiesResolver.ducc_transport_codec);
+		}
+		return getCodecByName(name);
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.DataFormat;
+
+/**
+ * Camel data format for routes receiving DUCC events over HTTP.
+ * 
+ * Unmarshal selects the codec by the Content-Type of the request and
+ * remembers it on the exchange; marshal (and {@link #getReplyCodec})
+ * answer with the same codec, so XStream and binary senders may share 
+ * one route.
+ */
+public class DuccEventDataFormat implements DataFormat {
+
+	public static final String PROPERTY_CODEC = "ducc.transport.codec";
+	
+	public static DuccEventCodec getReplyCodec(Exchange exchange) {
+		DuccEventCodec codec = exchange.getProperty(PROPERTY_CODEC, DuccEventCodec.class);
+		if(codec == null) {
+			codec = DuccEventCodecFactory.getDefaultCodec();
+		}
+		return codec;
+	}
+	
+	@Override
+	public void marshal(Exchange exchange, Object graph, OutputStream stream) throws Exception {
+		DuccEventCodec codec = getReplyCodec(exchange);
+		stream.write(codec.encode(graph));
+		exchange.getOut().setHeader(Exchange.CONTENT_TYPE, codec.getContentType());
+	}
+
+	@Override
+	public Object unmarshal(Exchange exchange, InputStream stream) throws Exception {
+		String contentType = exchange.getIn().getHeader(Exchange.CONTENT_TYPE, String.class);
+		DuccEventCodec codec = DuccEventCodecFactory.getCodecByContentType(contentType);
+		exchange.setProperty(PROPERTY_CODEC, codec);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] slice = new byte[4096];
+		int bytes_read = 0;
+		while((bytes_read = stream.read(slice, 0, slice.length)) != -1) {
+			baos.write(slice, 0, bytes_read);
+		}
+		return codec.decode(baos.toByteArray());
+	}
+}
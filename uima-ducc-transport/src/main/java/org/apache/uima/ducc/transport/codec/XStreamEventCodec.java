@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.uima.ducc.common.utils.XStreamUtils;
+
+/**
+ * XML codec, the historical DUCC wire format and the fallback whenever
+ * no other codec is configured or recognized.
+ */
+public class XStreamEventCodec implements DuccEventCodec {
+
+	public static final String NAME = "xstream";
+	public static final String CONTENT_TYPE = "text/xml";
+	
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public String getContentType() {
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public byte[] encode(Object object) throws Exception {
+		String xml = XStreamUtils.marshall(object);
+		return xml.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public Object decode(byte[] bytes) throws Exception {
+		String xml = new String(bytes, StandardCharsets.UTF_8);
+		return XStreamUtils.unmarshall(xml);
+	}
+}
@@ -126,6 +126,12 @@ implements IJobDriverComponent {
 		return logger;
 	}
 	
+	@Override
+	public void stop() throws Exception {
+		JobDriver.shutdown();
+		super.stop();
+	}
+	
 	public void handleJpRequest(IMetaTaskTransaction metaCasTransaction) throws Exception {
 		String location = "handleJpRequest";
 		try {
@@ -36,9 +36,11 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.ps.net.iface.IMetaTask;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Hint;
+import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Option;
 import org.apache.uima.ducc.ps.net.iface.IMetaTaskTransaction.Type;
 import org.apache.uima.ducc.ps.net.impl.MetaTaskTransaction;
-
+import org.apache.uima.ducc.ps.net.impl.TransactionHelper;
 import org.apache.uima.ducc.ps.net.impl.TransactionId;
 import org.apache.uima.ducc.ps.service.processor.IServiceResultSerializer;
 import org.apache.uima.ducc.ps.service.processor.uima.utils.PerformanceMetrics;
@@ -64,6 +66,14 @@ public class HttpWorkerThread implements Runnable {
     // The default is to call exit() but user may override this and
     // keep on running.
     private final boolean exitOnProcessFailure;
+    // when pipelined the JD acknowledges each work item as it is delivered
+    // (no Ack round trip) and delivers the next work item in its reply to 
+    // End (no Get round trip)
+    private final boolean pipelined;
+    // when waiting for work the JD holds a Get it cannot satisfy open
+    // until a work item becomes available (or a timeout), replacing the
+    // sleep between Gets while the JP is out of work
+    private final boolean waitForWork;
     
 	public HttpWorkerThread(JobProcessComponent component, DuccHttpClient httpClient,
 			Object processorInstance, CountDownLatch workerThreadCount,
@@ -87,6 +97,10 @@ public class HttpWorkerThread implements Runnable {
 				throw new IllegalArgumentException("Invalid value for property ExitOnProcessFailure. Should be [true/false] but is "+exitProperty);
 			}
 		}
+		String pipelinedProperty = System.getProperty("ducc.process.request.pipelined");
+		pipelined = pipelinedProperty != null && pipelinedProperty.trim().equalsIgnoreCase("true");
+		String waitProperty = System.getProperty("ducc.process.request.wait");
+		waitForWork = waitProperty != null && waitProperty.trim().equalsIgnoreCase("true");
 	}   
 
 	public IMetaTaskTransaction getWork(HttpPost postMethod, int major, int minor) throws Exception {
@@ -100,6 +114,12 @@ public class HttpWorkerThread implements Runnable {
 			// HTTP request. HttpClient actually enforces this. So
 			// do a POST instead of a GET.
 			transaction.setType(Type.Get);  // Tell JD you want a Work Item
+			if ( pipelined ) {
+				TransactionHelper.addRequestOption(transaction, Option.AckImplied);
+			}
+			if ( waitForWork ) {
+				TransactionHelper.addRequestOption(transaction, Option.WaitForWork);
+			}
 			command = Type.Get.name();
 	    	logger.debug("HttpWorkerThread.run()", null, "Thread Id:"+Thread.currentThread().getId()+" Requesting next WI from JD");;
 			// send a request to JD and wait for a reply
@@ -108,6 +128,10 @@ public class HttpWorkerThread implements Runnable {
 	        // The JD may not provide a Work Item to process.
 	    	if ( transaction != null && transaction.getMetaTask()!= null) {
 				logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" Recv'd WI:"+transaction.getMetaTask().getSystemKey());
+				if ( pipelined ) {
+					// receipt confirmed by the JD on delivery
+					return transaction;
+				}
 				// Confirm receipt of the CAS. 
 				transaction.setType(Type.Ack);
 				command = Type.Ack.name();
@@ -130,6 +154,12 @@ public class HttpWorkerThread implements Runnable {
 
 	}
 
+	private boolean isWaited(IMetaTaskTransaction transaction) {
+		// the JD already waited for work on our behalf
+		List<Hint> hints = transaction.getResponseHints();
+		return hints != null && hints.contains(Hint.Waited);
+	}
+
 	private void waitAwhile(long sleepTime) throws InterruptedException {
 		synchronized (monitor) {
 			// There is no CAS. It looks like the JD CR is done but there
@@ -152,7 +182,7 @@ public class HttpWorkerThread implements Runnable {
 	    // loaded from ducc-user j      ar provided in system classpath
 	    try {
 			processMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("process", Object.class);	
-			getKeyMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("getKey", String.class);	
+			getKeyMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("getKey", Object.class);	
 			
 			synchronized(HttpWorkerThread.class) {
 				Method deployMethod = processorInstance.getClass().getSuperclass().getDeclaredMethod("deploy");
@@ -216,6 +246,8 @@ public class HttpWorkerThread implements Runnable {
 	   	logger.info("HttpWorkerThread.run()", null, "Begin Processing Work Items - Thread Id:"+Thread.currentThread().getId());
 		try {
 			IMetaTaskTransaction transaction=null;
+			// work item delivered in the reply to the previous End (pipelined)
+			IMetaTaskTransaction next=null;
 			int major = 0;
 			int minor = 0;
 			// Enter process loop. Stop this thread on the first process error.
@@ -224,8 +256,13 @@ public class HttpWorkerThread implements Runnable {
 				try {
 					major = IdGenerator.addAndGet(1);
 					minor = 0;
-					// the getWork() may block if connection is lost. 
-					transaction = getWork(postMethod, major, minor);
+					if ( next != null ) {
+						transaction = next;
+						next = null;
+					} else {
+						// the getWork() may block if connection is lost. 
+						transaction = getWork(postMethod, major, minor);
+					}
 					// first check if we are still running
 					if ( !duccComponent.isRunning() ) {
     					logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" Process is Stopping - Terminating This Thread");
@@ -255,7 +292,9 @@ public class HttpWorkerThread implements Runnable {
 							    logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" work flow has restarted");
 							    break;
 							  }
-								waitAwhile(duccComponent.getThreadSleepTime());
+							  if ( !isWaited(transaction) ) {
+								  waitAwhile(duccComponent.getThreadSleepTime());
+							  }
 							}
 						}
 						
@@ -382,7 +421,15 @@ public class HttpWorkerThread implements Runnable {
 							break;
 						}
 
-						httpClient.execute(transaction, postMethod); // Work Item Processed - End
+						// unless this thread is about to exit, ask for the next WI with the End
+						boolean getNext = pipelined && !(exitOnProcessFailure && workItemFailed);
+						transaction.setRequestOptions(null);
+						if ( getNext ) {
+							TransactionHelper.addRequestOption(transaction, Option.AckImplied);
+							TransactionHelper.addRequestOption(transaction, Option.GetNext);
+						}
+						IMetaTaskTransaction reply = 
+								httpClient.execute(transaction, postMethod); // Work Item Processed - End
 						// the execute() can block while recovering lost connection.
 						// first check if we are still running.
 						if ( !duccComponent.isRunning() ) {
@@ -397,6 +444,9 @@ public class HttpWorkerThread implements Runnable {
                     		
                     	}
 	                    logger.info("run", null,"Thread:"+Thread.currentThread().getId()+" sent END for WI:"+wid);
+	                    if ( getNext ) {
+	                    	next = reply;
+	                    }
 	                    if ( exitOnProcessFailure && workItemFailed ) {
 	                        if ( wid != null ) {
 		                    	logger.warn("run", null, "Worker thread exiting due to error while processing WI:"+wid);
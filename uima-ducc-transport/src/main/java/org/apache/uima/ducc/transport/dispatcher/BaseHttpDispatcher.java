@@ -20,12 +20,14 @@ package org.apache.uima.ducc.transport.dispatcher;
 
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
 import org.apache.uima.ducc.common.exception.DuccRuntimeException;
+import org.apache.uima.ducc.transport.codec.DuccEventCodec;
 import org.apache.uima.ducc.transport.event.DuccEvent;
 /**
  * Implementation of the HTTP based dispatcher. Uses commons HTTPClient for 
@@ -65,9 +67,28 @@ public abstract class BaseHttpDispatcher
 
     abstract Object fromXml(String str) throws Exception;
 
+    /**
+     * The codec for DuccEvents, or null to use toXml/fromXml
+     */
+    DuccEventCodec getCodec()
+    {
+        return null;
+    }
+
     public String dispatch(String outgoing, String content_type)
         throws Exception
     {
+        byte[] outgoingBytes = null;
+        if ( outgoing != null ) {
+            outgoingBytes = outgoing.getBytes();
+        }
+        byte[] response = dispatchBytes(outgoingBytes, content_type);
+        return new String(response);
+    }
+
+    public byte[] dispatchBytes(byte[] outgoing, String content_type)
+        throws Exception
+    {
  
         // String serBody = XStreamUtils.marshall(duccEvent);
         // String serBody = toXml(duccEvent);
@@ -83,7 +104,7 @@ public abstract class BaseHttpDispatcher
             conn.setDoOutput(true);           // post
             // conn.setRequestProperty("Content-Type", "text/xml");
             OutputStream postout = conn.getOutputStream();
-            postout.write(outgoing.getBytes());
+            postout.write(outgoing);
             postout.close();
         } else {
             // System.out.println(targetEndpoint + " using GET");
@@ -107,17 +128,17 @@ public abstract class BaseHttpDispatcher
 
             
             InputStream content = conn.getInputStream();
-            StringBuffer sb = new StringBuffer();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
             byte[] slice = new byte[4096];
             int bytes_read = 0;
             BufferedInputStream bis = new BufferedInputStream(content);
              while ( (bytes_read = bis.read(slice, 0, slice.length)) != -1 ) {
-                sb.append(new String(slice, 0, bytes_read));
+                baos.write(slice, 0, bytes_read);
             }
             content.close();
             
-            String response = sb.toString();
-            // System.out.println("Response: " + response);
+            byte[] response = baos.toByteArray();
+            // System.out.println("Response: " + new String(response));
 
             return response;
         } else {
@@ -136,6 +157,11 @@ public abstract class BaseHttpDispatcher
     {
         String serBody = null;
     	try{
+            DuccEventCodec codec = getCodec();
+            if ( codec != null ) {
+                byte[] response = dispatchBytes(codec.encode(duccEvent), codec.getContentType());
+                return (DuccEvent) codec.decode(response);
+            }
             serBody = toXml(duccEvent);
             String response =  dispatch(serBody, "text/xml");
             return (DuccEvent) fromXml(response);
@@ -19,7 +19,11 @@
 package org.apache.uima.ducc.transport.dispatcher;
 
 
+import java.net.URL;
+
 import org.apache.uima.ducc.common.utils.XStreamUtils;
+import org.apache.uima.ducc.transport.codec.DuccEventCodec;
+import org.apache.uima.ducc.transport.codec.DuccEventCodecFactory;
 import org.apache.uima.ducc.transport.event.DuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobReplyDuccEvent;
@@ -43,16 +47,29 @@ public class DuccEventHttpDispatcher
     
     int socketTimeout = 0;  // no timeout
 
+    DuccEventCodec codec = null;
+
     public DuccEventHttpDispatcher( String targetEndpoint ) 
         throws Exception 
     {
-        super(targetEndpoint, -1);
+        this(targetEndpoint, -1);
     }
         
     public DuccEventHttpDispatcher( String targetEndpoint, int timeout)
         throws Exception 
     {
         super(targetEndpoint, timeout);
+        // route is the URL path, e.g. "or" for http://host:port/or
+        String route = new URL(targetEndpoint).getPath();
+        if ( route.startsWith("/") ) {
+            route = route.substring(1);
+        }
+        codec = DuccEventCodecFactory.getCodec(route);
+    }
+
+    DuccEventCodec getCodec()
+    {
+        return codec;
     }
 
     String toXml(Object ev)
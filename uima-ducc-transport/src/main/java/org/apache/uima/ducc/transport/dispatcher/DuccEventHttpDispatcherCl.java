@@ -19,11 +19,16 @@
 package org.apache.uima.ducc.transport.dispatcher;
 
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.uima.ducc.common.exception.DuccRuntimeException;
 import org.apache.uima.ducc.common.utils.DuccProperties;
 import org.apache.uima.ducc.transport.event.DuccEvent;
 import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
@@ -119,6 +124,83 @@ public class DuccEventHttpDispatcherCl
         return fromJson(response, cl);
     }
 
+    /**
+     * Receiver of the events read by subscribeJson.
+     */
+    public interface IJsonReceiver {
+        /**
+         * @return false to end the subscription
+         */
+        public boolean receive(String event, Object object);
+    }
+
+    /**
+     * Subscribe (GET) to a text/event-stream, handing the json data of each event
+     * to the receiver as an instance of cl.  Returns when the stream ends, a read 
+     * times out or the receiver declines.
+     *
+     * @return the number of events received, 0 also when the endpoint 
+     *         answered but is not an event stream (e.g. an older server)
+     */
+    public int subscribeJson(Class<?> cl, IJsonReceiver receiver)
+        throws Exception
+    {
+        int count = 0;
+        URL url = new URL(targetEndpoint);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestProperty("Accept", "text/event-stream");
+        if ( super.socketTimeout > 0 ) {
+            conn.setReadTimeout(super.socketTimeout);
+        }
+        try {
+            int status = conn.getResponseCode();
+            if ( status != 200 ) {
+                throw new DuccRuntimeException("Ducc Unable to Subscribe. Http Response Code: " + status, new Exception(conn.getResponseMessage()));
+            }
+            String contentType = conn.getContentType();
+            if ( (contentType == null) || !contentType.startsWith("text/event-stream") ) {
+                return count;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"));
+            try {
+                String event = null;
+                StringBuffer data = null;
+                String line;
+                while ( (line = reader.readLine()) != null ) {
+                    if ( line.length() == 0 ) {              // end of event
+                        if ( data != null ) {
+                            count++;
+                            if ( !receiver.receive(event, fromJson(data.toString(), cl)) ) {
+                                break;
+                            }
+                        }
+                        event = null;
+                        data = null;
+                    } else if ( line.startsWith(":") ) {     // comment, keep-alive
+                    } else if ( line.startsWith("event:") ) {
+                        event = line.substring(6).trim();
+                    } else if ( line.startsWith("data:") ) {
+                        String value = line.substring(5);
+                        if ( value.startsWith(" ") ) {
+                            value = value.substring(1);
+                        }
+                        if ( data == null ) {
+                            data = new StringBuffer();
+                        } else {
+                            data.append("\n");
+                        }
+                        data.append(value);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } finally {
+            conn.disconnect();
+        }
+        return count;
+    }
+
     /**
      * Must call this if done using this class
      */
@@ -28,6 +28,14 @@ public class DuccJobsStateEvent extends AbstractMultiDuccEvent {
 	private static final long serialVersionUID = 1L;
 	private List<IDuccJobDeployment> jobList;
   private List<DuccUserReservation> userReservations;
+  // When the PM partitions its state by node, each node gets an event carrying only its own
+  // processes and reservations, with targetNode set to the node's IP. The epoch is then closed
+  // by one untargeted event with empty lists so that nodes with nothing left can take down
+  // what they still run. Full-list events have targetNode null and partitioned false.
+  private String targetNode = null;
+  private boolean partitioned = false;
+  // PM publication counter, contiguous, so agents can tell when they missed an epoch
+  private long epoch = 0;
 	
 	public DuccJobsStateEvent(EventType eventType, List<IDuccJobDeployment> jobList, List<DuccUserReservation> userReservations) {
 		super(eventType);
@@ -40,5 +48,23 @@ public class DuccJobsStateEvent extends AbstractMultiDuccEvent {
   public List<DuccUserReservation> getUserReservations() {
     return userReservations;
   }
+  public String getTargetNode() {
+    return targetNode;
+  }
+  public void setTargetNode(String targetNode) {
+    this.targetNode = targetNode;
+  }
+  public boolean isPartitioned() {
+    return partitioned;
+  }
+  public void setPartitioned(boolean partitioned) {
+    this.partitioned = partitioned;
+  }
+  public long getEpoch() {
+    return epoch;
+  }
+  public void setEpoch(long epoch) {
+    this.epoch = epoch;
+  }
 
 }
@@ -33,6 +33,8 @@ public class NodeInventoryUpdateDuccEvent extends AbstractDuccEvent {
 	private Map<DuccId, IDuccProcess> processes = null;
 	private long lastORSequence;
 	private NodeIdentity nodeIdentity;
+	// true when only processes which changed since the previous publication are included
+	private boolean partial = false;
 	
 	public NodeInventoryUpdateDuccEvent(Map<DuccId, IDuccProcess> processes, long lastORSequence, NodeIdentity node) {
 		super(EventType.START_PROCESS);
@@ -41,6 +43,20 @@ public class NodeInventoryUpdateDuccEvent extends AbstractDuccEvent {
 		this.nodeIdentity = node;
 	}
 	
+	public NodeInventoryUpdateDuccEvent(Map<DuccId, IDuccProcess> processes, long lastORSequence, NodeIdentity node, boolean partial) {
+		this(processes, lastORSequence, node);
+		this.partial = partial;
+	}
+	
+	/**
+	 * Returns true if this event carries only the processes which changed since
+	 * the agent's previous publication. A full inventory is still published
+	 * periodically.
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+	
 	public NodeIdentity getNodeIdentity() {
 		return nodeIdentity;
 	}
@@ -20,6 +20,10 @@ package org.apache.uima.ducc.transport.event;
 
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.id.DuccId;
@@ -39,6 +43,19 @@ public class OrchestratorStateDuccEvent extends AbstractMultiDuccEvent  {
 	private static DuccLogger logger = null;
 	
 	private IDuccWorkMap workMap = null;
+	
+	/*
+	 * Delta publication: when keyframe is false then workMap is
+	 * null and only the work entries changed or removed since
+	 * publication epoch baseEpoch are carried.  Subscribers use
+	 * OrchestratorStateReassembler to rebuild the full map.
+	 */
+	private long epoch = 0;
+	private long baseEpoch = 0;
+	private boolean keyframe = true;
+	private Map<DuccId,IDuccWork> changedMap = null;
+	private List<DuccId> removedList = null;
+	private boolean jobDriverMinimalAllocateRequirementMet = false;
 
 	public OrchestratorStateDuccEvent() {
 		super(EventType.ORCHESTRATOR_STATE);
@@ -51,14 +68,97 @@ public class OrchestratorStateDuccEvent extends AbstractMultiDuccEvent  {
 	
 	public void setWorkMap(IDuccWorkMap value) {
 		this.workMap = value.deepCopy();
-		trim();
+		this.keyframe = true;
+		this.changedMap = null;
+		this.removedList = null;
+		trim(workMap);
 	}
 	
 	public IDuccWorkMap getWorkMap() {
-		IDuccWorkMap value = this.workMap.deepCopy();
+		IDuccWorkMap value = null;
+		if(this.workMap != null) {
+			value = this.workMap.deepCopy();
+		}
 		return value;
 	}
 	
+	/*
+	 * Keyframe: full map (already a private copy) for epoch
+	 */
+	public void setKeyframe(long epoch, IDuccWorkMap value) {
+		this.epoch = epoch;
+		this.baseEpoch = epoch;
+		this.keyframe = true;
+		this.workMap = value;
+		this.changedMap = null;
+		this.removedList = null;
+		trim(workMap);
+	}
+	
+	/*
+	 * Delta: changes (already private copies) since baseEpoch
+	 */
+	public void setDelta(long epoch, long baseEpoch, Map<DuccId,IDuccWork> changed, List<DuccId> removed, boolean jdMinimalAllocateRequirementMet) {
+		this.epoch = epoch;
+		this.baseEpoch = baseEpoch;
+		this.keyframe = false;
+		this.workMap = null;
+		this.changedMap = new HashMap<DuccId,IDuccWork>(changed);
+		this.removedList = new ArrayList<DuccId>(removed);
+		this.jobDriverMinimalAllocateRequirementMet = jdMinimalAllocateRequirementMet;
+		trim(changedMap);
+	}
+	
+	/*
+	 * Employed by reassembler, no copy
+	 */
+	IDuccWorkMap getWorkMapReference() {
+		return this.workMap;
+	}
+	
+	/*
+	 * Employed by subscriber after reassembly, no copy
+	 */
+	public void setReassembledWorkMap(IDuccWorkMap value) {
+		this.workMap = value;
+	}
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	public long getBaseEpoch() {
+		return baseEpoch;
+	}
+	
+	public boolean isKeyframe() {
+		return keyframe;
+	}
+	
+	public boolean isDelta() {
+		return !keyframe;
+	}
+	
+	public Map<DuccId,IDuccWork> getChangedMap() {
+		Map<DuccId,IDuccWork> retVal = changedMap;
+		if(retVal == null) {
+			retVal = new HashMap<DuccId,IDuccWork>();
+		}
+		return retVal;
+	}
+	
+	public List<DuccId> getRemovedList() {
+		List<DuccId> retVal = removedList;
+		if(retVal == null) {
+			retVal = new ArrayList<DuccId>();
+		}
+		return retVal;
+	}
+	
+	public boolean isJobDriverMinimalAllocateRequirementMet() {
+		return jobDriverMinimalAllocateRequirementMet;
+	}
+	
 	private int sizeOf(Object object) {
 		String location = "sizeOf";
 		int retVal = 0;
@@ -83,14 +183,18 @@ public class OrchestratorStateDuccEvent extends AbstractMultiDuccEvent  {
 		return retVal;
 	}
 	
-	private void trim() {
+	@SuppressWarnings("rawtypes")
+	private void trim(Map map) {
 		String location = "trim";
 		int bytesTrimmed = 0;
-		for(Object key : workMap.keySet()) {
+		if(map == null) {
+			return;
+		}
+		for(Object key : map.keySet()) {
 			ICommandLine cmdLine1 = null;
 			ICommandLine cmdLine2 = null;
 			DuccId duccId = (DuccId) key;
-			IDuccWork dw = (IDuccWork) workMap.get(duccId);
+			IDuccWork dw = (IDuccWork) map.get(duccId);
 			if(dw instanceof IDuccWorkJob) {
 				IDuccWorkJob job = (IDuccWorkJob) dw;
 				if(logger != null) {
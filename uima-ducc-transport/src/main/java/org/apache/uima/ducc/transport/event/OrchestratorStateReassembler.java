@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event;
+
+import java.util.Map.Entry;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
+
+/**
+ * Subscriber side of Orchestrator delta publication.
+ * 
+ * Keyframe publications replace the assembled map; delta publications
+ * are applied to the assembled map provided they are based upon the 
+ * previously assembled epoch.  When a gap is detected (a publication
+ * was missed or the subscriber started mid-stream) deltas are ignored
+ * until the next keyframe arrives.
+ * 
+ * Upon successful reassembly the full map is installed into the event
+ * so that existing consumers continue to employ getWorkMap().
+ */
+public class OrchestratorStateReassembler {
+
+	private DuccLogger logger = null;
+	private DuccId jobid = null;
+	
+	private DuccWorkMap assembled = null;
+	private long epoch = -1;
+	
+	private long countKeyframe = 0;
+	private long countDelta = 0;
+	private long countGap = 0;
+	
+	public OrchestratorStateReassembler() {
+	}
+	
+	public OrchestratorStateReassembler(DuccLogger logger) {
+		this.logger = logger;
+	}
+	
+	/**
+	 * @return true if the event now carries a full work map, 
+	 * 		   false if the event should be ignored (awaiting keyframe)
+	 */
+	public synchronized boolean reassemble(OrchestratorStateDuccEvent event) {
+		String location = "reassemble";
+		boolean retVal = false;
+		if(event != null) {
+			IDuccWorkMap workMap = event.getWorkMapReference();
+			if(event.isKeyframe()) {
+				if(event.getEpoch() == 0) {
+					// full publication, delta publication not in effect
+					retVal = (workMap != null);
+				}
+				else if(workMap instanceof DuccWorkMap) {
+					// getWorkMap() hands out copies, the assembled map remains private
+					assembled = (DuccWorkMap) workMap;
+					epoch = event.getEpoch();
+					countKeyframe++;
+					retVal = true;
+					debug(location, "keyframe epoch:"+epoch+" size:"+assembled.size());
+				}
+			}
+			else if((assembled != null) && (event.getBaseEpoch() == epoch)) {
+				synchronized(assembled) {
+					for(DuccId duccId : event.getRemovedList()) {
+						assembled.removeDuccWork(duccId);
+					}
+					for(Entry<DuccId, IDuccWork> entry : event.getChangedMap().entrySet()) {
+						assembled.removeDuccWork(entry.getKey());
+						assembled.addDuccWork(entry.getValue());
+					}
+					if(event.isJobDriverMinimalAllocateRequirementMet()) {
+						assembled.setJobDriverMinimalAllocateRequirementMet();
+					}
+					else {
+						assembled.resetJobDriverMinimalAllocateRequirementMet();
+					}
+				}
+				epoch = event.getEpoch();
+				countDelta++;
+				// getWorkMap() hands out copies, the assembled map remains private
+				event.setReassembledWorkMap(assembled);
+				retVal = true;
+				debug(location, "delta epoch:"+epoch+" changed:"+event.getChangedMap().size()+" removed:"+event.getRemovedList().size());
+			}
+			else {
+				countGap++;
+				warn(location, "gap epoch:"+epoch+" base:"+event.getBaseEpoch()+" awaiting keyframe");
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * Discard assembled state, for example upon head transition.
+	 */
+	public synchronized void reset() {
+		assembled = null;
+		epoch = -1;
+	}
+	
+	public long getEpoch() {
+		return epoch;
+	}
+	
+	public long getCountKeyframe() {
+		return countKeyframe;
+	}
+	
+	public long getCountDelta() {
+		return countDelta;
+	}
+	
+	public long getCountGap() {
+		return countGap;
+	}
+	
+	private void debug(String location, String text) {
+		if(logger != null) {
+			logger.debug(location, jobid, text);
+		}
+	}
+	
+	private void warn(String location, String text) {
+		if(logger != null) {
+			logger.warn(location, jobid, text);
+		}
+	}
+}
@@ -45,6 +45,8 @@ public abstract class ADuccWork implements IDuccWork {
     private boolean cancelOnInterrupt = false;
 	
     private String rmReason = null;
+    
+    private long changeSequence = 0;
 	
 	public DuccId getDuccId() {
 		return duccId;
@@ -190,6 +192,14 @@ public abstract class ADuccWork implements IDuccWork {
 		return rmReason;
 	}
 	
+	public long getChangeSequence() {
+		return changeSequence;
+	}
+	
+	public void setChangeSequence(long value) {
+		changeSequence = value;
+	}
+	
 	// **********
 	
 	
@@ -73,6 +73,9 @@ public class DuccProcess implements IDuccProcess {
 	private String reason;
 	private String extendedReason;
 	private boolean initialized = false;
+	// bumped on every change the agent publishes in its inventory deltas. Local to
+	// the owning daemon, not serialized.
+	private transient long stateVersion = 0;
 	private int exitCode;
 	private CGroup cgroup;
 	private long majorFaults = SpecialValue.Unknown.getlong();
@@ -80,6 +83,7 @@ public class DuccProcess implements IDuccProcess {
 	private long swapUsageMax= SpecialValue.Unknown.getlong();
 	private long wiMillisInvestment;
 	private long currentCPU;
+	private long changeSequence = 0;
 	
 	public DuccProcess(DuccId duccId, NodeIdentity nodeIdentity) {
 		setDuccId(duccId);
@@ -123,6 +127,7 @@ public class DuccProcess implements IDuccProcess {
 
 	public void setUimaPipelineComponents(List<IUimaPipelineAEComponent> uimaPipelineComponentList) {
 		this.uimaPipelineComponentList = uimaPipelineComponentList;
+		stateVersion++;
 	}
 
 	
@@ -152,6 +157,9 @@ public class DuccProcess implements IDuccProcess {
 
 	
 	public void setPID(String pid) {
+		if(!equal(this.pid, pid)) {
+			stateVersion++;
+		}
 		this.pid = pid;
 	}
 
@@ -162,10 +170,21 @@ public class DuccProcess implements IDuccProcess {
 
 	
 	public void setProcessState(ProcessState processState) {
+		if(this.processState != processState) {
+			stateVersion++;
+		}
 		this.processState = processState;
 		setEndTimes();
 	}
 	
+	public long getStateVersion() {
+		return stateVersion;
+	}
+	
+	private static boolean equal(Object o1, Object o2) {
+		return (o1 == null) ? (o2 == null) : o1.equals(o2);
+	}
+	
 /*
 	Starting,               // Process Manager sent request to start the Process
 	Started,                // Process PID is available
@@ -632,10 +651,16 @@ public class DuccProcess implements IDuccProcess {
 	    return extendedReason;
 	  }
   public void setReasonForStoppingProcess(String reason) {
+    if(!equal(this.reason, reason)) {
+      stateVersion++;
+    }
     this.reason = reason;
   }
   	
   public void setExtendedReasonForStoppingProcess(String reason) {
+	    if(!equal(this.extendedReason, reason)) {
+	      stateVersion++;
+	    }
 	    this.extendedReason = reason;
   }
 	  
@@ -655,6 +680,9 @@ public class DuccProcess implements IDuccProcess {
 	}
 
 	public void setProcessExitCode(int pExitCode) {
+		if(this.exitCode != pExitCode) {
+			stateVersion++;
+		}
 		this.exitCode = pExitCode;
 	}
 	
@@ -723,4 +751,10 @@ public class DuccProcess implements IDuccProcess {
 	public long getCurrentCPU() {
 		return currentCPU;
 	}
+	public long getChangeSequence() {
+		return changeSequence;
+	}
+	public void setChangeSequence(long value) {
+		changeSequence = value;
+	}
 }
@@ -55,7 +55,7 @@ public class DuccWorkJob extends ADuccWorkExecutable implements IDuccWorkJob {
 
 	private IRationale completionRationale = null;
 
-	private long wiVersion = 1;
+	private long wiVersion = 2;
 	private long wiMillisMax = 0;
 	private long wiMillisMin = 0;
 	private long wiMillisAvg = 0;
@@ -295,7 +295,8 @@ public class DuccWorkJob extends ADuccWorkExecutable implements IDuccWorkJob {
 	}
 
 	public boolean isProcessReady() {
-		IDuccProcessMap processMap = (IDuccProcessMap) getProcessMap().deepCopy();
+		// counting is synchronized by the process map, no copy needed
+		IDuccProcessMap processMap = getProcessMap();
 		return processMap.getReadyProcessCount() > 0;
 	}
 
@@ -307,7 +308,7 @@ public class DuccWorkJob extends ADuccWorkExecutable implements IDuccWorkJob {
 	*/
 
 	public int getFailedUnexpectedProcessCount() {
-		IDuccProcessMap processMap = (IDuccProcessMap) getProcessMap().deepCopy();
+		IDuccProcessMap processMap = getProcessMap();
 		return processMap.getFailedUnexpectedProcessCount();
 	}
 
@@ -19,6 +19,7 @@
 package org.apache.uima.ducc.transport.event.common;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -421,6 +422,22 @@ public class DuccWorkMap implements IDuccWorkMap {
 		}
 	}
 	
+	/**
+	 * Serialize each entry individually while holding the map monitor.
+	 * De-serialization is left to the caller, outside the monitor.
+	 * See DuccWorkMapSnapshot.
+	 */
+	public Map<DuccId,byte[]> serializeEntries() {
+		synchronized (this) {
+			Map<DuccId,byte[]> retVal = new HashMap<DuccId,byte[]>();
+			for(Entry<DuccId, IDuccWork> entry : concurrentWorkMap.entrySet()) {
+				byte[] bytes = SerializationUtils.serialize(entry.getValue());
+				retVal.put(entry.getKey(), bytes);
+			}
+			return retVal;
+		}
+	}
+	
 	/*
 	 * *****
 	 */
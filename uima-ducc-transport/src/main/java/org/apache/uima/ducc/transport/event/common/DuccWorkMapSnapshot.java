@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.event.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Structurally shared snapshots of a DuccWorkMap.
+ * 
+ * The live map is locked only while each entry is serialized.  Outside
+ * the lock, entries whose serialized form is unchanged since the prior
+ * snapshot are shared with that snapshot rather than de-serialized anew,
+ * so only changed jobs, reservations and services are materialized.
+ * 
+ * Entries of a snapshot are shared with other snapshots and therefore 
+ * must be treated as read-only.  Employ DuccWorkMap.deepCopy() or
+ * SerializationUtils.clone() for a private, mutable copy.
+ */
+public class DuccWorkMapSnapshot {
+
+	private static class Version {
+		byte[] bytes;
+		IDuccWork dw;
+		Version(byte[] bytes, IDuccWork dw) {
+			this.bytes = bytes;
+			this.dw = dw;
+		}
+	}
+	
+	private Map<DuccId,Version> versions = new HashMap<DuccId,Version>();
+	
+	private AtomicLong countShared = new AtomicLong(0);
+	private AtomicLong countMaterialized = new AtomicLong(0);
+	
+	/**
+	 * Snapshot the live map, holding its monitor only for serialization.
+	 */
+	public DuccWorkMap snapshot(DuccWorkMap workMap) {
+		Map<DuccId,byte[]> entries = workMap.serializeEntries();
+		return assemble(entries, workMap.isJobDriverMinimalAllocateRequirementMet());
+	}
+	
+	/**
+	 * Build a snapshot from entries serialized by DuccWorkMap.serializeEntries().
+	 */
+	public synchronized DuccWorkMap assemble(Map<DuccId,byte[]> entries, boolean jdMinimalAllocateRequirementMet) {
+		DuccWorkMap retVal = new DuccWorkMap();
+		Map<DuccId,Version> current = new HashMap<DuccId,Version>();
+		for(Entry<DuccId, byte[]> entry : entries.entrySet()) {
+			DuccId duccId = entry.getKey();
+			byte[] bytes = entry.getValue();
+			Version version = versions.get(duccId);
+			if((version != null) && Arrays.equals(version.bytes, bytes)) {
+				countShared.incrementAndGet();
+			}
+			else {
+				IDuccWork dw = (IDuccWork) SerializationUtils.deserialize(bytes);
+				version = new Version(bytes, dw);
+				countMaterialized.incrementAndGet();
+			}
+			current.put(duccId, version);
+			retVal.addDuccWork(version.dw);
+		}
+		versions = current;
+		if(jdMinimalAllocateRequirementMet) {
+			retVal.setJobDriverMinimalAllocateRequirementMet();
+		}
+		return retVal;
+	}
+	
+	public long getCountShared() {
+		return countShared.get();
+	}
+	
+	public long getCountMaterialized() {
+		return countMaterialized.get();
+	}
+}
@@ -52,6 +52,13 @@ public interface IDuccProcess extends Serializable {
 	public void setProcessState(ProcessState processState);
 	public void advanceProcessState(ProcessState processState);
 	
+	/**
+	 * Counter incremented whenever the PID, state, pipeline components, exit
+	 * code or reason for stopping change. Used by the agent to publish only
+	 * changed processes. Not serialized, always 0 in a received copy.
+	 */
+	public long getStateVersion();
+	
 	public ResourceState getResourceState();
 	public void setResourceState(ResourceState resourceState);
 	
@@ -155,4 +162,7 @@ public interface IDuccProcess extends Serializable {
 	public void setCurrentCPU(long cpu);
 	public long getCurrentCPU();
 	
+	// Orchestrator publication epoch of most recent change (delta publication)
+	public long getChangeSequence();
+	public void setChangeSequence(long value);
 }
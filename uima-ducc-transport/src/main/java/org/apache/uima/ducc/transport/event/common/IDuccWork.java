@@ -64,4 +64,8 @@ public interface IDuccWork extends Identifiable, Serializable {
 	
 	public void setRmReason(String value);
 	public String getRmReason();
+	
+	// Orchestrator publication epoch of most recent change (delta publication)
+	public long getChangeSequence();
+	public void setChangeSequence(long value);
 }
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.uima.ducc.common.NodeIdentity;
+import org.apache.uima.ducc.common.utils.DuccProperties;
+import org.apache.uima.ducc.common.utils.IDuccLoggerComponents.Daemon;
+import org.apache.uima.ducc.common.utils.XStreamUtils;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.agent.ProcessStateUpdate;
+import org.apache.uima.ducc.transport.codec.BinaryEventCodec;
+import org.apache.uima.ducc.transport.codec.DuccEventCodec;
+import org.apache.uima.ducc.transport.codec.DuccEventCodecFactory;
+import org.apache.uima.ducc.transport.codec.XStreamEventCodec;
+import org.apache.uima.ducc.transport.event.AgentPingEvent;
+import org.apache.uima.ducc.transport.event.AgentProcessLifecycleReportDuccEvent;
+import org.apache.uima.ducc.transport.event.AgentProcessLifecycleReportDuccEvent.LifecycleEvent;
+import org.apache.uima.ducc.transport.event.CancelJobDuccEvent;
+import org.apache.uima.ducc.transport.event.CancelJobReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.CancelReservationDuccEvent;
+import org.apache.uima.ducc.transport.event.CancelReservationReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.CancelServiceDuccEvent;
+import org.apache.uima.ducc.transport.event.CancelServiceReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.DaemonDuccEvent;
+import org.apache.uima.ducc.transport.event.DuccEvent;
+import org.apache.uima.ducc.transport.event.DuccEvent.EventType;
+import org.apache.uima.ducc.transport.event.DuccJobsStateEvent;
+import org.apache.uima.ducc.transport.event.DuccWorkReplyEvent;
+import org.apache.uima.ducc.transport.event.DuccWorkRequestEvent;
+import org.apache.uima.ducc.transport.event.IDuccContext.DuccContext;
+import org.apache.uima.ducc.transport.event.JdReplyEvent;
+import org.apache.uima.ducc.transport.event.JdRequestEvent;
+import org.apache.uima.ducc.transport.event.NodeInventoryUpdateDuccEvent;
+import org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.PmStateDuccEvent;
+import org.apache.uima.ducc.transport.event.ProcessMetricsUpdateDuccEvent;
+import org.apache.uima.ducc.transport.event.ProcessPurgeDuccEvent;
+import org.apache.uima.ducc.transport.event.ProcessStartDuccEvent;
+import org.apache.uima.ducc.transport.event.ProcessStateUpdateDuccEvent;
+import org.apache.uima.ducc.transport.event.ProcessStopDuccEvent;
+import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
+import org.apache.uima.ducc.transport.event.ServiceDisableEvent;
+import org.apache.uima.ducc.transport.event.ServiceEnableEvent;
+import org.apache.uima.ducc.transport.event.ServiceIgnoreEvent;
+import org.apache.uima.ducc.transport.event.ServiceModifyEvent;
+import org.apache.uima.ducc.transport.event.ServiceObserveEvent;
+import org.apache.uima.ducc.transport.event.ServiceQueryEvent;
+import org.apache.uima.ducc.transport.event.ServiceQueryReplyEvent;
+import org.apache.uima.ducc.transport.event.ServiceRegisterEvent;
+import org.apache.uima.ducc.transport.event.ServiceReplyEvent;
+import org.apache.uima.ducc.transport.event.ServiceStartEvent;
+import org.apache.uima.ducc.transport.event.ServiceStopEvent;
+import org.apache.uima.ducc.transport.event.ServiceUnregisterEvent;
+import org.apache.uima.ducc.transport.event.SmHeartbeatDuccEvent;
+import org.apache.uima.ducc.transport.event.SmStateDuccEvent;
+import org.apache.uima.ducc.transport.event.StartProcessDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitJobDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitJobReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitReservationDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitReservationReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitServiceDuccEvent;
+import org.apache.uima.ducc.transport.event.SubmitServiceReplyDuccEvent;
+import org.apache.uima.ducc.transport.event.common.DuccProcess;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.IDuccJobDeployment;
+import org.apache.uima.ducc.transport.event.common.DuccUserReservation;
+import org.apache.uima.ducc.transport.event.common.IDuccProcess;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IProcessState.ProcessState;
+import org.apache.uima.ducc.transport.event.sm.IService.Trinary;
+import org.junit.Test;
+
+public class DuccEventCodecTest {
+
+	private DuccEventCodec xstream = new XStreamEventCodec();
+	private DuccEventCodec binary = new BinaryEventCodec();
+	
+	private NodeIdentity nodeIdentity() throws Exception {
+		return new NodeIdentity("192.168.1.1", "node01");
+	}
+	
+	private DuccProperties properties() {
+		DuccProperties properties = new DuccProperties();
+		properties.put("user", "user1");
+		properties.put("description", "codec test");
+		return properties;
+	}
+	
+	private DuccWorkMap workMap() throws Exception {
+		DuccWorkMap workMap = new DuccWorkMap();
+		for(int i=1; i<=2; i++) {
+			DuccWorkJob job = new DuccWorkJob(new DuccId(i));
+			job.setStateObject(JobState.Running);
+			DuccProcess process = new DuccProcess(new DuccId(100+i), nodeIdentity());
+			job.getProcessMap().addProcess(process);
+			workMap.addDuccWork(job);
+		}
+		return workMap;
+	}
+	
+	private Map<DuccId,IDuccProcess> processMap() throws Exception {
+		Map<DuccId,IDuccProcess> map = new HashMap<DuccId,IDuccProcess>();
+		DuccId duccId = new DuccId(7);
+		map.put(duccId, new DuccProcess(duccId, nodeIdentity()));
+		return map;
+	}
+	
+	private List<DuccEvent> events() throws Exception {
+		List<DuccEvent> list = new ArrayList<DuccEvent>();
+		byte[] auth = { 1, 2, 3 };
+		list.add(new AgentPingEvent(EventType.AGENT_PING, null));
+		list.add(new AgentProcessLifecycleReportDuccEvent(new DuccProcess(new DuccId(3), nodeIdentity()), nodeIdentity(), LifecycleEvent.Launch));
+		list.add(new CancelJobDuccEvent(properties(), 1));
+		list.add(new CancelJobReplyDuccEvent());
+		list.add(new CancelReservationDuccEvent(properties(), 1));
+		list.add(new CancelReservationReplyDuccEvent());
+		list.add(new CancelServiceDuccEvent(properties(), DuccContext.Service, 1));
+		list.add(new CancelServiceReplyDuccEvent());
+		list.add(new DaemonDuccEvent(Daemon.Orchestrator, EventType.BOOT, nodeIdentity()));
+		list.add(new DuccJobsStateEvent(EventType.PM_STATE, new ArrayList<IDuccJobDeployment>(), new ArrayList<DuccUserReservation>()));
+		list.add(new DuccWorkReplyEvent());
+		list.add(new DuccWorkRequestEvent(new DuccId(5)));
+		list.add(new JdReplyEvent());
+		list.add(new JdRequestEvent());
+		list.add(new NodeInventoryUpdateDuccEvent(processMap(), 9, nodeIdentity()));
+		list.add(new NodeMetricsUpdateDuccEvent(null, 2));
+		OrchestratorStateDuccEvent orchestratorState = new OrchestratorStateDuccEvent();
+		orchestratorState.setWorkMap(workMap());
+		list.add(orchestratorState);
+		list.add(new PmStateDuccEvent());
+		list.add(new ProcessMetricsUpdateDuccEvent(null));
+		list.add(new ProcessPurgeDuccEvent(new DuccProcess(new DuccId(4), nodeIdentity())));
+		list.add(new ProcessStartDuccEvent(processMap(), null, new DuccId(8), null));
+		list.add(new ProcessStateUpdateDuccEvent(new ProcessStateUpdate(ProcessState.Running, "1234", "7")));
+		list.add(new ProcessStopDuccEvent(processMap()));
+		list.add(new RmStateDuccEvent());
+		list.add(new ServiceDisableEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceEnableEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceIgnoreEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceModifyEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", properties(), auth, 1));
+		list.add(new ServiceObserveEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceQueryEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceQueryReplyEvent());
+		list.add(new ServiceRegisterEvent("user1", 2, Trinary.True, "UIMA-AS:queue:tcp://node01:61616", properties(), auth, 1));
+		list.add(new ServiceReplyEvent());
+		list.add(new ServiceStartEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceStopEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new ServiceUnregisterEvent("user1", 11, "UIMA-AS:queue:tcp://node01:61616", auth, 1));
+		list.add(new SmHeartbeatDuccEvent());
+		list.add(new SmStateDuccEvent());
+		list.add(new StartProcessDuccEvent(new HashMap<DuccId,Process>(), new Properties()));
+		list.add(new SubmitJobDuccEvent(properties(), 1));
+		list.add(new SubmitJobReplyDuccEvent());
+		list.add(new SubmitReservationDuccEvent(properties(), 1));
+		list.add(new SubmitReservationReplyDuccEvent());
+		list.add(new SubmitServiceDuccEvent(properties(), DuccContext.Service, 1));
+		list.add(new SubmitServiceReplyDuccEvent());
+		return list;
+	}
+	
+	private void roundTrip(DuccEventCodec codec) throws Exception {
+		for(DuccEvent event : events()) {
+			String expected = XStreamUtils.marshall(event);
+			byte[] bytes = codec.encode(event);
+			Object decoded = codec.decode(bytes);
+			assertSame(event.getClass(), decoded.getClass());
+			assertEquals(event.getClass().getName(), expected, XStreamUtils.marshall(decoded));
+		}
+	}
+	
+	@Test
+	public void testRoundTripXStream() throws Exception {
+		roundTrip(xstream);
+	}
+	
+	@Test
+	public void testRoundTripBinary() throws Exception {
+		roundTrip(binary);
+	}
+	
+	@Test
+	public void testBinaryCompact() throws Exception {
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		event.setWorkMap(workMap());
+		int xmlSize = xstream.encode(event).length;
+		int binarySize = binary.encode(event).length;
+		assertTrue("binary:"+binarySize+" xml:"+xmlSize, binarySize < xmlSize);
+	}
+	
+	@Test
+	public void testDuccId() throws Exception {
+		DuccId duccId = new DuccId(123456789);
+		DuccId decoded = (DuccId) binary.decode(binary.encode(duccId));
+		assertEquals(duccId, decoded);
+		assertEquals(duccId.getFriendly(), decoded.getFriendly());
+		// shared references remain shared
+		List<DuccId> list = new ArrayList<DuccId>();
+		list.add(duccId);
+		list.add(duccId);
+		@SuppressWarnings("unchecked")
+		List<DuccId> decodedList = (List<DuccId>) binary.decode(binary.encode(list));
+		assertSame(decodedList.get(0), decodedList.get(1));
+	}
+	
+	@Test
+	public void testSelection() throws Exception {
+		assertEquals(BinaryEventCodec.NAME, DuccEventCodecFactory.getCodecByName("binary").getName());
+		assertEquals(XStreamEventCodec.NAME, DuccEventCodecFactory.getCodecByName(null).getName());
+		assertEquals(XStreamEventCodec.NAME, DuccEventCodecFactory.getCodecByName("bogus").getName());
+		assertEquals(BinaryEventCodec.NAME, DuccEventCodecFactory.getCodecByContentType(BinaryEventCodec.CONTENT_TYPE).getName());
+		assertEquals(XStreamEventCodec.NAME, DuccEventCodecFactory.getCodecByContentType("text/xml; charset=UTF-8").getName());
+		try {
+			binary.decode(xstream.encode(new SmHeartbeatDuccEvent()));
+			fail("xml decoded as binary");
+		}
+		catch(Exception e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMapSnapshot;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.junit.Test;
+
+public class DuccWorkMapSnapshotTest {
+
+	@Test
+	public void testStructuralSharing() {
+		DuccId id1 = new DuccId(1);
+		DuccId id2 = new DuccId(2);
+		DuccWorkMap live = new DuccWorkMap();
+		DuccWorkJob job1 = new DuccWorkJob(id1);
+		DuccWorkJob job2 = new DuccWorkJob(id2);
+		live.addDuccWork(job1);
+		live.addDuccWork(job2);
+		DuccWorkMapSnapshot snapshotter = new DuccWorkMapSnapshot();
+		DuccWorkMap s1 = snapshotter.snapshot(live);
+		assertEquals(2, s1.getJobCount());
+		assertNotSame(job1, s1.findDuccWork(id1));
+		// change one entry, remove none
+		job2.setStateObject(JobState.Running);
+		DuccWorkMap s2 = snapshotter.snapshot(live);
+		assertSame(s1.findDuccWork(id1), s2.findDuccWork(id1));
+		assertNotSame(s1.findDuccWork(id2), s2.findDuccWork(id2));
+		assertEquals(JobState.Running, s2.findDuccWork(id2).getStateObject());
+		assertEquals(3, snapshotter.getCountMaterialized());
+		assertEquals(1, snapshotter.getCountShared());
+		// removal
+		live.removeDuccWork(id1);
+		DuccWorkMap s3 = snapshotter.snapshot(live);
+		assertNull(s3.findDuccWork(id1));
+		assertEquals(1, s3.getJobCount());
+	}
+}
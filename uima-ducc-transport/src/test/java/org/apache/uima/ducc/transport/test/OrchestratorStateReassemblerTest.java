@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.transport.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReassembler;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
+import org.apache.uima.ducc.transport.event.common.DuccWorkReservation;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
+import org.junit.Test;
+
+public class OrchestratorStateReassemblerTest {
+
+	private DuccId id1 = new DuccId(1);
+	private DuccId id2 = new DuccId(2);
+	private DuccId id3 = new DuccId(3);
+	
+	private OrchestratorStateDuccEvent keyframe(long epoch) {
+		DuccWorkMap workMap = new DuccWorkMap();
+		workMap.addDuccWork(new DuccWorkJob(id1));
+		workMap.addDuccWork(new DuccWorkReservation(id2));
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		event.setKeyframe(epoch, workMap);
+		return event;
+	}
+	
+	private OrchestratorStateDuccEvent delta(long epoch, long baseEpoch) {
+		Map<DuccId,IDuccWork> changed = new HashMap<DuccId,IDuccWork>();
+		DuccWorkJob job = new DuccWorkJob(id3);
+		job.setChangeSequence(epoch);
+		changed.put(id3, job);
+		List<DuccId> removed = new ArrayList<DuccId>();
+		removed.add(id2);
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		event.setDelta(epoch, baseEpoch, changed, removed, true);
+		return event;
+	}
+	
+	@Test
+	public void testKeyframeThenDelta() {
+		OrchestratorStateReassembler reassembler = new OrchestratorStateReassembler();
+		OrchestratorStateDuccEvent e1 = keyframe(1);
+		assertTrue(reassembler.reassemble(e1));
+		assertEquals(2, e1.getWorkMap().size());
+		OrchestratorStateDuccEvent e2 = delta(2, 1);
+		assertNull(e2.getWorkMap());
+		assertTrue(reassembler.reassemble(e2));
+		IDuccWorkMap workMap = e2.getWorkMap();
+		assertNotNull(workMap);
+		assertEquals(2, workMap.size());
+		assertEquals(2, workMap.getJobCount());
+		assertEquals(0, workMap.getReservationCount());
+		assertEquals(2, workMap.findDuccWork(id3).getChangeSequence());
+		assertTrue(workMap.isJobDriverMinimalAllocateRequirementMet());
+		assertEquals(2, reassembler.getEpoch());
+	}
+	
+	@Test
+	public void testGapAwaitsKeyframe() {
+		OrchestratorStateReassembler reassembler = new OrchestratorStateReassembler();
+		// subscriber starts mid-stream
+		assertFalse(reassembler.reassemble(delta(5, 4)));
+		assertTrue(reassembler.reassemble(keyframe(6)));
+		// publication 7 is missed
+		assertFalse(reassembler.reassemble(delta(8, 7)));
+		assertEquals(2, reassembler.getCountGap());
+		assertTrue(reassembler.reassemble(keyframe(9)));
+		assertTrue(reassembler.reassemble(delta(10, 9)));
+		assertEquals(1, reassembler.getCountDelta());
+	}
+	
+	@Test
+	public void testFullPublication() {
+		OrchestratorStateReassembler reassembler = new OrchestratorStateReassembler();
+		DuccWorkMap workMap = new DuccWorkMap();
+		workMap.addDuccWork(new DuccWorkJob(id1));
+		OrchestratorStateDuccEvent event = new OrchestratorStateDuccEvent();
+		event.setWorkMap(workMap);
+		assertTrue(reassembler.reassemble(event));
+		assertEquals(1, event.getWorkMap().size());
+		assertEquals(0, reassembler.getCountKeyframe());
+	}
+}
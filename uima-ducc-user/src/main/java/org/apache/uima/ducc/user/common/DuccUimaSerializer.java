@@ -19,6 +19,10 @@
 
 package org.apache.uima.ducc.user.common;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
@@ -26,15 +30,25 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.uima.UIMAFramework;
 import org.apache.uima.cas.CAS;
+import org.apache.uima.cas.TypeSystem;
+import org.apache.uima.cas.impl.Serialization;
 import org.apache.uima.cas.impl.XmiCasDeserializer;
 import org.apache.uima.cas.impl.XmiCasSerializer;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
 import org.apache.uima.util.Level;
+import org.apache.uima.util.TypeSystemUtil;
+import org.apache.uima.util.XMLInputSource;
 import org.apache.uima.util.XMLSerializer;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
@@ -66,6 +80,123 @@ public class DuccUimaSerializer {
       writer.close();
     }
   }
+  
+  // A binary work item comprises a CAS block, optionally preceded by
+  // the type system block it refers to.  The type system is sent to
+  // each receiver only until it is known to be held there, and every 
+  // serializer in the receiving process shares the type systems held.
+  private static final int TYPE_SYSTEM_BLOCK = 0x44545331;
+  private static final int CAS_BLOCK = 0x44434131;
+  
+  // Type systems received, by id; a committed type system is immutable
+  private static ConcurrentHashMap<Long, TypeSystem> receivedTypeSystems = new ConcurrentHashMap<Long, TypeSystem>();
+  
+  // Type system of the most recently serialized CAS, with its id and block
+  private TypeSystem serializedTypeSystem = null;
+  private long serializedTypeSystemId = 0;
+  private byte[] serializedTypeSystemBlock = null;
+  
+  /**
+   * Utility method for serializing a CAS to a byte array using UIMA
+   * compressed binary form 6.  The result refers to, but does not 
+   * contain, the type system of the CAS (see serializeTypeSystemToBinary).
+   */
+  public byte[] serializeCasToBinary(CAS aCAS)
+          throws Exception {
+    TypeSystem ts = aCAS.getTypeSystem();
+    prepareTypeSystem(ts);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+    dos.writeInt(CAS_BLOCK);
+    dos.writeLong(serializedTypeSystemId);
+    Serialization.serializeWithCompression(aCAS, dos, ts);
+    dos.flush();
+    return baos.toByteArray();
+  }
+  
+  /**
+   * Utility method for serializing a type system to a byte array which, 
+   * placed ahead of a binary CAS of that type system, lets the receiver 
+   * map between differing type systems.  The result is built once per 
+   * type system.
+   */
+  public byte[] serializeTypeSystemToBinary(TypeSystem ts)
+          throws Exception {
+    prepareTypeSystem(ts);
+    return serializedTypeSystemBlock;
+  }
+  
+  /**
+   * Utility method for deserializing a CAS from a byte array produced
+   * by serializeCasToBinary, preceded by its type system unless that 
+   * has already been received by this process
+   */
+  public void deserializeCasFromBinary(byte[] bytes, CAS aCAS)
+          throws Exception {
+    DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+    int block = dis.readInt();
+    if(block == TYPE_SYSTEM_BLOCK) {
+      long id = dis.readLong();
+      byte[] tsBytes = new byte[dis.readInt()];
+      dis.readFully(tsBytes);
+      if(!receivedTypeSystems.containsKey(id)) {
+        receivedTypeSystems.putIfAbsent(id, uncompressTypeSystem(tsBytes));
+      }
+      block = dis.readInt();
+    }
+    if(block != CAS_BLOCK) {
+      throw new IOException("not a binary CAS");
+    }
+    long id = dis.readLong();
+    TypeSystem ts = receivedTypeSystems.get(id);
+    if(ts == null) {
+      throw new IOException("type system "+Long.toHexString(id)+" of binary CAS not received");
+    }
+    Serialization.deserializeCAS(aCAS, dis, ts, null);
+  }
+  
+  private void prepareTypeSystem(TypeSystem ts) throws Exception {
+    if(ts != serializedTypeSystem) {
+      byte[] tsBytes = compressTypeSystem(ts);
+      long id = getTypeSystemId(tsBytes);
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      DataOutputStream dos = new DataOutputStream(baos);
+      dos.writeInt(TYPE_SYSTEM_BLOCK);
+      dos.writeLong(id);
+      dos.writeInt(tsBytes.length);
+      dos.write(tsBytes);
+      dos.flush();
+      serializedTypeSystemBlock = baos.toByteArray();
+      serializedTypeSystemId = id;
+      serializedTypeSystem = ts;
+    }
+  }
+  
+  private long getTypeSystemId(byte[] tsBytes) throws Exception {
+    byte[] digest = MessageDigest.getInstance("MD5").digest(tsBytes);
+    return new DataInputStream(new ByteArrayInputStream(digest)).readLong();
+  }
+  
+  private byte[] compressTypeSystem(TypeSystem ts) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DeflaterOutputStream dos = new DeflaterOutputStream(baos);
+    TypeSystemDescription tsd = TypeSystemUtil.typeSystem2TypeSystemDescription(ts);
+    tsd.toXML(dos);
+    dos.close();
+    return baos.toByteArray();
+  }
+  
+  private TypeSystem uncompressTypeSystem(byte[] bytes) throws Exception {
+    InflaterInputStream iis = new InflaterInputStream(new ByteArrayInputStream(bytes));
+    try {
+      XMLInputSource in = new XMLInputSource(iis, null);
+      TypeSystemDescription tsd = UIMAFramework.getXMLParser().parseTypeSystemDescription(in);
+      return CasCreationUtils.createCas(tsd, null, null).getTypeSystem();
+    } finally {
+      iis.close();
+    }
+  }
+  
   private void secureXmlReader(XMLReader xmlReader) {
 	    try {
 	        xmlReader.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
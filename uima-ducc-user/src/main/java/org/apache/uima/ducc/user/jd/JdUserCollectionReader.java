@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.uima.UIMAFramework;
@@ -48,7 +49,12 @@ import org.apache.uima.util.XMLParser;
 
 public class JdUserCollectionReader {
 
-	private static DuccUimaSerializer uimaSerializer = new DuccUimaSerializer();
+	// serializers are not thread safe; each has affinity to a thread
+	private static ConcurrentHashMap<Long, DuccUimaSerializer> serializerMap = new ConcurrentHashMap<Long, DuccUimaSerializer>();
+	
+	public enum CasSerialization { xmi, binary };
+	
+	private static String keyCasSerialization = "ducc.deploy.CasSerialization";
 	
 	private String crXml = null;
 	private String crCfg = null;
@@ -60,6 +66,8 @@ public class JdUserCollectionReader {
 
 	private int total = -1;
 	
+	private CasSerialization casSerialization = CasSerialization.xmi;
+	
 	private AtomicInteger seqNo = new AtomicInteger(0);
 	
 	public JdUserCollectionReader(String crXml, String crCfg) throws Exception {
@@ -79,6 +87,7 @@ public class JdUserCollectionReader {
 	private void _initialize(String crXml, String crCfg) throws InvalidXMLException, ResourceConfigurationException, ResourceInitializationException {
 		setCrXml(crXml);
 		setCrCfg(crCfg);
+		initCasSerialization();
 		//
 		// Read and parse the collection reader
 		//
@@ -158,7 +167,7 @@ public class JdUserCollectionReader {
 			if(cr.hasNext()) {
 				CAS cas = cm.getEmptyCas();
 				cr.getNext(cas);
-				String serializedCas = null;
+				Object serializedCas = null;
 				try {
 					serializedCas = serialize(cas);
 				}
@@ -169,17 +178,54 @@ public class JdUserCollectionReader {
 				String documentText = CasHelper.getId(cas);
 				int systemSeqNo = seqNo.incrementAndGet();
 				retVal = new JdUserMetaCas(systemSeqNo, serializedCas, documentText);
+				if(casSerialization == CasSerialization.binary) {
+					retVal.setSerializedTypeSystem(getUimaSerializer().serializeTypeSystemToBinary(cas.getTypeSystem()));
+				}
 				cm.recycle(cas);
 			}
 		}
 		return retVal;
 	}
 	
-	public String serialize(CAS cas) throws Exception {
-		String serializedCas = uimaSerializer.serializeCasToXmi(cas);
+	public Object serialize(CAS cas) throws Exception {
+		Object serializedCas = null;
+		switch(casSerialization) {
+		case binary:
+			serializedCas = getUimaSerializer().serializeCasToBinary(cas);
+			break;
+		default:
+			serializedCas = getUimaSerializer().serializeCasToXmi(cas);
+			break;
+		}
 		return serializedCas;
 	}
 	
+	private DuccUimaSerializer getUimaSerializer() {
+		Long key = Thread.currentThread().getId();
+		DuccUimaSerializer retVal = serializerMap.get(key);
+		if(retVal == null) {
+			serializerMap.putIfAbsent(key, new DuccUimaSerializer());
+			retVal = serializerMap.get(key);
+		}
+		return retVal;
+	}
+	
+	private void initCasSerialization() throws ResourceConfigurationException {
+		String value = System.getProperty(keyCasSerialization);
+		if(value != null) {
+			try {
+				casSerialization = CasSerialization.valueOf(value.trim().toLowerCase());
+			}
+			catch(IllegalArgumentException e) {
+				throw new ResourceConfigurationException(e);
+			}
+		}
+	}
+	
+	public CasSerialization getCasSerialization() {
+		return casSerialization;
+	}
+	
 	public void recycle(CAS cas) {
 		cm.recycle(cas);
 	}
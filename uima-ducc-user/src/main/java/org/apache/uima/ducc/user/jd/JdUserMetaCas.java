@@ -21,17 +21,19 @@ package org.apache.uima.ducc.user.jd;
 public class JdUserMetaCas {
 
 	private int seqNo = -1;
-	private String serializedCas = null;
+	private Object serializedCas = null;
+	// binary serialization: type system block, to precede the serialized CAS
+	private byte[] serializedTypeSystem = null;
 	private String documentText = null;
 	private Exception  userException = null;
 	
-	public JdUserMetaCas(int seqNo, String serializedCas, String documentText) {
+	public JdUserMetaCas(int seqNo, Object serializedCas, String documentText) {
 		setSeqNo(seqNo);
 		setSerializedCas(serializedCas);
 		setDocumentText(documentText);
 	}
 	
-	public JdUserMetaCas(int seqNo, String serializedCas, String documentText, Exception userException) {
+	public JdUserMetaCas(int seqNo, Object serializedCas, String documentText, Exception userException) {
 		setSeqNo(seqNo);
 		setSerializedCas(serializedCas);
 		setDocumentText(documentText);
@@ -46,14 +48,22 @@ public class JdUserMetaCas {
 		return seqNo;
 	}
 	
-	private void setSerializedCas(String value) {
+	private void setSerializedCas(Object value) {
 		serializedCas = value;
 	}
 	
-	public String getSerializedCas() {
+	public Object getSerializedCas() {
 		return serializedCas;
 	}
 	
+	public void setSerializedTypeSystem(byte[] value) {
+		serializedTypeSystem = value;
+	}
+	
+	public byte[] getSerializedTypeSystem() {
+		return serializedTypeSystem;
+	}
+	
 	private void setDocumentText(String value) {
 		documentText = value;
 	}
@@ -75,7 +75,7 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
 	 * is required to support investment reset. 
 	 *
 	 */
-	public String getKey(String xmi) throws Exception {
+	public String getKey(Object xmi) throws Exception {
 		if ( analysisEngineMetadata == null ) {
 			// WorkItem ID (key) is only supported for pieces 'n parts 
 			return null;
@@ -91,7 +91,7 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
 			cas = CasCreationUtils.createCas(tsd, tp, fsid, props);
 		}
 		// deserialize the CAS
-		getUimaSerializer().deserializeCasFromXmi((String)xmi, cas);
+		deserializeCas(xmi, cas);
 		
 		String key = CasHelper.getId(cas);
 		cas.release();
@@ -105,6 +105,19 @@ public abstract class DuccAbstractProcessContainer implements IProcessContainer{
     	return serializerMap.get(Thread.currentThread().getId());
     }
 
+    /**
+     * Deserializes a work item CAS, which the JD sends either as an XMI
+     * String or, when the job specifies binary CAS serialization, as a
+     * byte array in compressed binary form.
+     */
+    protected void deserializeCas(Object serializedCas, CAS cas) throws Exception {
+    	if ( serializedCas instanceof byte[] ) {
+    		getUimaSerializer().deserializeCasFromBinary((byte[])serializedCas, cas);
+    	} else {
+    		getUimaSerializer().deserializeCasFromXmi((String)serializedCas, cas);
+    	}
+    }
+
     public int initialize(Properties p, String[] arg) throws Exception {
     	logger.log(Level.INFO, "DuccAbstractProcessContainer.initialize() >>>>>>>>> Initializing User Container");
 
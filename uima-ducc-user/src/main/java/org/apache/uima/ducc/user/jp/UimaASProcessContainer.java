@@ -303,7 +303,7 @@ public class UimaASProcessContainer  extends DuccAbstractProcessContainer {
 		try {
 
 			// Use thread dedicated UimaSerializer to de-serialize the CAS
-			getUimaSerializer().deserializeCasFromXmi((String)xmi, cas);
+			deserializeCas(xmi, cas);
 
 			/*
 			 * The following code commented for now. Re-enable when uima-as
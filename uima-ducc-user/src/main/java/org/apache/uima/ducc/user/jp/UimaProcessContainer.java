@@ -181,7 +181,7 @@ public class UimaProcessContainer extends DuccAbstractProcessContainer {
 		CAS cas = casPool.getCas();
 		try {
 			// deserialize the CAS
-			getUimaSerializer().deserializeCasFromXmi((String)xmi, cas);
+			deserializeCas(xmi, cas);
 
 			// the following checks out AE instance pinned to this thread
 			ae = instanceMap.checkout();
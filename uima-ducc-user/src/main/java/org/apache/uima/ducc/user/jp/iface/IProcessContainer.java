@@ -76,6 +76,6 @@ public interface IProcessContainer {
 	 * @return
 	 * @throws Exception
 	 */
-	public String getKey(String cargo) throws Exception;
+	public String getKey(Object cargo) throws Exception;
 	
 }
@@ -30,10 +30,13 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.uima.cas.CAS;
+import org.apache.uima.ducc.CasHelper;
 import org.apache.uima.ducc.ErrorHandler;
 import org.apache.uima.ducc.ErrorHandlerProgrammability;
 import org.apache.uima.ducc.IErrorHandler;
 import org.apache.uima.ducc.IErrorHandlerDirective;
+import org.apache.uima.ducc.user.common.DuccUimaSerializer;
 import org.apache.uima.ducc.user.common.ExceptionHelper;
 import org.apache.uima.ducc.user.dgen.DeployableGenerator;
 import org.apache.uima.ducc.user.dgen.DuccUimaAggregate;
@@ -42,8 +45,11 @@ import org.apache.uima.ducc.user.dgen.IDuccGeneratorUimaAggregateComponent;
 import org.apache.uima.ducc.user.dgen.IDuccGeneratorUimaAggregate;
 import org.apache.uima.ducc.user.dgen.iface.DeployableGeneration;
 import org.apache.uima.ducc.user.jd.JdUserCollectionReader;
+import org.apache.uima.ducc.user.jd.JdUserCollectionReader.CasSerialization;
 import org.apache.uima.ducc.user.jd.JdUserMetaCas;
 import org.apache.uima.ducc.user.jd.test.helper.TestErrorHandler;
+import org.apache.uima.resource.metadata.TypeSystemDescription;
+import org.apache.uima.util.CasCreationUtils;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -215,6 +221,49 @@ public class TestSuite {
 		}
 	}
 	
+	@Test
+	public void test05b() {
+		String key = "ducc.deploy.CasSerialization";
+		try {
+			URL url = this.getClass().getResource("/CR100.xml");
+			File file = new File(url.getFile());
+			String crXml = file.getAbsolutePath();
+			debug(crXml);
+			String crCfg = null;
+			System.setProperty(key, "binary");
+			JdUserCollectionReader jdcr = new JdUserCollectionReader(crXml, crCfg);
+			assertTrue(jdcr.getCasSerialization() == CasSerialization.binary);
+			TypeSystemDescription tsd = jdcr.getCr().getProcessingResourceMetaData().getTypeSystem();
+			CAS cas = CasCreationUtils.createCas(tsd, null, null);
+			DuccUimaSerializer serializer = new DuccUimaSerializer();
+			for(int i=0; i<3; i++) {
+				JdUserMetaCas jdUserMetaCas = jdcr.getJdUserMetaCas();
+				assertTrue(jdUserMetaCas != null);
+				assertTrue(jdUserMetaCas.getSerializedCas() instanceof byte[]);
+				assertTrue(jdUserMetaCas.getSerializedTypeSystem() != null);
+				byte[] bytes = (byte[]) jdUserMetaCas.getSerializedCas();
+				// type system accompanies the first CAS only
+				if(i == 0) {
+					byte[] typeSystem = jdUserMetaCas.getSerializedTypeSystem();
+					byte[] first = new byte[typeSystem.length+bytes.length];
+					System.arraycopy(typeSystem, 0, first, 0, typeSystem.length);
+					System.arraycopy(bytes, 0, first, typeSystem.length, bytes.length);
+					bytes = first;
+				}
+				cas.reset();
+				serializer.deserializeCasFromBinary(bytes, cas);
+				assertTrue(jdUserMetaCas.getDocumentText().equals(CasHelper.getId(cas)));
+			}
+		}
+		catch(Exception e) {
+			e.printStackTrace();
+			fail("Exception");
+		}
+		finally {
+			System.clearProperty(key);
+		}
+	}
+	
 	@Test
 	public void test06() {
 		try {
@@ -245,7 +294,7 @@ public class TestSuite {
 			JdUserMetaCas jdUserMetaCas = null;
 			jdUserMetaCas = jdcr.getJdUserMetaCas();
 			assertTrue(jdUserMetaCas != null);
-			String serializedCAS = jdUserMetaCas.getSerializedCas();
+			String serializedCAS = (String) jdUserMetaCas.getSerializedCas();
 			assertTrue(serializedCAS != null);
 			//
 			ErrorHandler eh = null;
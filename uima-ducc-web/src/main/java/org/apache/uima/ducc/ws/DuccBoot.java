@@ -35,6 +35,8 @@ import org.apache.uima.ducc.transport.event.common.IDuccWorkReservation;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService;
 import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
 import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+import org.apache.uima.ducc.ws.history.HistoryIndex;
+import org.apache.uima.ducc.ws.history.HistoryJobInfo;
 
 
 public class DuccBoot extends Thread {
@@ -160,7 +162,7 @@ public class DuccBoot extends Thread {
 	 * 
 	 * See https://issues.apache.org/jira/browse/UIMA-5506
 	 */
-    private void fixup(IDuccWork dw) {
+    static void fixup(IDuccWork dw) {
     	String location = "fixup";
     	if(dw != null) {
     		DuccId duccId = dw.getDuccId();
@@ -191,23 +193,81 @@ public class DuccBoot extends Thread {
     }
 	
 	private void restoreJobs(IHistoryPersistenceManager hpm, DuccData duccData) 
+    {
+        String location = "restoreJobs";
+        HistoryIndex historyIndex = HistoryIndex.getInstance();
+        if(historyIndex.isEnabled() && (historyIndex.size() > 0)) {
+        	long resident = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_history_index_resident_entries, 128);
+        	resident = Math.max(1, Math.min(resident, maxJobs));
+        	if(restoreJobs(hpm, duccData, resident, historyIndex.getMaxId())) {
+        		restoreIndexedJobs(historyIndex, duccData);
+        		return;
+        	}
+        	logger.info(location, jobid, "history index incomplete, max id "+historyIndex.getMaxId());
+        }
+        restoreJobs(hpm, duccData, maxJobs, -1);
+    }
+	
+	/**
+	 * List the indexed jobs not already restored whole.
+	 */
+	private void restoreIndexedJobs(HistoryIndex historyIndex, DuccData duccData) 
+    {
+        String location = "restoreIndexedJobs";
+        List<HistoryJobInfo> historyJobs = historyIndex.getJobs(maxJobs);
+        logger.info(location, jobid, messages.fetchLabel("Number of Jobs fetched from history index"), historyJobs.size());
+        int restored = 0;
+        int nExperiments = 0;
+        for ( HistoryJobInfo historyJob : historyJobs ) {
+            try {
+                duccData.putIfNotPresent(historyJob);
+                IDuccWorkJob duccWorkJob = historyJob.getJob();
+                String directory = duccWorkJob.getStandardInfo().getLogDirectory();
+                if (experimentsFound.add(directory)) {
+                    duccPlugins.restore(duccWorkJob);
+                    nExperiments++;
+                }
+                restored++;
+            }
+            catch(Throwable t) {
+                logger.warn(location, jobid, historyJob.getFriendly(), t);
+            }
+        }
+        logger.info(location,null, messages.fetch("Jobs restored from history index: "+restored));
+        if (nExperiments > 0) {
+        	logger.info(location,null, messages.fetch("Experiments found: "+nExperiments));
+        }
+    }
+	
+	/**
+	 * Restore the most recent max jobs whole from history.
+	 * 
+	 * @return true if the jobs restored reach back to indexed, 
+	 *         so none are missing between them and the index
+	 */
+	private boolean restoreJobs(IHistoryPersistenceManager hpm, DuccData duccData, long max, long indexed) 
     {
         // Replaced for database.  Both file and database now do all the looping and sorting internally.
         String location = "restoreJobs";
         List<IDuccWorkJob> duccWorkJobs = null;
 		try {
-			duccWorkJobs = hpm.restoreJobs(maxJobs);
+			duccWorkJobs = hpm.restoreJobs(max);
 		} catch (Exception e) {
             logger.warn(location, null, e);
-            return;                               // Nothing to do if this fails
+            return false;                         // Nothing to do if this fails
 		}
 
         logger.info(location, jobid, messages.fetchLabel("Number of Jobs fetched from history"), duccWorkJobs.size());
 
+        boolean contiguous = duccWorkJobs.size() < max;
+
         int restored = 0;
         int nExperiments = 0;
         for ( IDuccWorkJob duccWorkJob : duccWorkJobs ) {
         	fixup(duccWorkJob);
+        	if(duccWorkJob.getDuccId().getFriendly() <= indexed) {
+        		contiguous = true;
+        	}
             try {
                 logger.debug(location, duccWorkJob.getDuccId(), messages.fetchLabel("restore"));
                 duccData.putIfNotPresent(duccWorkJob);
@@ -226,6 +286,7 @@ public class DuccBoot extends Thread {
         if (nExperiments > 0) {
         	logger.info(location,null, messages.fetch("Experiments found: "+nExperiments));
         }
+        return contiguous;
     }
 	
 //	private void restoreJobsX(IHistoryPersistenceManager hpm, DuccData duccData) {
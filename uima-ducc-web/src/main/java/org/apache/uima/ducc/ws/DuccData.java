@@ -18,11 +18,16 @@
 */
 package org.apache.uima.ducc.ws;
 
+import java.util.Collection;
 import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
 import org.apache.uima.ducc.common.utils.TimeStamp;
 import org.apache.uima.ducc.common.utils.id.DuccId;
 import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
@@ -35,6 +40,8 @@ import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkService.ServiceDeploymentType;
 import org.apache.uima.ducc.transport.event.common.history.HistoryFactory;
 import org.apache.uima.ducc.transport.event.common.history.IHistoryPersistenceManager;
+import org.apache.uima.ducc.ws.history.HistoryIndex;
+import org.apache.uima.ducc.ws.history.HistoryJobInfo;
 
 
 public class DuccData {
@@ -43,11 +50,19 @@ public class DuccData {
 	private static DuccId jobid = null;
 	
 	private static DuccData instance = new DuccData();
+	
+	// bumped whenever the data changes, so views rendered from it can be reused until then
+	private static AtomicLong generation = new AtomicLong(0);
 
 	public static void reset() {
 		String location = "reset";
 		logger.info(location, jobid, "");
 		instance = new DuccData();
+		generation.incrementAndGet();
+	}
+	
+	public static long getGeneration() {
+		return generation.get();
 	}
 	
 	public static DuccData getInstance() {
@@ -75,8 +90,29 @@ public class DuccData {
 	private ConcurrentSkipListMap<Info,Info> sortedCombinedReservations = new ConcurrentSkipListMap<Info,Info>();
 	private ConcurrentSkipListMap<DuccId,Info> keyMapCombinedReservations = new ConcurrentSkipListMap<DuccId,Info>();
 	
+	// secondary indexes over the sorted maps above, maintained alongside them
+	private ConcurrentHashMap<Long,JobInfo> indexJobs = new ConcurrentHashMap<Long,JobInfo>();
+	private ConcurrentHashMap<Long,Info> indexCombinedReservations = new ConcurrentHashMap<Long,Info>();
+	private ConcurrentHashMap<String,ConcurrentSkipListMap<JobInfo,JobInfo>> userJobs = new ConcurrentHashMap<String,ConcurrentSkipListMap<JobInfo,JobInfo>>();
+	private ConcurrentHashMap<String,ConcurrentSkipListMap<Info,Info>> userCombinedReservations = new ConcurrentHashMap<String,ConcurrentSkipListMap<Info,Info>>();
+	
 	private PagingObserver pagingObserver = PagingObserver.getInstance();
 	
+	// completed jobs beyond the most recent are listed from the history index
+	private static int residentJobs = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_history_index_resident_entries, 128);
+	
+	private HistoryIndex historyIndex = HistoryIndex.getInstance();
+	
+	// jobs listed from the index, fetched whole from history for display of details
+	private static final int restoredJobsMax = 16;
+	
+	@SuppressWarnings("serial")
+	private Map<Long,IDuccWorkJob> restoredJobs = new LinkedHashMap<Long,IDuccWorkJob>(restoredJobsMax, 0.75f, true) {
+		protected boolean removeEldestEntry(Map.Entry<Long,IDuccWorkJob> eldest) {
+			return size() > restoredJobsMax;
+		}
+	};
+	
 	public boolean isPublished() {
 		return published != null;
 	}
@@ -95,6 +131,19 @@ public class DuccData {
 			if(duccWorkMap.findDuccWork(duccId) == null) {
 				duccWorkMap.addDuccWork(duccWork);
 				updateSortedMaps(duccWork);
+				generation.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Add a job known only from the history index, unless the job is already present.
+	 */
+	public void putIfNotPresent(HistoryJobInfo jobInfo) {
+		synchronized(this) {
+			if(!indexJobs.containsKey(jobInfo.getFriendly())) {
+				putJob(jobInfo);
+				generation.incrementAndGet();
 			}
 		}
 	}
@@ -167,6 +216,7 @@ public class DuccData {
 		}
 		prune();
 		setPublished();
+		generation.incrementAndGet();
 	}
 
 	private int pruneJobs() {
@@ -179,7 +229,7 @@ public class DuccData {
 					count++;
 					if(count > DuccBoot.maxJobs) {
 						DuccId duccId = jobInfo.getJob().getDuccId();
-						sortedJobs.remove(jobInfo);
+						removeJob(jobInfo);
 						keyMapJobs.remove(duccId);
 						pagingObserver.remove(duccId);
 						logger.debug(location, duccId, "size: "+sortedJobs.size());
@@ -192,6 +242,44 @@ public class DuccData {
 		return pruned;
 	}
 	
+	/**
+	 * Replace all but the most recent completed jobs that are no longer
+	 * published with their history index entries, releasing the jobs.
+	 */
+	private int demoteJobs() {
+		String location = "demoteJobs";
+		int demoted = 0;
+		if(historyIndex.isEnabled()) {
+			synchronized(this) {
+				int count = 0;
+				for(JobInfo jobInfo : sortedJobs.keySet()) {
+					if(!jobInfo.isOperational()) {
+						count++;
+						if(count > residentJobs) {
+							if(!(jobInfo instanceof HistoryJobInfo)) {
+								DuccWorkJob job = jobInfo.getJob();
+								DuccId duccId = job.getDuccId();
+								if(!isLive(duccId)) {
+									HistoryJobInfo historyJobInfo = historyIndex.add(job);
+									if(historyJobInfo != null) {
+										removeJob(jobInfo);
+										putJob(historyJobInfo);
+										duccWorkMap.removeDuccWork(duccId);
+										pagingObserver.remove(duccId);
+										logger.debug(location, duccId, "demoted");
+										demoted++;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
+			logger.debug(location, jobid, "demoted: "+demoted);
+		}
+		return demoted;
+	}
+	
 	private int pruneReservations() {
 		String location = "pruneReservations";
 		int pruned = 0;
@@ -246,7 +334,7 @@ public class DuccData {
 					count++;
 					if(count > DuccBoot.maxReservations) {
 						DuccId duccId = info.getDuccWork().getDuccId();
-						sortedCombinedReservations.remove(info);
+						removeCombinedReservation(info);
 						keyMapCombinedReservations.remove(duccId);
 						logger.debug(location, duccId, "size: "+sortedCombinedReservations.size());
 						pruned++;
@@ -270,10 +358,11 @@ public class DuccData {
 	private void prune() {
 		String location = "prune";
 		int jc = pruneJobs();
+		int dc = demoteJobs();
 		int rc = pruneReservations();
 		int sc = pruneServices();
 		int cc = pruneCombinedReservations();
-		logger.debug(location, jobid, ""+jc+":"+rc+":"+sc+":"+cc);
+		logger.debug(location, jobid, ""+jc+":"+rc+":"+sc+":"+cc+" "+"demoted:"+dc);
 	}
 	
 	public IDuccWorkMap get() {
@@ -301,15 +390,22 @@ public class DuccData {
 		DuccId duccId = duccWork.getDuccId();
 		DuccWorkJob job = (DuccWorkJob)duccWork;
 		if(keyMapJobs.containsKey(duccId)) {
-			sortedJobs.remove(keyMapJobs.get(duccId));
+			removeJob(keyMapJobs.get(duccId));
 			keyMapJobs.remove(duccId);
 		}
+		else if(indexJobs.containsKey(duccId.getFriendly())) {
+			// replace a completed (or index) entry, key included
+			removeJob(indexJobs.get(duccId.getFriendly()));
+		}
 		JobInfo jobInfo = new JobInfo(job);
-		sortedJobs.put(jobInfo, jobInfo);
+		putJob(jobInfo);
 		if(!duccWork.isCompleted()) {
 			keyMapJobs.put(duccId, jobInfo);
 			logger.debug(location, duccId, "put job");
 		}
+		else {
+			historyIndex.add(job);
+		}
 	}
 	
 	private void updateReservations(IDuccWork duccWork) {
@@ -328,11 +424,11 @@ public class DuccData {
 		}
 		//
 		if(keyMapCombinedReservations.containsKey(duccId)) {
-			sortedCombinedReservations.remove(keyMapCombinedReservations.get(duccId));
+			removeCombinedReservation(keyMapCombinedReservations.get(duccId));
 			keyMapCombinedReservations.remove(duccId);
 		}
 		Info rInfo = new Info(reservation);
-		sortedCombinedReservations.put(rInfo, rInfo);
+		putCombinedReservation(rInfo);
 		if(!duccWork.isCompleted()) {
 			keyMapCombinedReservations.put(duccId, rInfo);
 			logger.debug(location, duccId, "put combined");
@@ -359,11 +455,11 @@ public class DuccData {
 			switch(sdt) {
 			case other:
 				if(keyMapCombinedReservations.containsKey(duccId)) {
-					sortedCombinedReservations.remove(keyMapCombinedReservations.get(duccId));
+					removeCombinedReservation(keyMapCombinedReservations.get(duccId));
 					keyMapCombinedReservations.remove(duccId);
 				}
 				Info sInfo = new Info(service);
-				sortedCombinedReservations.put(sInfo, sInfo);
+				putCombinedReservation(sInfo);
 				if(!duccWork.isCompleted()) {
 					keyMapCombinedReservations.put(duccId, sInfo);
 					logger.debug(location, duccId, "put combined");
@@ -375,6 +471,70 @@ public class DuccData {
 		}
 	}
 	
+	private static String getUser(IDuccWork duccWork) {
+		String retVal = null;
+		try {
+			retVal = duccWork.getStandardInfo().getUser().trim();
+		}
+		catch(Exception e) {
+			// no user, not indexed by user
+		}
+		return retVal;
+	}
+	
+	private static <T> void putUser(ConcurrentHashMap<String,ConcurrentSkipListMap<T,T>> map, String user, T info) {
+		if(user != null) {
+			ConcurrentSkipListMap<T,T> userMap = map.get(user);
+			if(userMap == null) {
+				userMap = new ConcurrentSkipListMap<T,T>();
+				ConcurrentSkipListMap<T,T> prev = map.putIfAbsent(user, userMap);
+				if(prev != null) {
+					userMap = prev;
+				}
+			}
+			userMap.put(info, info);
+		}
+	}
+	
+	private static <T> void removeUser(ConcurrentHashMap<String,ConcurrentSkipListMap<T,T>> map, String user, T info) {
+		if(user != null) {
+			ConcurrentSkipListMap<T,T> userMap = map.get(user);
+			if(userMap != null) {
+				userMap.remove(info);
+			}
+		}
+	}
+	
+	// sorted maps hold at most one entry per friendly id, so the indexes do likewise
+	
+	private void putJob(JobInfo jobInfo) {
+		DuccWorkJob job = jobInfo.getJob();
+		sortedJobs.put(jobInfo, jobInfo);
+		indexJobs.put(jobInfo.getFriendly(), jobInfo);
+		putUser(userJobs, getUser(job), jobInfo);
+	}
+	
+	private void removeJob(JobInfo jobInfo) {
+		DuccWorkJob job = jobInfo.getJob();
+		sortedJobs.remove(jobInfo);
+		indexJobs.remove(jobInfo.getFriendly());
+		removeUser(userJobs, getUser(job), jobInfo);
+	}
+	
+	private void putCombinedReservation(Info info) {
+		IDuccWork dw = info.getDuccWork();
+		sortedCombinedReservations.put(info, info);
+		indexCombinedReservations.put(dw.getDuccId().getFriendly(), info);
+		putUser(userCombinedReservations, getUser(dw), info);
+	}
+	
+	private void removeCombinedReservation(Info info) {
+		IDuccWork dw = info.getDuccWork();
+		sortedCombinedReservations.remove(info);
+		indexCombinedReservations.remove(dw.getDuccId().getFriendly());
+		removeUser(userCombinedReservations, getUser(dw), info);
+	}
+	
 	private void updateSortedMaps(IDuccWork duccWork) {
 		if(duccWork != null) {
 			DuccType duccType = duccWork.getDuccType();
@@ -398,33 +558,58 @@ public class DuccData {
 	
 	public IDuccWorkJob getJob(DuccId duccId) {
 		IDuccWorkJob retVal = null;
-		ConcurrentSkipListMap<JobInfo,JobInfo> sortedJobs = getSortedJobs();
-		if(sortedJobs.size()> 0) {
-			Iterator<Entry<JobInfo, JobInfo>> iterator = sortedJobs.entrySet().iterator();
-			while(iterator.hasNext()) {
-				JobInfo jobInfo = iterator.next().getValue();
-				DuccWorkJob job = jobInfo.getJob();
-				if(job.getDuccId().getFriendly() == duccId.getFriendly()) {
-					retVal = job;
-					break;
+		if(duccId != null) {
+			JobInfo jobInfo = indexJobs.get(duccId.getFriendly());
+			if(jobInfo instanceof HistoryJobInfo) {
+				retVal = getHistoryJob(duccId.toString());
+			}
+			else if(jobInfo != null) {
+				retVal = jobInfo.getJob();
+			}
+		}
+		return retVal;
+	}
+	
+	/**
+	 * @return the whole job from history for a job listed only from the 
+	 * history index, else null
+	 */
+	public IDuccWorkJob getHistoryJob(String id) {
+		String location = "getHistoryJob";
+		IDuccWorkJob retVal = null;
+		try {
+			Long friendly = Long.parseLong(id);
+			if(indexJobs.get(friendly) instanceof HistoryJobInfo) {
+				synchronized(restoredJobs) {
+					retVal = restoredJobs.get(friendly);
+				}
+				if(retVal == null) {
+					retVal = hpm.restoreJob(friendly);
+					if(retVal != null) {
+						DuccBoot.fixup(retVal);
+						synchronized(restoredJobs) {
+							restoredJobs.put(friendly, retVal);
+						}
+						logger.debug(location, retVal.getDuccId(), "restored");
+					}
 				}
 			}
 		}
+		catch(NumberFormatException e) {
+			// not a job id
+		}
+		catch(Exception e) {
+			logger.warn(location, jobid, id, e);
+		}
 		return retVal;
 	}
 	
 	public IDuccWork getReservation(DuccId duccId) {
 		IDuccWork retVal = null;
-		ConcurrentSkipListMap<Info,Info> sortedReservations = getSortedCombinedReservations();
-		if(sortedReservations.size()> 0) {
-			Iterator<Entry<Info, Info>> iterator = sortedReservations.entrySet().iterator();
-			while(iterator.hasNext()) {
-				Info info = iterator.next().getValue();
-				IDuccWork dw = info.getDuccWork();
-				if(dw.getDuccId().getFriendly() == duccId.getFriendly()) {
-					retVal = dw;
-					break;
-				}
+		if(duccId != null) {
+			Info info = indexCombinedReservations.get(duccId.getFriendly());
+			if(info != null) {
+				retVal = info.getDuccWork();
 			}
 		}
 		return retVal;
@@ -446,18 +631,19 @@ public class DuccData {
 	
 	public IDuccWork getReservation(String id) {
 		IDuccWork retVal = null;
-		ConcurrentSkipListMap<Info,Info> sortedReservations = getSortedCombinedReservations();
-		if(sortedReservations.size()> 0) {
-			Iterator<Entry<Info, Info>> iterator = sortedReservations.entrySet().iterator();
-			while(iterator.hasNext()) {
-				Info info = iterator.next().getValue();
+		try {
+			Info info = indexCombinedReservations.get(Long.parseLong(id));
+			if(info != null) {
 				IDuccWork dw = info.getDuccWork();
+				// ids such as "+7" or "007" parse, but never matched before
 				if(isEqual(dw.getDuccId(), id)) {
 					retVal = dw;
-					break;
 				}
 			}
 		}
+		catch(NumberFormatException e) {
+			// not a reservation id
+		}
 		return retVal;
 	}
 	
@@ -465,6 +651,13 @@ public class DuccData {
 		return sortedJobs;
 	}
 	
+	/**
+	 * @return jobs for the given users only, in the same order as getSortedJobs()
+	 */
+	public ConcurrentSkipListMap<JobInfo,JobInfo> getSortedJobs(Collection<String> users) {
+		return merge(userJobs, users);
+	}
+	
 	public ConcurrentSkipListMap<ReservationInfo,ReservationInfo> getSortedReservations() {
 		return sortedReservations;
 	}
@@ -477,6 +670,26 @@ public class DuccData {
 		return sortedCombinedReservations;
 	}
 	
+	/**
+	 * @return reservations for the given users only, in the same order as getSortedCombinedReservations()
+	 */
+	public ConcurrentSkipListMap<Info,Info> getSortedCombinedReservations(Collection<String> users) {
+		return merge(userCombinedReservations, users);
+	}
+	
+	private static <T> ConcurrentSkipListMap<T,T> merge(ConcurrentHashMap<String,ConcurrentSkipListMap<T,T>> map, Collection<String> users) {
+		ConcurrentSkipListMap<T,T> retVal = new ConcurrentSkipListMap<T,T>();
+		if(users != null) {
+			for(String user : users) {
+				ConcurrentSkipListMap<T,T> userMap = map.get(user);
+				if(userMap != null) {
+					retVal.putAll(userMap);
+				}
+			}
+		}
+		return retVal;
+	}
+	
 	public boolean isLive(DuccId duccId) {
 		return duccWorkLive.containsKey(duccId);
 	}
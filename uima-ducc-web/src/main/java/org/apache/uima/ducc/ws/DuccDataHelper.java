@@ -45,8 +45,8 @@ public class DuccDataHelper {
 		DuccData duccData = DuccData.getInstance();
 		ConcurrentSkipListMap<JobInfo, JobInfo> jobs = duccData.getSortedJobs();
 		for(JobInfo jobInfo : jobs.descendingKeySet()) {
-			DuccWorkJob job = jobInfo.getJob();
-			if(job.isOperational()) {
+			if(jobInfo.isOperational()) {
+				DuccWorkJob job = jobInfo.getJob();
 				DuccId duccId = job.getDuccId();
 				String[] dependencies = job.getServiceDependencies();
 				if(dependencies != null) {
@@ -161,8 +161,8 @@ public class DuccDataHelper {
 			DuccData duccData = DuccData.getInstance();
 			ConcurrentSkipListMap<JobInfo, JobInfo> jobs = duccData.getSortedJobs();
 			for(JobInfo jobInfo : jobs.descendingKeySet()) {
-				DuccWorkJob job = jobInfo.getJob();
-				if(job.isOperational()) {
+				if(jobInfo.isOperational()) {
+					DuccWorkJob job = jobInfo.getJob();
 					DuccId jobid = job.getDuccId();
 					IDuccProcessMap map = job.getProcessMap();
 					Iterator<DuccId> procids = map.keySet().iterator();
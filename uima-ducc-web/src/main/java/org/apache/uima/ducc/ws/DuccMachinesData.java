@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -73,11 +74,12 @@ public class DuccMachinesData {
 	
 	private static DuccMachinesData duccMachinesData = new DuccMachinesData();
 	
-	private static ConcurrentSkipListMap<Ip,NodeId> ipToNameMap = new ConcurrentSkipListMap<Ip,NodeId>();
-	private static ConcurrentSkipListMap<NodeId,Ip> nameToIpMap = new ConcurrentSkipListMap<NodeId,Ip>();
+	// lookups only, no ordering needed
+	private static ConcurrentHashMap<Ip,NodeId> ipToNameMap = new ConcurrentHashMap<Ip,NodeId>();
+	private static ConcurrentHashMap<NodeId,Ip> nameToIpMap = new ConcurrentHashMap<NodeId,Ip>();
 	private static ConcurrentSkipListMap<String,String> isSwapping = new ConcurrentSkipListMap<String,String>();
 	
-	private static ConcurrentSkipListMap<String,TreeMap<String,NodeUsersInfo>> ipToNodeUsersInfoMap = new ConcurrentSkipListMap<String,TreeMap<String,NodeUsersInfo>>();
+	private static ConcurrentHashMap<String,TreeMap<String,NodeUsersInfo>> ipToNodeUsersInfoMap = new ConcurrentHashMap<String,TreeMap<String,NodeUsersInfo>>();
 	
 	private static MachineFactsList machineFactsList = new MachineFactsList();
 	
@@ -381,8 +383,18 @@ public class DuccMachinesData {
 		}
 		String machineName = nodeMetrics.getNodeIdentity().getCanonicalName().trim();
 		NodeId nodeId = new NodeId(machineName);
-		ipToNameMap.put(ip,nodeId);
-		nameToIpMap.put(nodeId,ip);
+		NodeId prevNodeId = ipToNameMap.put(ip,nodeId);
+		Ip prevIp = nameToIpMap.put(nodeId,ip);
+		// node re-addressed or address re-used: drop the stale reverse mapping
+		if((prevIp != null) && (!prevIp.equals(ip))) {
+			ipToNameMap.remove(prevIp, nodeId);
+			if(!ipToNameMap.containsKey(prevIp)) {
+				ipToNodeUsersInfoMap.remove(prevIp.toString());
+			}
+		}
+		if((prevNodeId != null) && (!prevNodeId.equals(nodeId))) {
+			nameToIpMap.remove(prevNodeId, ip);
+		}
 		// mem: total
 		long nodeMemTotal = nodeMetrics.getNodeMemory().getMemTotal();
 		logger.debug(location, jobid, "node: "+machineName+" "+"memTotal: "+nodeMemTotal);
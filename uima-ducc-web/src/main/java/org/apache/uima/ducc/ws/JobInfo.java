@@ -28,10 +28,21 @@ public class JobInfo implements Comparable<JobInfo> {
 		_job = job;
 	}
 
+	/**
+	 * For subclasses that produce their job on demand.
+	 */
+	protected JobInfo() {
+		_job = null;
+	}
+	
 	public DuccWorkJob getJob() {
 		return _job;
 	}
 	
+	public long getFriendly() {
+		return _job.getDuccId().getFriendly();
+	}
+	
 	public boolean isOperational() {
 		return _job.isOperational();
 	}
@@ -41,8 +52,8 @@ public class JobInfo implements Comparable<JobInfo> {
 		int retVal = 0;
 		JobInfo j1 = this;
 		JobInfo j2 = job;
-		long f1 = j1.getJob().getDuccId().getFriendly();
-		long f2 = j2.getJob().getDuccId().getFriendly();
+		long f1 = j1.getFriendly();
+		long f2 = j2.getFriendly();
 		if(f1 != f2) {
 			if(!j1.isOperational() && j2.isOperational()) {
 				retVal = 1;
@@ -67,11 +78,7 @@ public class JobInfo implements Comparable<JobInfo> {
 			try {
 				JobInfo i1 = this;
 				JobInfo i2 = (JobInfo)object;
-				DuccWorkJob j1 = i1.getJob();
-				DuccWorkJob j2 = i2.getJob();
-				String s1 = j1.getDuccId().toString();
-				String s2 = j2.getDuccId().toString();
-				retVal = s1.equals(s2);
+				retVal = i1.getFriendly() == i2.getFriendly();
 			}
 			catch(Throwable t) {	
 			}
@@ -82,8 +89,7 @@ public class JobInfo implements Comparable<JobInfo> {
 	 
 	public int hashCode() {
 		JobInfo i1 = this;
-		DuccWorkJob j1 = i1.getJob();
-		String s1 = j1.getDuccId().toString();
+		String s1 = ""+i1.getFriendly();
 		return s1.hashCode();
 	}
 }
@@ -51,10 +51,12 @@ import org.apache.uima.ducc.transport.event.common.DuccWorkMap;
 import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
 import org.apache.uima.ducc.ws.registry.ServicesRegistry;
 import org.apache.uima.ducc.ws.self.message.WebServerStateDuccEvent;
+import org.apache.uima.ducc.ws.server.DuccEventStream;
 import org.apache.uima.ducc.ws.server.DuccListeners;
 import org.apache.uima.ducc.ws.server.DuccWebServer;
 import org.apache.uima.ducc.ws.server.DuccWebServerHelper;
 import org.apache.uima.ducc.ws.utils.DatedNodeMetricsUpdateDuccEvent;
+import org.apache.uima.ducc.ws.utils.alien.FileAccessBroker;
 
 
 public class WebServerComponent extends AbstractDuccComponent 
@@ -123,12 +125,14 @@ implements IWebServer {
 
 	public void start(DuccService service, String[] args) throws Exception {
 		super.start(service, args);
+		FileAccessBroker.start();
 		DuccDaemonRuntimeProperties.getInstance().boot(DaemonName.Webserver,getProcessJmxUrl());
         stateChange(EventType.BOOT);
 	}
 	
 	public void stop() throws Exception {
 		stateChange(EventType.SHUTDOWN);
+		FileAccessBroker.stop();
 		super.stop();
 	}
 	
@@ -240,6 +244,7 @@ implements IWebServer {
 		DuccData.getInstance().put(wm);
 		DuccPlugins.getInstance().update(wm);
 		DuccListeners.getInstance().update(duccEvent);
+		DuccEventStream.getInstance().publish(duccEvent);
 		Map<String,Long> map = Distiller.deriveMachineMemoryInUse(duccEvent);
 		report(map);
 		duccLogger.trace(methodName, jobid, duccMsg.fetch("exit"));
@@ -26,6 +26,7 @@ import org.apache.uima.ducc.transport.dispatcher.DuccEventDispatcher;
 import org.apache.uima.ducc.transport.event.DuccJobsStateEvent;
 import org.apache.uima.ducc.transport.event.NodeMetricsUpdateDuccEvent;
 import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.OrchestratorStateReassembler;
 import org.apache.uima.ducc.transport.event.PmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.RmStateDuccEvent;
 import org.apache.uima.ducc.transport.event.SmHeartbeatDuccEvent;
@@ -41,6 +42,8 @@ public class WebServerEventListener implements DuccEventDelegateListener {
 	
 	private IWebServer webServer;
 	
+	private OrchestratorStateReassembler orchestratorStateReassembler = new OrchestratorStateReassembler(duccLogger);
+	
 	public WebServerEventListener(IWebServer webServer) {
 		this.webServer = webServer;
 	}
@@ -55,7 +58,9 @@ public class WebServerEventListener implements DuccEventDelegateListener {
 		String location = "onOrchestratorStateDuccEvent";
 		try {
 			duccEvent.setEventSize(pubSize);
-			webServer.update(duccEvent);
+			if(orchestratorStateReassembler.reassemble(duccEvent)) {
+				webServer.update(duccEvent);
+			}
 		}
 		catch(Throwable t) {
 			duccLogger.error(location, jobid, t);
@@ -0,0 +1,498 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.apache.uima.ducc.common.IDuccEnv;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccPerWorkItemStatistics;
+import org.apache.uima.ducc.transport.event.common.DuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.DuccStandardInfo;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IDuccCompletionType.JobCompletionType;
+import org.apache.uima.ducc.transport.event.common.IDuccPerWorkItemStatistics;
+import org.apache.uima.ducc.transport.event.common.IDuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccStandardInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccState.JobState;
+import org.apache.uima.ducc.transport.event.common.IDuccUnits.MemoryUnits;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IRationale;
+import org.apache.uima.ducc.transport.event.common.Rationale;
+import org.apache.uima.ducc.ws.DuccBoot;
+import org.apache.uima.ducc.ws.history.HistorySegment.LongColumn;
+import org.apache.uima.ducc.ws.history.HistorySegment.StringColumn;
+
+/**
+ * Summaries of completed jobs, kept off heap in memory-mapped segment files
+ * under DUCC_HOME/state/webserver/history so the Jobs page can list history
+ * without holding (or, after a restart, deserializing) every job.
+ * 
+ * Each completed job is appended once. Only the id to row mapping is on
+ * heap. Segments are replaced oldest first once the newer ones alone hold
+ * at least the max history entries.
+ */
+public class HistoryIndex {
+	
+	private static DuccLogger logger = DuccLogger.getLogger(HistoryIndex.class);
+	private static DuccId jobid = null;
+	
+	private static HistoryIndex instance = new HistoryIndex();
+	
+	public static HistoryIndex getInstance() {
+		return instance;
+	}
+	
+	private static final int defaultRowsPerSegment = 4096;
+	private static final int defaultHeapBytesPerRow = 512;
+	
+	// longer values are cut, so that any row fits an empty segment
+	private static final int maxStringLength = 4096;
+	
+	private static final String prefix = "jobs.";
+	private static final String suffix = ".seg";
+	
+	private static final long none = -1;
+	
+	private boolean enabled = false;
+	private File directory = null;
+	private int rowsPerSegment = defaultRowsPerSegment;
+	private int heapBytesPerRow = defaultHeapBytesPerRow;
+	
+	private ConcurrentSkipListMap<Integer,HistorySegment> segments = new ConcurrentSkipListMap<Integer,HistorySegment>();
+	private ConcurrentHashMap<Long,HistoryJobInfo> rows = new ConcurrentHashMap<Long,HistoryJobInfo>();
+	private ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<Long>();
+	
+	private HistorySegment active = null;
+	
+	private HistoryIndex() {
+		String location = "HistoryIndex";
+		try {
+			String value = DuccPropertiesResolver.getInstance().getProperty(DuccPropertiesResolver.ducc_ws_history_index_enabled);
+			if(!"false".equalsIgnoreCase(value)) {
+				directory = new File(IDuccEnv.DUCC_STATE_DIR+"webserver"+File.separator+"history");
+				if(directory.isDirectory() || directory.mkdirs()) {
+					load();
+					enabled = true;
+				}
+				else {
+					logger.warn(location, jobid, "unable to create", directory);
+				}
+			}
+			logger.info(location, jobid, "enabled:"+enabled+" "+"directory:"+directory+" "+"jobs:"+rows.size());
+		}
+		catch(Throwable t) {
+			logger.error(location, jobid, t);
+			enabled = false;
+		}
+	}
+	
+	/**
+	 * An index kept in the given directory, for testing.
+	 */
+	HistoryIndex(File directory, int rowsPerSegment, int heapBytesPerRow) {
+		this.directory = directory;
+		this.rowsPerSegment = rowsPerSegment;
+		this.heapBytesPerRow = heapBytesPerRow;
+		load();
+		enabled = true;
+	}
+	
+	private void load() {
+		String location = "load";
+		File[] files = directory.listFiles(new FilenameFilter() {
+			public boolean accept(File dir, String name) {
+				return name.startsWith(prefix) && name.endsWith(suffix);
+			}
+		});
+		if(files != null) {
+			for(File file : files) {
+				String name = file.getName();
+				try {
+					int sequence = Integer.parseInt(name.substring(prefix.length(), name.length()-suffix.length()));
+					HistorySegment segment = HistorySegment.open(file, sequence);
+					segments.put(sequence, segment);
+				}
+				catch(Exception e) {
+					// the index is only a cache of the history database
+					logger.warn(location, jobid, "discard", file, e);
+					file.delete();
+				}
+			}
+		}
+		for(HistorySegment segment : segments.values()) {
+			for(int row = 0; row < segment.getCount(); row++) {
+				// later rows for the same id replace earlier ones
+				put(new HistoryJobInfo(segment, row));
+			}
+		}
+		if(!segments.isEmpty()) {
+			HistorySegment last = segments.lastEntry().getValue();
+			if(!last.isFull()) {
+				active = last;
+			}
+		}
+	}
+	
+	private void put(HistoryJobInfo info) {
+		Long id = info.getFriendly();
+		rows.put(id, info);
+		ids.add(id);
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	public int size() {
+		return rows.size();
+	}
+	
+	/**
+	 * @return the largest job id indexed, or -1 if none
+	 */
+	public long getMaxId() {
+		long retVal = none;
+		if(!ids.isEmpty()) {
+			retVal = ids.last();
+		}
+		return retVal;
+	}
+	
+	public HistoryJobInfo get(long id) {
+		return rows.get(id);
+	}
+	
+	/**
+	 * @return at most max indexed jobs, newest first
+	 */
+	public List<HistoryJobInfo> getJobs(long max) {
+		List<HistoryJobInfo> list = new ArrayList<HistoryJobInfo>();
+		NavigableSet<Long> descending = ids.descendingSet();
+		for(Long id : descending) {
+			if(list.size() >= max) {
+				break;
+			}
+			HistoryJobInfo info = rows.get(id);
+			if(info != null) {
+				list.add(info);
+			}
+		}
+		return list;
+	}
+	
+	/**
+	 * Index a completed job, unless already indexed.
+	 * 
+	 * @return the index entry for the job, or null if not indexed
+	 */
+	public HistoryJobInfo add(IDuccWorkJob job) {
+		String location = "add";
+		HistoryJobInfo retVal = null;
+		if(enabled && (job != null)) {
+			DuccId duccId = job.getDuccId();
+			synchronized(this) {
+				retVal = rows.get(duccId.getFriendly());
+				if(retVal == null) {
+					try {
+						retVal = append(summarize(job), summarizeStrings(job));
+					}
+					catch(Exception e) {
+						logger.warn(location, duccId, e);
+					}
+				}
+			}
+		}
+		return retVal;
+	}
+	
+	// caller holds the lock
+	HistoryJobInfo append(long[] longs, String[] strings) throws IOException {
+		HistoryJobInfo retVal = null;
+		int row = -1;
+		if(active != null) {
+			row = active.append(longs, strings);
+		}
+		if(row < 0) {
+			roll();
+			row = active.append(longs, strings);
+		}
+		if(row >= 0) {
+			retVal = new HistoryJobInfo(active, row);
+			put(retVal);
+		}
+		return retVal;
+	}
+	
+	int getSegmentCount() {
+		return segments.size();
+	}
+	
+	long getMaxRetained() {
+		return DuccBoot.maxJobs;
+	}
+	
+	private void roll() throws IOException {
+		String location = "roll";
+		int sequence = 0;
+		if(active != null) {
+			active.seal();
+		}
+		if(!segments.isEmpty()) {
+			sequence = segments.lastKey() + 1;
+		}
+		File file = new File(directory, prefix+sequence+suffix);
+		active = HistorySegment.create(file, sequence, rowsPerSegment, rowsPerSegment * heapBytesPerRow);
+		segments.put(sequence, active);
+		logger.info(location, jobid, file);
+		retain();
+	}
+	
+	private void retain() {
+		String location = "retain";
+		long maxRetained = getMaxRetained();
+		long retained = 0;
+		for(HistorySegment segment : segments.values()) {
+			retained += segment.getCount();
+		}
+		while(segments.size() > 1) {
+			Entry<Integer,HistorySegment> oldest = segments.firstEntry();
+			HistorySegment segment = oldest.getValue();
+			if(retained - segment.getCount() < maxRetained) {
+				break;
+			}
+			segments.remove(oldest.getKey());
+			retained -= segment.getCount();
+			for(int row = 0; row < segment.getCount(); row++) {
+				Long id = segment.getLong(LongColumn.ID, row);
+				HistoryJobInfo info = rows.get(id);
+				if((info != null) && (info.getSegment() == segment)) {
+					rows.remove(id);
+					ids.remove(id);
+				}
+			}
+			// entries still listed keep the mapping, which outlives the file
+			if(!segment.getFile().delete()) {
+				logger.warn(location, jobid, "unable to delete", segment.getFile());
+			}
+			logger.info(location, jobid, segment.getFile());
+		}
+	}
+	
+	private static long toLong(String value) {
+		long retVal = 0;
+		try {
+			retVal = Long.parseLong(value.trim());
+		}
+		catch(Exception e) {
+			// not a number
+		}
+		return retVal;
+	}
+	
+	private static String cut(String value) {
+		String retVal = value;
+		if((value != null) && (value.length() > maxStringLength)) {
+			retVal = value.substring(0, maxStringLength);
+		}
+		return retVal;
+	}
+	
+	private static long[] summarize(IDuccWorkJob job) {
+		long[] longs = new long[LongColumn.values().length];
+		IDuccStandardInfo standardInfo = job.getStandardInfo();
+		IDuccSchedulingInfo schedulingInfo = job.getSchedulingInfo();
+		longs[LongColumn.ID.ordinal()] = job.getDuccId().getFriendly();
+		longs[LongColumn.SUBMITTED.ordinal()] = standardInfo.getDateOfSubmissionMillis(none);
+		longs[LongColumn.COMPLETED.ordinal()] = standardInfo.getDateOfCompletionMillis(none);
+		longs[LongColumn.MEMORY_ALLOCATED.ordinal()] = schedulingInfo.getMemorySizeAllocatedInBytes();
+		longs[LongColumn.PROCESSES_MAX.ordinal()] = schedulingInfo.getLongProcessesMax();
+		longs[LongColumn.TOTAL.ordinal()] = toLong(schedulingInfo.getWorkItemsTotal());
+		longs[LongColumn.DONE.ordinal()] = toLong(schedulingInfo.getWorkItemsCompleted());
+		longs[LongColumn.ERROR.ordinal()] = toLong(schedulingInfo.getWorkItemsError());
+		longs[LongColumn.RETRY.ordinal()] = toLong(schedulingInfo.getWorkItemsRetry());
+		longs[LongColumn.PREEMPT.ordinal()] = toLong(schedulingInfo.getWorkItemsPreempt());
+		longs[LongColumn.INIT_FAILS.ordinal()] = job.getProcessInitFailureCount();
+		longs[LongColumn.RUN_FAILS.ordinal()] = job.getProcessFailureCount();
+		longs[LongColumn.PGIN.ordinal()] = job.getPgInCount();
+		longs[LongColumn.SWAP.ordinal()] = Double.doubleToLongBits(job.getSwapUsageGb());
+		longs[LongColumn.SWAP_MAX.ordinal()] = Double.doubleToLongBits(job.getSwapUsageGbMax());
+		double max = Double.NaN;
+		double min = Double.NaN;
+		double mean = Double.NaN;
+		double stddev = Double.NaN;
+		IDuccPerWorkItemStatistics perWorkItemStatistics = schedulingInfo.getPerWorkItemStatistics();
+		if(perWorkItemStatistics != null) {
+			max = perWorkItemStatistics.getMax();
+			min = perWorkItemStatistics.getMin();
+			mean = perWorkItemStatistics.getMean();
+			stddev = perWorkItemStatistics.getStandardDeviation();
+		}
+		longs[LongColumn.WI_MAX.ordinal()] = Double.doubleToLongBits(max);
+		longs[LongColumn.WI_MIN.ordinal()] = Double.doubleToLongBits(min);
+		longs[LongColumn.WI_MEAN.ordinal()] = Double.doubleToLongBits(mean);
+		longs[LongColumn.WI_STDDEV.ordinal()] = Double.doubleToLongBits(stddev);
+		longs[LongColumn.DEBUG_DRIVER.ordinal()] = job.getDebugPortDriver();
+		longs[LongColumn.DEBUG_PROCESS.ordinal()] = job.getDebugPortProcess();
+		return longs;
+	}
+	
+	private static String[] summarizeStrings(IDuccWorkJob job) {
+		String[] strings = new String[StringColumn.values().length];
+		IDuccStandardInfo standardInfo = job.getStandardInfo();
+		IDuccSchedulingInfo schedulingInfo = job.getSchedulingInfo();
+		strings[StringColumn.USER.ordinal()] = standardInfo.getUser();
+		strings[StringColumn.SUBMITTER.ordinal()] = standardInfo.getSubmitter();
+		strings[StringColumn.DESCRIPTION.ordinal()] = standardInfo.getDescription();
+		strings[StringColumn.LOG_DIRECTORY.ordinal()] = standardInfo.getLogDirectory();
+		strings[StringColumn.SCHEDULING_CLASS.ordinal()] = schedulingInfo.getSchedulingClass();
+		strings[StringColumn.STATE.ordinal()] = job.getJobState().name();
+		strings[StringColumn.MEMORY_UNITS.ordinal()] = schedulingInfo.getMemoryUnits().name();
+		strings[StringColumn.MEMORY_REQUESTED.ordinal()] = schedulingInfo.getMemorySizeRequested();
+		// the list shows an end of job that lost its driver or some work items differently,
+		// which needs the driver's process map, so keep the outcome rather than the map
+		JobCompletionType completionType = job.getCompletionType();
+		IRationale rationale = job.getCompletionRationale();
+		if(completionType == JobCompletionType.EndOfJob) {
+			try {
+				if(job.getDriver().getProcessMap().getAbnormalDeallocationCount() > 0) {
+					completionType = JobCompletionType.DriverProcessFailed;
+					rationale = null;
+				}
+				else {
+					int total = schedulingInfo.getIntWorkItemsTotal();
+					int done = schedulingInfo.getIntWorkItemsCompleted();
+					int error = schedulingInfo.getIntWorkItemsError();
+					if(total != (done+error)) {
+						completionType = JobCompletionType.Premature;
+						rationale = null;
+					}
+				}
+			}
+			catch(Exception e) {
+			}
+		}
+		strings[StringColumn.COMPLETION_TYPE.ordinal()] = completionType.name();
+		if(rationale != null) {
+			strings[StringColumn.RATIONALE.ordinal()] = rationale.getText();
+		}
+		String[] dependencies = job.getServiceDependencies();
+		if(dependencies != null) {
+			StringBuffer sb = new StringBuffer();
+			for(String dependency : dependencies) {
+				if(sb.length() > 0) {
+					sb.append("\n");
+				}
+				sb.append(dependency);
+			}
+			strings[StringColumn.SERVICES.ordinal()] = sb.toString();
+		}
+		for(int i = 0; i < strings.length; i++) {
+			strings[i] = cut(strings[i]);
+		}
+		return strings;
+	}
+	
+	static DuccWorkJob materialize(HistorySegment segment, int row) {
+		HistoryJob job = new HistoryJob(new DuccId(segment.getLong(LongColumn.ID, row)));
+		DuccStandardInfo standardInfo = new DuccStandardInfo();
+		standardInfo.setUser(segment.getString(StringColumn.USER, row));
+		standardInfo.setSubmitter(segment.getString(StringColumn.SUBMITTER, row));
+		standardInfo.setDescription(segment.getString(StringColumn.DESCRIPTION, row));
+		standardInfo.setLogDirectory(segment.getString(StringColumn.LOG_DIRECTORY, row));
+		long submitted = segment.getLong(LongColumn.SUBMITTED, row);
+		if(submitted != none) {
+			standardInfo.setDateOfSubmissionMillis(submitted);
+		}
+		long completed = segment.getLong(LongColumn.COMPLETED, row);
+		if(completed != none) {
+			standardInfo.setDateOfCompletionMillis(completed);
+		}
+		job.setStandardInfo(standardInfo);
+		DuccSchedulingInfo schedulingInfo = new DuccSchedulingInfo();
+		schedulingInfo.setSchedulingClass(segment.getString(StringColumn.SCHEDULING_CLASS, row));
+		schedulingInfo.setMemorySizeRequested(segment.getString(StringColumn.MEMORY_REQUESTED, row));
+		try {
+			schedulingInfo.setMemoryUnits(MemoryUnits.valueOf(segment.getString(StringColumn.MEMORY_UNITS, row)));
+		}
+		catch(Exception e) {
+			// default units
+		}
+		schedulingInfo.setMemorySizeAllocatedInBytes(segment.getLong(LongColumn.MEMORY_ALLOCATED, row));
+		schedulingInfo.setLongProcessesMax(segment.getLong(LongColumn.PROCESSES_MAX, row));
+		schedulingInfo.setWorkItemsTotal(""+segment.getLong(LongColumn.TOTAL, row));
+		schedulingInfo.setWorkItemsCompleted(""+segment.getLong(LongColumn.DONE, row));
+		schedulingInfo.setWorkItemsError(""+segment.getLong(LongColumn.ERROR, row));
+		schedulingInfo.setWorkItemsRetry(""+segment.getLong(LongColumn.RETRY, row));
+		schedulingInfo.setWorkItemsPreempt(""+segment.getLong(LongColumn.PREEMPT, row));
+		double mean = segment.getDouble(LongColumn.WI_MEAN, row);
+		if(!Double.isNaN(mean)) {
+			double max = segment.getDouble(LongColumn.WI_MAX, row);
+			double min = segment.getDouble(LongColumn.WI_MIN, row);
+			double stddev = segment.getDouble(LongColumn.WI_STDDEV, row);
+			schedulingInfo.setPerWorkItemStatistics(new DuccPerWorkItemStatistics(max, min, mean, stddev));
+		}
+		job.setSchedulingInfo(schedulingInfo);
+		try {
+			job.setJobState(JobState.valueOf(segment.getString(StringColumn.STATE, row)));
+		}
+		catch(Exception e) {
+			job.setJobState(JobState.Completed);
+		}
+		try {
+			job.setCompletionType(JobCompletionType.valueOf(segment.getString(StringColumn.COMPLETION_TYPE, row)));
+		}
+		catch(Exception e) {
+			// remains undefined
+		}
+		String rationale = segment.getString(StringColumn.RATIONALE, row);
+		if(rationale != null) {
+			job.setCompletionRationale(new Rationale(rationale));
+		}
+		String services = segment.getString(StringColumn.SERVICES, row);
+		if(services != null) {
+			if(services.length() > 0) {
+				job.setServiceDependencies(services.split("\n"));
+			}
+			else {
+				job.setServiceDependencies(new String[0]);
+			}
+		}
+		job.setDebugPortDriver(segment.getLong(LongColumn.DEBUG_DRIVER, row));
+		job.setDebugPortProcess(segment.getLong(LongColumn.DEBUG_PROCESS, row));
+		job.setProcessCounts(
+				segment.getLong(LongColumn.INIT_FAILS, row),
+				segment.getLong(LongColumn.RUN_FAILS, row),
+				segment.getLong(LongColumn.PGIN, row),
+				segment.getDouble(LongColumn.SWAP, row),
+				segment.getDouble(LongColumn.SWAP_MAX, row));
+		return job;
+	}
+}
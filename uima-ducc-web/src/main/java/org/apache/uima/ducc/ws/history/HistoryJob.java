@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+
+/**
+ * A completed job as summarized in the history index: enough of the
+ * standard and scheduling information to list it, with the counts that
+ * are otherwise derived from the (absent) process maps kept as values.
+ */
+public class HistoryJob extends DuccWorkJob {
+
+	private static final long serialVersionUID = 1L;
+	
+	private long initFails = 0;
+	private long runFails = 0;
+	private long pgin = 0;
+	private double swap = 0;
+	private double swapMax = 0;
+	
+	public HistoryJob(DuccId duccId) {
+		super(duccId);
+	}
+	
+	void setProcessCounts(long initFails, long runFails, long pgin, double swap, double swapMax) {
+		this.initFails = initFails;
+		this.runFails = runFails;
+		this.pgin = pgin;
+		this.swap = swap;
+		this.swapMax = swapMax;
+	}
+	
+	@Override
+	public long getProcessInitFailureCount() {
+		return initFails;
+	}
+	
+	@Override
+	public long getProcessFailureCount() {
+		return runFails;
+	}
+	
+	@Override
+	public long getPgInCount() {
+		return pgin;
+	}
+	
+	@Override
+	public double getSwapUsageGb() {
+		return swap;
+	}
+	
+	@Override
+	public double getSwapUsageGbMax() {
+		return swapMax;
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.ws.JobInfo;
+import org.apache.uima.ducc.ws.history.HistorySegment.LongColumn;
+
+/**
+ * A sorted jobs entry backed by a row of the history index. Only the id
+ * is held on heap; the job is rebuilt from the row each time it is asked
+ * for, so callers that only need ordering never touch the columns.
+ */
+public class HistoryJobInfo extends JobInfo {
+
+	private final HistorySegment segment;
+	private final int row;
+	private final long friendly;
+	
+	HistoryJobInfo(HistorySegment segment, int row) {
+		this.segment = segment;
+		this.row = row;
+		this.friendly = segment.getLong(LongColumn.ID, row);
+	}
+	
+	HistorySegment getSegment() {
+		return segment;
+	}
+	
+	@Override
+	public DuccWorkJob getJob() {
+		return HistoryIndex.materialize(segment, row);
+	}
+	
+	@Override
+	public long getFriendly() {
+		return friendly;
+	}
+	
+	@Override
+	public boolean isOperational() {
+		return false;
+	}
+}
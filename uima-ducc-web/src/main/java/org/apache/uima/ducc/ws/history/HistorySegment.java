@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+/**
+ * One memory-mapped file of the history index, holding up to a fixed
+ * number of rows stored column by column.
+ * 
+ * Layout: a header, then one region per long column and one per string
+ * column (each capacity entries wide), then a string heap. String columns
+ * hold the heap offset of a length-prefixed UTF-8 value, or -1 for null;
+ * equal values within a segment share one heap entry, so repeated users,
+ * classes and states cost four bytes per row. A row becomes visible once
+ * the row count in the header is advanced past it.
+ * 
+ * Appends are single threaded (the index serializes them); reads may run
+ * concurrently with an append and see only committed rows.
+ */
+class HistorySegment {
+	
+	enum LongColumn { 
+		ID, SUBMITTED, COMPLETED, 
+		MEMORY_ALLOCATED, PROCESSES_MAX,
+		TOTAL, DONE, ERROR, RETRY, PREEMPT,
+		INIT_FAILS, RUN_FAILS, PGIN, SWAP, SWAP_MAX,
+		WI_MAX, WI_MIN, WI_MEAN, WI_STDDEV,
+		DEBUG_DRIVER, DEBUG_PROCESS
+	};
+	
+	enum StringColumn { 
+		USER, SUBMITTER, DESCRIPTION, LOG_DIRECTORY,
+		SCHEDULING_CLASS, STATE, COMPLETION_TYPE, RATIONALE,
+		MEMORY_UNITS, MEMORY_REQUESTED, SERVICES
+	};
+	
+	private static final int MAGIC = 0x44574849;
+	private static final int VERSION = 1;
+	
+	private static final int H_MAGIC = 0;
+	private static final int H_VERSION = 4;
+	private static final int H_CAPACITY = 8;
+	private static final int H_HEAP_CAPACITY = 12;
+	private static final int H_COUNT = 16;
+	private static final int H_HEAP_USED = 20;
+	private static final int HEADER = 64;
+	
+	private static Charset utf8 = Charset.forName("UTF-8");
+	
+	private final File file;
+	private final int sequence;
+	private final int capacity;
+	private final int heapCapacity;
+	private final int heapBase;
+	private final MappedByteBuffer buffer;
+	
+	private volatile int count;
+	private int heapUsed;
+	
+	// writer only, value to heap offset
+	private HashMap<String,Integer> dictionary = new HashMap<String,Integer>();
+	
+	private HistorySegment(File file, int sequence, int capacity, int heapCapacity, MappedByteBuffer buffer) {
+		this.file = file;
+		this.sequence = sequence;
+		this.capacity = capacity;
+		this.heapCapacity = heapCapacity;
+		this.heapBase = HEADER + (LongColumn.values().length * 8 + StringColumn.values().length * 4) * capacity;
+		this.buffer = buffer;
+	}
+	
+	private static long getSize(int capacity, int heapCapacity) {
+		return HEADER + (long)(LongColumn.values().length * 8 + StringColumn.values().length * 4) * capacity + heapCapacity;
+	}
+	
+	private static MappedByteBuffer map(File file, long size) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			FileChannel channel = raf.getChannel();
+			// the mapping stays valid once the channel is closed
+			return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+		finally {
+			raf.close();
+		}
+	}
+	
+	static HistorySegment create(File file, int sequence, int capacity, int heapCapacity) throws IOException {
+		MappedByteBuffer buffer = map(file, getSize(capacity, heapCapacity));
+		HistorySegment segment = new HistorySegment(file, sequence, capacity, heapCapacity, buffer);
+		buffer.putInt(H_CAPACITY, capacity);
+		buffer.putInt(H_HEAP_CAPACITY, heapCapacity);
+		buffer.putInt(H_COUNT, 0);
+		buffer.putInt(H_HEAP_USED, 0);
+		buffer.putInt(H_VERSION, VERSION);
+		buffer.putInt(H_MAGIC, MAGIC);
+		buffer.force();
+		return segment;
+	}
+	
+	static HistorySegment open(File file, int sequence) throws IOException {
+		long length = file.length();
+		if(length < HEADER) {
+			throw new IOException("truncated: "+file);
+		}
+		MappedByteBuffer header = map(file, HEADER);
+		if(header.getInt(H_MAGIC) != MAGIC) {
+			throw new IOException("not a history segment: "+file);
+		}
+		if(header.getInt(H_VERSION) != VERSION) {
+			throw new IOException("unsupported version "+header.getInt(H_VERSION)+": "+file);
+		}
+		int capacity = header.getInt(H_CAPACITY);
+		int heapCapacity = header.getInt(H_HEAP_CAPACITY);
+		if(capacity <= 0 || heapCapacity <= 0 || length != getSize(capacity, heapCapacity)) {
+			throw new IOException("bad size: "+file);
+		}
+		MappedByteBuffer buffer = map(file, length);
+		HistorySegment segment = new HistorySegment(file, sequence, capacity, heapCapacity, buffer);
+		int count = buffer.getInt(H_COUNT);
+		int heapUsed = buffer.getInt(H_HEAP_USED);
+		if(count < 0 || count > capacity || heapUsed < 0 || heapUsed > heapCapacity) {
+			throw new IOException("bad header: "+file);
+		}
+		segment.heapUsed = heapUsed;
+		segment.count = count;
+		// after a crash the header may have reached the disk ahead of the heap it counts
+		for(int row = 0; row < count; row++) {
+			for(StringColumn column : StringColumn.values()) {
+				int offset = segment.getOffset(column, row);
+				if(offset >= 0) {
+					if(!segment.isString(offset)) {
+						throw new IOException("bad row "+row+": "+file);
+					}
+					segment.dictionary.put(segment.readString(offset), offset);
+				}
+				else if(offset != -1) {
+					throw new IOException("bad row "+row+": "+file);
+				}
+			}
+		}
+		return segment;
+	}
+	
+	File getFile() {
+		return file;
+	}
+	
+	int getSequence() {
+		return sequence;
+	}
+	
+	int getCount() {
+		return count;
+	}
+	
+	int getHeapUsed() {
+		return heapUsed;
+	}
+	
+	boolean isFull() {
+		return count >= capacity;
+	}
+	
+	private int getPosition(LongColumn column, int row) {
+		return HEADER + (column.ordinal() * capacity + row) * 8;
+	}
+	
+	private int getPosition(StringColumn column, int row) {
+		return HEADER + LongColumn.values().length * capacity * 8 + (column.ordinal() * capacity + row) * 4;
+	}
+	
+	long getLong(LongColumn column, int row) {
+		return buffer.getLong(getPosition(column, row));
+	}
+	
+	double getDouble(LongColumn column, int row) {
+		return Double.longBitsToDouble(getLong(column, row));
+	}
+	
+	private int getOffset(StringColumn column, int row) {
+		return buffer.getInt(getPosition(column, row));
+	}
+	
+	// whether a string lies wholly within the used heap
+	private boolean isString(int offset) {
+		boolean retVal = false;
+		if(offset <= heapUsed - 4) {
+			int length = buffer.getInt(heapBase + offset);
+			retVal = (length >= 0) && (length <= heapUsed - offset - 4);
+		}
+		return retVal;
+	}
+	
+	private String readString(int offset) {
+		ByteBuffer view = buffer.duplicate();
+		view.position(heapBase + offset);
+		int length = view.getInt();
+		byte[] bytes = new byte[length];
+		view.get(bytes);
+		return new String(bytes, utf8);
+	}
+	
+	String getString(StringColumn column, int row) {
+		String retVal = null;
+		int offset = getOffset(column, row);
+		if(offset >= 0) {
+			retVal = readString(offset);
+		}
+		return retVal;
+	}
+	
+	/**
+	 * @return the row written, or -1 if the segment has no room for it
+	 */
+	int append(long[] longs, String[] strings) {
+		int retVal = -1;
+		if(count < capacity) {
+			int needed = 0;
+			byte[][] encoded = new byte[strings.length][];
+			for(int i = 0; i < strings.length; i++) {
+				String value = strings[i];
+				if(value != null) {
+					if(!dictionary.containsKey(value)) {
+						encoded[i] = value.getBytes(utf8);
+						needed += 4 + encoded[i].length;
+					}
+				}
+			}
+			if(heapUsed + needed <= heapCapacity) {
+				int row = count;
+				for(int i = 0; i < strings.length; i++) {
+					String value = strings[i];
+					int offset = -1;
+					if(value != null) {
+						Integer known = dictionary.get(value);
+						if(known != null) {
+							offset = known;
+						}
+						else {
+							offset = heapUsed;
+							ByteBuffer view = buffer.duplicate();
+							view.position(heapBase + offset);
+							view.putInt(encoded[i].length);
+							view.put(encoded[i]);
+							heapUsed += 4 + encoded[i].length;
+							dictionary.put(value, offset);
+						}
+					}
+					buffer.putInt(getPosition(StringColumn.values()[i], row), offset);
+				}
+				for(int i = 0; i < longs.length; i++) {
+					buffer.putLong(getPosition(LongColumn.values()[i], row), longs[i]);
+				}
+				buffer.putInt(H_HEAP_USED, heapUsed);
+				// commit
+				buffer.putInt(H_COUNT, row + 1);
+				count = row + 1;
+				retVal = row;
+			}
+		}
+		return retVal;
+	}
+	
+	void force() {
+		buffer.force();
+	}
+	
+	/**
+	 * Done appending; the dictionary is only needed by the writer.
+	 */
+	void seal() {
+		force();
+		dictionary = new HashMap<String,Integer>();
+	}
+}
@@ -21,6 +21,7 @@ package org.apache.uima.ducc.ws.registry;
 import java.util.ArrayList;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.uima.ducc.common.persistence.services.IStateServices;
 import org.apache.uima.ducc.common.persistence.services.StateServicesDirectory;
@@ -43,6 +44,9 @@ public class ServicesRegistry {
 	
 	private AtomicBoolean inProgress = new AtomicBoolean(false);
 	
+	// bumped on each refresh, so views rendered from the registry can be reused until then
+	private AtomicLong generation = new AtomicLong(0);
+	
 	public static ServicesRegistry getInstance() {
 		return instance;
 	}
@@ -89,12 +93,17 @@ public class ServicesRegistry {
 			map = mapRevised;
 			logger.debug(location, jobid, "size: "+map.size());
 			ServicesSortCache.getInstance().update(map);
+			generation.incrementAndGet();
 		}
 		catch(Exception e) {
 			logger.error(location, jobid, e);
 		}
 	}
 	
+	public long getGeneration() {
+		return generation.get();
+	}
+	
 	public ServicesRegistryMap getMap() {
 		return map;
 	}
@@ -19,13 +19,16 @@
 package org.apache.uima.ducc.ws.server;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 
 import org.apache.uima.ducc.common.utils.AlienAbstract;
 import org.apache.uima.ducc.common.utils.DuccLogger;
 import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.IAlienFileAccess;
 import org.apache.uima.ducc.common.utils.Utils;
 import org.apache.uima.ducc.ws.utils.alien.EffectiveUser;
 
@@ -45,6 +48,7 @@ public class AlienTextFile extends AlienAbstract {
 	
 	private static int sizeBlockDd = 512;
 	private static int sizeDefault = 0;
+	private static long sizeUnavailable = -2;
 	
 	private static int page_bytes = 64*4096;
 	
@@ -186,9 +190,32 @@ public class AlienTextFile extends AlienAbstract {
 		return retVal;
 	}
 	
+	/*
+	 * Returns the size from the file access service, -1 if the file is
+	 * unreadable, or sizeUnavailable if du must be used.
+	 */
+	private long getSize() {
+		String location = "getSize";
+		IAlienFileAccess access = getFileAccess();
+		if(access != null) {
+			try {
+				return access.size(user, file_name);
+			}
+			catch(IOException e) {
+				duccLogger.debug(location, duccId, e.getMessage());
+			}
+		}
+		return sizeUnavailable;
+	}
+	
 	public int getByteSize() {
 		String location = "getByteSize";
 		int retVal = sizeDefault;
+		long size = getSize();
+		if(size != sizeUnavailable) {
+			duccLogger.debug(location, duccId, size);
+			return (size < 0) ? sizeDefault : (int) size;
+		}
 		try {
 			String text = getDu();
 			if(text != null) {
@@ -224,9 +251,35 @@ public class AlienTextFile extends AlienAbstract {
 		return command;
 	}
 	
+	/*
+	 * Returns what dd would for the same blocks, or null if dd must be used.
+	 */
+	private String getRange(int skip, int count) {
+		String location = "getRange";
+		IAlienFileAccess access = getFileAccess();
+		if(access != null) {
+			try {
+				byte[] bytes = access.read(user, file_name, ((long) skip)*sizeBlockDd, ((long) count)*sizeBlockDd);
+				if(bytes == null) {
+					return "";
+				}
+				return lines(new InputStreamReader(new ByteArrayInputStream(bytes)));
+			}
+			catch(IOException e) {
+				duccLogger.debug(location, duccId, e.getMessage());
+			}
+		}
+		return null;
+	}
+	
 	private String getDd(int skip, int count) throws Throwable {
 		String location = "getDd";
-		String data = "";
+		String data = getRange(skip, count);
+		if(data != null) {
+			trace("data size:"+data.length());
+			return data;
+		}
+		data = "";
 		try {
 			String[] command = buildCommandDd(skip, count);
 			data = getResult(command);
@@ -326,7 +326,7 @@ public abstract class DuccAbstractHandler extends AbstractHandler {
 		return retVal;
 	}
 
-	private ArrayList<String> getUsers(String usersString) {
+	protected ArrayList<String> getUsers(String usersString) {
 		ArrayList<String> userRecords = new ArrayList<String>();
 		try {
 			String[] users = usersString.split("\\s+");
@@ -833,9 +833,7 @@ public abstract class DuccAbstractHandler extends AbstractHandler {
 
 	public String buildInitializeFailuresLink(IDuccWorkJob job) {
 		StringBuffer sb = new StringBuffer();
-		IDuccProcessMap processMap = job.getProcessMap();
-		ArrayList<DuccId> list = processMap.getFailedInitialization();
-		int count = list.size();
+		long count = job.getProcessInitFailureCount();
 		if(count > 0) {
 			String href = "/ducc-servlet/job-initialization-fail-data?id="+job.getDuccId();
 			String anchor = "<a class=\"logfileLink\" title=\""+job.getDuccId()+" init fails"+"\" href=\""+href+"\" rel=\""+href+"\">"+count+"</a>";
@@ -850,9 +848,7 @@ public abstract class DuccAbstractHandler extends AbstractHandler {
 
 	public String buildRuntimeFailuresLink(IDuccWorkJob job) {
 		StringBuffer sb = new StringBuffer();
-		IDuccProcessMap processMap = job.getProcessMap();
-		ArrayList<DuccId> list = processMap.getFailedNotInitialization();
-		int count = list.size();
+		long count = job.getProcessFailureCount();
 		if(count > 0) {
 			String href = "/ducc-servlet/job-runtime-fail-data?id="+job.getDuccId();
 			String anchor = "<a class=\"logfileLink\" title=\""+job.getDuccId()+" run fails"+"\" href=\""+href+"\" rel=\""+href+"\">"+count+"</a>";
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.uima.ducc.common.json.MonitorInfo;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+import org.apache.uima.ducc.transport.event.OrchestratorStateDuccEvent;
+import org.apache.uima.ducc.transport.event.common.DuccWorkJob;
+import org.apache.uima.ducc.transport.event.common.IDuccSchedulingInfo;
+import org.apache.uima.ducc.transport.event.common.IDuccWork;
+import org.apache.uima.ducc.transport.event.common.IDuccWorkMap;
+import org.apache.uima.ducc.ws.DuccData;
+import org.apache.uima.ducc.ws.server.IWebMonitor.MonitorType;
+
+import com.google.gson.Gson;
+
+/**
+ * Pushes changes to subscribed clients as Orchestrator publications arrive,
+ * as an alternative to polling the WS pages or proxy-*-status servlets.
+ * 
+ * Each subscription is an open text/event-stream response.  Per publication
+ * a subscriber is sent one "work" event for each job, reservation or service
+ * that matches its filter (id, user) and has changed since last sent, or 
+ * with monitor=<type> one "monitor" event when the monitor status of its id 
+ * has changed.  When nothing changed a comment is sent instead, so that 
+ * departed subscribers are noticed and idle connections kept open.
+ * 
+ * Events are composed by one thread, never by the thread delivering the
+ * publication, which also extends the auto-cancel expiry of monitored ids.
+ * It never blocks on a client: each subscriber has its own bounded queue
+ * written without blocking (see EventStreamWriter), and a subscriber that 
+ * falls max.queued publications behind is disconnected.  Should composing 
+ * itself fall behind, the oldest pending publication is skipped; the next
+ * one brings every subscriber up to date.
+ */
+public class DuccEventStream {
+	
+	private static DuccLogger duccLogger = DuccLogger.getLogger(DuccEventStream.class);
+	private static DuccId jobid = null;
+	
+	private static DuccEventStream instance = new DuccEventStream();
+	
+	public static DuccEventStream getInstance() {
+		return instance;
+	}
+	
+	public static final String eventWork = "work";
+	public static final String eventMonitor = "monitor";
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final byte[] ping = ": ping\n\n".getBytes(UTF8);
+	
+	private boolean enabled = true;
+	private int maxSubscriptions = 256;
+	private int maxQueued = 8;
+	
+	private ConcurrentHashMap<Subscription,Subscription> subscriptions = new ConcurrentHashMap<Subscription,Subscription>();
+	
+	private ExecutorService composer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, 
+		new ArrayBlockingQueue<Runnable>(4), 
+		new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "DuccEventStream");
+				thread.setDaemon(true);
+				return thread;
+			}
+		},
+		new ThreadPoolExecutor.DiscardOldestPolicy());
+	
+	private Gson gson = new Gson();
+	
+	private DuccEventStream() {
+		String location = "DuccEventStream";
+		DuccPropertiesResolver dpr = DuccPropertiesResolver.getInstance();
+		String value = dpr.getProperty(DuccPropertiesResolver.ducc_ws_event_stream_enabled);
+		enabled = !"false".equalsIgnoreCase(value);
+		maxSubscriptions = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_event_stream_max_subscriptions, maxSubscriptions);
+		maxQueued = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_event_stream_max_queued, maxQueued);
+		duccLogger.info(location, jobid, "enabled:"+enabled+" "+"max.subscriptions:"+maxSubscriptions+" "+"max.queued:"+maxQueued);
+	}
+	
+	/**
+	 * The compact form of a job, reservation or service sent as a "work" event.
+	 */
+	public static class WorkNotification {
+		public String type;
+		public String id;
+		public String user;
+		public String state;
+		public String procs;
+		public String total;
+		public String done;
+		public String error;
+		public String retry;
+		
+		public WorkNotification(IDuccWork dw) {
+			type = ""+dw.getDuccType();
+			id = ""+dw.getDuccId().getFriendly();
+			user = getUser(dw);
+			state = ""+dw.getStateObject();
+			if(dw instanceof DuccWorkJob) {
+				DuccWorkJob dwj = (DuccWorkJob) dw;
+				procs = ""+dwj.getProcessMap().getAliveProcessCount();
+			}
+			IDuccSchedulingInfo si = dw.getSchedulingInfo();
+			if(si != null) {
+				total = si.getWorkItemsTotal();
+				done = si.getWorkItemsCompleted();
+				error = ""+si.getIntWorkItemsError();
+				retry = si.getWorkItemsRetry();
+			}
+		}
+	}
+	
+	private static String getUser(IDuccWork dw) {
+		String retVal = null;
+		try {
+			retVal = dw.getStandardInfo().getUser().trim();
+		}
+		catch(Exception e) {
+			// no user
+		}
+		return retVal;
+	}
+	
+	private class Subscription implements AsyncListener, EventStreamWriter.Listener {
+		
+		private AsyncContext asyncContext;
+		private EventStreamWriter writer;
+		private MonitorType monitorType;
+		private Long id;
+		private String user;
+		private String remote;
+		
+		// last sent, touched only by the composer thread
+		private String lastMonitor = null;
+		private Map<DuccId,String> lastWork = new HashMap<DuccId,String>();
+		
+		Subscription(AsyncContext asyncContext, MonitorType monitorType, Long id, String user, String remote) {
+			this.asyncContext = asyncContext;
+			this.monitorType = monitorType;
+			this.id = id;
+			this.user = user;
+			this.remote = remote;
+		}
+		
+		boolean isMatch(IDuccWork dw) {
+			boolean retVal = true;
+			if(id != null) {
+				if(dw.getDuccId().getFriendly() != id.longValue()) {
+					retVal = false;
+				}
+			}
+			if(user != null) {
+				if(!user.equals(getUser(dw))) {
+					retVal = false;
+				}
+			}
+			return retVal;
+		}
+		
+		public void onComplete(AsyncEvent event) throws IOException {
+			unsubscribe(this);
+		}
+
+		public void onTimeout(AsyncEvent event) throws IOException {
+			unsubscribe(this);
+		}
+
+		public void onError(AsyncEvent event) throws IOException {
+			unsubscribe(this);
+		}
+
+		public void onStartAsync(AsyncEvent event) throws IOException {
+		}
+		
+		public void onClosed(EventStreamWriter writer, Throwable throwable) {
+			String location = "onClosed";
+			if(throwable == null) {
+				duccLogger.warn(location, jobid, this+" "+"dropped, max.queued:"+maxQueued+" "+"reached");
+			}
+			else {
+				duccLogger.debug(location, jobid, this, throwable);
+			}
+			unsubscribe(this);
+			try {
+				asyncContext.complete();
+			}
+			catch(Exception e) {
+				// already complete
+			}
+		}
+		
+		public String toString() {
+			return remote+" "+"monitor:"+monitorType+" "+"id:"+id+" "+"user:"+user;
+		}
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * Turn the request into a subscription.
+	 * 
+	 * @return false if not enabled or too many subscriptions, 
+	 * in which case the response is left untouched
+	 */
+	public boolean subscribe(HttpServletRequest request, HttpServletResponse response, MonitorType monitorType, Long id, String user) throws IOException {
+		String location = "subscribe";
+		boolean retVal = false;
+		if(!enabled) {
+			duccLogger.debug(location, jobid, "disabled");
+		}
+		else if(subscriptions.size() >= maxSubscriptions) {
+			duccLogger.warn(location, jobid, "max.subscriptions:"+maxSubscriptions+" "+"reached");
+		}
+		else {
+			response.setStatus(HttpServletResponse.SC_OK);
+			response.setContentType("text/event-stream;charset=utf-8");
+			DuccWebUtil.noCache(response);
+			AsyncContext asyncContext = request.startAsync();
+			asyncContext.setTimeout(0);
+			final Subscription subscription = new Subscription(asyncContext, monitorType, id, user, request.getRemoteAddr());
+			asyncContext.addListener(subscription);
+			response.flushBuffer();
+			subscription.writer = new EventStreamWriter(response.getOutputStream(), maxQueued, subscription);
+			subscription.writer.start();
+			subscriptions.put(subscription, subscription);
+			duccLogger.info(location, jobid, subscription+" "+"subscriptions:"+subscriptions.size());
+			// bring the new subscriber up to date without waiting for the next publication
+			final IDuccWorkMap live = DuccData.getInstance().getLive();
+			composer.execute(new Runnable() {
+				public void run() {
+					send(subscription, live);
+				}
+			});
+			retVal = true;
+		}
+		return retVal;
+	}
+	
+	private void unsubscribe(Subscription subscription) {
+		String location = "unsubscribe";
+		if(subscriptions.remove(subscription) != null) {
+			duccLogger.info(location, jobid, subscription+" "+"subscriptions:"+subscriptions.size());
+		}
+	}
+	
+	/**
+	 * Called for each Orchestrator publication, after the listeners 
+	 * (including the monitors) have been updated.
+	 */
+	public void publish(OrchestratorStateDuccEvent duccEvent) {
+		if(!subscriptions.isEmpty()) {
+			// the copy kept by DuccData, which unlike the event's map is never modified
+			final IDuccWorkMap map = DuccData.getInstance().getLive();
+			composer.execute(new Runnable() {
+				public void run() {
+					for(Subscription subscription : subscriptions.keySet()) {
+						send(subscription, map);
+					}
+				}
+			});
+		}
+	}
+	
+	private void append(StringBuilder sb, String event, String data) {
+		sb.append("event: ");
+		sb.append(event);
+		sb.append("\n");
+		sb.append("data: ");
+		sb.append(data);
+		sb.append("\n\n");
+	}
+	
+	private void send(Subscription subscription, IDuccWorkMap map) {
+		String location = "send";
+		if(!subscriptions.containsKey(subscription)) {
+			return;
+		}
+		try {
+			StringBuilder sb = new StringBuilder();
+			if(subscription.monitorType != null) {
+				MonitorInfo monitorInfo = DuccWebMonitor.getInstance().peek(subscription.monitorType, ""+subscription.id);
+				if(monitorInfo != null) {
+					String data = gson.toJson(monitorInfo);
+					if(!data.equals(subscription.lastMonitor)) {
+						append(sb, eventMonitor, data);
+						subscription.lastMonitor = data;
+					}
+				}
+			}
+			else if(map != null) {
+				Set<DuccId> present = new HashSet<DuccId>();
+				@SuppressWarnings("unchecked")
+				Iterator<DuccId> iterator = map.keySet().iterator();
+				while(iterator.hasNext()) {
+					DuccId duccId = iterator.next();
+					IDuccWork dw = map.findDuccWork(duccId);
+					if((dw != null) && subscription.isMatch(dw)) {
+						present.add(duccId);
+						String data = gson.toJson(new WorkNotification(dw));
+						if(!data.equals(subscription.lastWork.get(duccId))) {
+							append(sb, eventWork, data);
+							subscription.lastWork.put(duccId, data);
+						}
+					}
+				}
+				// forget what is no longer published
+				subscription.lastWork.keySet().retainAll(present);
+			}
+			// queued, not written here; a subscriber too far behind is dropped by its writer
+			if(sb.length() > 0) {
+				subscription.writer.offer(sb.toString().getBytes(UTF8));
+			}
+			else {
+				subscription.writer.offer(ping);
+			}
+		}
+		catch(Exception e) {
+			duccLogger.debug(location, jobid, subscription, e);
+		}
+	}
+}
@@ -1216,19 +1216,7 @@ public class DuccHandler extends DuccAbstractHandler {
 		String methodName = "findJob";
 		IDuccWorkJob job = null;
 		try {
-			IDuccWorkMap duccWorkMap = DuccData.getInstance().get();
-			if(duccWorkMap.getJobKeySet().size()> 0) {
-				Iterator<DuccId> iterator = null;
-				iterator = duccWorkMap.getJobKeySet().iterator();
-				while(iterator.hasNext()) {
-					DuccId jobId = iterator.next();
-					String fid = ""+jobId.getFriendly();
-					if(jobno.equals(fid)) {
-						job = (DuccWorkJob) duccWorkMap.findDuccWork(jobId);
-						break;
-					}
-				}
-			}
+			job = Helper.getJob(jobno);
 		}
 		catch(Exception e) {
 			duccLogger.trace(methodName, null, "jobno="+jobno, e);
@@ -1248,20 +1236,7 @@ public class DuccHandler extends DuccAbstractHandler {
 		EffectiveUser eu = EffectiveUser.create(request);
 		StringBuffer sb = new StringBuffer();
 		String jobno = request.getParameter("id");
-		IDuccWorkMap duccWorkMap = DuccData.getInstance().get();
-		DuccWorkJob job = null;
-		if(duccWorkMap.getJobKeySet().size()> 0) {
-			Iterator<DuccId> iterator = null;
-			iterator = duccWorkMap.getJobKeySet().iterator();
-			while(iterator.hasNext()) {
-				DuccId jobId = iterator.next();
-				String fid = ""+jobId.getFriendly();
-				if(jobno.equals(fid)) {
-					job = (DuccWorkJob) duccWorkMap.findDuccWork(jobId);
-					break;
-				}
-			}
-		}
+		DuccWorkJob job = Helper.getJob(jobno);
 		if(job != null) {
 			String directory = job.getLogDirectory()+File.separator+job.getId();
 			Map<String, FileInfo> fileInfoMap = getFileInfoMap(eu, directory);
@@ -3933,20 +3908,7 @@ public class DuccHandler extends DuccAbstractHandler {
 		String idPro = request.getParameter(pname_idPro);
 		StringBuffer sb = new StringBuffer();
 
-		IDuccWorkMap duccWorkMap = DuccData.getInstance().get();
-		DuccWorkJob job = null;
-		if(duccWorkMap.getJobKeySet().size()> 0) {
-			Iterator<DuccId> iterator = null;
-			iterator = duccWorkMap.getJobKeySet().iterator();
-			while(iterator.hasNext()) {
-				DuccId jobId = iterator.next();
-				String fid = ""+jobId.getFriendly();
-				if(idJob.equals(fid)) {
-					job = (DuccWorkJob) duccWorkMap.findDuccWork(jobId);
-					break;
-				}
-			}
-		}
+		DuccWorkJob job = Helper.getJob(idJob);
 		if(job != null) {
 			IDuccProcess process = job.getProcess(idPro);
 			if(process != null) {
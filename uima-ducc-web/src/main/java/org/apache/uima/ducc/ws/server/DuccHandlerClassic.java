@@ -503,9 +503,13 @@ public class DuccHandlerClassic extends DuccAbstractHandler {
 			DuccData duccData = DuccData.getInstance();
 			ConcurrentSkipListMap<JobInfo,JobInfo> sortedJobs = duccData.getSortedJobs();
 			if(sortedJobs.size()> 0) {
+				if(DuccWebUtil.isIncludeUsers(request, users)) {
+					sortedJobs = duccData.getSortedJobs(users);
+				}
 				Iterator<Entry<JobInfo, JobInfo>> iterator = sortedJobs.entrySet().iterator();
 				int counter = 0;
-				while(iterator.hasNext()) {
+				// stop at the last row shown, jobs listed from the history index are built on demand
+				while(iterator.hasNext() && ((maxRecords == 0) || (counter < maxRecords))) {
 					JobInfo jobInfo = iterator.next().getValue();
 					DuccWorkJob job = jobInfo.getJob();
 					boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, job);
@@ -1011,6 +1015,9 @@ public class DuccHandlerClassic extends DuccAbstractHandler {
 			long now = System.currentTimeMillis();
 			if((sortedCombinedReservations.size() > 0)) {
 				int counter = 0;
+				if(DuccWebUtil.isIncludeUsers(request, users)) {
+					sortedCombinedReservations = duccData.getSortedCombinedReservations(users);
+				}
 				Iterator<Entry<Info, Info>> iR = sortedCombinedReservations.entrySet().iterator();
 				while(iR.hasNext()) {
 					Info info = iR.next().getValue();
@@ -24,6 +24,7 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ import java.util.TreeMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -127,6 +129,8 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 	
 	private static IDuccHead dh = DuccHead.getInstance();
 	
+	private static JsonRenderCache renderCache = JsonRenderCache.getInstance();
+	
 	//private static PagingObserver pagingObserver = PagingObserver.getInstance();
 	
 	private final String jsonFormatJobsAaData					= duccContextJsonFormat+"-aaData-jobs";
@@ -154,6 +158,89 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		return dir_home+File.separator+dir_resources+File.separator+getDuccWebServer().getClassDefinitionFile();
 	}
 	
+	/*
+	 * Everything about the request that shapes the rendered rows: the page,
+	 * the logged in user and the DUCC cookies, with the user filter lists
+	 * and record limits in canonical form.
+	 */
+	private String getRenderKey(String page, HttpServletRequest request) {
+		StringBuffer sb = new StringBuffer(page);
+		sb.append("|");
+		if(duccWebSessionManager.isAuthentic(request)) {
+			sb.append(duccWebSessionManager.getUserId(request));
+		}
+		TreeMap<String,String> cookies = new TreeMap<String,String>();
+		Cookie[] array = request.getCookies();
+		if(array != null) {
+			for(Cookie cookie : array) {
+				String name = cookie.getName();
+				if((name != null) && name.startsWith(DuccCookies.duccCookiePrefix)) {
+					String value = cookie.getValue();
+					if(name.endsWith(DuccCookies.users)) {
+						ArrayList<String> users = getUsers(value);
+						Collections.sort(users);
+						value = users.toString();
+					}
+					else if(name.endsWith(DuccCookies.max)) {
+						value = ""+ConvertSafely.String2Long(value);
+					}
+					cookies.put(name, value);
+				}
+			}
+		}
+		for(Entry<String,String> entry : cookies.entrySet()) {
+			sb.append("|");
+			sb.append(entry.getKey());
+			sb.append("=");
+			sb.append(entry.getValue());
+		}
+		return sb.toString();
+	}
+	
+	private boolean acceptsGzip(HttpServletRequest request) {
+		String value = request.getHeader("Accept-Encoding");
+		return (value != null) && (value.toLowerCase().indexOf("gzip") >= 0);
+	}
+	
+	private boolean isNotModified(HttpServletRequest request, JsonRenderCache.Entry entry) {
+		String value = request.getHeader("If-None-Match");
+		if(value != null) {
+			for(String tag : value.split(",")) {
+				tag = tag.trim();
+				if(tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if(tag.equals(entry.getEtag()) || tag.equals(entry.getEtagGzip()) || tag.equals("*")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/*
+	 * Send a cached rendering: 304 if the browser already has it, else
+	 * the gzip or plain bytes. Browsers revalidate on every poll.
+	 */
+	private void respond(HttpServletRequest request, HttpServletResponse response, JsonRenderCache.Entry entry) throws IOException {
+		boolean gzip = acceptsGzip(request);
+		response.setContentType("application/json;charset=utf-8");
+		response.setHeader("Cache-Control", "no-cache");
+		response.setHeader("Vary", "Accept-Encoding, Cookie");
+		response.setHeader("ETag", gzip ? entry.getEtagGzip() : entry.getEtag());
+		if(isNotModified(request, entry)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		byte[] body = entry.getBytes();
+		if(gzip) {
+			response.setHeader("Content-Encoding", "gzip");
+			body = entry.getGzipped();
+		}
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+	
 	private JsonArray buildJobRow(HttpServletRequest request, IDuccWorkJob job, DuccData duccData, long now, ServicesRegistry servicesRegistry) {
 		EffectiveUser eu = EffectiveUser.create(request);
 		JsonArray row = new JsonArray();
@@ -598,6 +685,20 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 	{
 		String methodName = "handleServletJsonFormatJobsAaData";
 		duccLogger.trace(methodName, jobid, messages.fetch("enter"));
+		
+		// the same view of the same data renders the same bytes
+		String renderKey = null;
+		long renderVersion = 0;
+		if(!dh.is_ducc_head_backup()) {
+			renderVersion = DuccData.getGeneration()+ServicesRegistry.getInstance().getGeneration();
+			renderKey = getRenderKey(jsonFormatJobsAaData, request);
+			JsonRenderCache.Entry entry = renderCache.get(renderKey, renderVersion);
+			if(entry != null) {
+				respond(request, response, entry);
+				duccLogger.trace(methodName, jobid, messages.fetch("exit"));
+				return;
+			}
+		}
 		JsonObject jsonResponse = new JsonObject();
 		JsonArray data = new JsonArray();
 		if(dh.is_ducc_head_backup()) {
@@ -613,9 +714,13 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			DuccData duccData = DuccData.getInstance();
 			ConcurrentSkipListMap<JobInfo,JobInfo> sortedJobs = duccData.getSortedJobs();
 			if(sortedJobs.size()> 0) {
+				if(DuccWebUtil.isIncludeUsers(request, users)) {
+					sortedJobs = duccData.getSortedJobs(users);
+				}
 				Iterator<Entry<JobInfo, JobInfo>> iterator = sortedJobs.entrySet().iterator();
 				int counter = 0;
-				while(iterator.hasNext()) {
+				// stop at the last row shown, jobs listed from the history index are built on demand
+				while(iterator.hasNext() && ((maxRecords == 0) || (counter < maxRecords))) {
 					JobInfo jobInfo = iterator.next().getValue();
 					DuccWorkJob job = jobInfo.getJob();
 					boolean list = DuccWebUtil.isListable(request, users, maxRecords, counter, job);
@@ -642,8 +747,13 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		
 		String json = jsonResponse.toString();
 		duccLogger.debug(methodName, jobid, json);
-		response.getWriter().println(json);
-		response.setContentType("application/json");
+		if(renderKey != null) {
+			respond(request, response, renderCache.put(renderKey, renderVersion, json));
+		}
+		else {
+			response.getWriter().println(json);
+			response.setContentType("application/json");
+		}
 		
 		duccLogger.trace(methodName, jobid, messages.fetch("exit"));
 	}
@@ -691,19 +801,7 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		DuccWorkJob job = null;
 		String jobno = request.getParameter("id");
 		if(jobno != null) {
-			IDuccWorkMap duccWorkMap = DuccData.getInstance().get();
-			if(duccWorkMap.getJobKeySet().size()> 0) {
-				Iterator<DuccId> iterator = null;
-				iterator = duccWorkMap.getJobKeySet().iterator();
-				while(iterator.hasNext()) {
-					DuccId jobId = iterator.next();
-					String fid = ""+jobId.getFriendly();
-					if(jobno.equals(fid)) {
-						job = (DuccWorkJob) duccWorkMap.findDuccWork(jobId);
-						break;
-					}
-				}
-			}
+			job = Helper.getJob(jobno);
 		}
 		else {
 			jobno = "id=?";
@@ -1353,6 +1451,20 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		String methodName = "handleServletJsonFormatReservationsAaData";
 		duccLogger.trace(methodName, jobid, messages.fetch("enter"));
 		
+		// the same view of the same data renders the same bytes
+		String renderKey = null;
+		long renderVersion = 0;
+		if(!dh.is_ducc_head_backup()) {
+			renderVersion = DuccData.getGeneration();
+			renderKey = getRenderKey(jsonFormatReservationsAaData, request);
+			JsonRenderCache.Entry entry = renderCache.get(renderKey, renderVersion);
+			if(entry != null) {
+				respond(request, response, entry);
+				duccLogger.trace(methodName, jobid, messages.fetch("exit"));
+				return;
+			}
+		}
+		
 		JsonObject jsonResponse = new JsonObject();
 		JsonArray data = new JsonArray();
 
@@ -1369,6 +1481,9 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 			long now = System.currentTimeMillis();			
 			if((sortedCombinedReservations.size() > 0)) {
 				int counter = 0;
+				if(DuccWebUtil.isIncludeUsers(request, users)) {
+					sortedCombinedReservations = duccData.getSortedCombinedReservations(users);
+				}
 				Iterator<Entry<Info, Info>> iR = sortedCombinedReservations.entrySet().iterator();
 				while(iR.hasNext()) {
 					Info info = iR.next().getValue();
@@ -1409,8 +1524,13 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		
 		String json = jsonResponse.toString();
 		duccLogger.debug(methodName, jobid, json);
-		response.getWriter().println(json);
-		response.setContentType("application/json");
+		if(renderKey != null) {
+			respond(request, response, renderCache.put(renderKey, renderVersion, json));
+		}
+		else {
+			response.getWriter().println(json);
+			response.setContentType("application/json");
+		}
 		
 		duccLogger.trace(methodName, jobid, messages.fetch("exit"));
 	}	
@@ -1462,6 +1582,20 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		String methodName = "handleServletJsonFormatServicesAaData";
 		duccLogger.trace(methodName, jobid, messages.fetch("enter"));
 		
+		// the same view of the same data renders the same bytes
+		String renderKey = null;
+		long renderVersion = 0;
+		if(!dh.is_ducc_head_backup()) {
+			renderVersion = DuccData.getGeneration()+ServicesRegistry.getInstance().getGeneration();
+			renderKey = getRenderKey(jsonFormatServicesAaData, request);
+			JsonRenderCache.Entry entry = renderCache.get(renderKey, renderVersion);
+			if(entry != null) {
+				respond(request, response, entry);
+				duccLogger.trace(methodName, jobid, messages.fetch("exit"));
+				return;
+			}
+		}
+		
 		JsonObject jsonResponse = new JsonObject();
 		JsonArray data = new JsonArray();
 
@@ -1772,8 +1906,13 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 		
 		String json = jsonResponse.toString();
 		duccLogger.debug(methodName, jobid, json);
-		response.getWriter().println(json);
-		response.setContentType("application/json");
+		if(renderKey != null) {
+			respond(request, response, renderCache.put(renderKey, renderVersion, json));
+		}
+		else {
+			response.getWriter().println(json);
+			response.setContentType("application/json");
+		}
 		
 		duccLogger.trace(methodName, jobid, messages.fetch("exit"));
 	}		
@@ -2756,7 +2895,10 @@ public class DuccHandlerJsonFormat extends DuccAbstractHandler {
 				response.setStatus(HttpServletResponse.SC_OK);
 				baseRequest.setHandled(true);
 				handleDuccRequest(target, baseRequest, request, response);
-				DuccWebUtil.noCache(response);
+				// cached renderings carry an ETag and are revalidated instead
+				if(!response.containsHeader("ETag")) {
+					DuccWebUtil.noCache(response);
+				}
 			}
 		}
 		catch(Throwable t) {
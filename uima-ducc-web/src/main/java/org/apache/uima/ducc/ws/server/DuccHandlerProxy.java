@@ -47,7 +47,10 @@ public class DuccHandlerProxy extends DuccAbstractHandler {
 	public final String proxyManagedReservationStatus			= duccContextProxy+"-managed-reservation-status";
 	public final String proxyManagedReservationMonitorReport	= duccContextProxy+"-managed-reservation-monitor-report";
 	
+	public final String proxyEventStream	= duccContextProxy+"-event-stream";
+	
 	DuccWebMonitor duccWebMonitor = DuccWebMonitor.getInstance();
+	DuccEventStream duccEventStream = DuccEventStream.getInstance();
 
 	private boolean isIdMissing(String id) {
 		boolean retVal = false;
@@ -236,6 +239,77 @@ public class DuccHandlerProxy extends DuccAbstractHandler {
 		duccLogger.trace(location, jobid, "exit");
 	}
 	
+	private MonitorType getMonitorType(String monitor) {
+		MonitorType retVal = null;
+		if(monitor.equals("job")) {
+			retVal = MonitorType.Job;
+		}
+		else if(monitor.equals("managed-reservation")) {
+			retVal = MonitorType.ManagedReservation;
+		}
+		else if(monitor.equals("reservation")) {
+			retVal = MonitorType.UnmanagedReservation;
+		}
+		return retVal;
+	}
+	
+	private String getParameter(HttpServletRequest request, String name) {
+		String retVal = request.getParameter(name);
+		if(retVal != null) {
+			retVal = retVal.trim();
+		}
+		else {
+			retVal = "";
+		}
+		return retVal;
+	}
+	
+	private void handleServletEventStream(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) 
+	throws IOException, ServletException
+	{
+		String location = "handleServletEventStream";
+		duccLogger.trace(location, jobid, "enter");
+		duccLogger.info(location, jobid, request.toString());
+		
+		String id = getParameter(request, "id");
+		String user = getParameter(request, "user");
+		String monitor = getParameter(request, "monitor");
+		
+		MonitorType monitorType = getMonitorType(monitor);
+		
+		if((monitor.length() > 0) && (monitorType == null)) {
+			String message = "monitor invalid";
+			duccLogger.info(location, jobid, message);
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, message);
+		}
+		else if((monitorType != null) && isIdMissing(id)) {
+			String message = "id missing";
+			duccLogger.info(location, jobid, message);
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, message);
+		}
+		else if(!isIdMissing(id) && isIdInvalid(id)) {
+			String message = "id invalid";
+			duccLogger.info(location, jobid, message);
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, message);
+		}
+		else {
+			Long lid = null;
+			if(!isIdMissing(id)) {
+				lid = Long.valueOf(id);
+			}
+			if(isIdMissing(user)) {
+				user = null;
+			}
+			if(!duccEventStream.subscribe(request, response, monitorType, lid, user)) {
+				String message = "event stream unavailable";
+				duccLogger.info(location, jobid, message);
+				response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, message);
+			}
+		}
+		
+		duccLogger.trace(location, jobid, "exit");
+	}
+	
 	private void handleServletUnknown(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) 
 	throws IOException, ServletException
 	{
@@ -271,6 +345,9 @@ public class DuccHandlerProxy extends DuccAbstractHandler {
 		else if(reqURI.startsWith(proxyReservationMonitorReport)) {
 			handleServletReservationMonitorReport(target, baseRequest, request, response);
 		}
+		else if(reqURI.startsWith(proxyEventStream)) {
+			handleServletEventStream(target, baseRequest, request, response);
+		}
 		else {
 			handleServletUnknown(target, baseRequest, request, response);
 		}
@@ -206,6 +206,29 @@ public class DuccWebMonitor implements IListenerOrchestrator, IWebMonitor {
 	}
 
 	
+	public MonitorInfo peek(MonitorType monitorType, String id) {
+		MonitorInfo monitorInfo = null;
+		if(monitorType != null) {
+			if(id != null) {
+				switch(monitorType) {
+				case Job:
+					monitorInfo = duccWebMonitorJob.peek(id);
+					break;
+				case ManagedReservation:
+					monitorInfo = duccWebMonitorManagedReservation.peek(id);
+					break;
+				case UnmanagedReservation:
+					monitorInfo = duccWebMonitorReservation.peek(id);
+					break;
+				default:
+					break;
+				}
+			}
+		}
+		return monitorInfo;
+	}
+
+	
 	public Long getExpiry(MonitorType monitorType, DuccId duccId) {
 		Long expiry = null;
 		if(monitorType != null) {
@@ -267,6 +267,25 @@ public class DuccWebMonitorReservation {
 		return monitorInfo;
 	}
 	
+	/**
+	 * Like renew, but never waits for the id to appear: returns null if not (yet) monitored.
+	 */
+	protected MonitorInfo peek(String jobId) {
+		String location = "peek";
+		MonitorInfo monitorInfo = null;
+		DuccId duccId = getKey(jobId);
+		if(duccId != null) {
+			monitorInfo = mMap.get(duccId);
+			if(tMap.containsKey(duccId)) {
+				long expiryMillis = System.currentTimeMillis()+timeoutMillis+1;
+				TrackingInfo ti = tMap.get(duccId);
+				ti.time = expiryMillis;
+				duccLogger.debug(location, duccId, "auto-cancel expiry extended");
+			}
+		}
+		return monitorInfo;
+	}
+
 	protected Long getExpiry(DuccId duccId) {
 		String location = "getExpiry";
 		duccLogger.trace(location, duccId, "enter");
@@ -72,6 +72,26 @@ public class DuccWebUtil {
 		return retVal;
 	}
 	
+	/**
+	 * @return true if only the given users are to be listed, 
+	 * so the per-user views of DuccData may be used in place of the full ones
+	 */
+	public static final boolean isIncludeUsers(HttpServletRequest request, ArrayList<String> users) {
+		boolean retVal = false;
+		if(!users.isEmpty()) {
+			DuccCookies.FilterUsersStyle filterUsersStyle = DuccCookies.getFilterUsersStyle(request);
+			switch(filterUsersStyle) {
+			case IncludePlusActive:	// deprecated, treat same as include
+			case Include:
+				retVal = true;
+				break;
+			default:
+				break;
+			}
+		}
+		return retVal;
+	}
+	
 	public static final boolean isListable(HttpServletRequest request, ArrayList<String> users, int maxRecords, int counter, IDuccWork dw) {
 		String user = dw.getStandardInfo().getUser().trim();
 		return isListable(request, users, maxRecords, counter, user);
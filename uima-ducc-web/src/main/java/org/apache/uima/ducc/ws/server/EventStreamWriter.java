@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.IOException;
+import java.util.LinkedList;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * Writes the frames for one event stream subscriber without blocking.
+ * 
+ * Frames are queued and written only while the container reports the
+ * output ready, the rest being written when it calls back.  Thus a slow
+ * client never holds a thread.  A client that lets more than maxQueued 
+ * frames pile up is given up on.
+ */
+public class EventStreamWriter implements WriteListener {
+	
+	public interface Listener {
+		/**
+		 * Called once, when the writer is closed because the client fell
+		 * too far behind (throwable is null) or the output failed.
+		 */
+		public void onClosed(EventStreamWriter writer, Throwable throwable);
+	}
+	
+	private ServletOutputStream out;
+	private int maxQueued;
+	private Listener listener;
+	
+	private LinkedList<byte[]> queue = new LinkedList<byte[]>();
+	
+	// nothing is written until the container first calls onWritePossible
+	private boolean waiting = true;
+	private boolean unflushed = false;
+	private boolean closed = false;
+	
+	public EventStreamWriter(ServletOutputStream out, int maxQueued, Listener listener) {
+		this.out = out;
+		this.maxQueued = maxQueued;
+		this.listener = listener;
+	}
+	
+	/**
+	 * Put the output into non-blocking mode.
+	 */
+	public void start() {
+		out.setWriteListener(this);
+	}
+	
+	/**
+	 * Queue a frame, writing as much as the output will take now.
+	 * 
+	 * @return false if the writer is (now) closed
+	 */
+	public boolean offer(byte[] frame) {
+		Throwable failure = null;
+		boolean overflow = false;
+		synchronized(this) {
+			if(closed) {
+				return false;
+			}
+			if(queue.size() >= maxQueued) {
+				overflow = true;
+			}
+			else {
+				queue.add(frame);
+				if(!waiting) {
+					try {
+						write();
+					}
+					catch(Throwable t) {
+						failure = t;
+					}
+				}
+			}
+		}
+		if(overflow || (failure != null)) {
+			close(failure);
+			return false;
+		}
+		return true;
+	}
+	
+	public synchronized int getQueued() {
+		return queue.size();
+	}
+	
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+	
+	public void onWritePossible() throws IOException {
+		synchronized(this) {
+			waiting = false;
+			if(!closed) {
+				write();
+			}
+		}
+	}
+	
+	public void onError(Throwable throwable) {
+		close(throwable);
+	}
+	
+	// caller holds the lock
+	private void write() throws IOException {
+		while(!closed) {
+			if(!out.isReady()) {
+				// the container calls onWritePossible when there is room
+				waiting = true;
+				return;
+			}
+			byte[] frame = queue.poll();
+			if(frame != null) {
+				out.write(frame);
+				unflushed = true;
+			}
+			else if(unflushed) {
+				out.flush();
+				unflushed = false;
+			}
+			else {
+				return;
+			}
+		}
+	}
+	
+	private void close(Throwable throwable) {
+		synchronized(this) {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			queue.clear();
+		}
+		listener.onClosed(this, throwable);
+	}
+}
@@ -81,6 +81,10 @@ public class Helper {
 				}
 			}
 		}
+		if(job == null) {
+			// listed from the history index only
+			job = (DuccWorkJob) DuccData.getInstance().getHistoryJob(jobNo);
+		}
 		return job;
 	}
 	
@@ -43,6 +43,7 @@ public interface IWebMonitor {
 	public void register(String host, String port);
 	public boolean isAutoCancelEnabled();
 	public MonitorInfo renew(MonitorType monitorType, String id);
+	public MonitorInfo peek(MonitorType monitorType, String id);
 	public Long getExpiry(MonitorType monitorType, DuccId duccId);
 	public ConcurrentHashMap<DuccId,Long> getExpiryMap(MonitorType monitorType);
 	public boolean isCanceled(MonitorType monitorType, DuccId duccId);
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Rendered JSON responses, kept until the data they were rendered from changes.
+ * 
+ * Each entry is stored under a key describing the request (page plus the user
+ * and cookie settings that shape the rows) together with the version of the
+ * data it was rendered from. An entry is only returned for the same version;
+ * the first store for a newer version discards everything older. Entries hold
+ * the UTF-8 bytes, a gzip copy and an ETag so a poll with an unchanged view is
+ * answered with a copy or a 304 rather than a re-render.
+ */
+public class JsonRenderCache {
+	
+	private static DuccLogger logger = DuccLogger.getLogger(JsonRenderCache.class);
+	private static DuccId jobid = null;
+	
+	private static JsonRenderCache instance = new JsonRenderCache();
+	
+	private static Charset utf8 = Charset.forName("UTF-8");
+	
+	private static long maxBytes = 64*1024*1024;
+	
+	public static JsonRenderCache getInstance() {
+		return instance;
+	}
+	
+	public static class Entry {
+		
+		private long version;
+		private byte[] bytes;
+		private byte[] gzipped;
+		private String etag;
+		
+		private Entry(long version, byte[] bytes, byte[] gzipped, String etag) {
+			this.version = version;
+			this.bytes = bytes;
+			this.gzipped = gzipped;
+			this.etag = etag;
+		}
+		
+		public byte[] getBytes() {
+			return bytes;
+		}
+		
+		public byte[] getGzipped() {
+			return gzipped;
+		}
+		
+		/**
+		 * Strong validator for the uncompressed bytes; the gzip
+		 * variant is this with "-gz" inside the quotes.
+		 */
+		public String getEtag() {
+			return etag;
+		}
+		
+		public String getEtagGzip() {
+			return etag.substring(0, etag.length()-1)+"-gz\"";
+		}
+		
+		private long size() {
+			return bytes.length+gzipped.length;
+		}
+	}
+	
+	private LinkedHashMap<String, Entry> map = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private long version = Long.MIN_VALUE;
+	private long bytes = 0;
+	
+	private JsonRenderCache() {
+	}
+	
+	/**
+	 * @return the entry rendered for this key from this version of the data, or null
+	 */
+	public synchronized Entry get(String key, long version) {
+		Entry entry = map.get(key);
+		if(entry != null) {
+			if(entry.version == version) {
+				return entry;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Serialize and remember the response rendered for key from the given
+	 * version of the data. The entry is returned even if it was too old to keep.
+	 */
+	public Entry put(String key, long version, String json) throws IOException {
+		String location = "put";
+		byte[] data = (json+"\n").getBytes(utf8);
+		Entry entry = new Entry(version, data, gzip(data), etag(data));
+		synchronized(this) {
+			if(version > this.version) {
+				logger.debug(location, jobid, "version:"+version+" "+"discard:"+map.size());
+				map.clear();
+				bytes = 0;
+				this.version = version;
+			}
+			if(version == this.version) {
+				Entry previous = map.put(key, entry);
+				if(previous != null) {
+					bytes -= previous.size();
+				}
+				bytes += entry.size();
+				trim();
+			}
+		}
+		return entry;
+	}
+	
+	// least recently used first
+	private void trim() {
+		Iterator<Map.Entry<String, Entry>> iterator = map.entrySet().iterator();
+		while((bytes > maxBytes) && iterator.hasNext()) {
+			bytes -= iterator.next().getValue().size();
+			iterator.remove();
+		}
+	}
+	
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(64, data.length/4));
+		GZIPOutputStream gos = new GZIPOutputStream(baos);
+		gos.write(data);
+		gos.close();
+		return baos.toByteArray();
+	}
+	
+	private static String etag(byte[] data) {
+		StringBuilder sb = new StringBuilder("\"");
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			for(byte b : md.digest(data)) {
+				sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+				sb.append(Character.forDigit(b & 0xf, 16));
+			}
+		}
+		catch(Exception e) {
+			sb.append(Integer.toHexString(Arrays.hashCode(data)));
+			sb.append(Integer.toHexString(data.length));
+		}
+		sb.append("\"");
+		return sb.toString();
+	}
+}
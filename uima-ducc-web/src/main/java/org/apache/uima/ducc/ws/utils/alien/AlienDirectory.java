@@ -21,8 +21,12 @@ package org.apache.uima.ducc.ws.utils.alien;
 import java.io.BufferedReader;
 import java.io.DataInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -182,10 +186,7 @@ public class AlienDirectory extends AlienAbstract {
 					else {
 						type = "f";
 						logger.debug(location, jobid, type+" "+count+" "+line);
-						String reldir = parent.replace(get_directory_name(), "");
-						if(reldir.startsWith(File.separator)) {
-							reldir = reldir.replace(File.separator, ".");
-						}
+						String reldir = reldir(parent);
 						String permissions = elements[indexPermissions];
 						String user = elements[indexUser];
 						String group = elements[indexGroup];
@@ -216,19 +217,65 @@ public class AlienDirectory extends AlienAbstract {
 		return map;
 	}
 	
-	public TreeMap<String, FileInfo> getMap() {
-		String location = "getMap";
-		long start = System.currentTimeMillis();
-		TreeMap<String, FileInfo> map = new TreeMap<String, FileInfo>();
-		String result = null;
+	private String reldir(String parent) {
+		String reldir = parent.replace(get_directory_name(), "");
+		if(reldir.startsWith(File.separator)) {
+			reldir = reldir.replace(File.separator, ".");
+		}
+		return reldir;
+	}
+	
+	/*
+	 * Same result as transform() but from the file access helper;
+	 * returns null if there is no helper available.
+	 */
+	private TreeMap<String, FileInfo> transform() {
+		String location = "transform";
+		FileAccessBroker broker = FileAccessBroker.getInstance();
+		if(broker == null) {
+			return null;
+		}
+		List<FileAccessBroker.ListEntry> entries;
 		try {
-			result = getString();
+			entries = broker.list(user, get_directory_name(), isRecursive());
 		}
-		catch(Exception e) {
+		catch(IOException e) {
+			logger.debug(location, jobid, e.getMessage());
+			return null;
 		}
-		if(result != null) {
-			String[] lines = result.split(newline);
-			map = transform(lines);
+		TreeMap<String, FileInfo> map = new TreeMap<String, FileInfo>();
+		if(entries != null) {
+			SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+			SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm");
+			for(FileAccessBroker.ListEntry entry : entries) {
+				if(entry.directory) {
+					continue;
+				}
+				Date modified = new Date(entry.modified);
+				String name = (entry.parent+File.separator+entry.name).replace(File.separator+File.separator, File.separator);
+				FileInfo fi = new FileInfo(reldir(entry.parent), entry.permissions, entry.owner, entry.group, entry.size, dateFormat.format(modified), timeFormat.format(modified), name);
+				put(map, name, fi);
+			}
+		}
+		return map;
+	}
+	
+	public TreeMap<String, FileInfo> getMap() {
+		String location = "getMap";
+		long start = System.currentTimeMillis();
+		TreeMap<String, FileInfo> map = transform();
+		if(map == null) {
+			map = new TreeMap<String, FileInfo>();
+			String result = null;
+			try {
+				result = getString();
+			}
+			catch(Exception e) {
+			}
+			if(result != null) {
+				String[] lines = result.split(newline);
+				map = transform(lines);
+			}
 		}
 		long end = System.currentTimeMillis();
 		logger.debug(location, jobid, "elapsed="+(end-start));
@@ -62,6 +62,16 @@ public class AlienWorkItemStateReader extends WorkItemStateReader {
 		String location = "getMap";
 		ConcurrentSkipListMap<Long,IWorkItemState> map = null;
 		map = new ConcurrentSkipListMap<Long,IWorkItemState>();
+		if(getWiVersion() > 1) {
+			try {
+				long records = fetchJournal(map, 0, lastRecordNo, maxRecords);
+				logger.debug(location, jobid, "records:"+records+" "+"size:"+map.size());
+			}
+			catch(Exception e) {
+				logger.debug(location, jobid, e);
+			}
+			return map;
+		}
 		fetch(map,fnActiveJson);
 		int sizeActive = map.size();
 		fetch(map,fnJson);
@@ -70,6 +80,44 @@ public class AlienWorkItemStateReader extends WorkItemStateReader {
 		return map;
 	}
 	
+	// the whole journal, read once per fetch when it cannot be read by range
+	private byte[] journal = null;
+	
+	@Override
+	protected long fetchJournal(ConcurrentSkipListMap<Long,IWorkItemState> map, long fromRecordNo, long lastRecordNo, long maxRecords) throws IOException {
+		try {
+			return super.fetchJournal(map, fromRecordNo, lastRecordNo, maxRecords);
+		}
+		finally {
+			journal = null;
+		}
+	}
+	
+	@Override
+	protected byte[] readJournal(long offset, int length) throws IOException {
+		String location = "readJournal";
+		byte[] retVal = null;
+		try {
+			AlienFile alienFile = new AlienFile(user, fnJournal);
+			if(alienFile.isRangeReadable()) {
+				retVal = alienFile.getBytes(offset, length);
+			}
+			else {
+				if(journal == null) {
+					journal = alienFile.getBytes();
+				}
+				retVal = AlienFile.slice(journal, offset, length);
+			}
+		}
+		catch(IOException e) {
+			throw e;
+		}
+		catch(Exception e) {
+			logger.debug(location, jobid, e);
+		}
+		return retVal;
+	}
+	
 	private Type wisType = new TypeToken<WorkItemState>() { }.getType();
 	
 	private IWorkItemState convert(ConcurrentSkipListMap<Long,IWorkItemState> map, String line) {
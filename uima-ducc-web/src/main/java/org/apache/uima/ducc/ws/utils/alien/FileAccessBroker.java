@@ -0,0 +1,446 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.utils.alien;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.apache.uima.ducc.common.utils.AlienAbstract;
+import org.apache.uima.ducc.common.utils.DuccLogger;
+import org.apache.uima.ducc.common.utils.DuccPropertiesResolver;
+import org.apache.uima.ducc.common.utils.IAlienFileAccess;
+import org.apache.uima.ducc.common.utils.Utils;
+import org.apache.uima.ducc.common.utils.id.DuccId;
+
+/**
+ * Pool of FileAccessHelper processes, each started through ducc_ling as one user
+ * and reused for that user's reads, stats and directory listings until it has been
+ * idle too long. When a user already has the maximum number of helpers busy, or a
+ * helper cannot be started, requests fail with an IOException and the Alien*
+ * readers fall back to running ducc_ling for the one file.
+ */
+public class FileAccessBroker implements IAlienFileAccess {
+	
+	private static DuccLogger logger = DuccLogger.getLogger(FileAccessBroker.class);
+	private static DuccId jobid = null;
+	
+	private static FileAccessBroker instance = null;
+	
+	// after a helper fails to start, go straight to ducc_ling for this long
+	private static long backoffMillis = 60*1000;
+	
+	private static String dashdash = "--";
+	
+	private String ducc_ling;
+	private int maxPerUser;
+	private long idleMillis;
+	
+	private Map<String, Deque<Helper>> idle = new HashMap<String, Deque<Helper>>();
+	private Map<String, Integer> live = new HashMap<String, Integer>();
+	private Map<String, Long> backoff = new HashMap<String, Long>();
+	
+	private Timer evictor;
+	private boolean stopped = false;
+	
+	/**
+	 * Create the pool and register it with the Alien* readers, unless disabled by
+	 * ducc.ws.file.helper.enabled.
+	 */
+	public static synchronized void start() {
+		String location = "start";
+		if(instance == null) {
+			DuccPropertiesResolver dpr = DuccPropertiesResolver.getInstance();
+			String enabled = dpr.getProperty(DuccPropertiesResolver.ducc_ws_file_helper_enabled);
+			if("false".equalsIgnoreCase(enabled)) {
+				logger.info(location, jobid, "disabled");
+				return;
+			}
+			int maxPerUser = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_file_helper_max_per_user, 2);
+			int idleSeconds = DuccPropertiesResolver.get(DuccPropertiesResolver.ducc_ws_file_helper_idle_seconds, 300);
+			String ducc_ling = Utils.resolvePlaceholderIfExists(System.getProperty("ducc.agent.launcher.ducc_spawn_path"),System.getProperties());
+			instance = new FileAccessBroker(ducc_ling, Math.max(1, maxPerUser), Math.max(1, idleSeconds)*1000L);
+			AlienAbstract.setFileAccess(instance);
+			logger.info(location, jobid, "max.per.user="+maxPerUser+" "+"idle.seconds="+idleSeconds);
+		}
+	}
+	
+	public static synchronized void stop() {
+		if(instance != null) {
+			AlienAbstract.setFileAccess(null);
+			instance.shutdown();
+			instance = null;
+		}
+	}
+	
+	/**
+	 * @return the running pool, or null if there is none
+	 */
+	public static synchronized FileAccessBroker getInstance() {
+		return instance;
+	}
+	
+	FileAccessBroker(String ducc_ling, int maxPerUser, long idleMillis) {
+		this.ducc_ling = ducc_ling;
+		this.maxPerUser = maxPerUser;
+		this.idleMillis = idleMillis;
+		evictor = new Timer("FileAccessBrokerEvictor", true);
+		long period = Math.max(1000, idleMillis/2);
+		evictor.schedule(new TimerTask() {
+			public void run() {
+				evict();
+			}
+		}, period, period);
+	}
+	
+	/**
+	 * A directory entry as reported by the helper.
+	 */
+	public static class ListEntry {
+		public String parent;
+		public String name;
+		public String permissions;
+		public String owner;
+		public String group;
+		public long size;
+		public long modified;
+		public boolean directory;
+	}
+	
+	@Override
+	public byte[] read(String user, String file, long offset, long length) throws IOException {
+		Helper helper = borrow(user);
+		boolean ok = false;
+		try {
+			byte[] bytes = helper.read(file, offset, length);
+			ok = true;
+			return bytes;
+		}
+		finally {
+			release(helper, ok);
+		}
+	}
+	
+	@Override
+	public long size(String user, String file) throws IOException {
+		Helper helper = borrow(user);
+		boolean ok = false;
+		try {
+			long size = helper.size(file);
+			ok = true;
+			return size;
+		}
+		finally {
+			release(helper, ok);
+		}
+	}
+	
+	/**
+	 * @return the entries of the directory, and of its subdirectories if recursive,
+	 *         or null if the directory is missing or unreadable
+	 */
+	public List<ListEntry> list(String user, String directory, boolean recursive) throws IOException {
+		Helper helper = borrow(user);
+		boolean ok = false;
+		try {
+			List<ListEntry> list = helper.list(directory, recursive);
+			ok = true;
+			return list;
+		}
+		finally {
+			release(helper, ok);
+		}
+	}
+	
+	private static String key(String user) {
+		return (user == null) ? "" : user;
+	}
+	
+	private int live(String key) {
+		Integer count = live.get(key);
+		return (count == null) ? 0 : count;
+	}
+	
+	private Helper borrow(String user) throws IOException {
+		String location = "borrow";
+		String key = key(user);
+		synchronized(this) {
+			if(stopped) {
+				throw new IOException("stopped");
+			}
+			Deque<Helper> deque = idle.get(key);
+			if(deque != null && !deque.isEmpty()) {
+				return deque.pop();
+			}
+			Long until = backoff.get(key);
+			if(until != null && until > System.currentTimeMillis()) {
+				throw new IOException("no helper for "+key);
+			}
+			if(live(key) >= maxPerUser) {
+				throw new IOException("all helpers busy for "+key);
+			}
+			live.put(key, live(key)+1);
+		}
+		try {
+			Helper helper = new Helper(user, getCommand(user));
+			logger.debug(location, jobid, "started helper for "+key);
+			return helper;
+		}
+		catch(IOException e) {
+			synchronized(this) {
+				live.put(key, live(key)-1);
+				backoff.put(key, System.currentTimeMillis()+backoffMillis);
+			}
+			logger.warn(location, jobid, "unable to start helper for "+key, e.getMessage());
+			throw e;
+		}
+	}
+	
+	private void release(Helper helper, boolean ok) {
+		String key = key(helper.user);
+		synchronized(this) {
+			if(ok && !stopped) {
+				helper.lastUsed = System.currentTimeMillis();
+				Deque<Helper> deque = idle.get(key);
+				if(deque == null) {
+					deque = new ArrayDeque<Helper>();
+					idle.put(key, deque);
+				}
+				deque.push(helper);
+				return;
+			}
+			live.put(key, live(key)-1);
+		}
+		helper.close();
+	}
+	
+	private void evict() {
+		String location = "evict";
+		List<Helper> expired = new ArrayList<Helper>();
+		long now = System.currentTimeMillis();
+		synchronized(this) {
+			Iterator<Entry<String, Deque<Helper>>> iterator = idle.entrySet().iterator();
+			while(iterator.hasNext()) {
+				Entry<String, Deque<Helper>> entry = iterator.next();
+				Deque<Helper> deque = entry.getValue();
+				// most recently used first, so the stale ones are at the end
+				while(!deque.isEmpty() && (now - deque.peekLast().lastUsed) > idleMillis) {
+					expired.add(deque.removeLast());
+					live.put(entry.getKey(), live(entry.getKey())-1);
+				}
+				if(deque.isEmpty()) {
+					iterator.remove();
+				}
+			}
+		}
+		for(Helper helper : expired) {
+			logger.debug(location, jobid, "stopped idle helper for "+key(helper.user));
+			helper.close();
+		}
+	}
+	
+	private synchronized List<Helper> drain() {
+		stopped = true;
+		List<Helper> helpers = new ArrayList<Helper>();
+		for(Deque<Helper> deque : idle.values()) {
+			helpers.addAll(deque);
+		}
+		idle.clear();
+		return helpers;
+	}
+	
+	private void shutdown() {
+		evictor.cancel();
+		for(Helper helper : drain()) {
+			helper.close();
+		}
+	}
+	
+	/*
+	 * The helper needs nothing but its own class, so give it just the
+	 * jar (or directory) it came from.
+	 */
+	private static String getClasspath() {
+		try {
+			return new File(FileAccessHelper.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+		}
+		catch(Exception e) {
+			return System.getProperty("java.class.path");
+		}
+	}
+	
+	private String[] getCommand(String user) {
+		String java = System.getProperty("java.home")+File.separator+"bin"+File.separator+"java";
+		String classpath = getClasspath();
+		String[] command_ducc_ling_yes = { ducc_ling, "-q", "-u", user, dashdash, java, "-Xmx32m", "-Xss512k", "-XX:+UseSerialGC", "-cp", classpath, FileAccessHelper.class.getName() };
+		String[] command_ducc_ling_no  = { java, "-Xmx32m", "-Xss512k", "-XX:+UseSerialGC", "-cp", classpath, FileAccessHelper.class.getName() };
+		String[] command = command_ducc_ling_yes;
+		if(ducc_ling == null) {
+			command = command_ducc_ling_no;
+		}
+		else if(user == null) {
+			command = command_ducc_ling_no;
+		}
+		return command;
+	}
+	
+	/**
+	 * One helper process; used by one thread at a time.
+	 */
+	static class Helper {
+		
+		private String user;
+		private Process process;
+		private DataInputStream in;
+		private DataOutputStream out;
+		private long lastUsed;
+		
+		Helper(String user, String[] command) throws IOException {
+			this.user = user;
+			ProcessBuilder pb = new ProcessBuilder(command);
+			pb.redirectError(new File("/dev/null"));
+			process = pb.start();
+			greet(new DataInputStream(new BufferedInputStream(process.getInputStream())), new DataOutputStream(new BufferedOutputStream(process.getOutputStream())));
+		}
+		
+		/*
+		 * A helper already running at the other end of the streams
+		 */
+		Helper(String user, DataInputStream in, DataOutputStream out) throws IOException {
+			this.user = user;
+			greet(in, out);
+		}
+		
+		private void greet(DataInputStream in, DataOutputStream out) throws IOException {
+			this.in = in;
+			this.out = out;
+			try {
+				int magic = in.readInt();
+				int version = in.readInt();
+				if(magic != FileAccessHelper.MAGIC || version != FileAccessHelper.VERSION) {
+					throw new IOException("unexpected helper greeting "+magic+"/"+version);
+				}
+			}
+			catch(IOException e) {
+				close();
+				throw e;
+			}
+		}
+		
+		private void request(byte op, String path) throws IOException {
+			out.writeByte(op);
+			out.writeUTF(path);
+		}
+		
+		byte[] read(String file, long offset, long length) throws IOException {
+			request(FileAccessHelper.OP_READ, file);
+			out.writeLong(offset);
+			out.writeLong(length);
+			out.flush();
+			if(in.readByte() != FileAccessHelper.RC_OK) {
+				return null;
+			}
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			while(true) {
+				int n = in.readInt();
+				if(n == 0) {
+					return baos.toByteArray();
+				}
+				if(n < 0) {
+					return null;
+				}
+				if(n > buffer.length) {
+					buffer = new byte[n];
+				}
+				in.readFully(buffer, 0, n);
+				baos.write(buffer, 0, n);
+			}
+		}
+		
+		long size(String file) throws IOException {
+			request(FileAccessHelper.OP_STAT, file);
+			out.flush();
+			if(in.readByte() != FileAccessHelper.RC_OK) {
+				return -1;
+			}
+			long size = in.readLong();
+			in.readBoolean();
+			in.readLong();
+			return size;
+		}
+		
+		List<ListEntry> list(String directory, boolean recursive) throws IOException {
+			request(FileAccessHelper.OP_LIST, directory);
+			out.writeBoolean(recursive);
+			out.flush();
+			if(in.readByte() != FileAccessHelper.RC_OK) {
+				return null;
+			}
+			List<ListEntry> list = new ArrayList<ListEntry>();
+			while(in.readBoolean()) {
+				ListEntry entry = new ListEntry();
+				entry.parent = in.readUTF();
+				entry.name = in.readUTF();
+				entry.permissions = in.readUTF();
+				entry.owner = in.readUTF();
+				entry.group = in.readUTF();
+				entry.size = in.readLong();
+				entry.modified = in.readLong();
+				entry.directory = in.readBoolean();
+				list.add(entry);
+			}
+			return list;
+		}
+		
+		/*
+		 * Closing stdin makes the helper exit; it runs as another user so
+		 * it may not be ours to signal.
+		 */
+		void close() {
+			try {
+				out.close();
+			}
+			catch(Exception e) {
+			}
+			try {
+				in.close();
+			}
+			catch(Exception e) {
+			}
+			if(process != null) {
+				process.destroy();
+			}
+		}
+	}
+}
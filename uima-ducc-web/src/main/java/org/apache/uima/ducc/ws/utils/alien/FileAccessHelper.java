@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.utils.alien;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * Long-lived file reader started once per user through ducc_ling by the
+ * FileAccessBroker. It serves framed requests on stdin and answers on
+ * stdout until stdin is closed.
+ * 
+ * Request:  byte op, UTF path, then
+ *           READ: long offset, long length (-1 for the rest of the file)
+ *           STAT: nothing
+ *           LIST: boolean recursive
+ * Response: byte rc; when rc is OK
+ *           READ: { int n, n bytes }* terminated by int 0, or int -1 if the read failed part way
+ *           STAT: long size, boolean directory, long modified
+ *           LIST: { boolean true, UTF parent, UTF name, UTF permissions, UTF owner, UTF group, long size, long modified, boolean directory }* boolean false
+ * 
+ * This runs as the user, so it uses nothing but the JDK and never writes to stdout
+ * except to answer.
+ */
+public class FileAccessHelper {
+	
+	public static final int MAGIC = 0x44554343;		// "DUCC"
+	public static final int VERSION = 1;
+	
+	public static final byte OP_READ = 1;
+	public static final byte OP_STAT = 2;
+	public static final byte OP_LIST = 3;
+	
+	public static final byte RC_OK = 0;
+	public static final byte RC_MISSING = 1;
+	public static final byte RC_DENIED = 2;
+	public static final byte RC_ERROR = 3;
+	
+	private static final int CHUNK = 64*1024;
+	
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK);
+	
+	FileAccessHelper(DataInputStream in, DataOutputStream out) {
+		this.in = in;
+		this.out = out;
+	}
+	
+	private static byte rc(IOException e) {
+		if(e instanceof NoSuchFileException) {
+			return RC_MISSING;
+		}
+		if(e instanceof AccessDeniedException) {
+			return RC_DENIED;
+		}
+		return RC_ERROR;
+	}
+	
+	private void read(String file, long offset, long length) throws IOException {
+		FileChannel fc;
+		try {
+			fc = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+		}
+		catch(IOException e) {
+			out.writeByte(rc(e));
+			return;
+		}
+		try {
+			out.writeByte(RC_OK);
+			long position = Math.max(0, offset);
+			long remaining = (length < 0) ? Long.MAX_VALUE : length;
+			while(remaining > 0) {
+				buffer.clear();
+				if(remaining < buffer.capacity()) {
+					buffer.limit((int) remaining);
+				}
+				int n;
+				try {
+					n = fc.read(buffer, position);
+				}
+				catch(IOException e) {
+					out.writeInt(-1);
+					return;
+				}
+				if(n < 0) {
+					break;
+				}
+				out.writeInt(n);
+				out.write(buffer.array(), 0, n);
+				position += n;
+				remaining -= n;
+			}
+			out.writeInt(0);
+		}
+		finally {
+			fc.close();
+		}
+	}
+	
+	private void stat(String file) throws IOException {
+		PosixFileAttributes attrs;
+		try {
+			attrs = Files.readAttributes(Paths.get(file), PosixFileAttributes.class);
+		}
+		catch(IOException e) {
+			out.writeByte(rc(e));
+			return;
+		}
+		out.writeByte(RC_OK);
+		out.writeLong(attrs.size());
+		out.writeBoolean(attrs.isDirectory());
+		out.writeLong(attrs.lastModifiedTime().toMillis());
+	}
+	
+	private static String permissions(PosixFileAttributes attrs) {
+		char type = '-';
+		if(attrs.isDirectory()) {
+			type = 'd';
+		}
+		else if(attrs.isOther()) {
+			type = '?';
+		}
+		return type+PosixFilePermissions.toString(attrs.permissions());
+	}
+	
+	private static String child(String parent, String name) {
+		if(parent.endsWith("/")) {
+			return parent+name;
+		}
+		return parent+"/"+name;
+	}
+	
+	/*
+	 * Like ls -al[R]: hidden entries are included, symbolic links are
+	 * neither reported nor followed, unreadable subdirectories are skipped.
+	 */
+	private void list(String parent, DirectoryStream<Path> entries, boolean recursive) throws IOException {
+		try {
+			for(Path path : entries) {
+				PosixFileAttributes attrs;
+				try {
+					attrs = Files.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				}
+				catch(IOException e) {
+					continue;
+				}
+				if(attrs.isSymbolicLink()) {
+					continue;
+				}
+				String name = path.getFileName().toString();
+				out.writeBoolean(true);
+				out.writeUTF(parent);
+				out.writeUTF(name);
+				out.writeUTF(permissions(attrs));
+				out.writeUTF(attrs.owner().getName());
+				out.writeUTF(attrs.group().getName());
+				out.writeLong(attrs.size());
+				out.writeLong(attrs.lastModifiedTime().toMillis());
+				out.writeBoolean(attrs.isDirectory());
+				if(recursive && attrs.isDirectory()) {
+					DirectoryStream<Path> children;
+					try {
+						children = Files.newDirectoryStream(path);
+					}
+					catch(IOException e) {
+						continue;
+					}
+					list(child(parent, name), children, recursive);
+				}
+			}
+		}
+		finally {
+			entries.close();
+		}
+	}
+	
+	private void list(String directory, boolean recursive) throws IOException {
+		DirectoryStream<Path> entries;
+		try {
+			entries = Files.newDirectoryStream(Paths.get(directory));
+		}
+		catch(IOException e) {
+			out.writeByte(rc(e));
+			return;
+		}
+		out.writeByte(RC_OK);
+		list(directory, entries, recursive);
+		out.writeBoolean(false);
+	}
+	
+	void serve() throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.flush();
+		while(true) {
+			byte op;
+			try {
+				op = in.readByte();
+			}
+			catch(EOFException e) {
+				return;
+			}
+			String path = in.readUTF();
+			switch(op) {
+			case OP_READ:
+				long offset = in.readLong();
+				long length = in.readLong();
+				read(path, offset, length);
+				break;
+			case OP_STAT:
+				stat(path);
+				break;
+			case OP_LIST:
+				boolean recursive = in.readBoolean();
+				list(path, recursive);
+				break;
+			default:
+				// the broker and helper are out of step, nothing sensible to do
+				return;
+			}
+			out.flush();
+		}
+	}
+	
+	public static void main(String[] args) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), CHUNK+8));
+		// stdout carries the protocol, keep stray output off it
+		System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.err)));
+		DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+		new FileAccessHelper(in, out).serve();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import org.apache.uima.ducc.ws.history.HistorySegment.LongColumn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistoryIndexTest {
+	
+	private static final int rowsPerSegment = 4;
+	private static final long maxRetained = 6;
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("history", "");
+		directory.delete();
+		assertTrue(directory.mkdirs());
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		File[] files = directory.listFiles();
+		if(files != null) {
+			for(File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+	
+	private HistoryIndex mkIndex() {
+		return new HistoryIndex(directory, rowsPerSegment, 64) {
+			@Override
+			long getMaxRetained() {
+				return maxRetained;
+			}
+		};
+	}
+	
+	private void add(HistoryIndex index, long from, long to) throws Exception {
+		for(long id = from; id < to; id++) {
+			HistoryJobInfo info = index.append(HistorySegmentTest.mkLongs(id), HistorySegmentTest.mkStrings("user", "job "+id));
+			assertEquals(id, info.getFriendly());
+		}
+	}
+	
+	private int countFiles() {
+		return directory.list().length;
+	}
+	
+	@Test
+	public void testAppendReopen() throws Exception {
+		HistoryIndex index = mkIndex();
+		assertEquals(-1, index.getMaxId());
+		add(index, 0, 6);
+		assertEquals(6, index.size());
+		assertEquals(5, index.getMaxId());
+		assertEquals(2, index.getSegmentCount());
+		
+		HistoryIndex reopened = mkIndex();
+		assertEquals(6, reopened.size());
+		assertEquals(5, reopened.getMaxId());
+		// the partly filled segment is appended to rather than a new one started
+		add(reopened, 6, 8);
+		assertEquals(2, reopened.getSegmentCount());
+		assertEquals(2, countFiles());
+		
+		List<HistoryJobInfo> jobs = mkIndex().getJobs(3);
+		assertEquals(3, jobs.size());
+		assertEquals(7, jobs.get(0).getFriendly());
+		assertEquals(6, jobs.get(1).getFriendly());
+		assertEquals(5, jobs.get(2).getFriendly());
+		HistoryJobInfo info = reopened.get(6);
+		assertEquals(6, info.getSegment().getLong(LongColumn.ID, 2));
+	}
+	
+	@Test
+	public void testRollAndRetain() throws Exception {
+		HistoryIndex index = mkIndex();
+		add(index, 0, 4);
+		assertEquals(1, index.getSegmentCount());
+		add(index, 4, 5);
+		assertEquals(2, index.getSegmentCount());
+		add(index, 5, 9);
+		// 0-3, 4-7 and 8: dropping 0-3 would leave fewer than maxRetained
+		assertEquals(3, index.getSegmentCount());
+		add(index, 9, 12);
+		// segments are only dropped when a new one is started
+		assertEquals(3, index.getSegmentCount());
+		add(index, 12, 13);
+		// 4-7, 8-11 and 12 alone hold at least maxRetained
+		assertEquals(3, index.getSegmentCount());
+		assertEquals(3, countFiles());
+		assertEquals(9, index.size());
+		for(long id = 0; id < 4; id++) {
+			assertNull(index.get(id));
+		}
+		for(long id = 4; id < 13; id++) {
+			assertEquals(id, index.get(id).getFriendly());
+		}
+		assertEquals(9, index.getJobs(100).size());
+		assertFalse(new File(directory, "jobs.0.seg").exists());
+		// the retained segments are what a restart sees
+		HistoryIndex reopened = mkIndex();
+		assertEquals(9, reopened.size());
+		assertNull(reopened.get(3));
+	}
+	
+	@Test
+	public void testTornSegmentDiscarded() throws Exception {
+		HistoryIndex index = mkIndex();
+		add(index, 0, 6);
+		// a crash while a segment was being created
+		File torn = new File(directory, "jobs.2.seg");
+		FileOutputStream out = new FileOutputStream(torn);
+		try {
+			out.write(new byte[16]);
+		}
+		finally {
+			out.close();
+		}
+		HistoryIndex reopened = mkIndex();
+		assertFalse(torn.exists());
+		assertEquals(6, reopened.size());
+		assertEquals(2, reopened.getSegmentCount());
+		// and indexing carries on in the partly filled segment
+		add(reopened, 6, 7);
+		assertEquals(7, mkIndex().size());
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.apache.uima.ducc.ws.history.HistorySegment.LongColumn;
+import org.apache.uima.ducc.ws.history.HistorySegment.StringColumn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HistorySegmentTest {
+	
+	// header fields, as laid out by HistorySegment
+	private static final int H_MAGIC = 0;
+	private static final int H_CAPACITY = 8;
+	private static final int H_COUNT = 16;
+	private static final int H_HEAP_USED = 20;
+	
+	private File file;
+	
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("jobs.", ".seg");
+		file.delete();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		file.delete();
+	}
+	
+	static long[] mkLongs(long id) {
+		long[] longs = new long[LongColumn.values().length];
+		for(int i = 0; i < longs.length; i++) {
+			longs[i] = id * 100 + i;
+		}
+		longs[LongColumn.ID.ordinal()] = id;
+		longs[LongColumn.WI_MEAN.ordinal()] = Double.doubleToLongBits(id + 0.5);
+		return longs;
+	}
+	
+	static String[] mkStrings(String user, String description) {
+		String[] strings = new String[StringColumn.values().length];
+		strings[StringColumn.USER.ordinal()] = user;
+		strings[StringColumn.DESCRIPTION.ordinal()] = description;
+		strings[StringColumn.STATE.ordinal()] = "Completed";
+		strings[StringColumn.SERVICES.ordinal()] = "";
+		return strings;
+	}
+	
+	private void putInt(int position, int value) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(position);
+			raf.writeInt(value);
+		}
+		finally {
+			raf.close();
+		}
+	}
+	
+	private void expectBad() {
+		try {
+			HistorySegment.open(file, 0);
+			fail("opened "+file);
+		}
+		catch(IOException e) {
+			// as expected
+		}
+	}
+	
+	@Test
+	public void testAppendReopen() throws Exception {
+		HistorySegment segment = HistorySegment.create(file, 7, 16, 16*64);
+		for(int id = 0; id < 10; id++) {
+			assertEquals(id, segment.append(mkLongs(id), mkStrings("user"+(id%3), "job "+id)));
+		}
+		segment.seal();
+		HistorySegment reopened = HistorySegment.open(file, 7);
+		assertEquals(7, reopened.getSequence());
+		assertEquals(10, reopened.getCount());
+		assertEquals(segment.getHeapUsed(), reopened.getHeapUsed());
+		for(int row = 0; row < 10; row++) {
+			long[] longs = mkLongs(row);
+			for(LongColumn column : LongColumn.values()) {
+				assertEquals(longs[column.ordinal()], reopened.getLong(column, row));
+			}
+			assertTrue(reopened.getDouble(LongColumn.WI_MEAN, row) == row + 0.5);
+			assertEquals("user"+(row%3), reopened.getString(StringColumn.USER, row));
+			assertEquals("job "+row, reopened.getString(StringColumn.DESCRIPTION, row));
+			assertEquals("", reopened.getString(StringColumn.SERVICES, row));
+			assertNull(reopened.getString(StringColumn.RATIONALE, row));
+		}
+		// appending continues after the reopened rows
+		assertEquals(10, reopened.append(mkLongs(10), mkStrings("user1", "job 10")));
+		assertEquals(10, HistorySegment.open(file, 7).getLong(LongColumn.ID, 10));
+	}
+	
+	@Test
+	public void testDictionary() throws Exception {
+		HistorySegment segment = HistorySegment.create(file, 0, 16, 16*64);
+		String unicode = "r\u00e9sum\u00e9 \u4e2d\u6587 \ud83d\ude00";
+		segment.append(mkLongs(1), mkStrings("alice", unicode));
+		int heapUsed = segment.getHeapUsed();
+		// all values already in the heap
+		segment.append(mkLongs(2), mkStrings("alice", unicode));
+		assertEquals(heapUsed, segment.getHeapUsed());
+		assertEquals(unicode, segment.getString(StringColumn.DESCRIPTION, 1));
+		segment.seal();
+		// the dictionary is rebuilt from the rows on open
+		HistorySegment reopened = HistorySegment.open(file, 0);
+		reopened.append(mkLongs(3), mkStrings("alice", unicode));
+		assertEquals(heapUsed, reopened.getHeapUsed());
+		reopened.append(mkLongs(4), mkStrings("bob", unicode));
+		assertEquals(heapUsed + 4 + "bob".length(), reopened.getHeapUsed());
+		for(int row = 0; row < 4; row++) {
+			assertEquals(unicode, reopened.getString(StringColumn.DESCRIPTION, row));
+		}
+		assertEquals("bob", reopened.getString(StringColumn.USER, 3));
+	}
+	
+	@Test
+	public void testFull() throws Exception {
+		HistorySegment segment = HistorySegment.create(file, 0, 4, 64);
+		for(int id = 0; id < 4; id++) {
+			assertEquals(id, segment.append(mkLongs(id), mkStrings("u", null)));
+		}
+		assertTrue(segment.isFull());
+		assertEquals(-1, segment.append(mkLongs(4), mkStrings("u", null)));
+		// no room in the heap
+		HistorySegment small = HistorySegment.create(new File(file.getPath()+".small"), 1, 4, 32);
+		try {
+			assertEquals(-1, small.append(mkLongs(0), mkStrings("u", "a description longer than the heap")));
+			assertEquals(0, small.getCount());
+			assertEquals(0, small.getHeapUsed());
+		}
+		finally {
+			small.getFile().delete();
+		}
+	}
+	
+	@Test
+	public void testTornHeader() throws Exception {
+		HistorySegment segment = HistorySegment.create(file, 0, 8, 8*64);
+		for(int id = 0; id < 4; id++) {
+			segment.append(mkLongs(id), mkStrings("user"+id, "job "+id));
+		}
+		segment.seal();
+		long length = file.length();
+		int heapUsed = segment.getHeapUsed();
+		
+		// the rows counted reach past the heap written
+		putInt(H_HEAP_USED, heapUsed / 2);
+		expectBad();
+		putInt(H_HEAP_USED, heapUsed);
+		putInt(H_COUNT, 9);
+		expectBad();
+		putInt(H_COUNT, -1);
+		expectBad();
+		putInt(H_COUNT, 4);
+		putInt(H_CAPACITY, 0);
+		expectBad();
+		putInt(H_CAPACITY, 8);
+		assertEquals(4, HistorySegment.open(file, 0).getCount());
+		
+		// created, but the magic number never made it
+		putInt(H_MAGIC, 0);
+		expectBad();
+		
+		// partial header
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(16);
+		}
+		finally {
+			raf.close();
+		}
+		expectBad();
+		raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(length - 1);
+		}
+		finally {
+			raf.close();
+		}
+		expectBad();
+	}
+}
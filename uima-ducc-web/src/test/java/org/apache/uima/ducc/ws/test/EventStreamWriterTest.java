@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.uima.ducc.ws.server.EventStreamWriter;
+import org.junit.Test;
+
+public class EventStreamWriterTest {
+	
+	/**
+	 * An output whose readiness is under the test's control, 
+	 * as for a client that reads (or not).
+	 */
+	private static class Output extends ServletOutputStream {
+		
+		ByteArrayOutputStream written = new ByteArrayOutputStream();
+		WriteListener writeListener;
+		boolean ready = true;
+		boolean fail = false;
+		int flushes = 0;
+		
+		public boolean isReady() {
+			return ready;
+		}
+		
+		public void setWriteListener(WriteListener writeListener) {
+			this.writeListener = writeListener;
+		}
+		
+		public void write(int b) throws IOException {
+			if(fail) {
+				throw new IOException("broken pipe");
+			}
+			written.write(b);
+		}
+		
+		public void flush() throws IOException {
+			flushes++;
+		}
+		
+		String getWritten() {
+			return new String(written.toByteArray());
+		}
+		
+		// the container noticing the client has read
+		void drained() throws IOException {
+			ready = true;
+			writeListener.onWritePossible();
+		}
+	}
+	
+	private static class Closed implements EventStreamWriter.Listener {
+		
+		List<Throwable> calls = new ArrayList<Throwable>();
+		
+		public void onClosed(EventStreamWriter writer, Throwable throwable) {
+			calls.add(throwable);
+		}
+	}
+	
+	private EventStreamWriter start(Output out, int maxQueued, Closed closed) throws IOException {
+		EventStreamWriter writer = new EventStreamWriter(out, maxQueued, closed);
+		writer.start();
+		assertTrue(out.writeListener == writer);
+		out.writeListener.onWritePossible();
+		return writer;
+	}
+	
+	@Test
+	public void testNothingWrittenBeforeStart() throws Exception {
+		Output out = new Output();
+		Closed closed = new Closed();
+		EventStreamWriter writer = new EventStreamWriter(out, 4, closed);
+		writer.start();
+		assertTrue(writer.offer("a".getBytes()));
+		assertEquals("", out.getWritten());
+		out.writeListener.onWritePossible();
+		assertEquals("a", out.getWritten());
+		assertEquals(1, out.flushes);
+	}
+	
+	@Test
+	public void testWrittenInOrderAndFlushed() throws Exception {
+		Output out = new Output();
+		Closed closed = new Closed();
+		EventStreamWriter writer = start(out, 4, closed);
+		for(int i = 0; i < 10; i++) {
+			assertTrue(writer.offer((""+i).getBytes()));
+		}
+		assertEquals("0123456789", out.getWritten());
+		assertEquals(10, out.flushes);
+		assertEquals(0, writer.getQueued());
+		assertTrue(closed.calls.isEmpty());
+	}
+	
+	@Test
+	public void testQueuedWhileNotReady() throws Exception {
+		Output out = new Output();
+		Closed closed = new Closed();
+		EventStreamWriter writer = start(out, 4, closed);
+		out.ready = false;
+		assertTrue(writer.offer("a".getBytes()));
+		assertTrue(writer.offer("b".getBytes()));
+		assertEquals("", out.getWritten());
+		assertEquals(2, writer.getQueued());
+		out.drained();
+		assertEquals("ab", out.getWritten());
+		assertEquals(0, writer.getQueued());
+		assertFalse(writer.isClosed());
+	}
+	
+	@Test
+	public void testSlowSubscriberDropped() throws Exception {
+		Output out = new Output();
+		Closed closed = new Closed();
+		EventStreamWriter writer = start(out, 3, closed);
+		out.ready = false;
+		for(int i = 0; i < 3; i++) {
+			assertTrue(writer.offer("x".getBytes()));
+		}
+		assertFalse(writer.offer("x".getBytes()));
+		assertTrue(writer.isClosed());
+		assertEquals(0, writer.getQueued());
+		assertEquals(1, closed.calls.size());
+		assertNull(closed.calls.get(0));
+		// once closed nothing more is taken, nor written
+		assertFalse(writer.offer("y".getBytes()));
+		out.drained();
+		assertEquals("", out.getWritten());
+		assertEquals(1, closed.calls.size());
+	}
+	
+	@Test
+	public void testWriteFailure() throws Exception {
+		Output out = new Output();
+		Closed closed = new Closed();
+		EventStreamWriter writer = start(out, 4, closed);
+		out.fail = true;
+		assertFalse(writer.offer("a".getBytes()));
+		assertTrue(writer.isClosed());
+		assertEquals(1, closed.calls.size());
+		assertTrue(closed.calls.get(0) instanceof IOException);
+		// the container reporting the same failure is not a second close
+		writer.onError(new IOException("again"));
+		assertEquals(1, closed.calls.size());
+	}
+}
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+*/
+package org.apache.uima.ducc.ws.utils.alien;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.uima.ducc.ws.utils.alien.FileAccessBroker.Helper;
+import org.apache.uima.ducc.ws.utils.alien.FileAccessBroker.ListEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileAccessHelperTest {
+	
+	private static final int PIPE = 256*1024;
+	
+	private File dir;
+	private File file;
+	private byte[] content;
+	
+	private Thread server;
+	private Exception failure;
+	private DataOutputStream requests;
+	private Helper helper;
+	
+	@Before
+	public void setUp() throws Exception {
+		dir = File.createTempFile("helper.", ".dir");
+		dir.delete();
+		dir.mkdir();
+		// bigger than one chunk, so a read spans several frames
+		content = new byte[150*1000];
+		for(int i = 0; i < content.length; i++) {
+			content[i] = (byte) (i % 251);
+		}
+		file = new File(dir, "data");
+		write(file, content);
+		File sub = new File(dir, "sub");
+		sub.mkdir();
+		write(new File(sub, "leaf"), new byte[] { 1, 2, 3 });
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		if(helper != null) {
+			helper.close();
+		}
+		if(server != null) {
+			server.join(10000);
+			assertFalse(server.isAlive());
+			assertNull(failure);
+		}
+		delete(dir);
+	}
+	
+	private static void write(File file, byte[] bytes) throws IOException {
+		FileOutputStream fos = new FileOutputStream(file);
+		try {
+			fos.write(bytes);
+		}
+		finally {
+			fos.close();
+		}
+	}
+	
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if(children != null) {
+			for(File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+	
+	/*
+	 * Serve on one thread, as the helper JVM would, and talk to it
+	 * through the broker's side of the protocol.
+	 */
+	private Helper connect() throws Exception {
+		final PipedInputStream serverIn = new PipedInputStream(PIPE);
+		requests = new DataOutputStream(new PipedOutputStream(serverIn));
+		PipedInputStream clientIn = new PipedInputStream(PIPE);
+		final DataOutputStream serverOut = new DataOutputStream(new PipedOutputStream(clientIn));
+		server = new Thread() {
+			public void run() {
+				try {
+					new FileAccessHelper(new DataInputStream(serverIn), serverOut).serve();
+					serverOut.close();
+				}
+				catch(Exception e) {
+					failure = e;
+				}
+			}
+		};
+		server.start();
+		helper = new Helper("test", new DataInputStream(clientIn), requests);
+		return helper;
+	}
+	
+	/*
+	 * Run the helper over a fixed request stream and return its whole answer,
+	 * greeting included.
+	 */
+	private static DataInputStream serve(byte[] request) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(baos);
+		try {
+			new FileAccessHelper(new DataInputStream(new ByteArrayInputStream(request)), out).serve();
+		}
+		finally {
+			out.flush();
+		}
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		assertEquals(FileAccessHelper.MAGIC, in.readInt());
+		assertEquals(FileAccessHelper.VERSION, in.readInt());
+		return in;
+	}
+	
+	@Test
+	public void testRead() throws Exception {
+		Helper helper = connect();
+		String path = file.getAbsolutePath();
+		assertArrayEquals(content, helper.read(path, 0, -1));
+		assertArrayEquals(Arrays.copyOfRange(content, 70000, 70100), helper.read(path, 70000, 100));
+		// length past the end stops at the end
+		assertArrayEquals(Arrays.copyOfRange(content, content.length-10, content.length), helper.read(path, content.length-10, 1000));
+		// offset at or past the end reads nothing
+		assertEquals(0, helper.read(path, content.length, 10).length);
+		assertEquals(0, helper.read(path, content.length+1000, -1).length);
+		assertEquals(0, helper.read(path, 0, 0).length);
+		// missing file
+		assertNull(helper.read(new File(dir, "missing").getAbsolutePath(), 0, -1));
+		// still in step after all of the above
+		assertArrayEquals(Arrays.copyOfRange(content, 0, 5), helper.read(path, 0, 5));
+	}
+	
+	@Test
+	public void testStat() throws Exception {
+		Helper helper = connect();
+		assertEquals(content.length, helper.size(file.getAbsolutePath()));
+		assertEquals(-1, helper.size(new File(dir, "missing").getAbsolutePath()));
+		assertEquals(-1, helper.size(new File(file, "below-a-file").getAbsolutePath()));
+		assertEquals(content.length, helper.size(file.getAbsolutePath()));
+	}
+	
+	@Test
+	public void testList() throws Exception {
+		Helper helper = connect();
+		String path = dir.getAbsolutePath();
+		
+		List<ListEntry> list = helper.list(path, false);
+		assertEquals(2, list.size());
+		Map<String, ListEntry> map = new HashMap<String, ListEntry>();
+		for(ListEntry entry : list) {
+			assertEquals(path, entry.parent);
+			map.put(entry.name, entry);
+		}
+		ListEntry data = map.get("data");
+		assertFalse(data.directory);
+		assertEquals(content.length, data.size);
+		assertTrue(data.permissions.startsWith("-r"));
+		assertEquals(System.getProperty("user.name"), data.owner);
+		ListEntry sub = map.get("sub");
+		assertTrue(sub.directory);
+		assertTrue(sub.permissions.startsWith("d"));
+		
+		list = helper.list(path, true);
+		assertEquals(3, list.size());
+		ListEntry leaf = null;
+		for(ListEntry entry : list) {
+			if(entry.name.equals("leaf")) {
+				leaf = entry;
+			}
+		}
+		assertEquals(path+"/sub", leaf.parent);
+		assertEquals(3, leaf.size);
+		
+		assertNull(helper.list(new File(dir, "missing").getAbsolutePath(), true));
+	}
+	
+	/*
+	 * An unknown op means the two sides are out of step: the helper stops
+	 * without answering.
+	 */
+	@Test
+	public void testUnknownOp() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream request = new DataOutputStream(baos);
+		request.writeByte(FileAccessHelper.OP_STAT);
+		request.writeUTF(file.getAbsolutePath());
+		request.writeByte(99);
+		request.writeUTF(file.getAbsolutePath());
+		request.writeByte(FileAccessHelper.OP_STAT);
+		request.writeUTF(file.getAbsolutePath());
+		DataInputStream in = serve(baos.toByteArray());
+		assertEquals(FileAccessHelper.RC_OK, in.readByte());
+		assertEquals(content.length, in.readLong());
+		in.readBoolean();
+		in.readLong();
+		assertEquals(0, in.available());
+	}
+	
+	/*
+	 * A request cut short fails the helper rather than being answered
+	 * from a partial frame.
+	 */
+	@Test
+	public void testTruncatedRequest() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream request = new DataOutputStream(baos);
+		request.writeByte(FileAccessHelper.OP_READ);
+		request.writeUTF(file.getAbsolutePath());
+		request.writeLong(0);
+		request.writeInt(0);
+		try {
+			serve(baos.toByteArray());
+			fail("truncated request served");
+		}
+		catch(EOFException e) {
+			// expected
+		}
+		// closed on a frame boundary is a normal end
+		DataInputStream in = serve(new byte[0]);
+		assertEquals(0, in.available());
+	}
+	
+	/*
+	 * The broker side gives up on an answer cut short, so the helper is not
+	 * returned to the pool out of step.
+	 */
+	@Test
+	public void testTruncatedResponse() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream response = new DataOutputStream(baos);
+		response.writeInt(FileAccessHelper.MAGIC);
+		response.writeInt(FileAccessHelper.VERSION);
+		response.writeByte(FileAccessHelper.RC_OK);
+		response.writeInt(100);
+		response.write(new byte[10]);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		Helper truncated = new Helper("test", in, new DataOutputStream(new ByteArrayOutputStream()));
+		try {
+			truncated.read(file.getAbsolutePath(), 0, -1);
+			fail("truncated response accepted");
+		}
+		catch(EOFException e) {
+			// expected
+		}
+		finally {
+			truncated.close();
+		}
+	}
+	
+	@Test
+	public void testBadGreeting() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream response = new DataOutputStream(baos);
+		response.writeInt(FileAccessHelper.MAGIC);
+		response.writeInt(FileAccessHelper.VERSION+1);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		try {
+			new Helper("test", in, new DataOutputStream(new ByteArrayOutputStream()));
+			fail("wrong version accepted");
+		}
+		catch(IOException e) {
+			// expected
+		}
+	}
+}